@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.lang.annotation.RetentionPolicy;
 import java.lang.annotation.Target;
 
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.JdkCacheSerializer;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 
 /**
@@ -44,6 +45,48 @@ public @interface CacheNamespace {
   
   boolean blocking() default false;
 
+  /**
+   * Maximum number of rows held over all cached results, 0 for no row bound.
+   * @since 3.4.7
+   */
+  long maxRows() default 0;
+
+  /**
+   * Maximum serialized length in bytes of all cached results, 0 for no byte bound. Requires {@link #readWrite()}.
+   * @since 3.4.7
+   */
+  long maxBytes() default 0;
+
+  /**
+   * Serializer that copies the values of a read-write cache.
+   * @since 3.4.7
+   */
+  Class<? extends org.apache.ibatis.cache.CacheSerializer> serializer() default JdkCacheSerializer.class;
+
+  /**
+   * Milliseconds after which each cached result expires, 0 for no per-entry expiry.
+   * @since 3.4.7
+   */
+  long timeToLive() default 0;
+
+  /**
+   * Milliseconds before expiry in which a read reloads the result in the background, 0 for no refresh-ahead.
+   * @since 3.4.7
+   */
+  long refreshAhead() default 0;
+
+  /**
+   * Whether statements with cache tags invalidate only the results tagged with the tables or rows they write.
+   * @since 3.4.7
+   */
+  boolean tagged() default false;
+
+  /**
+   * Transport that publishes the invalidations of the cache to other nodes, the interface itself for none.
+   * @since 3.4.7
+   */
+  Class<? extends org.apache.ibatis.cache.InvalidationTransport> invalidationTransport() default org.apache.ibatis.cache.InvalidationTransport.class;
+
   /**
    * Property values for a implementation object.
    * @since 3.4.2
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -33,4 +33,16 @@ public @interface One {
 
   FetchType fetchType() default FetchType.DEFAULT;
 
+  /**
+   * The maximum number of parent rows whose keys are passed at once to the select as a <code>list</code> parameter.
+   * @since 3.4.7
+   */
+  int batchSize() default 0;
+
+  /**
+   * The property of the select results that holds the key, their id if empty.
+   * @since 3.4.7
+   */
+  String batchKey() default "";
+
 }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -63,4 +63,16 @@ public @interface Options {
   String keyColumn() default "";
   
   String resultSets() default "";
+
+  /**
+   * Tables, or <code>table(property)</code> rows, that the statement reads or writes, see {@link org.apache.ibatis.cache.CacheTag}.
+   * @since 3.4.7
+   */
+  String cacheTags() default "";
+
+  /**
+   * Maps the rows of a select on a pool of worker threads, see the <code>parallelMapping</code> attribute of the select element.
+   * @since 3.4.7
+   */
+  boolean parallelMapping() default false;
 }
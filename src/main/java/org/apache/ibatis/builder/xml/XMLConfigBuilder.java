@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -43,6 +43,7 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.TransactionalCacheOverflowPolicy;
 import org.apache.ibatis.transaction.TransactionFactory;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
@@ -251,6 +252,18 @@ public class XMLConfigBuilder extends BaseBuilder {
     configuration.setMapUnderscoreToCamelCase(booleanValueOf(props.getProperty("mapUnderscoreToCamelCase"), false));
     configuration.setSafeRowBoundsEnabled(booleanValueOf(props.getProperty("safeRowBoundsEnabled"), false));
     configuration.setLocalCacheScope(LocalCacheScope.valueOf(props.getProperty("localCacheScope", "SESSION")));
+    configuration.setSkipUnusedCacheKeys(booleanValueOf(props.getProperty("skipUnusedCacheKeys"), false));
+    configuration.setCoalesceQueries(booleanValueOf(props.getProperty("coalesceQueries"), false));
+    configuration.setCoalesceWaitTimeout(integerValueOf(props.getProperty("coalesceWaitTimeout"), 1000));
+    configuration.setTransactionalCacheMaxEntries(integerValueOf(props.getProperty("transactionalCacheMaxEntries"), 0));
+    configuration.setTransactionalCacheOverflowPolicy(TransactionalCacheOverflowPolicy.valueOf(props.getProperty("transactionalCacheOverflowPolicy", "DISCARD_NEW")));
+    configuration.setAsyncCacheCommit(booleanValueOf(props.getProperty("asyncCacheCommit"), false));
+    configuration.setCacheMBeansEnabled(booleanValueOf(props.getProperty("cacheMBeansEnabled"), false));
+    configuration.setReadColumnsByIndex(booleanValueOf(props.getProperty("readColumnsByIndex"), false));
+    configuration.setUseCompiledRowMappers(booleanValueOf(props.getProperty("useCompiledRowMappers"), false));
+    configuration.setStreamNestedResults(booleanValueOf(props.getProperty("streamNestedResults"), false));
+    configuration.setUseCompactMapRows(booleanValueOf(props.getProperty("useCompactMapRows"), false));
+    configuration.setCompactMapRowsIgnoreCase(booleanValueOf(props.getProperty("compactMapRowsIgnoreCase"), false));
     configuration.setJdbcTypeForNull(JdbcType.valueOf(props.getProperty("jdbcTypeForNull", "OTHER")));
     configuration.setLazyLoadTriggerMethods(stringSetValueOf(props.getProperty("lazyLoadTriggerMethods"), "equals,clone,hashCode,toString"));
     configuration.setSafeResultHandlerEnabled(booleanValueOf(props.getProperty("safeResultHandlerEnabled"), true));
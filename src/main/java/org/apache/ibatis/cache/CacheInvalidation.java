@@ -0,0 +1,87 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * A clear of a whole cache, or a removal of the entries tagged with any of a set of {@link CacheTag}
+ * strings, sent to the other nodes of a cluster.
+ *
+ * @since 3.4.7
+ */
+public final class CacheInvalidation implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final String cacheId;
+  private final Set<String> tags;
+
+  private CacheInvalidation(String cacheId, Set<String> tags) {
+    this.cacheId = cacheId;
+    this.tags = tags;
+  }
+
+  public static CacheInvalidation clear(String cacheId) {
+    return new CacheInvalidation(cacheId, null);
+  }
+
+  public static CacheInvalidation tags(String cacheId, Collection<String> tags) {
+    return new CacheInvalidation(cacheId, Collections.unmodifiableSet(new LinkedHashSet<String>(tags)));
+  }
+
+  public String getCacheId() {
+    return cacheId;
+  }
+
+  public boolean isClear() {
+    return tags == null;
+  }
+
+  /**
+   * @return the invalidated tags or null for a clear
+   */
+  public Set<String> getTags() {
+    return tags;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof CacheInvalidation)) {
+      return false;
+    }
+    CacheInvalidation that = (CacheInvalidation) o;
+    return cacheId.equals(that.cacheId) && (tags == null ? that.tags == null : tags.equals(that.tags));
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * cacheId.hashCode() + (tags == null ? 0 : tags.hashCode());
+  }
+
+  @Override
+  public String toString() {
+    return isClear() ? "clear " + cacheId : "invalidate " + cacheId + " " + tags;
+  }
+
+}
@@ -0,0 +1,43 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Turns cached values into bytes and back for caches that keep copies, like
+ * {@link org.apache.ibatis.cache.decorators.SerializedCache} and {@link org.apache.ibatis.cache.impl.OffHeapCache}.
+ * <p>
+ * Implementations must be thread-safe and need a public no-arg constructor. Properties of the
+ * <code>&lt;cache&gt;</code> element are applied to the serializer as well when it has a matching setter.
+ *
+ * @since 3.4.7
+ */
+public interface CacheSerializer {
+
+  /**
+   * @param value the value to copy, may be null
+   * @return the serialized form of the value
+   * @throws CacheException if the value cannot be serialized
+   */
+  byte[] serialize(Object value);
+
+  /**
+   * @param data bytes returned by {@link #serialize(Object)} of this serializer
+   * @return a new copy of the value
+   * @throws CacheException if the bytes cannot be read
+   */
+  Object deserialize(byte[] data);
+
+}
@@ -0,0 +1,178 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters of a second level cache, updated without locking by the decorators that observe each event.
+ * <p>
+ * Hits, misses, puts, removals and clears are counted by {@link org.apache.ibatis.cache.decorators.LoggingCache},
+ * evictions by the eviction decorator, bytes by {@link org.apache.ibatis.cache.decorators.SerializedCache} and
+ * loads by the {@link org.apache.ibatis.executor.CachingExecutor} that ran the query after a miss.
+ * The statistics of a namespace are available from
+ * {@link org.apache.ibatis.session.Configuration#getCacheStatistics(String)}.
+ *
+ * @since 3.4.7
+ */
+public class CacheStatistics implements CacheStatisticsMXBean {
+
+  private final String id;
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong puts = new AtomicLong();
+  private final AtomicLong removals = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong clears = new AtomicLong();
+  private final AtomicLong bytes = new AtomicLong();
+  private final AtomicLong serializedEntries = new AtomicLong();
+  private final AtomicLong loads = new AtomicLong();
+  private final AtomicLong loadNanos = new AtomicLong();
+
+  public CacheStatistics(String id) {
+    this.id = id;
+  }
+
+  public void recordHit() {
+    hits.incrementAndGet();
+  }
+
+  public void recordMiss() {
+    misses.incrementAndGet();
+  }
+
+  public void recordPut() {
+    puts.incrementAndGet();
+  }
+
+  public void recordRemoval() {
+    removals.incrementAndGet();
+  }
+
+  public void recordEviction() {
+    evictions.incrementAndGet();
+  }
+
+  public void recordClear() {
+    clears.incrementAndGet();
+  }
+
+  /**
+   * @param entryBytes - the size of an entry put in serialized form
+   */
+  public void recordBytes(long entryBytes) {
+    bytes.addAndGet(entryBytes);
+    serializedEntries.incrementAndGet();
+  }
+
+  /**
+   * @param nanos - the time it took to query the database for a result that was missing
+   */
+  public void recordLoad(long nanos) {
+    loads.incrementAndGet();
+    loadNanos.addAndGet(nanos);
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public long getHits() {
+    return hits.get();
+  }
+
+  @Override
+  public long getMisses() {
+    return misses.get();
+  }
+
+  @Override
+  public double getHitRatio() {
+    long hitCount = hits.get();
+    long requests = hitCount + misses.get();
+    return requests == 0 ? 0 : (double) hitCount / (double) requests;
+  }
+
+  @Override
+  public long getPuts() {
+    return puts.get();
+  }
+
+  @Override
+  public long getRemovals() {
+    return removals.get();
+  }
+
+  @Override
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  @Override
+  public long getClears() {
+    return clears.get();
+  }
+
+  /**
+   * @return the total size of the entries put in serialized form, 0 unless the cache is read/write
+   */
+  @Override
+  public long getBytes() {
+    return bytes.get();
+  }
+
+  @Override
+  public double getAverageEntryBytes() {
+    long entries = serializedEntries.get();
+    return entries == 0 ? 0 : (double) bytes.get() / (double) entries;
+  }
+
+  @Override
+  public long getLoads() {
+    return loads.get();
+  }
+
+  @Override
+  public double getAverageLoadMillis() {
+    long loadCount = loads.get();
+    return loadCount == 0 ? 0 : (double) loadNanos.get() / loadCount / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public void reset() {
+    hits.set(0);
+    misses.set(0);
+    puts.set(0);
+    removals.set(0);
+    evictions.set(0);
+    clears.set(0);
+    bytes.set(0);
+    serializedEntries.set(0);
+    loads.set(0);
+    loadNanos.set(0);
+  }
+
+  @Override
+  public String toString() {
+    return "CacheStatistics [" + id + "]: hits=" + getHits() + ", misses=" + getMisses() + ", puts=" + getPuts()
+        + ", removals=" + getRemovals() + ", evictions=" + getEvictions() + ", clears=" + getClears()
+        + ", bytes=" + getBytes() + ", loads=" + getLoads();
+  }
+
+}
@@ -0,0 +1,167 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * A table, or the rows of a table identified by a parameter property, that a statement reads or writes.
+ * <p>
+ * Tags are declared as a comma separated list of <code>table</code> or <code>table(property)</code>
+ * items and resolve against the parameter object to strings such as <code>author</code> or
+ * <code>author:101</code>. A row tag invalidates the results tagged with the same row or with the whole
+ * table, a table tag invalidates every result tagged with the table.
+ *
+ * @since 3.4.7
+ */
+public final class CacheTag {
+
+  private static final char ROW_SEPARATOR = ':';
+
+  private final String table;
+  private final String property;
+
+  public CacheTag(String table, String property) {
+    this.table = table;
+    this.property = property;
+  }
+
+  public String getTable() {
+    return table;
+  }
+
+  /**
+   * @return the parameter property holding the row key or null for the whole table
+   */
+  public String getProperty() {
+    return property;
+  }
+
+  /**
+   * Adds the tag strings of this tag for a parameter object. A row tag whose property is null
+   * resolves to the whole table.
+   */
+  public void resolve(Configuration configuration, Object parameterObject, Collection<String> tags) {
+    if (property == null || parameterObject == null) {
+      tags.add(table);
+      return;
+    }
+    Object value;
+    if (configuration.getTypeHandlerRegistry().hasTypeHandler(parameterObject.getClass())) {
+      value = parameterObject;
+    } else {
+      MetaObject metaObject = configuration.newMetaObject(parameterObject);
+      value = metaObject.hasGetter(property) ? metaObject.getValue(property) : null;
+    }
+    if (value == null) {
+      tags.add(table);
+    } else if (value instanceof Collection) {
+      for (Object element : (Collection<?>) value) {
+        tags.add(rowTag(element));
+      }
+    } else if (value.getClass().isArray()) {
+      for (int i = 0, n = Array.getLength(value); i < n; i++) {
+        tags.add(rowTag(Array.get(value, i)));
+      }
+    } else {
+      tags.add(rowTag(value));
+    }
+  }
+
+  private String rowTag(Object key) {
+    return key == null ? table : table + ROW_SEPARATOR + key;
+  }
+
+  /**
+   * @return True if invalidating any of the given tags invalidates a result with the given tags,
+   *         a result without tags is invalidated by every tag
+   */
+  public static boolean matches(Set<String> resultTags, Collection<String> invalidatedTags) {
+    if (resultTags == null || resultTags.isEmpty()) {
+      return !invalidatedTags.isEmpty();
+    }
+    for (String tag : invalidatedTags) {
+      if (resultTags.contains(tag) || resultTags.contains(tableOf(tag))) {
+        return true;
+      }
+      if (!isRowTag(tag)) {
+        for (String resultTag : resultTags) {
+          if (tag.equals(tableOf(resultTag))) {
+            return true;
+          }
+        }
+      }
+    }
+    return false;
+  }
+
+  public static boolean isRowTag(String tag) {
+    return tag.indexOf(ROW_SEPARATOR) >= 0;
+  }
+
+  public static String tableOf(String tag) {
+    int separator = tag.indexOf(ROW_SEPARATOR);
+    return separator < 0 ? tag : tag.substring(0, separator);
+  }
+
+  /**
+   * Parses a comma separated list of <code>table</code> and <code>table(property)</code> items.
+   */
+  public static List<CacheTag> parse(String tags) {
+    if (tags == null || tags.trim().length() == 0) {
+      return Collections.emptyList();
+    }
+    List<CacheTag> cacheTags = new ArrayList<CacheTag>();
+    for (String item : tags.split(",")) {
+      item = item.trim();
+      if (item.length() == 0) {
+        continue;
+      }
+      int open = item.indexOf('(');
+      if (open < 0) {
+        cacheTags.add(new CacheTag(checkName(item, tags), null));
+      } else if (item.charAt(item.length() - 1) == ')') {
+        String table = checkName(item.substring(0, open).trim(), tags);
+        String property = checkName(item.substring(open + 1, item.length() - 1).trim(), tags);
+        cacheTags.add(new CacheTag(table, property));
+      } else {
+        throw new CacheException("Invalid cache tag '" + item + "' in '" + tags + "'.");
+      }
+    }
+    return Collections.unmodifiableList(cacheTags);
+  }
+
+  private static String checkName(String name, String tags) {
+    if (name.length() == 0 || name.indexOf(ROW_SEPARATOR) >= 0 || name.indexOf('(') >= 0 || name.indexOf(')') >= 0) {
+      throw new CacheException("Invalid cache tag name '" + name + "' in '" + tags + "'.");
+    }
+    return name;
+  }
+
+  @Override
+  public String toString() {
+    return property == null ? table : table + "(" + property + ")";
+  }
+
+}
@@ -0,0 +1,33 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+/**
+ * Estimates how much of a weight-bounded cache an entry takes.
+ *
+ * @see org.apache.ibatis.cache.decorators.WeightedCache
+ * @since 3.4.7
+ */
+public interface CacheWeigher {
+
+  /**
+   * @param key the cache key
+   * @param value the value as seen by the weighted decorator, a serialized copy when it sits below a read-write cache
+   * @return the weight of the entry, never negative
+   */
+  long weigh(Object key, Object value);
+
+}
@@ -0,0 +1,52 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import java.util.List;
+
+/**
+ * Carries the invalidations of second-level caches between the nodes of a cluster.
+ * <p>
+ * Implementations are created per cache and receive the properties of the cache element, they must
+ * not deliver a node's own invalidations back to it.
+ *
+ * @since 3.4.7
+ */
+public interface InvalidationTransport {
+
+  /**
+   * Starts listening for the invalidations of other nodes.
+   */
+  void start(Receiver receiver);
+
+  /**
+   * Sends a batch of invalidations to the other nodes.
+   */
+  void publish(List<CacheInvalidation> invalidations);
+
+  /**
+   * Stops listening and releases the resources of the transport.
+   */
+  void close();
+
+  /**
+   * Applies the invalidations received from other nodes.
+   */
+  interface Receiver {
+    void receive(List<CacheInvalidation> invalidations);
+  }
+
+}
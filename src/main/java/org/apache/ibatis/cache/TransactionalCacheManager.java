@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,10 +15,14 @@
  */
 package org.apache.ibatis.cache;
 
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.session.TransactionalCacheOverflowPolicy;
 
 /**
  * @author Clinton Begin
@@ -26,11 +30,37 @@ import org.apache.ibatis.cache.decorators.TransactionalCache;
 public class TransactionalCacheManager {
 
   private final Map<Cache, TransactionalCache> transactionalCaches = new HashMap<Cache, TransactionalCache>();
+  private final int maxEntries;
+  private final TransactionalCacheOverflowPolicy overflowPolicy;
+  private final boolean asyncCommit;
+
+  public TransactionalCacheManager() {
+    this(0, TransactionalCacheOverflowPolicy.DISCARD_NEW, false);
+  }
+
+  /**
+   * @param maxEntries - the maximum number of entries each cache keeps until commit, 0 for no limit
+   * @param overflowPolicy - what to do with an entry that does not fit
+   * @param asyncCommit - whether commit puts the entries into the caches on a background thread
+   * @since 3.4.7
+   */
+  public TransactionalCacheManager(int maxEntries, TransactionalCacheOverflowPolicy overflowPolicy, boolean asyncCommit) {
+    this.maxEntries = maxEntries;
+    this.overflowPolicy = overflowPolicy;
+    this.asyncCommit = asyncCommit;
+  }
 
   public void clear(Cache cache) {
     getTransactionalCache(cache).clear();
   }
 
+  /**
+   * @since 3.4.7
+   */
+  public void invalidate(Cache cache, TaggedCache taggedCache, Collection<String> tags) {
+    getTransactionalCache(cache).invalidate(taggedCache, tags);
+  }
+
   public Object getObject(Cache cache, CacheKey key) {
     return getTransactionalCache(cache).getObject(key);
   }
@@ -39,6 +69,13 @@ public class TransactionalCacheManager {
     getTransactionalCache(cache).putObject(key, value);
   }
 
+  /**
+   * @since 3.4.7
+   */
+  public void putObject(Cache cache, CacheKey key, Object value, TaggedCache taggedCache, Set<String> tags) {
+    getTransactionalCache(cache).putObject(key, value, taggedCache, tags);
+  }
+
   public void commit() {
     for (TransactionalCache txCache : transactionalCaches.values()) {
       txCache.commit();
@@ -55,6 +92,9 @@ public class TransactionalCacheManager {
     TransactionalCache txCache = transactionalCaches.get(cache);
     if (txCache == null) {
       txCache = new TransactionalCache(cache);
+      txCache.setMaxEntries(maxEntries);
+      txCache.setOverflowPolicy(overflowPolicy);
+      txCache.setAsyncCommit(asyncCommit);
       transactionalCaches.put(cache, txCache);
     }
     return txCache;
@@ -0,0 +1,203 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.ConcurrentCache;
+
+/**
+ * Lru (least recently used) cache that can be used by many threads at once.
+ * <p>
+ * Entries are spread by key hash over segments, each one an access ordered map guarded by its
+ * own lock, so concurrent readers only contend when they hit the same segment. Every segment
+ * evicts its own least recently used entry, which approximates a global LRU.
+ * <p>
+ * Unlike the other eviction decorators this one keeps the entries itself and only takes the id
+ * of the decorated cache, which must therefore be a bare {@link org.apache.ibatis.cache.impl.PerpetualCache}.
+ * {@link org.apache.ibatis.mapping.CacheBuilder} rejects it over any other decorator.
+ *
+ * @since 3.4.7
+ */
+public class ConcurrentLruCache implements ConcurrentCache {
+
+  private final Cache delegate;
+  private int size = 1024;
+  private int segmentCount = 16;
+  private volatile Segment[] segments;
+  private CacheStatistics statistics;
+
+  public ConcurrentLruCache(Cache delegate) {
+    this.delegate = delegate;
+    this.segments = newSegments();
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    int total = 0;
+    for (Segment segment : segments) {
+      segment.lock();
+      try {
+        total += segment.entries.size();
+      } finally {
+        segment.unlock();
+      }
+    }
+    return total;
+  }
+
+  public void setSize(int size) {
+    this.size = size;
+    this.segments = newSegments();
+  }
+
+  /**
+   * @param segments - the number of independently locked segments, rounded up to a power of two
+   */
+  public void setSegments(int segments) {
+    this.segmentCount = segments;
+    this.segments = newSegments();
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    Segment segment = segmentFor(key);
+    boolean evicted;
+    segment.lock();
+    try {
+      segment.entries.put(key, value);
+      evicted = segment.evicted;
+      segment.evicted = false;
+    } finally {
+      segment.unlock();
+    }
+    if (evicted && statistics != null) {
+      statistics.recordEviction();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Segment segment = segmentFor(key);
+    segment.lock();
+    try {
+      return segment.entries.get(key);
+    } finally {
+      segment.unlock();
+    }
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    Segment segment = segmentFor(key);
+    segment.lock();
+    try {
+      return segment.entries.remove(key);
+    } finally {
+      segment.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    for (Segment segment : segments) {
+      segment.lock();
+      try {
+        segment.entries.clear();
+      } finally {
+        segment.unlock();
+      }
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public int hashCode() {
+    return delegate.hashCode();
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    return delegate.equals(obj);
+  }
+
+  private Segment segmentFor(Object key) {
+    Segment[] current = segments;
+    int h = key.hashCode();
+    h ^= (h >>> 16);
+    return current[h & (current.length - 1)];
+  }
+
+  private Segment[] newSegments() {
+    int count = 1;
+    // never more segments than entries, or the cache would hold more than its size
+    while (count < segmentCount && count * 2 <= size) {
+      count <<= 1;
+    }
+    int capacity = Math.max(1, size / count);
+    Segment[] newSegments = new Segment[count];
+    for (int i = 0; i < count; i++) {
+      newSegments[i] = new Segment(capacity);
+    }
+    return newSegments;
+  }
+
+  private static class Segment extends ReentrantLock {
+
+    private static final long serialVersionUID = 1L;
+
+    private final Map<Object, Object> entries;
+    private boolean evicted;
+
+    Segment(final int capacity) {
+      this.entries = new LinkedHashMap<Object, Object>(16, .75F, true) {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Object, Object> eldest) {
+          boolean tooBig = size() > capacity;
+          if (tooBig) {
+            evicted = true;
+          }
+          return tooBig;
+        }
+      };
+    }
+
+  }
+
+}
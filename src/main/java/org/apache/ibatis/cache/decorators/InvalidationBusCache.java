@@ -0,0 +1,229 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheInvalidation;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Publishes the clears of this cache, and the tag invalidations of its {@link TaggedCache}, to the
+ * other nodes of a cluster and applies theirs.
+ * <p>
+ * Committed sessions clear or invalidate the cache through {@link TransactionalCache#commit()}, those
+ * invalidations are collected for <code>batchInterval</code> milliseconds and sent as one batch, where a
+ * clear supersedes tags and more than <code>maxBatchTags</code> tags turn into a clear. Invalidations
+ * received from other nodes are applied locally and are not published again.
+ *
+ * @since 3.4.7
+ */
+public class InvalidationBusCache implements Cache, InvalidationTransport.Receiver {
+
+  private static final Log log = LogFactory.getLog(InvalidationBusCache.class);
+
+  private static final ScheduledExecutorService PUBLISHER = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+    @Override
+    public Thread newThread(Runnable r) {
+      Thread thread = new Thread(r, "mybatis-cache-invalidation-publisher");
+      thread.setDaemon(true);
+      return thread;
+    }
+  });
+
+  private final Cache delegate;
+  private final Runnable flushTask;
+  private InvalidationTransport invalidationTransport;
+  private TaggedCache taggedCache;
+  private long batchInterval = 10;
+  private int maxBatchTags = 1024;
+
+  private boolean clearPending;
+  private final Set<String> pendingTags = new LinkedHashSet<String>();
+  private boolean flushScheduled;
+
+  public InvalidationBusCache(Cache delegate) {
+    this.delegate = delegate;
+    this.flushTask = new Runnable() {
+      @Override
+      public void run() {
+        flush();
+      }
+    };
+  }
+
+  /**
+   * Starts the transport, from then on this cache receives the invalidations of other nodes.
+   */
+  public void setInvalidationTransport(InvalidationTransport invalidationTransport) {
+    this.invalidationTransport = invalidationTransport;
+    invalidationTransport.start(this);
+  }
+
+  public InvalidationTransport getInvalidationTransport() {
+    return invalidationTransport;
+  }
+
+  public void setTaggedCache(TaggedCache taggedCache) {
+    this.taggedCache = taggedCache;
+  }
+
+  public long getBatchInterval() {
+    return batchInterval;
+  }
+
+  public void setBatchInterval(long batchInterval) {
+    this.batchInterval = batchInterval;
+  }
+
+  public int getMaxBatchTags() {
+    return maxBatchTags;
+  }
+
+  public void setMaxBatchTags(int maxBatchTags) {
+    this.maxBatchTags = maxBatchTags;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    delegate.putObject(key, value);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    publish(CacheInvalidation.clear(getId()));
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /**
+   * Publishes tags that were invalidated on this node.
+   */
+  public void publishTags(Collection<String> tags) {
+    publish(CacheInvalidation.tags(getId(), tags));
+  }
+
+  @Override
+  public void receive(List<CacheInvalidation> invalidations) {
+    for (CacheInvalidation invalidation : invalidations) {
+      if (!getId().equals(invalidation.getCacheId())) {
+        continue;
+      }
+      if (log.isDebugEnabled()) {
+        log.debug("Received " + invalidation);
+      }
+      if (invalidation.isClear() || taggedCache == null) {
+        delegate.clear();
+      } else {
+        taggedCache.invalidateLocally(invalidation.getTags());
+      }
+    }
+  }
+
+  /**
+   * Publishes the pending invalidations right away and closes the transport.
+   */
+  public void close() {
+    flush();
+    invalidationTransport.close();
+  }
+
+  private void publish(CacheInvalidation invalidation) {
+    boolean flushNow = false;
+    synchronized (this) {
+      if (invalidation.isClear()) {
+        clearPending = true;
+        pendingTags.clear();
+      } else if (!clearPending) {
+        pendingTags.addAll(invalidation.getTags());
+        if (pendingTags.size() > maxBatchTags) {
+          clearPending = true;
+          pendingTags.clear();
+        }
+      }
+      if (batchInterval <= 0) {
+        flushNow = true;
+      } else if (!flushScheduled) {
+        flushScheduled = true;
+        PUBLISHER.schedule(flushTask, batchInterval, TimeUnit.MILLISECONDS);
+      }
+    }
+    if (flushNow) {
+      flush();
+    }
+  }
+
+  private void flush() {
+    CacheInvalidation invalidation;
+    synchronized (this) {
+      flushScheduled = false;
+      if (clearPending) {
+        invalidation = CacheInvalidation.clear(getId());
+      } else if (!pendingTags.isEmpty()) {
+        invalidation = CacheInvalidation.tags(getId(), pendingTags);
+      } else {
+        return;
+      }
+      clearPending = false;
+      pendingTags.clear();
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Publishing " + invalidation);
+    }
+    try {
+      invalidationTransport.publish(Collections.singletonList(invalidation));
+    } catch (RuntimeException e) {
+      log.warn("Could not publish " + invalidation + ". Cause: " + e);
+    }
+  }
+
+}
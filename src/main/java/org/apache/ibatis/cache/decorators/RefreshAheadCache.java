@@ -0,0 +1,240 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Per-entry time to live with refresh-ahead.
+ * <p>
+ * Every entry expires <code>timeToLive</code> milliseconds after it was put. Once an entry is within
+ * <code>refreshAhead</code> milliseconds of expiring, the first reader that calls
+ * {@link #refreshIfDue(Object, Loader)} reloads it on a background thread while all readers keep
+ * getting the current value, also past its expiry, until the reload completes. Entries that nobody
+ * reads in the refresh window simply expire.
+ *
+ * @since 3.4.7
+ */
+public class RefreshAheadCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(RefreshAheadCache.class);
+
+  private static final ExecutorService REFRESHER = newRefresher();
+  private static final int PURGE_INTERVAL = 1024;
+
+  private final Cache delegate;
+  private final ConcurrentHashMap<Object, Stamp> stamps = new ConcurrentHashMap<Object, Stamp>();
+  private long timeToLive;
+  private long refreshAhead;
+  private int putCount;
+
+  public RefreshAheadCache(Cache delegate) {
+    this.delegate = delegate;
+    this.timeToLive = 60 * 60 * 1000; // 1 hour
+  }
+
+  /**
+   * Reloads the value of an entry that is due for refresh.
+   */
+  public interface Loader {
+    /**
+     * @return the new value, or null to keep the current one until it expires
+     */
+    Object load() throws Exception;
+  }
+
+  public void setTimeToLive(long timeToLive) {
+    this.timeToLive = timeToLive;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  public void setRefreshAhead(long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+  }
+
+  public long getRefreshAhead() {
+    return refreshAhead;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public synchronized void putObject(Object key, Object value) {
+    if (++putCount % PURGE_INTERVAL == 0) {
+      purgeExpired();
+    }
+    stamps.put(key, new Stamp(System.currentTimeMillis()));
+    delegate.putObject(key, value);
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    Stamp stamp = stamps.get(key);
+    if (stamp != null && stamp.isExpired(timeToLive) && !stamp.refreshing.get()) {
+      expire(key, stamp);
+      stamp = null;
+    }
+    Object value = delegate.getObject(key);
+    if (value == null) {
+      if (stamp != null) {
+        // evicted by the delegate
+        stamps.remove(key, stamp);
+      }
+      return null;
+    }
+    // a value without a stamp has expired, a blocking delegate does not remove it
+    return stamp != null ? value : null;
+  }
+
+  @Override
+  public synchronized Object removeObject(Object key) {
+    stamps.remove(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    stamps.clear();
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /**
+   * Starts reloading an entry on a background thread if it is within the refresh window and no other
+   * reload of it is running. The reloaded value replaces the entry only if the entry was not put,
+   * removed or cleared in the meantime.
+   *
+   * @param key - the key of a cached entry
+   * @param loader - reads the new value
+   * @return True if a reload was started
+   */
+  public boolean refreshIfDue(final Object key, final Loader loader) {
+    final Stamp stamp = stamps.get(key);
+    if (refreshAhead <= 0 || stamp == null || !stamp.isExpired(timeToLive - refreshAhead)
+        || !stamp.refreshing.compareAndSet(false, true)) {
+      return false;
+    }
+    try {
+      REFRESHER.execute(new Runnable() {
+        @Override
+        public void run() {
+          Object value = null;
+          try {
+            value = loader.load();
+          } catch (Exception e) {
+            log.warn("Refresh of cache entry " + key + " in cache " + getId() + " failed. Cause: " + e);
+          }
+          completeRefresh(key, stamp, value);
+        }
+      });
+    } catch (RejectedExecutionException e) {
+      stamp.refreshing.set(false);
+      return false;
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Refreshing cache entry " + key + " in cache " + getId());
+    }
+    return true;
+  }
+
+  private synchronized void completeRefresh(Object key, Stamp stamp, Object value) {
+    if (stamps.get(key) != stamp) {
+      // the entry changed while it was reloaded, the reloaded value may already be stale
+      return;
+    }
+    if (value != null) {
+      stamps.put(key, new Stamp(System.currentTimeMillis()));
+      delegate.putObject(key, value);
+    } else {
+      stamp.refreshing.set(false);
+    }
+  }
+
+  private synchronized void expire(Object key, Stamp stamp) {
+    if (stamps.remove(key, stamp)) {
+      delegate.removeObject(key);
+    }
+  }
+
+  /*
+   * Drops the stamps of entries that expired without being read again, the delegate may have
+   * evicted them long ago
+   */
+  private void purgeExpired() {
+    for (Map.Entry<Object, Stamp> entry : stamps.entrySet()) {
+      Stamp stamp = entry.getValue();
+      if (stamp.isExpired(timeToLive) && !stamp.refreshing.get()) {
+        expire(entry.getKey(), stamp);
+      }
+    }
+  }
+
+  private static ExecutorService newRefresher() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(4, 4, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(1024), new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mybatis-cache-refresh");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+  private static class Stamp {
+    private final long loadedAt;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+
+    Stamp(long loadedAt) {
+      this.loadedAt = loadedAt;
+    }
+
+    boolean isExpired(long age) {
+      return System.currentTimeMillis() - loadedAt >= age;
+    }
+  }
+
+}
@@ -0,0 +1,218 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheTag;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Indexes cached results by their {@link CacheTag}s so that a write removes only the results that
+ * read the tables or rows it touched instead of the whole cache.
+ * <p>
+ * The tags of an entry are given by {@link #tag(Object, Set)} before it is put, usually by the
+ * {@link TransactionalCache} that commits it. Entries put without tags are removed by every invalidation. It has to wrap the base cache so that it sees the entries that eviction
+ * decorators remove. The removals of an invalidation go through the <code>remover</code>, usually the
+ * outermost cache that still removes entries, so that the decorators above keep their bookkeeping.
+ *
+ * @since 3.4.7
+ */
+public class TaggedCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(TaggedCache.class);
+
+  private final Cache delegate;
+  private Cache remover;
+  private InvalidationBusCache bus;
+  private final Map<Object, Set<String>> tagsByKey = new HashMap<Object, Set<String>>();
+  private final Map<String, Set<Object>> keysByTag = new HashMap<String, Set<Object>>();
+  private final Map<String, Set<Object>> keysByTable = new HashMap<String, Set<Object>>();
+  private final Set<Object> untaggedKeys = new HashSet<Object>();
+
+  public TaggedCache(Cache delegate) {
+    this.delegate = delegate;
+    this.remover = delegate;
+  }
+
+  public void setRemover(Cache remover) {
+    this.remover = remover;
+  }
+
+  /**
+   * Sets the bus that publishes the invalidations of this node to the others.
+   */
+  public void setBus(InvalidationBusCache bus) {
+    this.bus = bus;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  @Override
+  public synchronized void putObject(Object key, Object value) {
+    // a key tagged before its put keeps its tags
+    if (!tagsByKey.containsKey(key)) {
+      untaggedKeys.add(key);
+    }
+    delegate.putObject(key, value);
+  }
+
+  /**
+   * Indexes the result about to be put under the key by the tables and rows it read. The put goes through
+   * the decorators above this cache, which only pass the key and the value along.
+   *
+   * @param key - the key the result will be put with
+   * @param tags - the {@link CacheTag} strings of the result, null or empty if it is untagged
+   */
+  public synchronized void tag(Object key, Set<String> tags) {
+    unindex(key);
+    if (tags == null || tags.isEmpty()) {
+      untaggedKeys.add(key);
+    } else {
+      tagsByKey.put(key, tags);
+      for (String tag : tags) {
+        add(keysByTag, tag, key);
+        add(keysByTable, CacheTag.tableOf(tag), key);
+      }
+    }
+  }
+
+  @Override
+  public synchronized Object getObject(Object key) {
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public synchronized Object removeObject(Object key) {
+    unindex(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public synchronized void clear() {
+    tagsByKey.clear();
+    keysByTag.clear();
+    keysByTable.clear();
+    untaggedKeys.clear();
+    delegate.clear();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  /**
+   * Removes the results invalidated by any of the given tags.
+   */
+  public void invalidate(Collection<String> tags) {
+    invalidateLocally(tags);
+    if (bus != null) {
+      bus.publishTags(tags);
+    }
+  }
+
+  /**
+   * Removes the results invalidated by any of the given tags on this node only.
+   */
+  public void invalidateLocally(Collection<String> tags) {
+    List<Object> keys = collectKeys(tags);
+    // outside of this cache's lock, the remover may take the lock of an outer decorator
+    for (Object key : keys) {
+      remover.removeObject(key);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("Invalidated " + keys.size() + " entries of cache " + getId() + " tagged " + tags);
+    }
+  }
+
+  /**
+   * @return True if the result cached under the key would be removed by invalidating the given tags
+   */
+  public synchronized boolean isInvalidatedBy(Object key, Collection<String> tags) {
+    if (untaggedKeys.contains(key)) {
+      return !tags.isEmpty();
+    }
+    Set<String> keyTags = tagsByKey.get(key);
+    return keyTags != null && CacheTag.matches(keyTags, tags);
+  }
+
+  private synchronized List<Object> collectKeys(Collection<String> tags) {
+    Set<Object> keys = new HashSet<Object>(untaggedKeys);
+    for (String tag : tags) {
+      if (CacheTag.isRowTag(tag)) {
+        addAll(keys, keysByTag.get(tag));
+        addAll(keys, keysByTag.get(CacheTag.tableOf(tag)));
+      } else {
+        addAll(keys, keysByTable.get(tag));
+      }
+    }
+    return new ArrayList<Object>(keys);
+  }
+
+  private void unindex(Object key) {
+    if (untaggedKeys.remove(key)) {
+      return;
+    }
+    Set<String> tags = tagsByKey.remove(key);
+    if (tags != null) {
+      for (String tag : tags) {
+        remove(keysByTag, tag, key);
+        remove(keysByTable, CacheTag.tableOf(tag), key);
+      }
+    }
+  }
+
+  private static void add(Map<String, Set<Object>> index, String tag, Object key) {
+    Set<Object> keys = index.get(tag);
+    if (keys == null) {
+      keys = new HashSet<Object>();
+      index.put(tag, keys);
+    }
+    keys.add(key);
+  }
+
+  private static void remove(Map<String, Set<Object>> index, String tag, Object key) {
+    Set<Object> keys = index.get(tag);
+    if (keys != null && keys.remove(key) && keys.isEmpty()) {
+      index.remove(tag);
+    }
+  }
+
+  private static void addAll(Set<Object> keys, Set<Object> more) {
+    if (more != null) {
+      keys.addAll(more);
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,15 +15,28 @@
  */
 package org.apache.ibatis.cache.decorators;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.locks.ReadWriteLock;
 
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheTag;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.session.TransactionalCacheOverflowPolicy;
 
 /**
  * The 2nd level cache transactional buffer.
@@ -33,6 +46,12 @@ import org.apache.ibatis.logging.LogFactory;
  * Blocking cache support has been added. Therefore any get() that returns a cache miss 
  * will be followed by a put() so any lock associated with the key can be released. 
  * 
+ * The number of pending entries can be bounded with {@link #setMaxEntries(int)}, entries that do not fit
+ * are not cached. With {@link #setAsyncCommit(boolean)} commit hands the pending entries to a background
+ * thread instead of putting them into the cache itself. Clears and invalidations still run on commit and
+ * advance a generation shared by all transactional caches of the same cache, entries handed over before
+ * the generation advanced are not left in the cache.
+ * 
  * @author Clinton Begin
  * @author Eduardo Macarron
  */
@@ -40,16 +59,30 @@ public class TransactionalCache implements Cache {
 
   private static final Log log = LogFactory.getLog(TransactionalCache.class);
 
+  private static final ExecutorService PUBLISHER = newPublisher();
+
+  private static final Map<Cache, AtomicLong> GENERATIONS = Collections.synchronizedMap(new WeakHashMap<Cache, AtomicLong>());
+
   private final Cache delegate;
   private boolean clearOnCommit;
-  private final Map<Object, Object> entriesToAddOnCommit;
+  private Map<Object, Object> entriesToAddOnCommit;
+  private Map<Object, Set<String>> tagsOfEntriesToAddOnCommit;
   private final Set<Object> entriesMissedInCache;
+  private TaggedCache taggedCache;
+  private final Set<String> tagsToInvalidateOnCommit;
+  private int maxEntries;
+  private TransactionalCacheOverflowPolicy overflowPolicy = TransactionalCacheOverflowPolicy.DISCARD_NEW;
+  private boolean asyncCommit;
+  private final AtomicLong generation;
 
   public TransactionalCache(Cache delegate) {
     this.delegate = delegate;
+    this.generation = generationOf(delegate);
     this.clearOnCommit = false;
-    this.entriesToAddOnCommit = new HashMap<Object, Object>();
+    this.entriesToAddOnCommit = new LinkedHashMap<Object, Object>();
+    this.tagsOfEntriesToAddOnCommit = new HashMap<Object, Set<String>>();
     this.entriesMissedInCache = new HashSet<Object>();
+    this.tagsToInvalidateOnCommit = new HashSet<String>();
   }
 
   @Override
@@ -72,6 +105,8 @@ public class TransactionalCache implements Cache {
     // issue #146
     if (clearOnCommit) {
       return null;
+    } else if (!tagsToInvalidateOnCommit.isEmpty() && taggedCache.isInvalidatedBy(key, tagsToInvalidateOnCommit)) {
+      return null;
     } else {
       return object;
     }
@@ -84,7 +119,36 @@ public class TransactionalCache implements Cache {
 
   @Override
   public void putObject(Object key, Object object) {
+    if (maxEntries > 0 && entriesToAddOnCommit.size() >= maxEntries && !entriesToAddOnCommit.containsKey(key)) {
+      if (overflowPolicy == TransactionalCacheOverflowPolicy.DISCARD_OLDEST) {
+        Iterator<Object> keys = entriesToAddOnCommit.keySet().iterator();
+        Object eldest = keys.next();
+        keys.remove();
+        tagsOfEntriesToAddOnCommit.remove(eldest);
+        releaseMissedEntry(eldest);
+      } else {
+        releaseMissedEntry(key);
+        return;
+      }
+    }
     entriesToAddOnCommit.put(key, object);
+    tagsOfEntriesToAddOnCommit.remove(key);
+  }
+
+  /**
+   * Puts a result that is indexed by the given tags when it is committed.
+   *
+   * @param taggedCache - the tag index of the delegate
+   * @param tags - tags resolved by {@link org.apache.ibatis.cache.CacheTag}
+   * @since 3.4.7
+   */
+  public void putObject(Object key, Object object, TaggedCache taggedCache, Set<String> tags) {
+    this.taggedCache = taggedCache;
+    putObject(key, object);
+    // unless the overflow policy discarded it
+    if (entriesToAddOnCommit.containsKey(key)) {
+      tagsOfEntriesToAddOnCommit.put(key, tags);
+    }
   }
 
   @Override
@@ -96,13 +160,65 @@ public class TransactionalCache implements Cache {
   public void clear() {
     clearOnCommit = true;
     entriesToAddOnCommit.clear();
+    tagsOfEntriesToAddOnCommit.clear();
+  }
+
+  /**
+   * Removes only the entries tagged with any of the given tags on commit, instead of clearing the cache.
+   *
+   * @param taggedCache - the tag index of the delegate
+   * @param tags - tags resolved by {@link org.apache.ibatis.cache.CacheTag}
+   * @since 3.4.7
+   */
+  public void invalidate(TaggedCache taggedCache, Collection<String> tags) {
+    this.taggedCache = taggedCache;
+    tagsToInvalidateOnCommit.addAll(tags);
+    Iterator<Object> keys = entriesToAddOnCommit.keySet().iterator();
+    while (keys.hasNext()) {
+      Object key = keys.next();
+      if (CacheTag.matches(tagsOfEntriesToAddOnCommit.get(key), tags)) {
+        keys.remove();
+        tagsOfEntriesToAddOnCommit.remove(key);
+      }
+    }
+  }
+
+  /**
+   * @param maxEntries - the maximum number of entries pending until commit, 0 for no limit
+   * @since 3.4.7
+   */
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setOverflowPolicy(TransactionalCacheOverflowPolicy overflowPolicy) {
+    this.overflowPolicy = overflowPolicy;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setAsyncCommit(boolean asyncCommit) {
+    this.asyncCommit = asyncCommit;
   }
 
   public void commit() {
+    // advanced before removing, so that an entry published meanwhile is either removed here or by its publisher
     if (clearOnCommit) {
+      generation.incrementAndGet();
       delegate.clear();
+    } else if (!tagsToInvalidateOnCommit.isEmpty()) {
+      generation.incrementAndGet();
+      taggedCache.invalidate(tagsToInvalidateOnCommit);
+    }
+    if (asyncCommit && !entriesToAddOnCommit.isEmpty()) {
+      publishPendingEntries();
+    } else {
+      flushPendingEntries();
     }
-    flushPendingEntries();
     reset();
   }
 
@@ -113,12 +229,15 @@ public class TransactionalCache implements Cache {
 
   private void reset() {
     clearOnCommit = false;
+    tagsToInvalidateOnCommit.clear();
     entriesToAddOnCommit.clear();
+    tagsOfEntriesToAddOnCommit.clear();
     entriesMissedInCache.clear();
   }
 
   private void flushPendingEntries() {
     for (Map.Entry<Object, Object> entry : entriesToAddOnCommit.entrySet()) {
+      tag(taggedCache, tagsOfEntriesToAddOnCommit, entry.getKey());
       delegate.putObject(entry.getKey(), entry.getValue());
     }
     for (Object entry : entriesMissedInCache) {
@@ -128,6 +247,55 @@ public class TransactionalCache implements Cache {
     }
   }
 
+  private void publishPendingEntries() {
+    // locks of a blocking cache are held by this thread, so they cannot be released by the publisher
+    unlockMissedEntries();
+    final Map<Object, Object> entries = entriesToAddOnCommit;
+    final Map<Object, Set<String>> tags = tagsOfEntriesToAddOnCommit;
+    final TaggedCache index = taggedCache;
+    entriesToAddOnCommit = new LinkedHashMap<Object, Object>();
+    tagsOfEntriesToAddOnCommit = new HashMap<Object, Set<String>>();
+    final long committedGeneration = generation.get();
+    PUBLISHER.execute(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          for (Map.Entry<Object, Object> entry : entries.entrySet()) {
+            if (generation.get() != committedGeneration) {
+              break;
+            }
+            tag(index, tags, entry.getKey());
+            delegate.putObject(entry.getKey(), entry.getValue());
+            // a later commit cleared or invalidated the cache while the entry was put
+            if (generation.get() != committedGeneration) {
+              delegate.removeObject(entry.getKey());
+              break;
+            }
+          }
+        } catch (Exception e) {
+          log.warn("Could not put the entries of a committed session into the cache " + delegate.getId() + ". Cause: " + e);
+        }
+      }
+    });
+  }
+
+  private static void tag(TaggedCache taggedCache, Map<Object, Set<String>> tags, Object key) {
+    Set<String> keyTags = tags.get(key);
+    if (keyTags != null) {
+      taggedCache.tag(key, keyTags);
+    }
+  }
+
+  private void releaseMissedEntry(Object key) {
+    if (entriesMissedInCache.remove(key)) {
+      try {
+        delegate.removeObject(key);
+      } catch (Exception e) {
+        log.warn("Unexpected exception while releasing a discarded entry of the cache " + delegate.getId() + ". Cause: " + e);
+      }
+    }
+  }
+
   private void unlockMissedEntries() {
     for (Object entry : entriesMissedInCache) {
       try {
@@ -139,4 +307,30 @@ public class TransactionalCache implements Cache {
     }
   }
 
+  private static AtomicLong generationOf(Cache cache) {
+    synchronized (GENERATIONS) {
+      AtomicLong generation = GENERATIONS.get(cache);
+      if (generation == null) {
+        generation = new AtomicLong();
+        GENERATIONS.put(cache, generation);
+      }
+      return generation;
+    }
+  }
+
+  private static ExecutorService newPublisher() {
+    // a full queue makes the committing thread put its entries itself
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(1024), new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mybatis-cache-publisher");
+            thread.setDaemon(true);
+            return thread;
+          }
+        }, new ThreadPoolExecutor.CallerRunsPolicy());
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
 }
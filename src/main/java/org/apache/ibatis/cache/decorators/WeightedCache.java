@@ -0,0 +1,229 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.decorators;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheWeigher;
+import org.apache.ibatis.cache.impl.RowCountWeigher;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Lru (least recently used) cache decorator bounded by the total weight of its entries rather than
+ * by their number.
+ * <p>
+ * Every put is weighed by a {@link CacheWeigher} and the least recently used entries are removed
+ * until the total fits into {@link #setMaxWeight(long) maxWeight} again. An entry heavier than
+ * the whole budget is not cached at all.
+ * <p>
+ * Entries removed by the decorators below this one, e.g. a size eviction or a scheduled clear, only
+ * stop being counted when a {@link RemovalTracker} below those decorators reports them.
+ *
+ * @since 3.4.7
+ */
+public class WeightedCache implements Cache {
+
+  private static final Log log = LogFactory.getLog(WeightedCache.class);
+
+  private final Cache delegate;
+  private final LinkedHashMap<Object, Long> weights = new LinkedHashMap<Object, Long>(16, .75F, true);
+  private CacheWeigher weigher = new RowCountWeigher();
+  private long maxWeight = Long.MAX_VALUE;
+  private long weight;
+  private CacheStatistics statistics;
+
+  public WeightedCache(Cache delegate) {
+    this.delegate = delegate;
+  }
+
+  @Override
+  public String getId() {
+    return delegate.getId();
+  }
+
+  @Override
+  public int getSize() {
+    return delegate.getSize();
+  }
+
+  public void setWeigher(CacheWeigher weigher) {
+    this.weigher = weigher;
+  }
+
+  public CacheWeigher getWeigher() {
+    return weigher;
+  }
+
+  public void setMaxWeight(long maxWeight) {
+    this.maxWeight = maxWeight;
+    evict();
+  }
+
+  public long getMaxWeight() {
+    return maxWeight;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * @return the total weight of the entries held
+   */
+  public long getWeight() {
+    return weight;
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    long entryWeight = weigher.weigh(key, value);
+    forget(key);
+    if (entryWeight > maxWeight) {
+      delegate.removeObject(key);
+      if (log.isDebugEnabled()) {
+        log.debug("Cache entry of weight " + entryWeight + " exceeds the maximum weight of cache [" + getId() + "], not cached.");
+      }
+      return;
+    }
+    delegate.putObject(key, value);
+    weights.put(key, entryWeight);
+    weight += entryWeight;
+    evict();
+    if (log.isDebugEnabled()) {
+      log.debug("Cache Weight [" + getId() + "]: " + weight + " of " + maxWeight);
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    weights.get(key); //touch
+    return delegate.getObject(key);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    forget(key);
+    return delegate.removeObject(key);
+  }
+
+  @Override
+  public void clear() {
+    delegate.clear();
+    reset();
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  private void forget(Object key) {
+    Long entryWeight = weights.remove(key);
+    if (entryWeight != null) {
+      weight -= entryWeight;
+    }
+  }
+
+  private void reset() {
+    weights.clear();
+    weight = 0;
+  }
+
+  private void evict() {
+    // a removal may clear the delegate and reset the weights, so the eldest key is looked up every time
+    while (weight > maxWeight && !weights.isEmpty()) {
+      Object eldest = weights.keySet().iterator().next();
+      forget(eldest);
+      delegate.removeObject(eldest);
+      if (statistics != null) {
+        statistics.recordEviction();
+      }
+    }
+  }
+
+  /**
+   * Decorator of the cache that stores the entries, below the eviction decorators. It reports the
+   * entries removed or cleared by those decorators to the weighted caches above them, so that their
+   * weights follow the entries actually held.
+   *
+   * @since 3.4.7
+   */
+  public static class RemovalTracker implements Cache {
+
+    private final Cache delegate;
+    private final List<WeightedCache> caches = new ArrayList<WeightedCache>();
+
+    public RemovalTracker(Cache delegate) {
+      this.delegate = delegate;
+    }
+
+    public void track(WeightedCache cache) {
+      caches.add(cache);
+    }
+
+    @Override
+    public String getId() {
+      return delegate.getId();
+    }
+
+    @Override
+    public int getSize() {
+      return delegate.getSize();
+    }
+
+    @Override
+    public void putObject(Object key, Object value) {
+      delegate.putObject(key, value);
+    }
+
+    @Override
+    public Object getObject(Object key) {
+      return delegate.getObject(key);
+    }
+
+    @Override
+    public Object removeObject(Object key) {
+      for (WeightedCache cache : caches) {
+        cache.forget(key);
+      }
+      return delegate.removeObject(key);
+    }
+
+    @Override
+    public void clear() {
+      delegate.clear();
+      for (WeightedCache cache : caches) {
+        cache.reset();
+      }
+    }
+
+    @Override
+    public ReadWriteLock getReadWriteLock() {
+      return null;
+    }
+
+  }
+
+}
@@ -0,0 +1,739 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.Externalizable;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.io.Resources;
+
+/**
+ * A {@link CacheSerializer} with a compact binary format for the values query results are made of.
+ * <p>
+ * Strings, boxed primitives, numbers, dates, byte arrays, object arrays and the standard lists, sets and maps are written
+ * with a one byte tag and no class descriptor. Types listed in {@link #setRegisteredTypes(String) registeredTypes} are
+ * written as a small type id followed by their non-transient fields, so they need a no-arg constructor but do not need
+ * to be {@link Serializable}. Unless {@link #setAutoRegistration(boolean) autoRegistration} is turned off, serializable
+ * application classes with a no-arg constructor and without custom serialization methods are registered the first
+ * time they are written. Anything else, lazy loading proxies included, falls back to Java serialization.
+ * Shared references and cycles are preserved. Each thread reuses its write buffer and payloads larger than
+ * {@link #setCompressionThreshold(int) compressionThreshold} bytes are deflated.
+ * <p>
+ * Type ids depend on the order of registration, so the bytes are only meant to be read by the same configuration.
+ * A {@link LinkedHashMap} is always restored in insertion order.
+ *
+ * @since 3.4.7
+ */
+public class CompactCacheSerializer implements CacheSerializer {
+
+  private static final int MAX_RETAINED_BUFFER = 1024 * 1024;
+
+  private static final byte PLAIN = 1;
+  private static final byte DEFLATED = 2;
+
+  private static final int NULL = 0;
+  private static final int REFERENCE = 1;
+  private static final int STRING = 2;
+  private static final int INTEGER = 3;
+  private static final int LONG = 4;
+  private static final int DOUBLE = 5;
+  private static final int FLOAT = 6;
+  private static final int SHORT = 7;
+  private static final int BYTE = 8;
+  private static final int TRUE = 9;
+  private static final int FALSE = 10;
+  private static final int CHARACTER = 11;
+  private static final int BIG_DECIMAL = 12;
+  private static final int BIG_INTEGER = 13;
+  private static final int DATE = 14;
+  private static final int SQL_DATE = 15;
+  private static final int SQL_TIME = 16;
+  private static final int TIMESTAMP = 17;
+  private static final int BYTES = 18;
+  private static final int OBJECT_ARRAY = 19;
+  private static final int ARRAY_LIST = 20;
+  private static final int LINKED_LIST = 21;
+  private static final int HASH_SET = 22;
+  private static final int LINKED_HASH_SET = 23;
+  private static final int HASH_MAP = 24;
+  private static final int LINKED_HASH_MAP = 25;
+  private static final int REGISTERED = 26;
+  private static final int REGISTERED_ENUM = 27;
+  private static final int SERIALIZED = 28;
+
+  private final CacheSerializer fallback = new JdkCacheSerializer();
+  private final ThreadLocal<Output> buffers = new ThreadLocal<Output>();
+  private volatile Map<Class<?>, RegisteredType> typesByClass = new HashMap<Class<?>, RegisteredType>();
+  private volatile RegisteredType[] typesById = new RegisteredType[0];
+  private final Map<Class<?>, Boolean> fallbackTypes = new ConcurrentHashMap<Class<?>, Boolean>();
+  private int compressionThreshold;
+  private boolean autoRegistration = true;
+
+  /**
+   * @param registeredTypes comma separated names of the classes to write without a class descriptor
+   */
+  public void setRegisteredTypes(String registeredTypes) {
+    for (String name : registeredTypes.split(",")) {
+      name = name.trim();
+      if (name.length() > 0) {
+        try {
+          registerType(Resources.classForName(name));
+        } catch (ClassNotFoundException e) {
+          throw new CacheException("Could not find registered type '" + name + "'.  Cause: " + e, e);
+        }
+      }
+    }
+  }
+
+  /**
+   * @param compressionThreshold payloads longer than this number of bytes are deflated, 0 turns compression off
+   */
+  public void setCompressionThreshold(int compressionThreshold) {
+    this.compressionThreshold = compressionThreshold;
+  }
+
+  public int getCompressionThreshold() {
+    return compressionThreshold;
+  }
+
+  /**
+   * @param autoRegistration whether plain serializable classes are registered when first written
+   */
+  public void setAutoRegistration(boolean autoRegistration) {
+    this.autoRegistration = autoRegistration;
+  }
+
+  public boolean isAutoRegistration() {
+    return autoRegistration;
+  }
+
+  /**
+   * Writes instances of a type as a type id followed by their fields.
+   *
+   * @param type an enum or a class with a no-arg constructor
+   */
+  public synchronized void registerType(Class<?> type) {
+    if (typesByClass.containsKey(type)) {
+      return;
+    }
+    RegisteredType registered = new RegisteredType(typesById.length, type);
+    Map<Class<?>, RegisteredType> byClass = new HashMap<Class<?>, RegisteredType>(typesByClass);
+    byClass.put(type, registered);
+    RegisteredType[] byId = Arrays.copyOf(typesById, typesById.length + 1);
+    byId[registered.id] = registered;
+    typesById = byId;
+    typesByClass = byClass;
+  }
+
+  @Override
+  public byte[] serialize(Object value) {
+    Output out = buffers.get();
+    if (out == null) {
+      out = new Output();
+    } else {
+      // a nested call, from a fallback to Java serialization, gets its own buffer
+      buffers.remove();
+    }
+    try {
+      out.writeByte(PLAIN);
+      write(out, value);
+      if (compressionThreshold > 0 && out.size > compressionThreshold) {
+        byte[] deflated = deflate(out);
+        if (deflated != null) {
+          return deflated;
+        }
+      }
+      return Arrays.copyOf(out.buf, out.size);
+    } catch (IllegalAccessException e) {
+      throw new CacheException("Error serializing object.  Cause: " + e, e);
+    } finally {
+      out.reset();
+      if (out.buf.length <= MAX_RETAINED_BUFFER) {
+        buffers.set(out);
+      }
+    }
+  }
+
+  @Override
+  public Object deserialize(byte[] data) {
+    try {
+      Input in = new Input(data, 1);
+      if (data[0] == DEFLATED) {
+        int length = in.readVarInt();
+        in = new Input(inflate(data, in.pos, length), 0);
+      }
+      return read(in);
+    } catch (CacheException e) {
+      throw e;
+    } catch (Exception e) {
+      throw new CacheException("Error deserializing object.  Cause: " + e, e);
+    }
+  }
+
+  private void write(Output out, Object value) throws IllegalAccessException {
+    if (value == null) {
+      out.writeByte(NULL);
+      return;
+    }
+    Class<?> type = value.getClass();
+    if (type == String.class) {
+      out.writeByte(STRING);
+      out.writeString((String) value);
+    } else if (type == Integer.class) {
+      out.writeByte(INTEGER);
+      out.writeVarLong(zigZag((Integer) value));
+    } else if (type == Long.class) {
+      out.writeByte(LONG);
+      out.writeVarLong(zigZag((Long) value));
+    } else if (type == Double.class) {
+      out.writeByte(DOUBLE);
+      out.writeFixedLong(Double.doubleToLongBits((Double) value));
+    } else if (type == Float.class) {
+      out.writeByte(FLOAT);
+      out.writeVarInt(Float.floatToIntBits((Float) value));
+    } else if (type == Short.class) {
+      out.writeByte(SHORT);
+      out.writeVarLong(zigZag((Short) value));
+    } else if (type == Byte.class) {
+      out.writeByte(BYTE);
+      out.writeByte((Byte) value);
+    } else if (type == Boolean.class) {
+      out.writeByte((Boolean) value ? TRUE : FALSE);
+    } else if (type == Character.class) {
+      out.writeByte(CHARACTER);
+      out.writeVarInt((Character) value);
+    } else if (type == BigDecimal.class) {
+      BigDecimal decimal = (BigDecimal) value;
+      out.writeByte(BIG_DECIMAL);
+      out.writeVarLong(zigZag(decimal.scale()));
+      out.writeByteArray(decimal.unscaledValue().toByteArray());
+    } else if (type == BigInteger.class) {
+      out.writeByte(BIG_INTEGER);
+      out.writeByteArray(((BigInteger) value).toByteArray());
+    } else if (type == Date.class) {
+      out.writeByte(DATE);
+      out.writeVarLong(zigZag(((Date) value).getTime()));
+    } else if (type == java.sql.Date.class) {
+      out.writeByte(SQL_DATE);
+      out.writeVarLong(zigZag(((Date) value).getTime()));
+    } else if (type == Time.class) {
+      out.writeByte(SQL_TIME);
+      out.writeVarLong(zigZag(((Date) value).getTime()));
+    } else if (type == Timestamp.class) {
+      out.writeByte(TIMESTAMP);
+      out.writeVarLong(zigZag(((Timestamp) value).getTime()));
+      out.writeVarInt(((Timestamp) value).getNanos());
+    } else if (type == byte[].class) {
+      out.writeByte(BYTES);
+      out.writeByteArray((byte[]) value);
+    } else {
+      writeReference(out, type, value);
+    }
+  }
+
+  private void writeReference(Output out, Class<?> type, Object value) throws IllegalAccessException {
+    Integer handle = out.handles.get(value);
+    if (handle != null) {
+      out.writeByte(REFERENCE);
+      out.writeVarInt(handle);
+      return;
+    }
+    RegisteredType registered = typesByClass.get(type);
+    if (registered == null && autoRegistration && !fallbackTypes.containsKey(type)) {
+      registered = registerAutomatically(type);
+    }
+    if (registered != null && registered.constants != null) {
+      out.writeByte(REGISTERED_ENUM);
+      out.writeVarInt(registered.id);
+      out.writeVarInt(((Enum<?>) value).ordinal());
+      return;
+    }
+    out.handles.put(value, out.handles.size());
+    if (type == Object[].class) {
+      Object[] array = (Object[]) value;
+      out.writeByte(OBJECT_ARRAY);
+      out.writeVarInt(array.length);
+      for (Object element : array) {
+        write(out, element);
+      }
+    } else if (type == ArrayList.class) {
+      writeCollection(out, ARRAY_LIST, (Collection<?>) value);
+    } else if (type == LinkedList.class) {
+      writeCollection(out, LINKED_LIST, (Collection<?>) value);
+    } else if (type == HashSet.class) {
+      writeCollection(out, HASH_SET, (Collection<?>) value);
+    } else if (type == LinkedHashSet.class) {
+      writeCollection(out, LINKED_HASH_SET, (Collection<?>) value);
+    } else if (type == HashMap.class) {
+      writeMap(out, HASH_MAP, (Map<?, ?>) value);
+    } else if (type == LinkedHashMap.class) {
+      writeMap(out, LINKED_HASH_MAP, (Map<?, ?>) value);
+    } else if (registered != null) {
+      out.writeByte(REGISTERED);
+      out.writeVarInt(registered.id);
+      for (Field field : registered.fields) {
+        write(out, field.get(value));
+      }
+    } else {
+      out.writeByte(SERIALIZED);
+      out.writeByteArray(fallback.serialize(value));
+    }
+  }
+
+  private void writeCollection(Output out, int tag, Collection<?> collection) throws IllegalAccessException {
+    out.writeByte(tag);
+    out.writeVarInt(collection.size());
+    for (Object element : collection) {
+      write(out, element);
+    }
+  }
+
+  private void writeMap(Output out, int tag, Map<?, ?> map) throws IllegalAccessException {
+    out.writeByte(tag);
+    out.writeVarInt(map.size());
+    for (Map.Entry<?, ?> entry : map.entrySet()) {
+      write(out, entry.getKey());
+      write(out, entry.getValue());
+    }
+  }
+
+  private Object read(Input in) throws Exception {
+    int tag = in.readByte();
+    switch (tag) {
+      case NULL:
+        return null;
+      case REFERENCE:
+        return in.handles.get(in.readVarInt());
+      case STRING:
+        return in.readString();
+      case INTEGER:
+        return (int) unZigZag(in.readVarLong());
+      case LONG:
+        return unZigZag(in.readVarLong());
+      case DOUBLE:
+        return Double.longBitsToDouble(in.readFixedLong());
+      case FLOAT:
+        return Float.intBitsToFloat(in.readVarInt());
+      case SHORT:
+        return (short) unZigZag(in.readVarLong());
+      case BYTE:
+        return (byte) in.readByte();
+      case TRUE:
+        return Boolean.TRUE;
+      case FALSE:
+        return Boolean.FALSE;
+      case CHARACTER:
+        return (char) in.readVarInt();
+      case BIG_DECIMAL:
+        int scale = (int) unZigZag(in.readVarLong());
+        return new BigDecimal(new BigInteger(in.readByteArray()), scale);
+      case BIG_INTEGER:
+        return new BigInteger(in.readByteArray());
+      case DATE:
+        return new Date(unZigZag(in.readVarLong()));
+      case SQL_DATE:
+        return new java.sql.Date(unZigZag(in.readVarLong()));
+      case SQL_TIME:
+        return new Time(unZigZag(in.readVarLong()));
+      case TIMESTAMP:
+        Timestamp timestamp = new Timestamp(unZigZag(in.readVarLong()));
+        timestamp.setNanos(in.readVarInt());
+        return timestamp;
+      case BYTES:
+        return in.readByteArray();
+      case OBJECT_ARRAY:
+        Object[] array = new Object[in.readVarInt()];
+        in.handles.add(array);
+        for (int i = 0; i < array.length; i++) {
+          array[i] = read(in);
+        }
+        return array;
+      case ARRAY_LIST:
+        int size = in.readVarInt();
+        return readCollection(in, new ArrayList<Object>(size), size);
+      case LINKED_LIST:
+        return readCollection(in, new LinkedList<Object>(), in.readVarInt());
+      case HASH_SET:
+        size = in.readVarInt();
+        return readCollection(in, new HashSet<Object>(capacityFor(size)), size);
+      case LINKED_HASH_SET:
+        size = in.readVarInt();
+        return readCollection(in, new LinkedHashSet<Object>(capacityFor(size)), size);
+      case HASH_MAP:
+        size = in.readVarInt();
+        return readMap(in, new HashMap<Object, Object>(capacityFor(size)), size);
+      case LINKED_HASH_MAP:
+        size = in.readVarInt();
+        return readMap(in, new LinkedHashMap<Object, Object>(capacityFor(size)), size);
+      case REGISTERED_ENUM:
+        return registeredType(in.readVarInt()).constants[in.readVarInt()];
+      case REGISTERED:
+        RegisteredType registered = registeredType(in.readVarInt());
+        Object object = registered.constructor.newInstance();
+        in.handles.add(object);
+        for (Field field : registered.fields) {
+          field.set(object, read(in));
+        }
+        return object;
+      case SERIALIZED:
+        Object deserialized = fallback.deserialize(in.readByteArray());
+        in.handles.add(deserialized);
+        return deserialized;
+      default:
+        throw new CacheException("Unknown tag " + tag + " in serialized cache entry.");
+    }
+  }
+
+  private Collection<Object> readCollection(Input in, Collection<Object> collection, int size) throws Exception {
+    in.handles.add(collection);
+    for (int i = 0; i < size; i++) {
+      collection.add(read(in));
+    }
+    return collection;
+  }
+
+  private Map<Object, Object> readMap(Input in, Map<Object, Object> map, int size) throws Exception {
+    in.handles.add(map);
+    for (int i = 0; i < size; i++) {
+      Object key = read(in);
+      map.put(key, read(in));
+    }
+    return map;
+  }
+
+  private RegisteredType registerAutomatically(Class<?> type) {
+    if (isPlainSerializable(type)) {
+      registerType(type);
+      return typesByClass.get(type);
+    }
+    fallbackTypes.put(type, Boolean.TRUE);
+    return null;
+  }
+
+  private static boolean isPlainSerializable(Class<?> type) {
+    // classes of the platform are left to Java serialization, their fields may not be accessible
+    if (type.getClassLoader() == null || type.isArray() || !Serializable.class.isAssignableFrom(type)
+        || Externalizable.class.isAssignableFrom(type)) {
+      return false;
+    }
+    if (type.isEnum()) {
+      return true;
+    }
+    try {
+      type.getDeclaredConstructor();
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+    for (Class<?> current = type; current != null && current != Object.class; current = current.getSuperclass()) {
+      if (declares(current, "writeObject", ObjectOutputStream.class)
+          || declares(current, "readObject", ObjectInputStream.class)
+          || declares(current, "readObjectNoData")
+          || declares(current, "writeReplace")
+          || declares(current, "readResolve")) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean declares(Class<?> type, String name, Class<?>... parameterTypes) {
+    try {
+      type.getDeclaredMethod(name, parameterTypes);
+      return true;
+    } catch (NoSuchMethodException e) {
+      return false;
+    }
+  }
+
+  private RegisteredType registeredType(int id) {
+    RegisteredType[] types = typesById;
+    if (id >= types.length) {
+      throw new CacheException("Unknown registered type id " + id + " in serialized cache entry.");
+    }
+    return types[id];
+  }
+
+  private byte[] deflate(Output out) {
+    Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+    try {
+      deflater.setInput(out.buf, 1, out.size - 1);
+      deflater.finish();
+      Output deflated = new Output();
+      deflated.writeByte(DEFLATED);
+      deflated.writeVarInt(out.size - 1);
+      while (!deflater.finished()) {
+        deflated.ensureCapacity(4096);
+        deflated.size += deflater.deflate(deflated.buf, deflated.size, deflated.buf.length - deflated.size);
+        if (deflated.size >= out.size) {
+          return null;
+        }
+      }
+      return Arrays.copyOf(deflated.buf, deflated.size);
+    } finally {
+      deflater.end();
+    }
+  }
+
+  private byte[] inflate(byte[] data, int offset, int length) throws DataFormatException {
+    Inflater inflater = new Inflater();
+    try {
+      inflater.setInput(data, offset, data.length - offset);
+      byte[] inflated = new byte[length];
+      int inflatedLength = 0;
+      while (inflatedLength < length && !inflater.finished()) {
+        int count = inflater.inflate(inflated, inflatedLength, length - inflatedLength);
+        if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+          break;
+        }
+        inflatedLength += count;
+      }
+      if (inflatedLength != length) {
+        throw new CacheException("Truncated compressed cache entry.");
+      }
+      return inflated;
+    } finally {
+      inflater.end();
+    }
+  }
+
+  private static int capacityFor(int size) {
+    return Math.max((int) (size / .75f) + 1, 16);
+  }
+
+  private static long zigZag(long value) {
+    return (value << 1) ^ (value >> 63);
+  }
+
+  private static long unZigZag(long value) {
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  private static class RegisteredType {
+
+    private final int id;
+    private final Object[] constants;
+    private final Constructor<?> constructor;
+    private final Field[] fields;
+
+    RegisteredType(int id, Class<?> type) {
+      this.id = id;
+      if (type.isEnum()) {
+        this.constants = type.getEnumConstants();
+        this.constructor = null;
+        this.fields = null;
+        return;
+      }
+      this.constants = null;
+      try {
+        this.constructor = type.getDeclaredConstructor();
+        this.constructor.setAccessible(true);
+      } catch (NoSuchMethodException e) {
+        throw new CacheException("Registered type " + type.getName() + " needs a no-arg constructor.", e);
+      }
+      List<Field> fieldList = new ArrayList<Field>();
+      collectFields(type, fieldList);
+      this.fields = fieldList.toArray(new Field[fieldList.size()]);
+    }
+
+    private static void collectFields(Class<?> type, List<Field> fieldList) {
+      if (type == null || type == Object.class) {
+        return;
+      }
+      collectFields(type.getSuperclass(), fieldList);
+      for (Field field : type.getDeclaredFields()) {
+        int modifiers = field.getModifiers();
+        if (!Modifier.isStatic(modifiers) && !Modifier.isTransient(modifiers)) {
+          field.setAccessible(true);
+          fieldList.add(field);
+        }
+      }
+    }
+
+  }
+
+  private static class Output {
+
+    private byte[] buf = new byte[256];
+    private int size;
+    private final IdentityHashMap<Object, Integer> handles = new IdentityHashMap<Object, Integer>();
+
+    void reset() {
+      size = 0;
+      handles.clear();
+    }
+
+    void ensureCapacity(int count) {
+      if (size + count > buf.length) {
+        buf = Arrays.copyOf(buf, Math.max(buf.length << 1, size + count));
+      }
+    }
+
+    void writeByte(int value) {
+      ensureCapacity(1);
+      buf[size++] = (byte) value;
+    }
+
+    void writeVarInt(int value) {
+      ensureCapacity(5);
+      while ((value & ~0x7F) != 0) {
+        buf[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buf[size++] = (byte) value;
+    }
+
+    void writeVarLong(long value) {
+      ensureCapacity(10);
+      while ((value & ~0x7FL) != 0) {
+        buf[size++] = (byte) ((value & 0x7F) | 0x80);
+        value >>>= 7;
+      }
+      buf[size++] = (byte) value;
+    }
+
+    void writeFixedLong(long value) {
+      ensureCapacity(8);
+      for (int shift = 56; shift >= 0; shift -= 8) {
+        buf[size++] = (byte) (value >>> shift);
+      }
+    }
+
+    void writeByteArray(byte[] bytes) {
+      writeVarInt(bytes.length);
+      ensureCapacity(bytes.length);
+      System.arraycopy(bytes, 0, buf, size, bytes.length);
+      size += bytes.length;
+    }
+
+    void writeString(String value) {
+      int length = value.length();
+      writeVarInt(length);
+      ensureCapacity(length * 3);
+      for (int i = 0; i < length; i++) {
+        char c = value.charAt(i);
+        if (c < 0x80) {
+          buf[size++] = (byte) c;
+        } else if (c < 0x800) {
+          buf[size++] = (byte) (0xC0 | (c >> 6));
+          buf[size++] = (byte) (0x80 | (c & 0x3F));
+        } else {
+          buf[size++] = (byte) (0xE0 | (c >> 12));
+          buf[size++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+          buf[size++] = (byte) (0x80 | (c & 0x3F));
+        }
+      }
+    }
+
+  }
+
+  private static class Input {
+
+    private final byte[] buf;
+    private int pos;
+    private final List<Object> handles = new ArrayList<Object>();
+
+    Input(byte[] buf, int pos) {
+      this.buf = buf;
+      this.pos = pos;
+    }
+
+    int readByte() {
+      return buf[pos++];
+    }
+
+    int readVarInt() {
+      int value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = buf[pos++];
+        value |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+
+    long readVarLong() {
+      long value = 0;
+      for (int shift = 0; ; shift += 7) {
+        byte b = buf[pos++];
+        value |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          return value;
+        }
+      }
+    }
+
+    long readFixedLong() {
+      long value = 0;
+      for (int i = 0; i < 8; i++) {
+        value = (value << 8) | (buf[pos++] & 0xFF);
+      }
+      return value;
+    }
+
+    byte[] readByteArray() {
+      int length = readVarInt();
+      byte[] bytes = Arrays.copyOfRange(buf, pos, pos + length);
+      pos += length;
+      return bytes;
+    }
+
+    String readString() {
+      int length = readVarInt();
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++) {
+        int b = buf[pos++] & 0xFF;
+        if (b < 0x80) {
+          chars[i] = (char) b;
+        } else if (b < 0xE0) {
+          chars[i] = (char) (((b & 0x1F) << 6) | (buf[pos++] & 0x3F));
+        } else {
+          chars[i] = (char) (((b & 0x0F) << 12) | ((buf[pos++] & 0x3F) << 6) | (buf[pos++] & 0x3F));
+        }
+      }
+      return new String(chars);
+    }
+
+  }
+
+}
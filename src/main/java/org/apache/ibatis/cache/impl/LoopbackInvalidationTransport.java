@@ -0,0 +1,90 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.cache.CacheInvalidation;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Delivers invalidations to the other transports of the same <code>channel</code> in this JVM, for
+ * instance to the caches of several configurations that stand in for the nodes of a cluster in a test.
+ *
+ * @since 3.4.7
+ */
+public class LoopbackInvalidationTransport implements InvalidationTransport {
+
+  private static final Log log = LogFactory.getLog(LoopbackInvalidationTransport.class);
+
+  private static final ConcurrentMap<String, List<LoopbackInvalidationTransport>> CHANNELS = new ConcurrentHashMap<String, List<LoopbackInvalidationTransport>>();
+
+  private String channel = "default";
+  private Receiver receiver;
+
+  public String getChannel() {
+    return channel;
+  }
+
+  public void setChannel(String channel) {
+    this.channel = channel;
+  }
+
+  @Override
+  public void start(Receiver receiver) {
+    this.receiver = receiver;
+    List<LoopbackInvalidationTransport> members = CHANNELS.get(channel);
+    if (members == null) {
+      members = new CopyOnWriteArrayList<LoopbackInvalidationTransport>();
+      List<LoopbackInvalidationTransport> previous = CHANNELS.putIfAbsent(channel, members);
+      if (previous != null) {
+        members = previous;
+      }
+    }
+    members.add(this);
+  }
+
+  @Override
+  public void publish(List<CacheInvalidation> invalidations) {
+    List<LoopbackInvalidationTransport> members = CHANNELS.get(channel);
+    if (members == null) {
+      return;
+    }
+    for (LoopbackInvalidationTransport member : members) {
+      if (member != this) {
+        try {
+          member.receiver.receive(invalidations);
+        } catch (RuntimeException e) {
+          log.warn("Could not apply cache invalidations " + invalidations + ". Cause: " + e);
+        }
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    List<LoopbackInvalidationTransport> members = CHANNELS.get(channel);
+    if (members != null) {
+      members.remove(this);
+    }
+  }
+
+}
@@ -0,0 +1,330 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheInvalidation;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Sends invalidations as UDP multicast datagrams to every node that joined the same <code>group</code>
+ * and <code>port</code>.
+ * <p>
+ * Delivery is not guaranteed, a node that misses a datagram keeps stale entries until they expire, so
+ * it is best combined with a flush interval or a time to live. Batches larger than a datagram are split,
+ * and an invalidation whose tags alone do not fit is sent as a clear.
+ * <p>
+ * The transports of one group and port share a single socket and listener thread, opened with the settings
+ * of the first of them and closed with the last. Invalidations published through the shared socket are
+ * also delivered to the other caches of the same JVM.
+ *
+ * @since 3.4.7
+ */
+public class MulticastInvalidationTransport implements InvalidationTransport {
+
+  private static final Log log = LogFactory.getLog(MulticastInvalidationTransport.class);
+
+  private static final int MAGIC = 0x4d424349;
+  private static final int VERSION = 1;
+  private static final int MAX_PACKET_SIZE = 8192;
+  private static final int HEADER_SIZE = 4 + 1 + 16 + 2;
+  private static final byte CLEAR = 0;
+  private static final byte TAGS = 1;
+
+  /**
+   * Channels by group and port, guarded by itself
+   */
+  private static final Map<String, Channel> CHANNELS = new HashMap<String, Channel>();
+
+  private String group = "239.255.27.1";
+  private int port = 45588;
+  private int multicastTimeToLive = 1;
+  private String networkInterface;
+  private Channel channel;
+  private Receiver receiver;
+
+  public String getGroup() {
+    return group;
+  }
+
+  public void setGroup(String group) {
+    this.group = group;
+  }
+
+  public int getPort() {
+    return port;
+  }
+
+  public void setPort(int port) {
+    this.port = port;
+  }
+
+  public int getMulticastTimeToLive() {
+    return multicastTimeToLive;
+  }
+
+  public void setMulticastTimeToLive(int multicastTimeToLive) {
+    this.multicastTimeToLive = multicastTimeToLive;
+  }
+
+  public String getNetworkInterface() {
+    return networkInterface;
+  }
+
+  public void setNetworkInterface(String networkInterface) {
+    this.networkInterface = networkInterface;
+  }
+
+  @Override
+  public void start(Receiver receiver) {
+    synchronized (CHANNELS) {
+      if (channel != null) {
+        throw new CacheException("Multicast invalidation transport " + group + ":" + port + " is already started.");
+      }
+      String address = group + ":" + port;
+      Channel shared = CHANNELS.get(address);
+      if (shared == null) {
+        shared = new Channel(address);
+        shared.open(group, port, multicastTimeToLive, networkInterface);
+        CHANNELS.put(address, shared);
+      }
+      shared.receivers.add(receiver);
+      this.channel = shared;
+      this.receiver = receiver;
+    }
+  }
+
+  @Override
+  public void publish(List<CacheInvalidation> invalidations) {
+    Channel publishingChannel = channel;
+    if (publishingChannel == null) {
+      throw new CacheException("Multicast invalidation transport " + group + ":" + port + " is not started.");
+    }
+    publishingChannel.send(invalidations, receiver);
+  }
+
+  @Override
+  public void close() {
+    synchronized (CHANNELS) {
+      if (channel != null) {
+        channel.receivers.remove(receiver);
+        if (channel.receivers.isEmpty()) {
+          CHANNELS.remove(channel.address);
+          channel.close();
+        }
+        channel = null;
+        receiver = null;
+      }
+    }
+  }
+
+  static List<byte[]> encode(UUID sender, List<CacheInvalidation> invalidations) throws IOException {
+    List<byte[]> datagrams = new ArrayList<byte[]>();
+    ByteArrayOutputStream body = new ByteArrayOutputStream();
+    int count = 0;
+    for (CacheInvalidation invalidation : invalidations) {
+      byte[] entry = encode(invalidation);
+      if (HEADER_SIZE + entry.length > MAX_PACKET_SIZE) {
+        entry = encode(CacheInvalidation.clear(invalidation.getCacheId()));
+      }
+      if (HEADER_SIZE + body.size() + entry.length > MAX_PACKET_SIZE) {
+        datagrams.add(datagram(sender, body, count));
+        body.reset();
+        count = 0;
+      }
+      body.write(entry);
+      count++;
+    }
+    if (count > 0) {
+      datagrams.add(datagram(sender, body, count));
+    }
+    return datagrams;
+  }
+
+  private static byte[] datagram(UUID sender, ByteArrayOutputStream body, int count) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(HEADER_SIZE + body.size());
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(MAGIC);
+    out.writeByte(VERSION);
+    out.writeLong(sender.getMostSignificantBits());
+    out.writeLong(sender.getLeastSignificantBits());
+    out.writeShort(count);
+    body.writeTo(out);
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  private static byte[] encode(CacheInvalidation invalidation) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeUTF(invalidation.getCacheId());
+    if (invalidation.isClear()) {
+      out.writeByte(CLEAR);
+    } else {
+      out.writeByte(TAGS);
+      out.writeShort(invalidation.getTags().size());
+      for (String tag : invalidation.getTags()) {
+        out.writeUTF(tag);
+      }
+    }
+    out.flush();
+    return bytes.toByteArray();
+  }
+
+  /**
+   * @return the invalidations of a datagram or null if it is foreign or was sent by the given sender
+   */
+  static List<CacheInvalidation> decode(UUID sender, byte[] data, int offset, int length) throws IOException {
+    DataInputStream in = new DataInputStream(new ByteArrayInputStream(data, offset, length));
+    if (length < HEADER_SIZE || in.readInt() != MAGIC || in.readByte() != VERSION) {
+      return null;
+    }
+    long mostSigBits = in.readLong();
+    long leastSigBits = in.readLong();
+    if (mostSigBits == sender.getMostSignificantBits() && leastSigBits == sender.getLeastSignificantBits()) {
+      return null;
+    }
+    int count = in.readUnsignedShort();
+    List<CacheInvalidation> invalidations = new ArrayList<CacheInvalidation>(count);
+    for (int i = 0; i < count; i++) {
+      String cacheId = in.readUTF();
+      if (in.readByte() == CLEAR) {
+        invalidations.add(CacheInvalidation.clear(cacheId));
+      } else {
+        int tagCount = in.readUnsignedShort();
+        List<String> tags = new ArrayList<String>(tagCount);
+        for (int j = 0; j < tagCount; j++) {
+          tags.add(in.readUTF());
+        }
+        invalidations.add(CacheInvalidation.tags(cacheId, tags));
+      }
+    }
+    return invalidations;
+  }
+
+  /**
+   * The socket and listener thread shared by the transports of one group and port, it delivers the
+   * received invalidations to all of them and the published ones to the others of this JVM.
+   */
+  private static class Channel {
+
+    private final String address;
+    private final UUID sender = UUID.randomUUID();
+    private final List<Receiver> receivers = new CopyOnWriteArrayList<Receiver>();
+    private MulticastSocket socket;
+    private InetAddress groupAddress;
+    private int port;
+
+    Channel(String address) {
+      this.address = address;
+    }
+
+    void open(String group, int port, int multicastTimeToLive, String networkInterface) {
+      this.port = port;
+      try {
+        groupAddress = InetAddress.getByName(group);
+        socket = new MulticastSocket(port);
+        socket.setTimeToLive(multicastTimeToLive);
+        if (networkInterface != null) {
+          socket.setNetworkInterface(NetworkInterface.getByName(networkInterface));
+        }
+        socket.joinGroup(groupAddress);
+      } catch (IOException e) {
+        if (socket != null) {
+          socket.close();
+        }
+        throw new CacheException("Could not join multicast group " + address + ". Cause: " + e, e);
+      }
+      final MulticastSocket listeningSocket = socket;
+      Thread listener = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          byte[] buffer = new byte[MAX_PACKET_SIZE];
+          while (!listeningSocket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+              listeningSocket.receive(packet);
+            } catch (IOException e) {
+              if (!listeningSocket.isClosed()) {
+                log.warn("Could not receive cache invalidations. Cause: " + e);
+              }
+              continue;
+            }
+            try {
+              List<CacheInvalidation> invalidations = decode(sender, packet.getData(), packet.getOffset(), packet.getLength());
+              if (invalidations != null) {
+                deliver(invalidations, null);
+              }
+            } catch (Exception e) {
+              log.warn("Could not apply cache invalidations from " + packet.getSocketAddress() + ". Cause: " + e);
+            }
+          }
+        }
+      }, "mybatis-cache-invalidation-" + address);
+      listener.setDaemon(true);
+      listener.start();
+    }
+
+    void send(List<CacheInvalidation> invalidations, Receiver publisher) {
+      try {
+        for (byte[] datagram : encode(sender, invalidations)) {
+          socket.send(new DatagramPacket(datagram, datagram.length, groupAddress, port));
+        }
+      } catch (IOException e) {
+        log.warn("Could not publish cache invalidations " + invalidations + ". Cause: " + e);
+      }
+      // the listener drops the datagrams of this channel, so the caches of this JVM are served here
+      deliver(invalidations, publisher);
+    }
+
+    private void deliver(List<CacheInvalidation> invalidations, Receiver publisher) {
+      for (Receiver receiver : receivers) {
+        if (receiver != publisher) {
+          receiver.receive(invalidations);
+        }
+      }
+    }
+
+    void close() {
+      try {
+        socket.leaveGroup(groupAddress);
+      } catch (IOException e) {
+        // closing anyway
+      }
+      socket.close();
+    }
+
+  }
+
+}
@@ -0,0 +1,365 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.apache.ibatis.builder.InitializingObject;
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.CacheStatistics;
+
+/**
+ * Cache that keeps serialized values outside of the Java heap.
+ * <p>
+ * Values are written to fixed size slabs of direct memory, or of a memory mapped file when {@link #setFile(String) file}
+ * is set, that are filled one after the other as a ring. When the ring is full the oldest slab is reused and every entry
+ * still stored in it is dropped. Only keys and the location of each value stay on the heap. Like a read-write cache
+ * every get returns a new copy, made by a {@link CacheSerializer} that defaults to Java serialization, so cached
+ * values must be {@link Serializable}.
+ * <p>
+ * The cache is safe for concurrent use; values are serialized and deserialized outside of its lock.
+ *
+ * @since 3.4.7
+ */
+public class OffHeapCache implements Cache, InitializingObject {
+
+  private final String id;
+
+  private long capacity = 64L * 1024 * 1024;
+  private int slabSize = 4 * 1024 * 1024;
+  private String file;
+  private CacheSerializer serializer = new JdkCacheSerializer();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Object, Location> index = new HashMap<Object, Location>();
+  private ByteBuffer[] slabs;
+  private List<List<Object>> slabKeys;
+  private int writeSlab;
+  private int writeOffset;
+  private long bytes;
+  private CacheStatistics statistics;
+
+  public OffHeapCache(String id) {
+    this.id = id;
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  /**
+   * @param capacity the number of bytes to keep off-heap, rounded up to whole slabs
+   */
+  public void setCapacity(long capacity) {
+    this.capacity = capacity;
+  }
+
+  public long getCapacity() {
+    return capacity;
+  }
+
+  /**
+   * @param slabSize the number of bytes per slab, also the largest value that can be cached
+   */
+  public void setSlabSize(int slabSize) {
+    this.slabSize = slabSize;
+  }
+
+  public int getSlabSize() {
+    return slabSize;
+  }
+
+  /**
+   * @param file a file to map the slabs to instead of allocating direct memory, overwritten on startup
+   */
+  public void setFile(String file) {
+    this.file = file;
+  }
+
+  public String getFile() {
+    return file;
+  }
+
+  public void setSerializer(CacheSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  public CacheSerializer getSerializer() {
+    return serializer;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setStatistics(CacheStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * @return the number of serialized bytes held by the cached values
+   */
+  public long getBytes() {
+    lock.lock();
+    try {
+      return bytes;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void initialize() throws Exception {
+    lock.lock();
+    try {
+      if (slabs != null) {
+        return;
+      }
+      if (slabSize <= 0 || capacity <= 0) {
+        throw new CacheException("OffHeapCache '" + id + "' needs a positive capacity and slabSize.");
+      }
+      if (capacity < slabSize) {
+        slabSize = (int) capacity;
+      }
+      long slabCount = (capacity + slabSize - 1) / slabSize;
+      if (slabCount > Integer.MAX_VALUE) {
+        throw new CacheException("OffHeapCache '" + id + "' has too many slabs, increase slabSize.");
+      }
+      slabs = new ByteBuffer[(int) slabCount];
+      // the keys stored in each slab, created along with the slab
+      slabKeys = new ArrayList<List<Object>>(Collections.<List<Object>> nCopies(slabs.length, null));
+      if (file != null) {
+        mapFile();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public int getSize() {
+    lock.lock();
+    try {
+      return index.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void putObject(Object key, Object value) {
+    if (value != null && !(value instanceof Serializable)) {
+      throw new CacheException("OffHeapCache failed to store a non-serializable object: " + value);
+    }
+    byte[] data = serializer.serialize(value);
+    if (statistics != null) {
+      statistics.recordBytes(data.length);
+    }
+    lock.lock();
+    try {
+      ensureInitialized();
+      forget(key);
+      if (data.length > slabSize) {
+        return;
+      }
+      if (writeOffset + data.length > slabSize) {
+        writeSlab = (writeSlab + 1) % slabs.length;
+        writeOffset = 0;
+        evictSlab(writeSlab);
+      }
+      ByteBuffer slab = slab(writeSlab);
+      slab.position(writeOffset);
+      slab.put(data);
+      index.put(key, new Location(writeSlab, writeOffset, data.length));
+      slabKeys.get(writeSlab).add(key);
+      writeOffset += data.length;
+      bytes += data.length;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public Object getObject(Object key) {
+    byte[] data;
+    lock.lock();
+    try {
+      Location location = index.get(key);
+      if (location == null) {
+        return null;
+      }
+      data = new byte[location.length];
+      ByteBuffer slab = slabs[location.slab];
+      slab.position(location.offset);
+      slab.get(data);
+    } finally {
+      lock.unlock();
+    }
+    return serializer.deserialize(data);
+  }
+
+  @Override
+  public Object removeObject(Object key) {
+    lock.lock();
+    try {
+      forget(key);
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void clear() {
+    lock.lock();
+    try {
+      index.clear();
+      if (slabKeys != null) {
+        for (List<Object> keys : slabKeys) {
+          if (keys != null) {
+            keys.clear();
+          }
+        }
+      }
+      writeSlab = 0;
+      writeOffset = 0;
+      bytes = 0;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public ReadWriteLock getReadWriteLock() {
+    return null;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof Cache)) {
+      return false;
+    }
+
+    Cache otherCache = (Cache) o;
+    return getId().equals(otherCache.getId());
+  }
+
+  @Override
+  public int hashCode() {
+    if (getId() == null) {
+      throw new CacheException("Cache instances require an ID.");
+    }
+    return getId().hashCode();
+  }
+
+  private void ensureInitialized() {
+    if (slabs == null) {
+      try {
+        initialize();
+      } catch (Exception e) {
+        throw new CacheException("Error initializing OffHeapCache '" + id + "'.  Cause: " + e, e);
+      }
+    }
+  }
+
+  private ByteBuffer slab(int slabIndex) {
+    if (slabs[slabIndex] == null) {
+      slabs[slabIndex] = ByteBuffer.allocateDirect(slabSize);
+    }
+    if (slabKeys.get(slabIndex) == null) {
+      slabKeys.set(slabIndex, new ArrayList<Object>());
+    }
+    return slabs[slabIndex];
+  }
+
+  private void mapFile() throws IOException {
+    File mapped = new File(file);
+    RandomAccessFile raf = new RandomAccessFile(mapped, "rw");
+    try {
+      raf.setLength(0);
+      raf.setLength((long) slabs.length * slabSize);
+      FileChannel channel = raf.getChannel();
+      for (int i = 0; i < slabs.length; i++) {
+        // a mapping stays valid after its channel is closed
+        slabs[i] = channel.map(FileChannel.MapMode.READ_WRITE, (long) i * slabSize, slabSize);
+      }
+    } finally {
+      raf.close();
+    }
+    mapped.deleteOnExit();
+  }
+
+  private void evictSlab(int slabIndex) {
+    List<Object> keys = slabKeys.get(slabIndex);
+    if (keys == null) {
+      return;
+    }
+    for (Object key : keys) {
+      Location location = index.get(key);
+      // the key may have been stored again in a newer slab since
+      if (location != null && location.slab == slabIndex) {
+        index.remove(key);
+        bytes -= location.length;
+        if (statistics != null) {
+          statistics.recordEviction();
+        }
+      }
+    }
+    keys.clear();
+  }
+
+  private void forget(Object key) {
+    Location location = index.remove(key);
+    if (location != null) {
+      bytes -= location.length;
+    }
+  }
+
+  private static class Location {
+
+    private final int slab;
+    private final int offset;
+    private final int length;
+
+    Location(int slab, int offset, int length) {
+      this.slab = slab;
+      this.offset = offset;
+      this.length = length;
+    }
+
+  }
+
+}
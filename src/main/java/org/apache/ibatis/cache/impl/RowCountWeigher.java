@@ -0,0 +1,49 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.lang.reflect.Array;
+import java.util.Collection;
+import java.util.Map;
+
+import org.apache.ibatis.cache.CacheWeigher;
+
+/**
+ * Weighs a cached result by the number of rows it holds. A query result is cached as a list, any other
+ * value counts as a single row.
+ *
+ * @since 3.4.7
+ */
+public class RowCountWeigher implements CacheWeigher {
+
+  @Override
+  public long weigh(Object key, Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof Collection) {
+      return ((Collection<?>) value).size();
+    }
+    if (value instanceof Map) {
+      return ((Map<?, ?>) value).size();
+    }
+    if (value.getClass().isArray()) {
+      return Array.getLength(value);
+    }
+    return 1;
+  }
+
+}
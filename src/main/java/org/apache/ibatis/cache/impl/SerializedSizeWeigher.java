@@ -0,0 +1,72 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheWeigher;
+
+/**
+ * Weighs a cached result by its serialized length in bytes.
+ * <p>
+ * Below a read-write cache the value already is the byte array written by
+ * {@link org.apache.ibatis.cache.decorators.SerializedCache} and its length is taken as is. Any other
+ * value is serialized into a counting stream, which costs about as much as a read-write put.
+ *
+ * @since 3.4.7
+ */
+public class SerializedSizeWeigher implements CacheWeigher {
+
+  @Override
+  public long weigh(Object key, Object value) {
+    if (value == null) {
+      return 0;
+    }
+    if (value instanceof byte[]) {
+      return ((byte[]) value).length;
+    }
+    CountingOutputStream out = new CountingOutputStream();
+    try {
+      ObjectOutputStream oos = new ObjectOutputStream(out);
+      oos.writeObject(value);
+      oos.flush();
+      oos.close();
+    } catch (IOException e) {
+      throw new CacheException("Error weighing cached object.  Cause: " + e, e);
+    }
+    return out.count;
+  }
+
+  private static class CountingOutputStream extends OutputStream {
+
+    private long count;
+
+    @Override
+    public void write(int b) {
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+      count += len;
+    }
+
+  }
+
+}
@@ -0,0 +1,70 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource;
+
+import org.apache.ibatis.metrics.HistogramSnapshot;
+
+/**
+ * Read-only statistics of a connection pool.
+ * <p>
+ * Implementations must answer without taking the lock that guards connection checkout, so that a
+ * monitoring agent can poll them frequently without slowing down the application. Latency
+ * histograms are in microseconds.
+ *
+ * @since 3.4.7
+ */
+public interface PoolMetrics {
+
+  /**
+   * @return number of connections handed out since the pool was created
+   */
+  long getRequestCount();
+
+  /**
+   * @return number of requests that found the pool exhausted and had to wait
+   */
+  long getHadToWaitCount();
+
+  /**
+   * @return number of connections found invalid on checkout or return
+   */
+  long getBadConnectionCount();
+
+  /**
+   * @return number of connections taken back from a caller that held them longer than allowed
+   */
+  long getClaimedOverdueConnectionCount();
+
+  int getActiveConnectionCount();
+
+  int getIdleConnectionCount();
+
+  /**
+   * @return time callers of {@code getConnection} spent obtaining a connection
+   */
+  HistogramSnapshot getWaitTimeHistogram();
+
+  /**
+   * @return time connections were held by callers before being returned or claimed
+   */
+  HistogramSnapshot getCheckoutTimeHistogram();
+
+  /**
+   * @return time spent validating connections
+   */
+  HistogramSnapshot getValidationTimeHistogram();
+
+}
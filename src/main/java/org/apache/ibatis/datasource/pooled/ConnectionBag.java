@@ -0,0 +1,232 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Lock-free holder of the connections of a {@link FastPooledDataSource}.
+ * <p>
+ * An idle connection is published to a shared queue and remembered by the thread that returned it,
+ * whichever borrower wins {@link PooledConnection#claim()} first owns it and the other reference
+ * becomes stale. Stale queue entries are counted and purged once they outnumber the idle connections,
+ * so the queue does not grow with every return. Threads waiting on an exhausted pool are served in
+ * arrival order through a fair {@link SynchronousQueue} and the connections handed to them are never
+ * queued.
+ */
+class ConnectionBag {
+
+  private static final int MINIMUM_STALE_ENTRIES = 16;
+  private static final long HANDOFF_TIMEOUT_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+  private static final long AWAIT_SLICE_NANOS = TimeUnit.MILLISECONDS.toNanos(10);
+
+  private final ConcurrentLinkedQueue<PooledConnection> idleConnections = new ConcurrentLinkedQueue<PooledConnection>();
+  /**
+   * Checked out connections keyed by the real connection, a returned connection is re-wrapped
+   * so its {@link PooledConnection} changes while the real connection does not
+   */
+  private final ConcurrentHashMap<Connection, PooledConnection> activeConnections = new ConcurrentHashMap<Connection, PooledConnection>();
+  private final ThreadLocal<PooledConnection> lastReturned = new ThreadLocal<PooledConnection>();
+  private final SynchronousQueue<PooledConnection> handoffQueue = new SynchronousQueue<PooledConnection>(true);
+  private final AtomicInteger idleCount = new AtomicInteger();
+  private final AtomicInteger totalCount = new AtomicInteger();
+  private final AtomicInteger waiters = new AtomicInteger();
+  /**
+   * Queued wrappers that were claimed through the thread that returned them and wait to be purged
+   */
+  private final AtomicInteger staleEntries = new AtomicInteger();
+
+  /*
+   * Takes an idle connection without blocking, preferring the one the current thread returned last
+   *
+   * @return an idle connection or null if there is none
+   */
+  PooledConnection borrow() {
+    PooledConnection conn = lastReturned.get();
+    if (conn != null) {
+      lastReturned.remove();
+      if (conn.claim()) {
+        idleCount.decrementAndGet();
+        staleEntries.incrementAndGet();
+        return conn;
+      }
+    }
+    return pollIdle();
+  }
+
+  /*
+   * Takes an idle connection from the shared queue, skipping entries that were already claimed
+   *
+   * @return an idle connection or null if there is none
+   */
+  PooledConnection pollIdle() {
+    PooledConnection conn;
+    while ((conn = idleConnections.poll()) != null) {
+      if (conn.claim()) {
+        idleCount.decrementAndGet();
+        return conn;
+      }
+    }
+    return null;
+  }
+
+  /*
+   * Waits for an idle connection to be returned
+   *
+   * @param timeoutMillis - the maximum time to wait
+   * @return an idle connection or null if none was returned in time
+   */
+  PooledConnection await(long timeoutMillis) throws InterruptedException {
+    waiters.incrementAndGet();
+    try {
+      long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+      long remaining;
+      do {
+        // a connection may have been returned before this thread registered as a waiter
+        PooledConnection conn = borrow();
+        if (conn != null) {
+          return conn;
+        }
+        remaining = deadline - System.nanoTime();
+        // in slices, a connection that could not be handed off in time is found by borrow()
+        conn = handoffQueue.poll(Math.min(remaining, AWAIT_SLICE_NANOS), TimeUnit.NANOSECONDS);
+        if (conn != null && conn.claim()) {
+          idleCount.decrementAndGet();
+          return conn;
+        }
+      } while (remaining > 0);
+      return null;
+    } finally {
+      waiters.decrementAndGet();
+    }
+  }
+
+  /*
+   * Makes a returned connection available again, handing it directly to a waiting thread if there is one
+   *
+   * @param conn - the new idle wrapper of the returned connection
+   */
+  void requite(PooledConnection conn) {
+    idleCount.incrementAndGet();
+    if (waiters.get() > 0 && handOff(conn)) {
+      return;
+    }
+    idleConnections.offer(conn);
+    lastReturned.set(conn);
+    int stale = staleEntries.get();
+    if (stale > Math.max(MINIMUM_STALE_ENTRIES, idleCount.get()) && staleEntries.compareAndSet(stale, 0)) {
+      purgeStaleEntries();
+    }
+  }
+
+  /*
+   * Offers a connection to the waiting threads for a short while instead of spinning until one of them
+   * polls, a waiter that misses it finds it in the queue
+   */
+  private boolean handOff(PooledConnection conn) {
+    try {
+      return handoffQueue.offer(conn, HANDOFF_TIMEOUT_NANOS, TimeUnit.NANOSECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+
+  /*
+   * Drops the queued wrappers that were already claimed. Wrappers are removed by identity because
+   * two wrappers of the same real connection are equal.
+   */
+  private void purgeStaleEntries() {
+    Iterator<PooledConnection> iterator = idleConnections.iterator();
+    while (iterator.hasNext()) {
+      if (iterator.next().isClaimed()) {
+        iterator.remove();
+      }
+    }
+  }
+
+  /*
+   * Reserves room for a new connection
+   *
+   * @param maximum - the maximum number of connections the pool may hold
+   * @return True if a new connection may be opened
+   */
+  boolean reserve(int maximum) {
+    while (true) {
+      int total = totalCount.get();
+      if (total >= maximum) {
+        return false;
+      }
+      if (totalCount.compareAndSet(total, total + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /*
+   * Gives up the room held by a connection that has been or is about to be closed
+   */
+  void discard() {
+    totalCount.decrementAndGet();
+  }
+
+  void activate(PooledConnection conn) {
+    conn.claim();
+    activeConnections.put(conn.getRealConnection(), conn);
+  }
+
+  /*
+   * Removes a connection from the active ones
+   *
+   * @param conn - the checked out connection
+   * @return True if the caller is the only one returning the connection
+   */
+  boolean deactivate(PooledConnection conn) {
+    if (conn.release()) {
+      activeConnections.remove(conn.getRealConnection());
+      return true;
+    }
+    return false;
+  }
+
+  Collection<PooledConnection> activeConnections() {
+    return activeConnections.values();
+  }
+
+  int getIdleCount() {
+    return idleCount.get();
+  }
+
+  int getActiveCount() {
+    return activeConnections.size();
+  }
+
+  int getTotalCount() {
+    return totalCount.get();
+  }
+
+  int getQueuedCount() {
+    return idleConnections.size();
+  }
+
+}
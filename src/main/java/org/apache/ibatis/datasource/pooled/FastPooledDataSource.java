@@ -0,0 +1,319 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Properties;
+
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * A connection pool that does not serialize checkout and return on a single monitor.
+ * <p>
+ * Idle connections are kept in a {@link ConnectionBag}: a lock-free queue shared by all threads,
+ * a thread-local hint to the connection the current thread returned last and a fair hand-off
+ * queue for threads waiting on an exhausted pool. It accepts the same properties as
+ * {@link PooledDataSource} and reports through the same {@link PoolState} getters.
+ *
+ * @since 3.4.7
+ */
+public class FastPooledDataSource extends PooledDataSource {
+
+  private static final Log log = LogFactory.getLog(FastPooledDataSource.class);
+
+  private final ConnectionBag bag = new ConnectionBag();
+
+  private final FastPoolState state = new FastPoolState(this, bag);
+
+  public FastPooledDataSource() {
+    super();
+  }
+
+  public FastPooledDataSource(UnpooledDataSource dataSource) {
+    super(dataSource);
+  }
+
+  public FastPooledDataSource(String driver, String url, String username, String password) {
+    super(driver, url, username, password);
+  }
+
+  public FastPooledDataSource(String driver, String url, Properties driverProperties) {
+    super(driver, url, driverProperties);
+  }
+
+  public FastPooledDataSource(ClassLoader driverClassLoader, String driver, String url, String username, String password) {
+    super(driverClassLoader, driver, url, username, password);
+  }
+
+  public FastPooledDataSource(ClassLoader driverClassLoader, String driver, String url, Properties driverProperties) {
+    super(driverClassLoader, driver, url, driverProperties);
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    return popConnection(dataSource.getUsername(), dataSource.getPassword()).getProxyConnection();
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    return popConnection(username, password).getProxyConnection();
+  }
+
+  @Override
+  public PoolState getPoolState() {
+    return state;
+  }
+
+  /*
+   * Closes all active and idle connections in the pool
+   */
+  @Override
+  public void forceCloseAll() {
+    expectedConnectionTypeCode = assembleConnectionTypeCode(dataSource.getUrl(), dataSource.getUsername(), dataSource.getPassword());
+    for (PooledConnection conn : bag.activeConnections()) {
+      if (bag.deactivate(conn)) {
+        bag.discard();
+        conn.invalidate();
+        closeQuietly(conn);
+      }
+    }
+    PooledConnection conn;
+    while ((conn = bag.pollIdle()) != null) {
+      bag.discard();
+      conn.invalidate();
+      closeQuietly(conn);
+    }
+    if (log.isDebugEnabled()) {
+      log.debug("FastPooledDataSource forcefully closed/removed all connections.");
+    }
+  }
+
+  @Override
+  protected void pushConnection(PooledConnection conn) throws SQLException {
+    if (!bag.deactivate(conn)) {
+      // already claimed as overdue or closed by forceCloseAll
+      if (log.isDebugEnabled()) {
+        log.debug("A connection (" + conn.getRealHashCode() + ") that is no longer active attempted to return to the pool, ignoring.");
+      }
+      state.badConnection();
+      return;
+    }
+    state.checkedIn(conn.getCheckoutTime());
+    if (conn.isValid()) {
+      if (bag.getIdleCount() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(conn)) {
+        if (!resetConnection(conn)) {
+          bag.discard();
+          conn.invalidate();
+          closeQuietly(conn);
+          state.badConnection();
+          return;
+        }
+        PooledConnection newConn = new PooledConnection(conn.getRealConnection(), this);
+        newConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+        newConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        conn.invalidate();
+        bag.requite(newConn);
+        if (log.isDebugEnabled()) {
+          log.debug("Returned connection " + newConn.getRealHashCode() + " to pool.");
+        }
+      } else {
+        bag.discard();
+        conn.invalidate();
+        try {
+          if (!conn.getRealConnection().getAutoCommit()) {
+            conn.getRealConnection().rollback();
+          }
+        } finally {
+          conn.getRealConnection().close();
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Closed connection " + conn.getRealHashCode() + ".");
+        }
+      }
+    } else {
+      bag.discard();
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
+      }
+      state.badConnection();
+    }
+  }
+
+  private PooledConnection popConnection(String username, String password) throws SQLException {
+    boolean countedWait = false;
+    long t = System.nanoTime();
+    int localBadConnectionCount = 0;
+
+    while (true) {
+      PooledConnection conn = bag.borrow();
+      if (conn != null) {
+        if (log.isDebugEnabled()) {
+          log.debug("Checked out connection " + conn.getRealHashCode() + " from pool.");
+        }
+      } else if (bag.reserve(poolMaximumActiveConnections)) {
+        try {
+          conn = new PooledConnection(dataSource.getConnection(), this);
+        } catch (SQLException e) {
+          bag.discard();
+          throw e;
+        } catch (RuntimeException e) {
+          bag.discard();
+          throw e;
+        }
+        if (log.isDebugEnabled()) {
+          log.debug("Created connection " + conn.getRealHashCode() + ".");
+        }
+      } else {
+        conn = claimOverdueConnection();
+        if (conn == null) {
+          if (!countedWait) {
+            state.hadToWait();
+            countedWait = true;
+          }
+          if (log.isDebugEnabled()) {
+            log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
+          }
+          long wt = System.nanoTime();
+          try {
+            conn = bag.await(poolTimeToWait);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("FastPooledDataSource: Interrupted while waiting for a connection.");
+          }
+          state.waited(System.nanoTime() - wt);
+          if (conn == null) {
+            continue;
+          }
+        }
+      }
+
+      if (conn.isValid() && resetConnection(conn)) {
+        conn.setConnectionTypeCode(assembleConnectionTypeCode(dataSource.getUrl(), username, password));
+        conn.setCheckoutTimestamp(System.currentTimeMillis());
+        conn.setLastUsedTimestamp(System.currentTimeMillis());
+        bag.activate(conn);
+        state.checkedOut(System.nanoTime() - t);
+        return conn;
+      }
+
+      if (log.isDebugEnabled()) {
+        log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
+      }
+      bag.discard();
+      closeQuietly(conn);
+      state.badConnection();
+      localBadConnectionCount++;
+      if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
+        if (log.isDebugEnabled()) {
+          log.debug("FastPooledDataSource: Could not get a good connection to the database.");
+        }
+        throw new SQLException("FastPooledDataSource: Could not get a good connection to the database.");
+      }
+    }
+  }
+
+  /*
+   * Rolls back the pending work of a connection
+   *
+   * @return False if the connection failed, the caller then owns a broken connection and its room in the pool
+   */
+  private boolean resetConnection(PooledConnection conn) {
+    try {
+      if (!conn.getRealConnection().getAutoCommit()) {
+        conn.getRealConnection().rollback();
+      }
+      return true;
+    } catch (SQLException e) {
+      log.debug("Could not reset connection " + conn.getRealHashCode() + ". Cause: " + e);
+    } catch (RuntimeException e) {
+      log.debug("Could not reset connection " + conn.getRealHashCode() + ". Cause: " + e);
+    }
+    return false;
+  }
+
+  @Override
+  protected void housekeep() {
+    // every idle connection is visited once, the ones put back go to the tail of the queue
+    for (int i = bag.getIdleCount(); i > 0; i--) {
+      PooledConnection conn = bag.pollIdle();
+      if (conn == null) {
+        break;
+      }
+      if (!isRetired(conn, bag.getIdleCount()) && pingConnection(conn)) {
+        PooledConnection idleConn = new PooledConnection(conn.getRealConnection(), this);
+        idleConn.setCreatedTimestamp(conn.getCreatedTimestamp());
+        idleConn.setLastUsedTimestamp(conn.getLastUsedTimestamp());
+        idleConn.setConnectionTypeCode(conn.getConnectionTypeCode());
+        conn.invalidate();
+        bag.requite(idleConn);
+      } else {
+        bag.discard();
+        conn.invalidate();
+        closeQuietly(conn);
+        if (log.isDebugEnabled()) {
+          log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+        }
+      }
+    }
+
+    int minimumIdle = Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections);
+    while (bag.getIdleCount() < minimumIdle && bag.reserve(poolMaximumActiveConnections)) {
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+      } catch (SQLException e) {
+        bag.discard();
+        log.warn("Could not open an idle connection: " + e.getMessage());
+        return;
+      }
+      bag.requite(conn);
+      if (log.isDebugEnabled()) {
+        log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+      }
+    }
+  }
+
+  private PooledConnection claimOverdueConnection() {
+    for (PooledConnection oldConn : bag.activeConnections()) {
+      long checkoutTime = oldConn.getCheckoutTime();
+      if (checkoutTime > poolMaximumCheckoutTime && bag.deactivate(oldConn)) {
+        state.claimedOverdue(checkoutTime);
+        Connection realConn = oldConn.getRealConnection();
+        try {
+          if (!realConn.getAutoCommit()) {
+            realConn.rollback();
+          }
+        } catch (SQLException e) {
+          // the bad connection is discarded by the validity check in popConnection
+          log.debug("Bad connection. Could not roll back");
+        }
+        PooledConnection conn = new PooledConnection(realConn, this);
+        conn.setCreatedTimestamp(oldConn.getCreatedTimestamp());
+        conn.setLastUsedTimestamp(oldConn.getLastUsedTimestamp());
+        oldConn.invalidate();
+        if (log.isDebugEnabled()) {
+          log.debug("Claimed overdue connection " + conn.getRealHashCode() + ".");
+        }
+        return conn;
+      }
+    }
+    return null;
+  }
+
+}
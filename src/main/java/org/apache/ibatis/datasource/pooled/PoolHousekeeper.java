@@ -0,0 +1,73 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+
+/**
+ * Daemon thread that periodically runs {@link PooledDataSource#housekeep()}.
+ * <p>
+ * The task only keeps a weak reference to the data source, so an abandoned pool can still be
+ * garbage collected (and finalized) and the thread then stops by itself.
+ */
+class PoolHousekeeper implements Runnable {
+
+  private static final Log log = LogFactory.getLog(PoolHousekeeper.class);
+
+  private final WeakReference<PooledDataSource> dataSource;
+  private final ScheduledExecutorService executor;
+
+  PoolHousekeeper(PooledDataSource dataSource, long periodMillis) {
+    this.dataSource = new WeakReference<PooledDataSource>(dataSource);
+    this.executor = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+      @Override
+      public Thread newThread(Runnable r) {
+        Thread thread = new Thread(r, "mybatis-pool-housekeeper");
+        thread.setDaemon(true);
+        return thread;
+      }
+    });
+    // the first run happens right away so that the pool is pre-filled
+    executor.scheduleWithFixedDelay(this, 0, periodMillis, TimeUnit.MILLISECONDS);
+  }
+
+  @Override
+  public void run() {
+    PooledDataSource ds = dataSource.get();
+    if (ds == null) {
+      executor.shutdown();
+      return;
+    }
+    try {
+      ds.housekeep();
+    } catch (Exception e) {
+      // an exception would cancel all subsequent runs
+      log.warn("Pool housekeeping failed: " + e.getMessage());
+    }
+  }
+
+  void stop() {
+    executor.shutdownNow();
+  }
+
+}
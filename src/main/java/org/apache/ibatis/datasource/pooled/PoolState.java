@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,12 +17,22 @@ package org.apache.ibatis.datasource.pooled;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.datasource.PoolMetrics;
+import org.apache.ibatis.metrics.HistogramSnapshot;
+import org.apache.ibatis.metrics.LatencyHistogram;
+import org.apache.ibatis.metrics.StripedCounter;
 
 /**
  * PoolState 用于记录连接池运行时的状态，比如连接获取次数，无效连接数量等
+ * <p>
+ * The statistics are kept in striped counters and histograms, so the getters never take the
+ * monitor that {@link PooledDataSource} holds during checkout.
+ *
  * @author Clinton Begin
  */
-public class PoolState {
+public class PoolState implements PoolMetrics {
 
   protected PooledDataSource dataSource;
 
@@ -67,54 +77,156 @@ public class PoolState {
    */
   protected long badConnectionCount = 0;
 
+  /*
+   * The live statistics; the protected fields above are snapshots of them taken whenever the statistics are read
+   */
+  private final StripedCounter requests = new StripedCounter();
+  private final StripedCounter requestNanos = new StripedCounter();
+  private final StripedCounter checkoutMillis = new StripedCounter();
+  private final StripedCounter overdueClaims = new StripedCounter();
+  private final StripedCounter overdueCheckoutMillis = new StripedCounter();
+  private final StripedCounter waits = new StripedCounter();
+  private final StripedCounter waitNanos = new StripedCounter();
+  private final StripedCounter badConnections = new StripedCounter();
+
+  /**
+   * 获取连接耗时分布（单位：微秒）
+   */
+  protected final LatencyHistogram waitTimeHistogram = new LatencyHistogram();
+  /**
+   * 连接使用时长分布（单位：微秒）
+   */
+  protected final LatencyHistogram checkoutTimeHistogram = new LatencyHistogram();
+  /**
+   * 连接检测耗时分布（单位：微秒）
+   */
+  protected final LatencyHistogram validationTimeHistogram = new LatencyHistogram();
+
   public PoolState(PooledDataSource dataSource) {
     this.dataSource = dataSource;
   }
 
-  public synchronized long getRequestCount() {
-    return requestCount;
+  void checkedOut(long requestNanos) {
+    requests.increment();
+    this.requestNanos.add(requestNanos);
+    waitTimeHistogram.record(TimeUnit.NANOSECONDS.toMicros(requestNanos));
+  }
+
+  void checkedIn(long checkoutMillis) {
+    this.checkoutMillis.add(checkoutMillis);
+    checkoutTimeHistogram.record(TimeUnit.MILLISECONDS.toMicros(checkoutMillis));
+  }
+
+  void claimedOverdue(long checkoutMillis) {
+    overdueClaims.increment();
+    overdueCheckoutMillis.add(checkoutMillis);
+    checkedIn(checkoutMillis);
+  }
+
+  void hadToWait() {
+    waits.increment();
+  }
+
+  void waited(long waitNanos) {
+    this.waitNanos.add(waitNanos);
+  }
+
+  void badConnection() {
+    badConnections.increment();
+  }
+
+  void validated(long validationNanos) {
+    validationTimeHistogram.record(TimeUnit.NANOSECONDS.toMicros(validationNanos));
+  }
+
+  /*
+   * Copies the striped counters into the protected fields, in the units those fields have always used
+   */
+  private void snapshot() {
+    requestCount = requests.sum();
+    accumulatedRequestTime = TimeUnit.NANOSECONDS.toMillis(requestNanos.sum());
+    accumulatedCheckoutTime = checkoutMillis.sum();
+    claimedOverdueConnectionCount = overdueClaims.sum();
+    accumulatedCheckoutTimeOfOverdueConnections = overdueCheckoutMillis.sum();
+    accumulatedWaitTime = TimeUnit.NANOSECONDS.toMillis(waitNanos.sum());
+    hadToWaitCount = waits.sum();
+    badConnectionCount = badConnections.sum();
   }
 
-  public synchronized long getAverageRequestTime() {
-    return requestCount == 0 ? 0 : accumulatedRequestTime / requestCount;
+  @Override
+  public long getRequestCount() {
+    snapshot();
+    return requestCount;
   }
 
-  public synchronized long getAverageWaitTime() {
-    return hadToWaitCount == 0 ? 0 : accumulatedWaitTime / hadToWaitCount;
+  public long getAverageRequestTime() {
+    snapshot();
+    return requestCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(requestNanos.sum() / requestCount);
+  }
 
+  public long getAverageWaitTime() {
+    snapshot();
+    return hadToWaitCount == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(waitNanos.sum() / hadToWaitCount);
   }
 
-  public synchronized long getHadToWaitCount() {
+  @Override
+  public long getHadToWaitCount() {
+    snapshot();
     return hadToWaitCount;
   }
 
-  public synchronized long getBadConnectionCount() {
+  @Override
+  public long getBadConnectionCount() {
+    snapshot();
     return badConnectionCount;
   }
 
-  public synchronized long getClaimedOverdueConnectionCount() {
+  @Override
+  public long getClaimedOverdueConnectionCount() {
+    snapshot();
     return claimedOverdueConnectionCount;
   }
 
-  public synchronized long getAverageOverdueCheckoutTime() {
+  public long getAverageOverdueCheckoutTime() {
+    snapshot();
     return claimedOverdueConnectionCount == 0 ? 0 : accumulatedCheckoutTimeOfOverdueConnections / claimedOverdueConnectionCount;
   }
 
-  public synchronized long getAverageCheckoutTime() {
+  public long getAverageCheckoutTime() {
+    snapshot();
     return requestCount == 0 ? 0 : accumulatedCheckoutTime / requestCount;
   }
 
-
-  public synchronized int getIdleConnectionCount() {
+  /*
+   * The list sizes are read without the pool lock, so they may lag behind a concurrent checkout
+   */
+  @Override
+  public int getIdleConnectionCount() {
     return idleConnections.size();
   }
 
-  public synchronized int getActiveConnectionCount() {
+  @Override
+  public int getActiveConnectionCount() {
     return activeConnections.size();
   }
 
   @Override
-  public synchronized String toString() {
+  public HistogramSnapshot getWaitTimeHistogram() {
+    return waitTimeHistogram.snapshot();
+  }
+
+  @Override
+  public HistogramSnapshot getCheckoutTimeHistogram() {
+    return checkoutTimeHistogram.snapshot();
+  }
+
+  @Override
+  public HistogramSnapshot getValidationTimeHistogram() {
+    return validationTimeHistogram.snapshot();
+  }
+
+  @Override
+  public String toString() {
     StringBuilder builder = new StringBuilder();
     builder.append("\n===CONFINGURATION==============================================");
     builder.append("\n jdbcDriver                     ").append(dataSource.getDriver());
@@ -139,6 +251,9 @@ public class PoolState {
     builder.append("\n hadToWait                      ").append(getHadToWaitCount());
     builder.append("\n averageWaitTime                ").append(getAverageWaitTime());
     builder.append("\n badConnectionCount             ").append(getBadConnectionCount());
+    builder.append("\n waitTime (us)                  ").append(getWaitTimeHistogram());
+    builder.append("\n checkoutTime (us)              ").append(getCheckoutTimeHistogram());
+    builder.append("\n validationTime (us)            ").append(getValidationTimeHistogram());
     builder.append("\n===============================================================");
     return builder.toString();
   }
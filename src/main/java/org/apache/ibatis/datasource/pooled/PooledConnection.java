@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -20,6 +20,7 @@ import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.ibatis.reflection.ExceptionUtil;
 
@@ -33,6 +34,10 @@ class PooledConnection implements InvocationHandler {
   private static final String CLOSE = "close";
   private static final Class<?>[] IFACES = new Class<?>[] { Connection.class };
 
+  private static final int STATE_IDLE = 0;
+  private static final int STATE_IN_USE = 1;
+  private static final int STATE_RETURNED = 2;
+
   private final int hashCode;
   private final PooledDataSource dataSource;
   /**
@@ -60,6 +65,10 @@ class PooledConnection implements InvocationHandler {
    * 表示连接是否有效
    */
   private boolean valid;
+  /**
+   * Ownership of this wrapper inside a {@link ConnectionBag}: idle, in use or returned
+   */
+  private final AtomicInteger bagState = new AtomicInteger(STATE_IDLE);
 
   /*
    * Constructor for SimplePooledConnection that uses the Connection and PooledDataSource passed in
@@ -93,6 +102,33 @@ class PooledConnection implements InvocationHandler {
     return valid && realConnection != null && dataSource.pingConnection(this);
   }
 
+  /*
+   * Atomically claims an idle connection so that only one borrower can take it
+   *
+   * @return True if the caller now owns the connection
+   */
+  boolean claim() {
+    return bagState.compareAndSet(STATE_IDLE, STATE_IN_USE);
+  }
+
+  /*
+   * Checks whether an idle connection has already been handed out
+   *
+   * @return True if the connection is no longer idle
+   */
+  boolean isClaimed() {
+    return bagState.get() != STATE_IDLE;
+  }
+
+  /*
+   * Atomically gives up a checked out connection so that it is returned (or reclaimed) only once
+   *
+   * @return True if the caller is the one returning the connection
+   */
+  boolean release() {
+    return bagState.compareAndSet(STATE_IN_USE, STATE_RETURNED);
+  }
+
   /*
    * Getter for the *real* connection that this wraps
    *
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -23,6 +23,8 @@ import java.sql.DriverManager;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
@@ -49,7 +51,7 @@ public class PooledDataSource implements DataSource {
   /**
    * UnpooledDataSource 对象
    */
-  private final UnpooledDataSource dataSource;
+  protected final UnpooledDataSource dataSource;
 
   // OPTIONAL CONFIGURATION FIELDS
   /**
@@ -75,8 +77,26 @@ public class PooledDataSource implements DataSource {
   protected String poolPingQuery = "NO PING QUERY SET";
   protected boolean poolPingEnabled;
   protected int poolPingConnectionsNotUsedFor;
+  /**
+   * 后台维护线程的运行间隔，为 0 时不启动。单位：毫秒
+   */
+  protected int poolHousekeepingPeriod;
+  /**
+   * 后台维护线程保持的最少空闲连接数
+   */
+  protected int poolMinimumIdleConnections;
+  /**
+   * 连接的最长存活时间，为 0 时不限制。单位：毫秒
+   */
+  protected int poolMaximumLifetime;
+  /**
+   * 空闲连接的最长空闲时间，为 0 时不限制。单位：毫秒
+   */
+  protected int poolMaximumIdleTime;
+
+  protected volatile int expectedConnectionTypeCode;
 
-  private int expectedConnectionTypeCode;
+  private volatile PoolHousekeeper housekeeper;
 
   public PooledDataSource() {
     dataSource = new UnpooledDataSource();
@@ -257,6 +277,50 @@ public class PooledDataSource implements DataSource {
     forceCloseAll();
   }
 
+  /*
+   * How often the housekeeper validates and evicts idle connections. Request threads still ping
+   * the connections they check out that were not used for poolPingConnectionsNotUsedFor.
+   * Takes effect on the next call to startHousekeeping().
+   *
+   * @param milliseconds the delay between two runs, 0 disables the housekeeper
+   * @since 3.4.7
+   */
+  public void setPoolHousekeepingPeriod(int milliseconds) {
+    this.poolHousekeepingPeriod = milliseconds;
+    stopHousekeeping();
+  }
+
+  /*
+   * The number of idle connections the housekeeper keeps open, including at startup
+   *
+   * @param poolMinimumIdleConnections The minimum number of idle connections
+   * @since 3.4.7
+   */
+  public void setPoolMinimumIdleConnections(int poolMinimumIdleConnections) {
+    this.poolMinimumIdleConnections = poolMinimumIdleConnections;
+  }
+
+  /*
+   * The time after which a connection is closed instead of being reused
+   *
+   * @param milliseconds the maximum age of a connection, 0 means no limit
+   * @since 3.4.7
+   */
+  public void setPoolMaximumLifetime(int milliseconds) {
+    this.poolMaximumLifetime = milliseconds;
+  }
+
+  /*
+   * The time after which the housekeeper closes an unused idle connection,
+   * as long as it leaves at least poolMinimumIdleConnections open
+   *
+   * @param milliseconds the maximum idle time, 0 means no limit
+   * @since 3.4.7
+   */
+  public void setPoolMaximumIdleTime(int milliseconds) {
+    this.poolMaximumIdleTime = milliseconds;
+  }
+
   public String getDriver() {
     return dataSource.getDriver();
   }
@@ -317,6 +381,46 @@ public class PooledDataSource implements DataSource {
     return poolPingConnectionsNotUsedFor;
   }
 
+  public int getPoolHousekeepingPeriod() {
+    return poolHousekeepingPeriod;
+  }
+
+  public int getPoolMinimumIdleConnections() {
+    return poolMinimumIdleConnections;
+  }
+
+  public int getPoolMaximumLifetime() {
+    return poolMaximumLifetime;
+  }
+
+  public int getPoolMaximumIdleTime() {
+    return poolMaximumIdleTime;
+  }
+
+  /*
+   * Starts the housekeeper if poolHousekeepingPeriod is set and it is not running yet.
+   * Its first run opens poolMinimumIdleConnections connections, so it is meant to be called once
+   * the pool is configured; the data source factories call it from setProperties.
+   */
+  public void startHousekeeping() {
+    if (poolHousekeepingPeriod > 0 && housekeeper == null) {
+      synchronized (this) {
+        if (housekeeper == null) {
+          housekeeper = new PoolHousekeeper(this, poolHousekeepingPeriod);
+        }
+      }
+    }
+  }
+
+  public void stopHousekeeping() {
+    synchronized (this) {
+      if (housekeeper != null) {
+        housekeeper.stop();
+        housekeeper = null;
+      }
+    }
+  }
+
   /*
    * Closes all active and idle connections in the pool
    */
@@ -361,7 +465,7 @@ public class PooledDataSource implements DataSource {
     return state;
   }
 
-  private int assembleConnectionTypeCode(String url, String username, String password) {
+  protected int assembleConnectionTypeCode(String url, String username, String password) {
     return ("" + url + username + password).hashCode();
   }
 
@@ -384,9 +488,9 @@ public class PooledDataSource implements DataSource {
          * 关闭该连接
          *
          */
-        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode) {
+        if (state.idleConnections.size() < poolMaximumIdleConnections && conn.getConnectionTypeCode() == expectedConnectionTypeCode && !isExpired(conn)) {
           //统计连接执行时间总耗时
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          state.checkedIn(conn.getCheckoutTime());
           //回滚未提交的事务
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
@@ -405,7 +509,7 @@ public class PooledDataSource implements DataSource {
           //唤醒等待的线程
           state.notifyAll();
         } else {
-          state.accumulatedCheckoutTime += conn.getCheckoutTime();
+          state.checkedIn(conn.getCheckoutTime());
           if (!conn.getRealConnection().getAutoCommit()) {
             conn.getRealConnection().rollback();
           }
@@ -420,7 +524,7 @@ public class PooledDataSource implements DataSource {
         if (log.isDebugEnabled()) {
           log.debug("A bad connection (" + conn.getRealHashCode() + ") attempted to return to the pool, discarding connection.");
         }
-        state.badConnectionCount++;
+        state.badConnection();
       }
     }
   }
@@ -428,7 +532,7 @@ public class PooledDataSource implements DataSource {
   private PooledConnection popConnection(String username, String password) throws SQLException {
     boolean countedWait = false;
     PooledConnection conn = null;
-    long t = System.currentTimeMillis();
+    long t = System.nanoTime();
     int localBadConnectionCount = 0;
 
     while (conn == null) {
@@ -470,9 +574,7 @@ public class PooledDataSource implements DataSource {
             long longestCheckoutTime = oldestActiveConnection.getCheckoutTime();
             if (longestCheckoutTime > poolMaximumCheckoutTime) {
               // Can claim overdue connection
-              state.claimedOverdueConnectionCount++;
-              state.accumulatedCheckoutTimeOfOverdueConnections += longestCheckoutTime;
-              state.accumulatedCheckoutTime += longestCheckoutTime;
+              state.claimedOverdue(longestCheckoutTime);
               state.activeConnections.remove(oldestActiveConnection);
               if (!oldestActiveConnection.getRealConnection().getAutoCommit()) {
                 try {
@@ -500,18 +602,18 @@ public class PooledDataSource implements DataSource {
               // Must wait
               try {
                 if (!countedWait) {
-                  state.hadToWaitCount++;
+                  state.hadToWait();
                   countedWait = true;
                 }
                 if (log.isDebugEnabled()) {
                   log.debug("Waiting as long as " + poolTimeToWait + " milliseconds for connection.");
                 }
-                long wt = System.currentTimeMillis();
+                long wt = System.nanoTime();
                 /**
                  * 睡眠等待
                  */
                 state.wait(poolTimeToWait);
-                state.accumulatedWaitTime += System.currentTimeMillis() - wt;
+                state.waited(System.nanoTime() - wt);
               } catch (InterruptedException e) {
                 break;
               }
@@ -536,13 +638,12 @@ public class PooledDataSource implements DataSource {
             conn.setCheckoutTimestamp(System.currentTimeMillis());
             conn.setLastUsedTimestamp(System.currentTimeMillis());
             state.activeConnections.add(conn);
-            state.requestCount++;
-            state.accumulatedRequestTime += System.currentTimeMillis() - t;
+            state.checkedOut(System.nanoTime() - t);
           } else {
             if (log.isDebugEnabled()) {
               log.debug("A bad connection (" + conn.getRealHashCode() + ") was returned from the pool, getting another connection.");
             }
-            state.badConnectionCount++;
+            state.badConnection();
             localBadConnectionCount++;
             conn = null;
             if (localBadConnectionCount > (poolMaximumIdleConnections + poolMaximumLocalBadConnectionTolerance)) {
@@ -592,6 +693,7 @@ public class PooledDataSource implements DataSource {
             if (log.isDebugEnabled()) {
               log.debug("Testing connection " + conn.getRealHashCode() + " ...");
             }
+            long start = System.nanoTime();
             Connection realConn = conn.getRealConnection();
             Statement statement = realConn.createStatement();
             ResultSet rs = statement.executeQuery(poolPingQuery);
@@ -600,6 +702,7 @@ public class PooledDataSource implements DataSource {
             if (!realConn.getAutoCommit()) {
               realConn.rollback();
             }
+            getPoolState().validated(System.nanoTime() - start);
             result = true;
             if (log.isDebugEnabled()) {
               log.debug("Connection " + conn.getRealHashCode() + " is GOOD!");
@@ -622,6 +725,104 @@ public class PooledDataSource implements DataSource {
     return result;
   }
 
+  /*
+   * Validates and evicts idle connections, then tops the pool up to poolMinimumIdleConnections.
+   * Runs on the housekeeper thread.
+   */
+  protected void housekeep() {
+    List<PooledConnection> candidates;
+    synchronized (state) {
+      candidates = new ArrayList<PooledConnection>(state.idleConnections);
+    }
+    for (PooledConnection conn : candidates) {
+      int idleCount;
+      synchronized (state) {
+        // take it out of the pool while it is checked, unless it was checked out meanwhile
+        if (!state.idleConnections.remove(conn)) {
+          continue;
+        }
+        idleCount = state.idleConnections.size();
+      }
+      if (!isRetired(conn, idleCount) && pingConnection(conn)) {
+        synchronized (state) {
+          if (state.idleConnections.size() < poolMaximumIdleConnections) {
+            state.idleConnections.add(conn);
+            state.notifyAll();
+            continue;
+          }
+        }
+      }
+      conn.invalidate();
+      closeQuietly(conn);
+      if (log.isDebugEnabled()) {
+        log.debug("Evicted idle connection " + conn.getRealHashCode() + ".");
+      }
+    }
+
+    int minimumIdle = Math.min(poolMinimumIdleConnections, poolMaximumIdleConnections);
+    while (true) {
+      synchronized (state) {
+        if (state.idleConnections.size() >= minimumIdle
+            || state.idleConnections.size() + state.activeConnections.size() >= poolMaximumActiveConnections) {
+          return;
+        }
+      }
+      PooledConnection conn;
+      try {
+        conn = new PooledConnection(dataSource.getConnection(), this);
+      } catch (SQLException e) {
+        log.warn("Could not open an idle connection: " + e.getMessage());
+        return;
+      }
+      synchronized (state) {
+        if (state.idleConnections.size() < minimumIdle
+            && state.idleConnections.size() + state.activeConnections.size() < poolMaximumActiveConnections) {
+          state.idleConnections.add(conn);
+          state.notifyAll();
+          if (log.isDebugEnabled()) {
+            log.debug("Created idle connection " + conn.getRealHashCode() + ".");
+          }
+          continue;
+        }
+      }
+      closeQuietly(conn);
+      return;
+    }
+  }
+
+  /*
+   * @return True if the connection is older than poolMaximumLifetime
+   */
+  boolean isExpired(PooledConnection conn) {
+    return poolMaximumLifetime > 0 && conn.getAge() > poolMaximumLifetime;
+  }
+
+  /*
+   * @param idleCount - the number of other idle connections
+   * @return True if the housekeeper should close this idle connection
+   */
+  boolean isRetired(PooledConnection conn, int idleCount) {
+    return isExpired(conn)
+        || (poolMaximumIdleTime > 0 && conn.getTimeElapsedSinceLastUse() > poolMaximumIdleTime
+            && idleCount >= poolMinimumIdleConnections);
+  }
+
+  void closeQuietly(PooledConnection conn) {
+    Connection realConn = conn.getRealConnection();
+    try {
+      if (!realConn.getAutoCommit()) {
+        realConn.rollback();
+      }
+    } catch (Exception e) {
+      // closing anyway
+    }
+    try {
+      realConn.close();
+    } catch (Exception e) {
+      // ignore
+    }
+  }
+
   /*
    * Unwraps a pooled connection to get to the 'real' connection
    *
@@ -639,6 +840,7 @@ public class PooledDataSource implements DataSource {
   }
 
   protected void finalize() throws Throwable {
+    stopHousekeeping();
     forceCloseAll();
     super.finalize();
   }
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2018 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,6 +22,7 @@ import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.List;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
 
 import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.cache.impl.PerpetualCache;
@@ -34,6 +35,7 @@ import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
+import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
@@ -63,6 +65,7 @@ public abstract class BaseExecutor implements Executor {
   protected Configuration configuration;
 
   protected int queryStack;
+  private boolean uncommittedUpdates;
   private boolean closed;
 
   protected BaseExecutor(Configuration configuration, Transaction transaction) {
@@ -118,6 +121,7 @@ public abstract class BaseExecutor implements Executor {
     }
     // 刷新一级缓存
     clearLocalCache();
+    uncommittedUpdates = true;
     return doUpdate(ms, parameter);
   }
 
@@ -136,7 +140,9 @@ public abstract class BaseExecutor implements Executor {
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
     BoundSql boundSql = ms.getBoundSql(parameter);
-    CacheKey key = createCacheKey(ms, parameter, rowBounds, boundSql);
+    // a key that no cache would read is not built, see isCacheKeyUsed
+    CacheKey key = configuration.isSkipUnusedCacheKeys() && !isCacheKeyUsed(ms)
+        ? CacheKey.NULL_CACHE_KEY : createCacheKey(ms, parameter, rowBounds, boundSql);
     return query(ms, parameter, rowBounds, resultHandler, key, boundSql);
  }
 
@@ -163,7 +169,7 @@ public abstract class BaseExecutor implements Executor {
        * PerpetualCache 生命周期跟Session会话一致
        *
        */
-      list = resultHandler == null ? (List<E>) localCache.getObject(key) : null;
+      list = resultHandler == null && key != CacheKey.NULL_CACHE_KEY ? (List<E>) localCache.getObject(key) : null;
       if (list != null) {
         //处理存储过程的情况
         handleLocallyCachedOutputParameters(ms, key, parameter, boundSql);
@@ -212,13 +218,10 @@ public abstract class BaseExecutor implements Executor {
     if (closed) {
       throw new ExecutorException("Executor was closed.");
     }
-    CacheKey cacheKey = new CacheKey();
-    cacheKey.update(ms.getId());
-    cacheKey.update(rowBounds.getOffset());
-    cacheKey.update(rowBounds.getLimit());
-    cacheKey.update(boundSql.getSql());
+    CacheKey cacheKey = ms.newCacheKey(rowBounds, boundSql);
     List<ParameterMapping> parameterMappings = boundSql.getParameterMappings();
     TypeHandlerRegistry typeHandlerRegistry = ms.getConfiguration().getTypeHandlerRegistry();
+    MetaObject metaObject = null;
     // mimic DefaultParameterHandler logic
     for (ParameterMapping parameterMapping : parameterMappings) {
       if (parameterMapping.getMode() != ParameterMode.OUT) {
@@ -231,7 +234,9 @@ public abstract class BaseExecutor implements Executor {
         } else if (typeHandlerRegistry.hasTypeHandler(parameterObject.getClass())) {
           value = parameterObject;
         } else {
-          MetaObject metaObject = configuration.newMetaObject(parameterObject);
+          if (metaObject == null) {
+            metaObject = configuration.newMetaObject(parameterObject);
+          }
           value = metaObject.getValue(propertyName);
         }
         cacheKey.update(value);
@@ -244,6 +249,50 @@ public abstract class BaseExecutor implements Executor {
     return cacheKey;
   }
 
+  /*
+   * Tells whether a query could find or leave anything in a cache under its key: the local cache outlives
+   * the statement, the statement uses a second level cache, output parameters are cached or nested selects
+   * may need the key to detect circular references.
+   */
+  private boolean isCacheKeyUsed(MappedStatement ms) {
+    if (queryStack > 0
+        || configuration.getLocalCacheScope() != LocalCacheScope.STATEMENT
+        || ms.getStatementType() == StatementType.CALLABLE
+        || (ms.getCache() != null && ms.isUseCache())
+        || configuration.isCoalesceQueries()
+        || mayRunNestedQueries(ms)) {
+      return true;
+    }
+    return false;
+  }
+
+  /*
+   * Tells whether a query may be shared with other sessions: it runs outside of the mapping of another query,
+   * neither session has uncommitted updates to see and its results hold no lazy loaders bound to this executor.
+   * Keeping nested queries out also means a leading execution never waits for another one.
+   */
+  private boolean isCoalescable(MappedStatement ms, ResultHandler resultHandler, CacheKey key) {
+    return configuration.isCoalesceQueries()
+        && queryStack == 1
+        && resultHandler == null
+        && key != CacheKey.NULL_CACHE_KEY
+        && !uncommittedUpdates
+        && ms.getStatementType() != StatementType.CALLABLE
+        && !mayRunNestedQueries(ms);
+  }
+
+  private static boolean mayRunNestedQueries(MappedStatement ms) {
+    if (ms.hasNestedResultMaps()) {
+      return true;
+    }
+    for (ResultMap resultMap : ms.getResultMaps()) {
+      if (resultMap.hasNestedQueries() || resultMap.getDiscriminator() != null) {
+        return true;
+      }
+    }
+    return false;
+  }
+
   @Override
   public boolean isCached(MappedStatement ms, CacheKey key) {
     return localCache.getObject(key) != null;
@@ -259,6 +308,7 @@ public abstract class BaseExecutor implements Executor {
     if (required) {
       transaction.commit();
     }
+    uncommittedUpdates = false;
   }
 
   @Override
@@ -276,6 +326,7 @@ public abstract class BaseExecutor implements Executor {
         if (required) {
           transaction.rollback();
         }
+        uncommittedUpdates = false;
       }
     }
   }
@@ -341,12 +392,20 @@ public abstract class BaseExecutor implements Executor {
 
   private <E> List<E> queryFromDatabase(MappedStatement ms, Object parameter, RowBounds rowBounds, ResultHandler resultHandler, CacheKey key, BoundSql boundSql) throws SQLException {
     List<E> list;
+    if (key == CacheKey.NULL_CACHE_KEY) {
+      // no cache can be hit, see isCacheKeyUsed
+      return doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+    }
     // 向缓存中存储一个占位符
     // PerpetualCache对象
     //此处的占位符，和延迟加载有关，后续可见 DeferredLoad#canLoad() 方法
     localCache.putObject(key, EXECUTION_PLACEHOLDER);
     try {
-      list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      if (isCoalescable(ms, resultHandler, key)) {
+        list = coalesceQuery(ms, parameter, rowBounds, boundSql, key);
+      } else {
+        list = doQuery(ms, parameter, rowBounds, resultHandler, boundSql);
+      }
     } finally {
       localCache.removeObject(key);
     }
@@ -357,6 +416,25 @@ public abstract class BaseExecutor implements Executor {
     return list;
   }
 
+  private <E> List<E> coalesceQuery(final MappedStatement ms, final Object parameter, final RowBounds rowBounds, final BoundSql boundSql, CacheKey key) throws SQLException {
+    return configuration.getQueryCoalescer().coalesce(key, coalesceWaitTimeout(ms), new QueryCoalescer.Query<E>() {
+      @Override
+      public List<E> execute() throws SQLException {
+        return doQuery(ms, parameter, rowBounds, Executor.NO_RESULT_HANDLER, boundSql);
+      }
+    });
+  }
+
+  private long coalesceWaitTimeout(MappedStatement ms) {
+    long timeout = configuration.getCoalesceWaitTimeout();
+    Integer queryTimeout = ms.getTimeout() != null ? ms.getTimeout() : configuration.getDefaultStatementTimeout();
+    if (queryTimeout != null && queryTimeout > 0) {
+      // no point in waiting longer than the query may run
+      timeout = Math.min(timeout, TimeUnit.SECONDS.toMillis(queryTimeout));
+    }
+    return timeout;
+  }
+
   protected Connection getConnection(Log statementLog) throws SQLException {
     Connection connection = transaction.getConnection();
     if (statementLog.isDebugEnabled()) {
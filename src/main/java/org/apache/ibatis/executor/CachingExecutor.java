@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -20,14 +20,19 @@ import java.util.List;
 
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheStatistics;
 import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cursor.Cursor;
 import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.mapping.ParameterMapping;
 import org.apache.ibatis.mapping.ParameterMode;
 import org.apache.ibatis.mapping.StatementType;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
@@ -40,11 +45,24 @@ import org.apache.ibatis.transaction.Transaction;
  */
 public class CachingExecutor implements Executor {
 
+  /**
+   * Set while a refresh-ahead reload runs, its queries bypass the second level cache
+   */
+  private static final ThreadLocal<Boolean> REFRESHING = new ThreadLocal<Boolean>();
+
   private final Executor delegate;
-  private final TransactionalCacheManager tcm = new TransactionalCacheManager();
+  private final TransactionalCacheManager tcm;
 
   public CachingExecutor(Executor delegate) {
+    this(delegate, new TransactionalCacheManager());
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public CachingExecutor(Executor delegate, TransactionalCacheManager tcm) {
     this.delegate = delegate;
+    this.tcm = tcm;
     delegate.setExecutorWrapper(this);
   }
 
@@ -75,12 +93,16 @@ public class CachingExecutor implements Executor {
   @Override
   public int update(MappedStatement ms, Object parameterObject) throws SQLException {
     // 刷新二级缓存
-    flushCacheIfRequired(ms);
+    flushCacheIfRequired(ms, parameterObject);
     return delegate.update(ms, parameterObject);
   }
 
   @Override
   public <E> List<E> query(MappedStatement ms, Object parameterObject, RowBounds rowBounds, ResultHandler resultHandler) throws SQLException {
+    if (ms.getCache() == null && ms.getConfiguration().isSkipUnusedCacheKeys()) {
+      // no second level cache to read, the delegate builds the key only if it needs one
+      return delegate.<E> query(ms, parameterObject, rowBounds, resultHandler);
+    }
     //SQL 语句解析出来
     BoundSql boundSql = ms.getBoundSql(parameterObject);
     /**
@@ -106,7 +128,7 @@ public class CachingExecutor implements Executor {
      * 如果开启了二级缓存，Cache对象不会为null
      */
     Cache cache = ms.getCache();
-    if (cache != null) {
+    if (cache != null && REFRESHING.get() == null) {
       flushCacheIfRequired(ms);
       if (ms.isUseCache() && resultHandler == null) {
         ensureNoOutParams(ms, boundSql);
@@ -116,8 +138,20 @@ public class CachingExecutor implements Executor {
           */
         List<E> list = (List<E>) tcm.getObject(cache, key);
         if (list == null) {
+          long start = System.nanoTime();
           list = delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
-          tcm.putObject(cache, key, list); // issue #578 and #116
+          CacheStatistics statistics = ms.getConfiguration().getCacheStatistics(cache.getId());
+          if (statistics != null) {
+            statistics.recordLoad(System.nanoTime() - start);
+          }
+          TaggedCache taggedCache = getTaggedCache(ms, cache);
+          if (taggedCache != null) {
+            tcm.putObject(cache, key, list, taggedCache, ms.resolveCacheTags(parameterObject));
+          } else {
+            tcm.putObject(cache, key, list); // issue #578 and #116
+          }
+        } else if (cache instanceof RefreshAheadCache) {
+          refreshIfDue((RefreshAheadCache) cache, ms, parameterObject, rowBounds, key, boundSql);
         }
         //从缓存中获取数据返回
         return list;
@@ -126,6 +160,41 @@ public class CachingExecutor implements Executor {
     return delegate.<E> query(ms, parameterObject, rowBounds, resultHandler, key, boundSql);
   }
 
+  /*
+   * Reloads a cached result that is about to expire with a new executor and transaction of its own,
+   * the caller gets the cached result meanwhile. The executor is created by the configuration so that
+   * plugins see the reload, and it reads the database rather than the cache being refreshed.
+   */
+  private void refreshIfDue(RefreshAheadCache cache, final MappedStatement ms, final Object parameterObject,
+      final RowBounds rowBounds, final CacheKey key, final BoundSql boundSql) {
+    final Environment environment = ms.getConfiguration().getEnvironment();
+    if (environment == null) {
+      return;
+    }
+    cache.refreshIfDue(key, new RefreshAheadCache.Loader() {
+      @Override
+      public Object load() throws Exception {
+        Transaction tx = environment.getTransactionFactory().newTransaction(environment.getDataSource(), null, true);
+        Executor executor = ms.getConfiguration().newExecutor(tx, ExecutorType.SIMPLE);
+        REFRESHING.set(Boolean.TRUE);
+        try {
+          // the parameter object may have been changed by the caller since
+          if (!key.equals(executor.createCacheKey(ms, parameterObject, rowBounds, boundSql))) {
+            return null;
+          }
+          TaggedCache taggedCache = getTaggedCache(ms, ms.getCache());
+          if (taggedCache != null) {
+            taggedCache.tag(key, ms.resolveCacheTags(parameterObject));
+          }
+          return executor.query(ms, parameterObject, rowBounds, NO_RESULT_HANDLER, key, boundSql);
+        } finally {
+          REFRESHING.remove();
+          executor.close(false);
+        }
+      }
+    });
+  }
+
   @Override
   public List<BatchResult> flushStatements() throws SQLException {
     return delegate.flushStatements();
@@ -185,6 +254,28 @@ public class CachingExecutor implements Executor {
     }
   }
 
+  /*
+   * A write that declares cache tags only invalidates the matching results of a tagged cache
+   */
+  private void flushCacheIfRequired(MappedStatement ms, Object parameterObject) {
+    Cache cache = ms.getCache();
+    if (cache != null && ms.isFlushCacheRequired()) {
+      TaggedCache taggedCache = getTaggedCache(ms, cache);
+      if (taggedCache != null) {
+        tcm.invalidate(cache, taggedCache, ms.resolveCacheTags(parameterObject));
+      } else {
+        tcm.clear(cache);
+      }
+    }
+  }
+
+  /*
+   * The tag index of the cache, or null if the statement declares no cache tags or the cache is not tagged
+   */
+  private static TaggedCache getTaggedCache(MappedStatement ms, Cache cache) {
+    return ms.getCacheTags().isEmpty() ? null : ms.getConfiguration().getTaggedCache(cache.getId());
+  }
+
   @Override
   public void setExecutorWrapper(Executor executor) {
     throw new UnsupportedOperationException("This method should not be called");
@@ -0,0 +1,226 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.impl.JdkCacheSerializer;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.metrics.StripedCounter;
+
+/**
+ * Lets concurrent identical queries of different sessions share a single execution.
+ * <p>
+ * The first session to run a query under a {@link CacheKey} leads: it executes the query while the sessions asking
+ * for the same key in the meantime wait for its result. The leading session keeps the result objects, the waiting ones
+ * receive copies made by the {@link CacheSerializer}, so no session sees the changes another one makes to its results.
+ * A result that cannot be serialized is not shared, the waiting sessions run the query themselves.
+ * When the leading execution fails every waiting session runs the query itself,
+ * so errors tied to one connection or transaction are not shared. A waiting session also runs the query itself once
+ * its wait timeout expires, as the leading execution may be blocked on locks that the waiting session holds.
+ *
+ * @since 3.4.7
+ */
+public class QueryCoalescer {
+
+  private static final Log log = LogFactory.getLog(QueryCoalescer.class);
+
+  private final ConcurrentMap<CacheKey, InFlightQuery> inFlightQueries = new ConcurrentHashMap<CacheKey, InFlightQuery>();
+  private final StripedCounter executions = new StripedCounter();
+  private final StripedCounter coalescedQueries = new StripedCounter();
+  private final StripedCounter failedExecutions = new StripedCounter();
+  private final StripedCounter expiredWaits = new StripedCounter();
+  private volatile CacheSerializer serializer = new JdkCacheSerializer();
+
+  /**
+   * A query to be run at most once by all the sessions asking for it at the same time.
+   */
+  public interface Query<E> {
+    List<E> execute() throws SQLException;
+  }
+
+  /**
+   * Runs the query or waits for the execution of another session running it.
+   *
+   * @param key - the key of the query
+   * @param timeoutMillis - the maximum time to wait for another execution before running the query
+   * @param query - the query
+   * @return the result of the query
+   */
+  public <E> List<E> coalesce(CacheKey key, long timeoutMillis, Query<E> query) throws SQLException {
+    InFlightQuery inFlight = new InFlightQuery();
+    InFlightQuery leader = inFlightQueries.putIfAbsent(key, inFlight);
+    if (leader == null) {
+      return lead(key, inFlight, query);
+    }
+    // the leading execution only copies its result for the sessions that joined it before it completed
+    byte[] result = leader.join() ? leader.await(timeoutMillis) : null;
+    List<E> copy = result == null ? null : this.<E> copy(result);
+    if (copy == null) {
+      // the leading execution failed, took too long or its result could not be copied, or this thread was interrupted
+      executions.increment();
+      return query.execute();
+    }
+    coalescedQueries.increment();
+    return copy;
+  }
+
+  /**
+   * @param serializer - copies the result of a leading execution for the sessions waiting for it
+   */
+  public void setSerializer(CacheSerializer serializer) {
+    this.serializer = serializer;
+  }
+
+  public CacheSerializer getSerializer() {
+    return serializer;
+  }
+
+  /**
+   * @return the number of queries that were executed
+   */
+  public long getExecutionCount() {
+    return executions.sum();
+  }
+
+  /**
+   * @return the number of queries served by the execution of another session
+   */
+  public long getCoalescedCount() {
+    return coalescedQueries.sum();
+  }
+
+  /**
+   * @return the number of leading executions that failed, each waiting session then ran its query itself
+   */
+  public long getFailedExecutionCount() {
+    return failedExecutions.sum();
+  }
+
+  /**
+   * @return the number of sessions that stopped waiting for another execution and ran their query themselves
+   */
+  public long getExpiredWaitCount() {
+    return expiredWaits.sum();
+  }
+
+  /**
+   * @return the number of queries being executed at this moment
+   */
+  public int getInFlightCount() {
+    return inFlightQueries.size();
+  }
+
+  private <E> List<E> lead(CacheKey key, InFlightQuery inFlight, Query<E> query) throws SQLException {
+    executions.increment();
+    List<E> result = null;
+    try {
+      result = query.execute();
+      return result;
+    } finally {
+      inFlightQueries.remove(key, inFlight);
+      if (result == null) {
+        failedExecutions.increment();
+      }
+      inFlight.complete(result);
+    }
+  }
+
+  private byte[] serialize(List<?> result) {
+    try {
+      return serializer.serialize(new ArrayList<Object>(result));
+    } catch (CacheException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not copy a coalesced result, the waiting sessions run the query themselves. Cause: " + e);
+      }
+      return null;
+    }
+  }
+
+  private <E> List<E> copy(byte[] result) {
+    try {
+      @SuppressWarnings("unchecked")
+      List<E> copy = (List<E>) serializer.deserialize(result);
+      return copy;
+    } catch (CacheException e) {
+      if (log.isDebugEnabled()) {
+        log.debug("Could not copy a coalesced result, running the query. Cause: " + e);
+      }
+      return null;
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "executions " + executions.sum() + ", coalesced " + coalescedQueries.sum()
+        + ", failed executions " + failedExecutions.sum() + ", expired waits " + expiredWaits.sum()
+        + ", in flight " + inFlightQueries.size();
+  }
+
+  private class InFlightQuery {
+
+    private final CountDownLatch done = new CountDownLatch(1);
+    private int waiters;
+    private boolean completed;
+    private volatile byte[] result;
+
+    synchronized boolean join() {
+      if (completed) {
+        return false;
+      }
+      waiters++;
+      return true;
+    }
+
+    void complete(List<?> result) {
+      boolean joined;
+      synchronized (this) {
+        completed = true;
+        joined = waiters > 0;
+      }
+      // on the leading thread, before its caller gets the result and may change it
+      if (joined && result != null) {
+        this.result = serialize(result);
+      }
+      done.countDown();
+    }
+
+    byte[] await(long timeoutMillis) {
+      try {
+        if (!done.await(timeoutMillis, TimeUnit.MILLISECONDS)) {
+          expiredWaits.increment();
+          return null;
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return null;
+      }
+      return result;
+    }
+
+  }
+
+}
@@ -0,0 +1,54 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.session.ColumnTable;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+
+/**
+ * Receives the first result set of a statement as a {@link ColumnTable}. The result set handler
+ * reads the columns directly, so no row is ever mapped to an object and passed to
+ * {@link #handleResult(ResultContext)}.
+ *
+ * @since 3.4.7
+ */
+public class ColumnTableResultHandler implements ResultHandler<Object> {
+
+  private ColumnTable columnTable;
+
+  @Override
+  public void handleResult(ResultContext<? extends Object> context) {
+    throw new ExecutorException("A ColumnTableResultHandler does not accept mapped rows.");
+  }
+
+  public boolean hasColumnTable() {
+    return columnTable != null;
+  }
+
+  public void setColumnTable(ColumnTable columnTable) {
+    this.columnTable = columnTable;
+  }
+
+  /**
+   * @return the rows read, or an empty table if the statement returned no result set
+   */
+  public ColumnTable getColumnTable() {
+    return columnTable == null ? ColumnTable.EMPTY : columnTable;
+  }
+
+}
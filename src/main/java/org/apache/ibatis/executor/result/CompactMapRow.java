@@ -0,0 +1,194 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.result;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * A read-only row of a <code>resultType="map"</code> statement, created when the <code>useCompactMapRows</code>
+ * setting is enabled.
+ * <p>
+ * The keys of all rows of a result set are held once by their shared {@link Columns}, a row only keeps its values
+ * in an array. It behaves like the HashMap it replaces, equal to it and with the same entries, except that it cannot
+ * be modified.
+ *
+ * @since 3.4.7
+ */
+public final class CompactMapRow extends AbstractMap<String, Object> implements Serializable {
+
+  private static final long serialVersionUID = 1L;
+
+  private final Columns columns;
+  private final Object[] values;
+  private final int size;
+
+  /**
+   * @param columns - the keys shared by the rows of a result set
+   * @param values - the value of each key, in the order of the keys. Null values are entries only if the
+   *        columns include nulls.
+   */
+  public CompactMapRow(Columns columns, Object[] values) {
+    this.columns = columns;
+    this.values = values;
+    this.size = columns.includeNulls ? values.length : countValues(values);
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+  @Override
+  public boolean containsKey(Object key) {
+    final int index = columns.indexOf(key);
+    return index >= 0 && isEntry(index);
+  }
+
+  @Override
+  public Object get(Object key) {
+    final int index = columns.indexOf(key);
+    return index < 0 ? null : values[index];
+  }
+
+  @Override
+  public Set<Map.Entry<String, Object>> entrySet() {
+    return new AbstractSet<Map.Entry<String, Object>>() {
+      @Override
+      public Iterator<Map.Entry<String, Object>> iterator() {
+        return new EntryIterator();
+      }
+
+      @Override
+      public int size() {
+        return size;
+      }
+    };
+  }
+
+  public boolean isIgnoreCase() {
+    return columns.ignoreCase;
+  }
+
+  private boolean isEntry(int index) {
+    return columns.includeNulls || values[index] != null;
+  }
+
+  private static int countValues(Object[] values) {
+    int count = 0;
+    for (Object value : values) {
+      if (value != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private class EntryIterator implements Iterator<Map.Entry<String, Object>> {
+
+    private int next = advance(0);
+
+    @Override
+    public boolean hasNext() {
+      return next < values.length;
+    }
+
+    @Override
+    public Map.Entry<String, Object> next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final Map.Entry<String, Object> entry = new AbstractMap.SimpleImmutableEntry<String, Object>(columns.keys[next], values[next]);
+      next = advance(next + 1);
+      return entry;
+    }
+
+    @Override
+    public void remove() {
+      throw new UnsupportedOperationException();
+    }
+
+    private int advance(int index) {
+      while (index < values.length && !isEntry(index)) {
+        index++;
+      }
+      return index;
+    }
+  }
+
+  /**
+   * The keys of the rows of a result set and the index of the value of each key.
+   */
+  public static final class Columns implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String[] keys;
+    private final Map<String, Integer> indexes;
+    private final boolean ignoreCase;
+    private final boolean includeNulls;
+
+    /**
+     * @param keys - the distinct keys, compared ignoring case if ignoreCase is set
+     * @param ignoreCase - whether keys are looked up ignoring case
+     * @param includeNulls - whether null values are entries of the rows, as with the <code>callSettersOnNulls</code> setting
+     */
+    public Columns(String[] keys, boolean ignoreCase, boolean includeNulls) {
+      this.keys = keys;
+      this.ignoreCase = ignoreCase;
+      this.includeNulls = includeNulls;
+      this.indexes = new HashMap<String, Integer>();
+      for (int i = 0; i < keys.length; i++) {
+        indexes.put(normalize(keys[i]), i);
+      }
+    }
+
+    public int size() {
+      return keys.length;
+    }
+
+    public boolean isIgnoreCase() {
+      return ignoreCase;
+    }
+
+    public boolean isIncludeNulls() {
+      return includeNulls;
+    }
+
+    /**
+     * @return the index of the value of the key, or -1 if the rows have no such key
+     */
+    public int indexOf(Object key) {
+      if (!(key instanceof String)) {
+        return -1;
+      }
+      final Integer index = indexes.get(normalize((String) key));
+      return index == null ? -1 : index;
+    }
+
+    private String normalize(String key) {
+      return ignoreCase ? key.toUpperCase(Locale.ENGLISH) : key;
+    }
+  }
+
+}
@@ -0,0 +1,121 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.mapping.ResultMapping;
+
+/**
+ * What a result map needs to know about the columns of a result set to map its rows: which columns its mappings
+ * map, the column index of each mapping, the automatic mappings of the other columns and, when rows are mapped
+ * through a constructor or to compact map rows, the {@link ConstructorMapper} or {@link CompactMapRowMapper}.
+ * <p>
+ * A plan only depends on the {@link ResultSetWrapper#getColumnLayout() column layout} of the result set and the
+ * column prefix, so it is built once and kept by the {@link RowMapperRegistry} of the configuration for the following
+ * executions, which then skip the matching of column names against the mappings and the properties.
+ *
+ * @since 3.4.7
+ */
+public class ColumnMappingPlan {
+
+  private final List<String> mappedColumnNames;
+  private final List<String> unmappedColumnNames;
+  private final Map<List<ResultMapping>, int[]> mappedColumnIndexes;
+  private volatile AutoMappings autoMappings;
+  private volatile ConstructorMapper constructorMapper;
+  private volatile CompactMapRowMapper compactMapRowMapper;
+
+  ColumnMappingPlan(List<String> mappedColumnNames, List<String> unmappedColumnNames, Map<List<ResultMapping>, int[]> mappedColumnIndexes) {
+    this.mappedColumnNames = mappedColumnNames;
+    this.unmappedColumnNames = unmappedColumnNames;
+    this.mappedColumnIndexes = mappedColumnIndexes;
+  }
+
+  /**
+   * @return the upper-cased names of the columns mapped by the result map
+   */
+  public List<String> getMappedColumnNames() {
+    return mappedColumnNames;
+  }
+
+  /**
+   * @return the names of the other columns
+   */
+  public List<String> getUnmappedColumnNames() {
+    return unmappedColumnNames;
+  }
+
+  /*
+   * @return the column indexes of one of the lists of mappings of the result map, or null for another list
+   */
+  int[] getMappedColumnIndexes(List<ResultMapping> resultMappings) {
+    return mappedColumnIndexes.get(resultMappings);
+  }
+
+  /*
+   * @param resultType - the class of the result objects
+   * @param mapUnderscoreToCamelCase - the setting the automatic mappings are built with
+   * @return the automatic mappings of the unmapped columns, or null if they have not been built for the class and setting
+   */
+  List<DefaultResultSetHandler.UnMappedColumnAutoMapping> getAutoMappings(Class<?> resultType, boolean mapUnderscoreToCamelCase) {
+    final AutoMappings current = autoMappings;
+    if (current != null && current.resultType == resultType && current.mapUnderscoreToCamelCase == mapUnderscoreToCamelCase) {
+      return current.mappings;
+    }
+    return null;
+  }
+
+  void setAutoMappings(Class<?> resultType, boolean mapUnderscoreToCamelCase, List<DefaultResultSetHandler.UnMappedColumnAutoMapping> mappings) {
+    autoMappings = new AutoMappings(resultType, mapUnderscoreToCamelCase, mappings);
+  }
+
+  /*
+   * @return the constructor mapper built for the layout, {@link ConstructorMapper#UNSUPPORTED} or null if none was built
+   */
+  ConstructorMapper getConstructorMapper() {
+    return constructorMapper;
+  }
+
+  void setConstructorMapper(ConstructorMapper constructorMapper) {
+    this.constructorMapper = constructorMapper;
+  }
+
+  /*
+   * @return the compact map row mapper built for the layout, {@link CompactMapRowMapper#UNSUPPORTED} or null if none was built
+   */
+  CompactMapRowMapper getCompactMapRowMapper() {
+    return compactMapRowMapper;
+  }
+
+  void setCompactMapRowMapper(CompactMapRowMapper compactMapRowMapper) {
+    this.compactMapRowMapper = compactMapRowMapper;
+  }
+
+  private static class AutoMappings {
+    private final Class<?> resultType;
+    private final boolean mapUnderscoreToCamelCase;
+    private final List<DefaultResultSetHandler.UnMappedColumnAutoMapping> mappings;
+
+    AutoMappings(Class<?> resultType, boolean mapUnderscoreToCamelCase, List<DefaultResultSetHandler.UnMappedColumnAutoMapping> mappings) {
+      this.resultType = resultType;
+      this.mapUnderscoreToCamelCase = mapUnderscoreToCamelCase;
+      this.mappings = mappings;
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.apache.ibatis.executor.result.CompactMapRow;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Creates the {@link CompactMapRow}s of a result map and column layout, reading the automatically mapped columns by
+ * index into the value array of each row. Kept by the {@link ColumnMappingPlan} of the column layout.
+ */
+class CompactMapRowMapper {
+
+  /**
+   * Marks a result map and column layout that compact rows do not support.
+   */
+  static final CompactMapRowMapper UNSUPPORTED = new CompactMapRowMapper(new CompactMapRow.Columns(new String[0], false, false),
+      new int[0], new int[0], new TypeHandler<?>[0]);
+
+  private final CompactMapRow.Columns columns;
+  private final int[] columnIndexes;
+  private final int[] valueIndexes;
+  private final TypeHandler<?>[] typeHandlers;
+
+  private CompactMapRowMapper(CompactMapRow.Columns columns, int[] columnIndexes, int[] valueIndexes, TypeHandler<?>[] typeHandlers) {
+    this.columns = columns;
+    this.columnIndexes = columnIndexes;
+    this.valueIndexes = valueIndexes;
+    this.typeHandlers = typeHandlers;
+  }
+
+  /*
+   * @param autoMappings - the automatic mappings of the columns to the keys of a map
+   * @param ignoreCase - whether keys are looked up ignoring case
+   * @param includeNulls - whether null values are entries of the rows
+   * @return the mapper, or UNSUPPORTED if a key is a nested property
+   */
+  static CompactMapRowMapper build(List<DefaultResultSetHandler.UnMappedColumnAutoMapping> autoMappings, boolean ignoreCase, boolean includeNulls) {
+    final List<String> keys = new ArrayList<String>();
+    final Map<String, Integer> keyIndexes = new HashMap<String, Integer>();
+    final int[] columnIndexes = new int[autoMappings.size()];
+    final int[] valueIndexes = new int[autoMappings.size()];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[autoMappings.size()];
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final DefaultResultSetHandler.UnMappedColumnAutoMapping mapping = autoMappings.get(i);
+      if (mapping.property.indexOf('.') >= 0 || mapping.property.indexOf('[') >= 0) {
+        // a HashMap row would hold a nested map
+        return UNSUPPORTED;
+      }
+      final String normalizedKey = ignoreCase ? mapping.property.toUpperCase(Locale.ENGLISH) : mapping.property;
+      Integer valueIndex = keyIndexes.get(normalizedKey);
+      if (valueIndex == null) {
+        // a repeated column label is one key, whose value is the last non null one as in a HashMap
+        valueIndex = keys.size();
+        keys.add(mapping.property);
+        keyIndexes.put(normalizedKey, valueIndex);
+      }
+      columnIndexes[i] = mapping.columnIndex;
+      valueIndexes[i] = valueIndex;
+      typeHandlers[i] = mapping.typeHandler;
+    }
+    final CompactMapRow.Columns columns = new CompactMapRow.Columns(keys.toArray(new String[keys.size()]), ignoreCase, includeNulls);
+    return new CompactMapRowMapper(columns, columnIndexes, valueIndexes, typeHandlers);
+  }
+
+  boolean isBuiltFor(boolean ignoreCase, boolean includeNulls) {
+    return this == UNSUPPORTED || columns.isIgnoreCase() == ignoreCase && columns.isIncludeNulls() == includeNulls;
+  }
+
+  /*
+   * @return the row, or null if all its values are null and returnInstanceForEmptyRow is not set
+   */
+  CompactMapRow map(ResultSet rs, boolean returnInstanceForEmptyRow) throws SQLException {
+    final Object[] values = new Object[columns.size()];
+    boolean foundValues = false;
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final Object value = typeHandlers[i].getResult(rs, columnIndexes[i]);
+      if (value != null) {
+        values[valueIndexes[i]] = value;
+        foundValues = true;
+      } else if (columns.isIncludeNulls()) {
+        values[valueIndexes[i]] = null;
+      }
+    }
+    return foundValues || returnInstanceForEmptyRow ? new CompactMapRow(columns, values) : null;
+  }
+
+}
@@ -0,0 +1,136 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Maps the rows of a result set with a given column layout to the result type of a simple result map,
+ * reading each column by index and setting each property through a {@link RowValueSetter}.
+ * <p>
+ * Built by {@link DefaultResultSetHandler} when the <code>useCompiledRowMappers</code> setting is enabled and
+ * kept by the {@link RowMapperRegistry} of the configuration, it replaces the {@link org.apache.ibatis.reflection.MetaObject}
+ * and the property name lookups of the automatic and the explicit mappings of every row.
+ *
+ * @since 3.4.7
+ */
+public class CompiledRowMapper {
+
+  /**
+   * Marks a result map and column layout that the compiled mapper does not support.
+   */
+  static final CompiledRowMapper UNSUPPORTED = new CompiledRowMapper(null, new String[0], new int[0], new TypeHandler<?>[0], new boolean[0], null);
+
+  private final Class<?> type;
+  private final String[] properties;
+  private final int[] columns;
+  private final TypeHandler<?>[] typeHandlers;
+  private final boolean[] setNulls;
+  private final RowValueSetter setter;
+
+  /**
+   * @param type - the result type
+   * @param properties - the mapped properties, the automatic mappings first
+   * @param columns - the index of the column of each property
+   * @param typeHandlers - the type handler of each property
+   * @param setNulls - whether the setter of each property is called with null values
+   * @param setter - sets the properties by their position
+   */
+  CompiledRowMapper(Class<?> type, String[] properties, int[] columns, TypeHandler<?>[] typeHandlers, boolean[] setNulls, RowValueSetter setter) {
+    this.type = type;
+    this.properties = properties;
+    this.columns = columns;
+    this.typeHandlers = typeHandlers;
+    this.setNulls = setNulls;
+    this.setter = setter;
+  }
+
+  public Class<?> getType() {
+    return type;
+  }
+
+  public RowValueSetter getSetter() {
+    return setter;
+  }
+
+  /**
+   * @return the number of mapped properties, the length of the value arrays of {@link #read} and {@link #set}
+   */
+  public int getPropertyCount() {
+    return columns.length;
+  }
+
+  /**
+   * Sets the properties of a result object from the current row.
+   *
+   * @return true if any of the mapped columns was not null
+   */
+  public boolean map(ResultSet rs, Object resultObject) throws SQLException {
+    boolean foundValues = false;
+    for (int i = 0; i < columns.length; i++) {
+      final Object value = typeHandlers[i].getResult(rs, columns[i]);
+      if (value != null) {
+        foundValues = true;
+      }
+      setProperty(resultObject, i, value);
+    }
+    return foundValues;
+  }
+
+  /**
+   * Reads the mapped columns of the current row without touching a result object, so that the values can be
+   * {@link #set} by another thread.
+   *
+   * @param values - receives the value of each property
+   */
+  public void read(ResultSet rs, Object[] values) throws SQLException {
+    for (int i = 0; i < columns.length; i++) {
+      values[i] = typeHandlers[i].getResult(rs, columns[i]);
+    }
+  }
+
+  /**
+   * Sets the properties of a result object from values {@link #read} before.
+   *
+   * @return true if any of the values was not null
+   */
+  public boolean set(Object resultObject, Object[] values) {
+    boolean foundValues = false;
+    for (int i = 0; i < columns.length; i++) {
+      if (values[i] != null) {
+        foundValues = true;
+      }
+      setProperty(resultObject, i, values[i]);
+    }
+    return foundValues;
+  }
+
+  private void setProperty(Object resultObject, int property, Object value) {
+    if (value != null || setNulls[property]) {
+      try {
+        setter.set(resultObject, property, value);
+      } catch (Exception e) {
+        throw new ReflectionException("Could not set property '" + properties[property] + "' of '" + resultObject.getClass()
+            + "' with value '" + value + "' Cause: " + e.toString(), e);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,109 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.executor.result.ResultMapException;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.ReflectionException;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * Creates the result objects of a result map through a constructor, reading each argument by column index.
+ * <p>
+ * Built by {@link DefaultResultSetHandler} when the <code>useCompiledRowMappers</code> setting is enabled and kept
+ * by the {@link ColumnMappingPlan} of the column layout, it replaces the constructor lookup, the type name
+ * comparisons and the argument lists of the {@link org.apache.ibatis.reflection.factory.ObjectFactory} of
+ * every row, for both the constructor mappings of a result map and the automatic constructor mapping.
+ *
+ * @since 3.4.7
+ */
+public class ConstructorMapper {
+
+  /**
+   * Marks a result map and column layout that the constructor mapper does not support.
+   */
+  static final ConstructorMapper UNSUPPORTED = new ConstructorMapper(new int[0], new TypeHandler<?>[0], null, null);
+
+  private final int[] columns;
+  private final TypeHandler<?>[] typeHandlers;
+  private final ResultMapping[] constructorMappings;
+  private final RowObjectInstantiator instantiator;
+
+  /**
+   * @param columns - the index of the column of each argument
+   * @param typeHandlers - the type handler of each argument
+   * @param constructorMappings - the mapping of each argument, or null for the automatic constructor mapping
+   * @param instantiator - calls the constructor
+   */
+  ConstructorMapper(int[] columns, TypeHandler<?>[] typeHandlers, ResultMapping[] constructorMappings, RowObjectInstantiator instantiator) {
+    this.columns = columns;
+    this.typeHandlers = typeHandlers;
+    this.constructorMappings = constructorMappings;
+    this.instantiator = instantiator;
+  }
+
+  public int getArgumentCount() {
+    return columns.length;
+  }
+
+  /**
+   * Creates a result object from the current row.
+   *
+   * @param args - a buffer of at least {@link #getArgumentCount()} elements for the arguments, cleared on return
+   * @return the result object, or null if all the columns were null
+   */
+  public Object create(ResultSet rs, Object[] args) throws SQLException {
+    try {
+      boolean foundValues = false;
+      for (int i = 0; i < columns.length; i++) {
+        args[i] = getArgument(rs, i);
+        foundValues = args[i] != null || foundValues;
+      }
+      return foundValues ? newInstance(args) : null;
+    } finally {
+      Arrays.fill(args, 0, columns.length, null);
+    }
+  }
+
+  private Object getArgument(ResultSet rs, int argument) throws SQLException {
+    if (constructorMappings == null) {
+      return typeHandlers[argument].getResult(rs, columns[argument]);
+    }
+    try {
+      return typeHandlers[argument].getResult(rs, columns[argument]);
+    } catch (ResultMapException e) {
+      throw new ExecutorException("Could not process result for mapping: " + constructorMappings[argument], e);
+    } catch (SQLException e) {
+      throw new ExecutorException("Could not process result for mapping: " + constructorMappings[argument], e);
+    }
+  }
+
+  private Object newInstance(Object[] args) {
+    try {
+      return instantiator.newInstance(args);
+    } catch (Exception e) {
+      Object[] values = Arrays.copyOf(args, columns.length);
+      throw new ReflectionException("Error instantiating " + instantiator.getConstructor().getDeclaringClass() + " with "
+          + instantiator.getConstructor() + " and values (" + Arrays.asList(values) + "). Cause: " + e, e);
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -26,6 +26,7 @@ import org.apache.ibatis.executor.ExecutorException;
 import org.apache.ibatis.executor.loader.ResultLoader;
 import org.apache.ibatis.executor.loader.ResultLoaderMap;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
+import org.apache.ibatis.executor.result.ColumnTableResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.executor.result.DefaultResultHandler;
 import org.apache.ibatis.executor.result.ResultMapException;
@@ -38,13 +39,17 @@ import org.apache.ibatis.mapping.ResultMap;
 import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.reflection.MetaClass;
 import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.Reflector;
 import org.apache.ibatis.reflection.ReflectorFactory;
+import org.apache.ibatis.reflection.factory.DefaultObjectFactory;
 import org.apache.ibatis.reflection.factory.ObjectFactory;
 import org.apache.ibatis.session.AutoMappingBehavior;
+import org.apache.ibatis.session.ColumnTable;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultContext;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.TypeHandler;
 import org.apache.ibatis.type.TypeHandlerRegistry;
 
@@ -54,8 +59,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -83,19 +90,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private final ReflectorFactory reflectorFactory;
 
   // nested resultmaps
-  private final Map<CacheKey, Object> nestedResultObjects = new HashMap<CacheKey, Object>();
-  private final Map<String, Object> ancestorObjects = new HashMap<String, Object>();
+  private final LinearProbingMap<RowKey, Object> nestedResultObjects = new LinearProbingMap<RowKey, Object>();
+  private final LinearProbingMap<String, Object> ancestorObjects = new LinearProbingMap<String, Object>();
+  // the row key filled for every row, one per nesting depth
+  private final List<RowKey> rowKeys = new ArrayList<RowKey>();
   private Object previousRowValue;
 
   // multiple resultsets
   private final Map<String, ResultMapping> nextResultMaps = new HashMap<String, ResultMapping>();
   private final Map<CacheKey, List<PendingRelation>> pendingRelations = new HashMap<CacheKey, List<PendingRelation>>();
 
-  // Cached Automappings
-  private final Map<String, List<UnMappedColumnAutoMapping>> autoMappingsCache = new HashMap<String, List<UnMappedColumnAutoMapping>>();
+  // batched nested selects, by property mapping
+  private final Map<ResultMapping, NestedQueryBatch> nestedQueryBatches = new IdentityHashMap<ResultMapping, NestedQueryBatch>();
+
+  // whether the results are read through a cursor
+  private boolean cursorResults;
+  // a cursor fetches one row per call, the rows it reads ahead are kept until the next one
+  private ParallelRowMapper parallelRowMapper;
 
   // temporary marking flag that indicate using constructor mapping (use field to reduce memory usage)
   private boolean useConstructorMappings;
+  // reused for the arguments of every row mapped by a ConstructorMapper
+  private Object[] constructorArgsBuffer = new Object[0];
 
   private final PrimitiveTypes primitiveTypes;
 
@@ -104,14 +120,16 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     public ResultMapping propertyMapping;
   }
 
-  private static class UnMappedColumnAutoMapping {
-    private final String column;
-    private final String property;
-    private final TypeHandler<?> typeHandler;
-    private final boolean primitive;
+  static class UnMappedColumnAutoMapping {
+    final String column;
+    final int columnIndex;
+    final String property;
+    final TypeHandler<?> typeHandler;
+    final boolean primitive;
 
-    public UnMappedColumnAutoMapping(String column, String property, TypeHandler<?> typeHandler, boolean primitive) {
+    public UnMappedColumnAutoMapping(String column, int columnIndex, String property, TypeHandler<?> typeHandler, boolean primitive) {
       this.column = column;
+      this.columnIndex = columnIndex;
       this.property = property;
       this.typeHandler = typeHandler;
       this.primitive = primitive;
@@ -246,6 +264,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
 
     ResultMap resultMap = resultMaps.get(0);
+    cursorResults = true;
     return new DefaultCursor<E>(this, resultMap, rsw, rowBounds);
   }
 
@@ -333,7 +352,9 @@ public class DefaultResultSetHandler implements ResultSetHandler {
          * 这样我们可以通过 ResultHandler 自定义接收查询结果的动作。比如我们可将结果存储到
          * List、Map 亦或是 Set，甚至丢弃，这完全取决于大家的实现逻辑。
          */
-        if (resultHandler == null) {
+        if (resultHandler instanceof ColumnTableResultHandler) {
+          handleColumns(rsw, resultMap, (ColumnTableResultHandler) resultHandler, rowBounds);
+        } else if (resultHandler == null) {
           // 创建默认的结果处理器
           DefaultResultHandler defaultResultHandler = new DefaultResultHandler(objectFactory);
           // 处理结果集的行数据
@@ -344,6 +365,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
           handleRowValues(rsw, resultMap, resultHandler, rowBounds, null);
         }
       }
+      loadNestedQueryBatches();
     } finally {
       // issue #228 (close resultsets)
       closeResultSet(rsw.getResultSet());
@@ -379,15 +401,28 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   }
 
   protected void checkResultHandler() {
-    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !mappedStatement.isResultOrdered()) {
+    if (resultHandler != null && configuration.isSafeResultHandlerEnabled() && !isResultOrdered()) {
       throw new ExecutorException("Mapped Statements with nested result mappings cannot be safely used with a custom ResultHandler. "
           + "Use safeResultHandlerEnabled=false setting to bypass this check "
           + "or ensure your statement returns ordered data and set resultOrdered=true on it.");
     }
   }
 
+  /**
+   * Tells whether the objects of a nested result map are complete once the first row of the next one is read, then
+   * each object is handed over at that point and the nested objects of the previous one are forgotten.
+   */
+  private boolean isResultOrdered() {
+    return mappedStatement.isResultOrdered()
+        || (configuration.isStreamNestedResults() && (resultHandler != null || cursorResults));
+  }
+
   private void handleRowValuesForSimpleResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping)
       throws SQLException {
+    if (mappedStatement.isParallelMapping() && parentMapping == null) {
+      handleRowValuesInParallel(rsw, resultMap, resultHandler, rowBounds);
+      return;
+    }
     DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
 
     /**
@@ -408,6 +443,106 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     }
   }
 
+  //
+  // HANDLE COLUMNS
+  //
+
+  private void handleColumns(ResultSetWrapper rsw, ResultMap resultMap, ColumnTableResultHandler resultHandler, RowBounds rowBounds)
+      throws SQLException {
+    if (resultHandler.hasColumnTable()) {
+      // only the first result set is read
+      return;
+    }
+    final List<String> columnNames = rsw.getColumnNames();
+    final Class<?>[] columnTypes = new Class<?>[columnNames.size()];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[columnNames.size()];
+    for (int i = 0; i < columnTypes.length; i++) {
+      final String columnName = columnNames.get(i);
+      // a single column statement may declare its value type as result type, e.g. resultType="long"
+      final Class<?> valueType = i == 0 && typeHandlerRegistry.hasTypeHandler(resultMap.getType()) ? resultMap.getType() : null;
+      columnTypes[i] = valueType != null ? primitiveColumnType(valueType) : primitiveColumnType(rsw.getJdbcType(columnName));
+      if (columnTypes[i] == Object.class) {
+        typeHandlers[i] = rsw.getTypeHandler(valueType != null ? valueType : Object.class, columnName);
+      }
+    }
+    final ColumnTable.Builder builder = new ColumnTable.Builder(columnNames.toArray(new String[columnNames.size()]), columnTypes, typeHandlers);
+    final ResultSet resultSet = rsw.getResultSet();
+    skipRows(resultSet, rowBounds);
+    int rowCount = 0;
+    while (rowCount < rowBounds.getLimit() && resultSet.next()) {
+      builder.addRow(resultSet);
+      rowCount++;
+    }
+    resultHandler.setColumnTable(builder.build());
+  }
+
+  private Class<?> primitiveColumnType(Class<?> valueType) {
+    if (valueType == Integer.class || valueType == int.class || valueType == Short.class || valueType == short.class
+        || valueType == Byte.class || valueType == byte.class) {
+      return int.class;
+    } else if (valueType == Long.class || valueType == long.class) {
+      return long.class;
+    } else if (valueType == Double.class || valueType == double.class || valueType == Float.class || valueType == float.class) {
+      return double.class;
+    }
+    return Object.class;
+  }
+
+  private Class<?> primitiveColumnType(JdbcType jdbcType) {
+    if (jdbcType == JdbcType.TINYINT || jdbcType == JdbcType.SMALLINT || jdbcType == JdbcType.INTEGER) {
+      return int.class;
+    } else if (jdbcType == JdbcType.BIGINT) {
+      return long.class;
+    } else if (jdbcType == JdbcType.REAL || jdbcType == JdbcType.FLOAT || jdbcType == JdbcType.DOUBLE) {
+      return double.class;
+    }
+    return Object.class;
+  }
+
+  private void handleRowValuesInParallel(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds)
+      throws SQLException {
+    DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
+    ParallelRowMapper rowMapper = parallelRowMapper;
+    if (rowMapper == null || rowMapper.getResultSet() != rsw.getResultSet()) {
+      rowMapper = new ParallelRowMapper(rsw.getResultSet(), objectFactory, configuration.isReturnInstanceForEmptyRow());
+      skipRows(rsw.getResultSet(), rowBounds);
+    }
+    parallelRowMapper = rowMapper;
+    while (shouldProcessMoreRows(resultContext, rowBounds)) {
+      if (!rowMapper.hasResult()) {
+        readRowsAhead(rsw, resultMap, rowMapper, rowBounds.getLimit() - resultContext.getResultCount());
+        if (!rowMapper.awaitBatch()) {
+          break;
+        }
+      }
+      callResultHandler(resultHandler, resultContext, rowMapper.nextResult());
+    }
+    if (!cursorResults) {
+      rowMapper.cancel();
+      parallelRowMapper = null;
+    }
+  }
+
+  private void readRowsAhead(ResultSetWrapper rsw, ResultMap resultMap, ParallelRowMapper rowMapper, int remainingRows) throws SQLException {
+    final ResultSet rs = rsw.getResultSet();
+    while (!rowMapper.isExhausted() && !rowMapper.isBusy() && rowMapper.getBufferedRows() < remainingRows) {
+      if (!rs.next()) {
+        rowMapper.markExhausted();
+        break;
+      }
+      ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rs, resultMap, null);
+      CompiledRowMapper compiledRowMapper = getCompiledRowMapper(rsw, discriminatedResultMap);
+      if (compiledRowMapper != null) {
+        Object[] values = new Object[compiledRowMapper.getPropertyCount()];
+        compiledRowMapper.read(rs, values);
+        rowMapper.addRow(compiledRowMapper, values);
+      } else {
+        rowMapper.addResult(getRowValue(rsw, discriminatedResultMap));
+      }
+    }
+    rowMapper.flush();
+  }
+
   private void storeObject(ResultHandler<?> resultHandler, DefaultResultContext<Object> resultContext, Object rowValue, ResultMapping parentMapping, ResultSet rs) throws SQLException {
     if (parentMapping != null) {
       // 多结果集相关
@@ -447,6 +582,22 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   //
 
   private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    if (configuration.isUseCompactMapRows() && resultMap.getType() == Map.class) {
+      final CompactMapRowMapper rowMapper = getCompactMapRowMapper(rsw, resultMap);
+      if (rowMapper != null) {
+        this.useConstructorMappings = false;
+        return rowMapper.map(rsw.getResultSet(), configuration.isReturnInstanceForEmptyRow());
+      }
+    }
+    if (configuration.isUseCompiledRowMappers()) {
+      final CompiledRowMapper rowMapper = getCompiledRowMapper(rsw, resultMap);
+      if (rowMapper != null) {
+        this.useConstructorMappings = false;
+        final Object rowValue = objectFactory.create(resultMap.getType());
+        final boolean foundValues = rowMapper.map(rsw.getResultSet(), rowValue);
+        return foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
+      }
+    }
     final ResultLoaderMap lazyLoader = new ResultLoaderMap();
     // 创建实体类对象，比如 Article 对象
     Object rowValue = createResultObject(rsw, resultMap, lazyLoader, null);
@@ -467,6 +618,182 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return rowValue;
   }
 
+  //
+  // COMPACT MAP ROWS
+  //
+
+  private CompactMapRowMapper getCompactMapRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final ColumnMappingPlan plan = rsw.getColumnMappingPlan(resultMap, null);
+    final boolean ignoreCase = configuration.isCompactMapRowsIgnoreCase();
+    final boolean includeNulls = configuration.isCallSettersOnNulls();
+    CompactMapRowMapper rowMapper = plan.getCompactMapRowMapper();
+    if (rowMapper == null || !rowMapper.isBuiltFor(ignoreCase, includeNulls)) {
+      rowMapper = buildCompactMapRowMapper(rsw, resultMap, ignoreCase, includeNulls);
+      plan.setCompactMapRowMapper(rowMapper);
+    }
+    return rowMapper == CompactMapRowMapper.UNSUPPORTED ? null : rowMapper;
+  }
+
+  private CompactMapRowMapper buildCompactMapRowMapper(ResultSetWrapper rsw, ResultMap resultMap, boolean ignoreCase, boolean includeNulls)
+      throws SQLException {
+    // only plain automatically mapped rows, a custom object factory may create maps of its own
+    if (objectFactory.getClass() != DefaultObjectFactory.class || !resultMap.getResultMappings().isEmpty()
+        || resultMap.getDiscriminator() != null || hasTypeHandlerForResultObject(rsw, resultMap.getType())
+        || !shouldApplyAutomaticMappings(resultMap, false)) {
+      return CompactMapRowMapper.UNSUPPORTED;
+    }
+    // the same automatic mappings as the HashMap rows would get
+    final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultMap.getType()));
+    return CompactMapRowMapper.build(createAutomaticMappings(rsw, resultMap, metaObject, null), ignoreCase, includeNulls);
+  }
+
+  //
+  // COMPILED ROW MAPPERS
+  //
+
+  private CompiledRowMapper getCompiledRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final String columnLayout = rsw.getColumnLayout();
+    CompiledRowMapper rowMapper = configuration.getRowMapperRegistry().getCompiledRowMapper(resultMap, columnLayout);
+    if (rowMapper == null) {
+      rowMapper = compileRowMapper(rsw, resultMap);
+      configuration.getRowMapperRegistry().putCompiledRowMapper(resultMap, columnLayout, rowMapper);
+    }
+    return rowMapper == CompiledRowMapper.UNSUPPORTED ? null : rowMapper;
+  }
+
+  private CompiledRowMapper compileRowMapper(ResultSetWrapper rsw, ResultMap resultMap) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    if (!configuration.isUseColumnLabel() || resultMap.hasNestedResultMaps() || resultMap.hasNestedQueries()
+        || !resultMap.getConstructorResultMappings().isEmpty() || resultType.isInterface()
+        || Map.class.isAssignableFrom(resultType) || hasTypeHandlerForResultObject(rsw, resultType)) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final Reflector reflector = reflectorFactory.findForClass(resultType);
+    if (!reflector.hasDefaultConstructor()) {
+      return CompiledRowMapper.UNSUPPORTED;
+    }
+    final List<String> properties = new ArrayList<String>();
+    final List<Integer> columns = new ArrayList<Integer>();
+    final List<TypeHandler<?>> typeHandlers = new ArrayList<TypeHandler<?>>();
+    final List<Boolean> setNulls = new ArrayList<Boolean>();
+    if (shouldApplyAutomaticMappings(resultMap, false)) {
+      final MetaObject metaObject = configuration.newMetaObject(objectFactory.create(resultType));
+      for (UnMappedColumnAutoMapping mapping : buildAutomaticMappings(rsw, resultMap, metaObject, null)) {
+        if (!isSimpleProperty(mapping.property, reflector)) {
+          return CompiledRowMapper.UNSUPPORTED;
+        }
+        properties.add(mapping.property);
+        columns.add(mapping.columnIndex);
+        typeHandlers.add(mapping.typeHandler);
+        setNulls.add(configuration.isCallSettersOnNulls() && !mapping.primitive);
+      }
+    }
+    final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+    final int[] columnIndexes = rsw.getMappedColumnIndexes(resultMap, propertyMappings, null);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      if (propertyMapping.isCompositeResult() || propertyMapping.getResultSet() != null
+          || propertyMapping.getNestedResultMapId() != null || propertyMapping.getTypeHandler() == null) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      final String property = propertyMapping.getProperty();
+      if (property == null || columnIndexes[i] < 0) {
+        continue;
+      }
+      if (!isSimpleProperty(property, reflector)) {
+        return CompiledRowMapper.UNSUPPORTED;
+      }
+      properties.add(property);
+      columns.add(columnIndexes[i]);
+      typeHandlers.add(propertyMapping.getTypeHandler());
+      setNulls.add(configuration.isCallSettersOnNulls() && !reflector.getSetterType(property).isPrimitive());
+    }
+    final String[] propertyArray = properties.toArray(new String[properties.size()]);
+    final int[] columnArray = new int[columns.size()];
+    final boolean[] setNullArray = new boolean[setNulls.size()];
+    for (int i = 0; i < columnArray.length; i++) {
+      columnArray[i] = columns.get(i);
+      setNullArray[i] = setNulls.get(i);
+    }
+    return new CompiledRowMapper(resultType, propertyArray, columnArray, typeHandlers.toArray(new TypeHandler<?>[typeHandlers.size()]),
+        setNullArray, RowValueSetterCompiler.compile(resultType, propertyArray, reflector));
+  }
+
+  private ConstructorMapper getConstructorMapper(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    final ColumnMappingPlan plan = rsw.getColumnMappingPlan(resultMap, columnPrefix);
+    ConstructorMapper constructorMapper = plan.getConstructorMapper();
+    if (constructorMapper == null) {
+      constructorMapper = compileConstructorMapper(rsw, resultMap, columnPrefix);
+      plan.setConstructorMapper(constructorMapper);
+    }
+    return constructorMapper == ConstructorMapper.UNSUPPORTED ? null : constructorMapper;
+  }
+
+  private ConstructorMapper compileConstructorMapper(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
+    final Class<?> resultType = resultMap.getType();
+    // a custom object factory has to see every object created, a lazy loading proxy needs the argument lists
+    if (objectFactory.getClass() != DefaultObjectFactory.class || resultType.isInterface()
+        || hasTypeHandlerForResultObject(rsw, resultType) || hasLazyNestedQueries(resultMap)) {
+      return ConstructorMapper.UNSUPPORTED;
+    }
+    final List<ResultMapping> constructorMappings = resultMap.getConstructorResultMappings();
+    if (!constructorMappings.isEmpty()) {
+      final int[] columns = rsw.getMappedColumnIndexes(resultMap, constructorMappings, columnPrefix);
+      final Class<?>[] parameterTypes = new Class<?>[columns.length];
+      final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[columns.length];
+      for (int i = 0; i < columns.length; i++) {
+        final ResultMapping constructorMapping = constructorMappings.get(i);
+        if (constructorMapping.getNestedQueryId() != null || constructorMapping.getNestedResultMapId() != null
+            || constructorMapping.getTypeHandler() == null || columns[i] < 0) {
+          return ConstructorMapper.UNSUPPORTED;
+        }
+        parameterTypes[i] = constructorMapping.getJavaType();
+        typeHandlers[i] = constructorMapping.getTypeHandler();
+      }
+      final Constructor<?> constructor;
+      try {
+        constructor = resultType.getDeclaredConstructor(parameterTypes);
+      } catch (NoSuchMethodException e) {
+        // the object factory reports it
+        return ConstructorMapper.UNSUPPORTED;
+      }
+      return new ConstructorMapper(columns, typeHandlers, constructorMappings.toArray(new ResultMapping[columns.length]),
+          RowValueSetterCompiler.compile(constructor));
+    }
+    if (reflectorFactory.findForClass(resultType).hasDefaultConstructor() || !shouldApplyAutomaticMappings(resultMap, false)) {
+      return ConstructorMapper.UNSUPPORTED;
+    }
+    final Constructor<?> constructor = findConstructorBySignature(rsw, resultType);
+    if (constructor == null || constructor.getParameterTypes().length > rsw.getColumnNames().size()) {
+      return ConstructorMapper.UNSUPPORTED;
+    }
+    final Class<?>[] parameterTypes = constructor.getParameterTypes();
+    final int[] columns = new int[parameterTypes.length];
+    final TypeHandler<?>[] typeHandlers = new TypeHandler<?>[parameterTypes.length];
+    for (int i = 0; i < parameterTypes.length; i++) {
+      final String columnName = rsw.getColumnNames().get(i);
+      columns[i] = rsw.getColumnIndex(prependPrefix(columnName, columnPrefix));
+      if (columns[i] < 0) {
+        return ConstructorMapper.UNSUPPORTED;
+      }
+      typeHandlers[i] = rsw.getTypeHandler(parameterTypes[i], columnName);
+    }
+    return new ConstructorMapper(columns, typeHandlers, null, RowValueSetterCompiler.compile(constructor));
+  }
+
+  private boolean hasLazyNestedQueries(ResultMap resultMap) {
+    for (ResultMapping propertyMapping : resultMap.getPropertyResultMappings()) {
+      if (propertyMapping.getNestedQueryId() != null && propertyMapping.isLazy()) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private boolean isSimpleProperty(String property, Reflector reflector) {
+    return property.indexOf('.') == -1 && property.indexOf('[') == -1 && reflector.hasSetter(property);
+  }
+
   private boolean shouldApplyAutomaticMappings(ResultMap resultMap, boolean isNested) {
     // 检测 <resultMap> 是否配置了 autoMapping 属性
     if (resultMap.getAutoMapping() != null) {
@@ -490,18 +817,18 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   private boolean applyPropertyMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
 
-    // 获取已映射的列名
-    final List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
     boolean foundValues = false;
     // 获取 ResultMapping <resultMap>的内容
     final List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
-    for (ResultMapping propertyMapping : propertyMappings) {
-      // 拼接列名前缀，得到完整列名
-      String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
+    // 获取已映射的列的下标，未映射的列为 -1
+    final int[] columnIndexes = rsw.getMappedColumnIndexes(resultMap, propertyMappings, columnPrefix);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping propertyMapping = propertyMappings.get(i);
+      int columnIndex = columnIndexes[i];
       //判断是否是嵌套
       if (propertyMapping.getNestedResultMapId() != null) {
         // the user added a column attribute to a nested result map, ignore it
-        column = null;
+        columnIndex = -1;
       }
 
       /*
@@ -512,11 +839,11 @@ public class DefaultResultSetHandler implements ResultSetHandler {
        *  条件三：多结果集相关，暂不分析
        */
       if (propertyMapping.isCompositeResult()
-          || (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)))
+          || columnIndex > 0
           || propertyMapping.getResultSet() != null) {
 
         // 从结果集中获取指定列的数据
-        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, lazyLoader, columnPrefix);
+        Object value = getPropertyMappingValue(rsw.getResultSet(), metaObject, propertyMapping, columnIndex, lazyLoader, columnPrefix);
         // issue #541 make property optional
         final String property = propertyMapping.getProperty();
         if (property == null) {
@@ -541,7 +868,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return foundValues;
   }
 
-  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, ResultLoaderMap lazyLoader, String columnPrefix)
+  private Object getPropertyMappingValue(ResultSet rs, MetaObject metaResultObject, ResultMapping propertyMapping, int columnIndex, ResultLoaderMap lazyLoader, String columnPrefix)
       throws SQLException {
     if (propertyMapping.getNestedQueryId() != null) {
       // 获取关联查询结果 <association ></association> 或者<collection></collection>
@@ -550,14 +877,23 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       addPendingChildRelation(rs, metaResultObject, propertyMapping);   // TODO is that OK?
       return DEFERED;
     } else {
-      // 拼接前缀
       final TypeHandler<?> typeHandler = propertyMapping.getTypeHandler();
-      final String column = prependPrefix(propertyMapping.getColumn(), columnPrefix);
       // 从 ResultSet 中获取指定列的值
-      return typeHandler.getResult(rs, column);
+      return getColumnValue(typeHandler, rs, columnIndex, prependPrefix(propertyMapping.getColumn(), columnPrefix));
     }
   }
 
+  /*
+   * Reads a mapped column by index if readColumnsByIndex is enabled and by name otherwise, as a custom
+   * type handler may only implement the read by name
+   */
+  private Object getColumnValue(TypeHandler<?> typeHandler, ResultSet rs, int columnIndex, String column) throws SQLException {
+    if (configuration.isReadColumnsByIndex()) {
+      return typeHandler.getResult(rs, columnIndex);
+    }
+    return typeHandler.getResult(rs, column);
+  }
+
 
   /**
    * 1.ResultSetWrapper 中获取未配置在 <resultMap> 中的列名
@@ -569,10 +905,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
    * 7.创建 UnMappedColumnAutoMapping 实例
    */
   private List<UnMappedColumnAutoMapping> createAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
-    final String mapKey = resultMap.getId() + ":" + columnPrefix;
-    List<UnMappedColumnAutoMapping> autoMapping = autoMappingsCache.get(mapKey);
+    // the automatic mappings are kept by the plan of the column layout, for the following executions as well
+    final ColumnMappingPlan plan = rsw.getColumnMappingPlan(resultMap, columnPrefix);
+    final Class<?> resultType = metaObject.getOriginalObject().getClass();
+    final boolean mapUnderscoreToCamelCase = configuration.isMapUnderscoreToCamelCase();
+    List<UnMappedColumnAutoMapping> autoMapping = plan.getAutoMappings(resultType, mapUnderscoreToCamelCase);
     if (autoMapping == null) {
-      autoMapping = new ArrayList<UnMappedColumnAutoMapping>();
+      autoMapping = buildAutomaticMappings(rsw, resultMap, metaObject, columnPrefix);
+      plan.setAutoMappings(resultType, mapUnderscoreToCamelCase, autoMapping);
+    }
+    return autoMapping;
+  }
+
+  private List<UnMappedColumnAutoMapping> buildAutomaticMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String columnPrefix) throws SQLException {
+    final List<UnMappedColumnAutoMapping> autoMapping = new ArrayList<UnMappedColumnAutoMapping>();
+    {
       // 从 ResultSetWrapper 中获取未配置在 <resultMap> 中的列名
       //  unmappedColumnNames集合 就是在 <resultMap> 中未配置的映射列名称
       final List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
@@ -601,7 +948,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
             // 获取类型处理器
             final TypeHandler<?> typeHandler = rsw.getTypeHandler(propertyType, columnName);
             // 封装上面获取到的信息到 UnMappedColumnAutoMapping 对象中
-            autoMapping.add(new UnMappedColumnAutoMapping(columnName, property, typeHandler, propertyType.isPrimitive()));
+            autoMapping.add(new UnMappedColumnAutoMapping(columnName, rsw.getColumnIndex(columnName), property, typeHandler, propertyType.isPrimitive()));
           } else {
             configuration.getAutoMappingUnknownColumnBehavior()
                 .doAction(mappedStatement, columnName, property, propertyType);
@@ -620,8 +967,6 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               .doAction(mappedStatement, columnName, (property != null) ? property : propertyName, null);
         }
       }
-      // 写入缓存
-      autoMappingsCache.put(mapKey, autoMapping);
     }
     return autoMapping;
   }
@@ -634,7 +979,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
       // 通过 TypeHandler 从结果集中获取指定列的数据
       for (UnMappedColumnAutoMapping mapping : autoMapping) {
         //获取到该行该列的数据
-        final Object value = mapping.typeHandler.getResult(rsw.getResultSet(), mapping.column);
+        final Object value = getColumnValue(mapping.typeHandler, rsw.getResultSet(), mapping.columnIndex, mapping.column);
         if (value != null) {
           foundValues = true;
         }
@@ -707,6 +1052,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createResultObject(ResultSetWrapper rsw, ResultMap resultMap, ResultLoaderMap lazyLoader, String columnPrefix) throws SQLException {
     this.useConstructorMappings = false; // reset previous mapping result
+    if (configuration.isUseCompiledRowMappers()) {
+      final ConstructorMapper constructorMapper = getConstructorMapper(rsw, resultMap, columnPrefix);
+      if (constructorMapper != null) {
+        if (constructorArgsBuffer.length < constructorMapper.getArgumentCount()) {
+          constructorArgsBuffer = new Object[constructorMapper.getArgumentCount()];
+        }
+        final Object resultObject = constructorMapper.create(rsw.getResultSet(), constructorArgsBuffer);
+        this.useConstructorMappings = resultObject != null;
+        return resultObject;
+      }
+    }
     final List<Class<?>> constructorArgTypes = new ArrayList<Class<?>>();
     final List<Object> constructorArgs = new ArrayList<Object>();
     // 调用重载方法创建实体类对象
@@ -794,18 +1150,25 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createByConstructorSignature(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs,
                                               String columnPrefix) throws SQLException {
+    final Constructor<?> constructor = findConstructorBySignature(rsw, resultType);
+    if (constructor != null) {
+      return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, constructor);
+    }
+    throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+  }
+
+  private Constructor<?> findConstructorBySignature(ResultSetWrapper rsw, Class<?> resultType) {
     final Constructor<?>[] constructors = resultType.getDeclaredConstructors();
     final Constructor<?> annotatedConstructor = findAnnotatedConstructor(constructors);
     if (annotatedConstructor != null) {
-      return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, annotatedConstructor);
-    } else {
-      for (Constructor<?> constructor : constructors) {
-        if (allowedConstructor(constructor, rsw.getClassNames())) {
-          return createUsingConstructor(rsw, resultType, constructorArgTypes, constructorArgs, columnPrefix, constructor);
-        }
+      return annotatedConstructor;
+    }
+    for (Constructor<?> constructor : constructors) {
+      if (allowedConstructor(constructor, rsw.getClassNames())) {
+        return constructor;
       }
     }
-    throw new ExecutorException("No constructor found in " + resultType.getName() + " matching " + rsw.getClassNames());
+    return null;
   }
 
   private Object createUsingConstructor(ResultSetWrapper rsw, Class<?> resultType, List<Class<?>> constructorArgTypes, List<Object> constructorArgs, String columnPrefix, Constructor<?> constructor) throws SQLException {
@@ -856,16 +1219,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private Object createPrimitiveResultObject(ResultSetWrapper rsw, ResultMap resultMap, String columnPrefix) throws SQLException {
     final Class<?> resultType = resultMap.getType();
-    final String columnName;
     if (!resultMap.getResultMappings().isEmpty()) {
       final List<ResultMapping> resultMappingList = resultMap.getResultMappings();
       final ResultMapping mapping = resultMappingList.get(0);
-      columnName = prependPrefix(mapping.getColumn(), columnPrefix);
-    } else {
-      columnName = rsw.getColumnNames().get(0);
+      final String columnName = prependPrefix(mapping.getColumn(), columnPrefix);
+      final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
+      return typeHandler.getResult(rsw.getResultSet(), columnName);
     }
-    final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, columnName);
-    return typeHandler.getResult(rsw.getResultSet(), columnName);
+    final TypeHandler<?> typeHandler = rsw.getTypeHandler(resultType, rsw.getColumnNames().get(0));
+    return getColumnValue(typeHandler, rsw.getResultSet(), 1, rsw.getColumnNames().get(0));
   }
 
   //
@@ -906,7 +1268,21 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     // 根据 nestedQueryId 获取 MappedStatement
     final MappedStatement nestedQuery = configuration.getMappedStatement(nestedQueryId);
     final Class<?> nestedQueryParameterType = nestedQuery.getParameterMap().getType();// 此处是获取子查询的参数
-    final Object nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    final Object nestedQueryParameterObject;
+    if (propertyMapping.getBatchSize() > 0) {
+      final Object key = prepareSimpleKeyParameter(rs, propertyMapping, Object.class, columnPrefix);
+      if (key != null && isBatchedNestedQuery(propertyMapping)) {
+        // a key already loaded or being loaded, e.g. by a circular reference, is set from the local cache
+        if (!deferNestedQueryKey(nestedQuery, key, metaResultObject, propertyMapping)) {
+          addToNestedQueryBatch(key, metaResultObject, propertyMapping, nestedQuery);
+        }
+        return DEFERED;
+      }
+      // the select expects a list of keys even when it loads a single row
+      nestedQueryParameterObject = key == null ? null : NestedQueryBatch.keysParameter(Collections.singletonList(key));
+    } else {
+      nestedQueryParameterObject = prepareParameterForNestedQuery(rs, propertyMapping, nestedQueryParameterType, columnPrefix);
+    }
     Object value = null;
 
     /*
@@ -958,6 +1334,109 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return value;
   }
 
+  //
+  // BATCHED NESTED QUERIES
+  //
+
+  private boolean isBatchedNestedQuery(ResultMapping propertyMapping) {
+    // rows handed to a custom handler or a cursor have to be complete
+    return propertyMapping.getBatchSize() > 0 && !propertyMapping.isLazy() && resultHandler == null && !cursorResults;
+  }
+
+  private void addToNestedQueryBatch(Object key, MetaObject metaResultObject, ResultMapping propertyMapping, MappedStatement nestedQuery)
+      throws SQLException {
+    NestedQueryBatch batch = nestedQueryBatches.get(propertyMapping);
+    if (batch == null) {
+      batch = new NestedQueryBatch(propertyMapping, nestedQuery);
+      nestedQueryBatches.put(propertyMapping, batch);
+    }
+    batch.add(key, metaResultObject);
+    if (batch.isFull()) {
+      loadNestedQueryBatch(batch);
+    }
+  }
+
+  private void loadNestedQueryBatches() throws SQLException {
+    for (NestedQueryBatch batch : nestedQueryBatches.values()) {
+      if (!batch.isEmpty()) {
+        loadNestedQueryBatch(batch);
+      }
+    }
+  }
+
+  private void loadNestedQueryBatch(NestedQueryBatch batch) throws SQLException {
+    final MappedStatement nestedQuery = batch.getNestedQuery();
+    final Object parameterObject = batch.getParameterObject();
+    final BoundSql nestedBoundSql = nestedQuery.getBoundSql(parameterObject);
+    final CacheKey cacheKey = executor.createCacheKey(nestedQuery, parameterObject, RowBounds.DEFAULT, nestedBoundSql);
+    if (executor.isCached(nestedQuery, cacheKey)) {
+      // the same keys may be loaded by an enclosing query, whose results are not there yet
+      loadNestedQueryBatchByKey(batch);
+    } else {
+      final List<Object> nestedResults = executor.query(nestedQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, nestedBoundSql);
+      final Map<Object, List<Object>> nestedResultsByKey = batch.groupByKey(nestedResults, configuration);
+      for (Map.Entry<Object, List<MetaObject>> entry : batch.getParentsByKey().entrySet()) {
+        linkNestedQueryResults(batch, entry.getKey(), entry.getValue(), nestedResultsByKey.get(entry.getKey()));
+      }
+    }
+    batch.clear();
+  }
+
+  private void loadNestedQueryBatchByKey(NestedQueryBatch batch) throws SQLException {
+    final MappedStatement nestedQuery = batch.getNestedQuery();
+    final List<Object> keys = batch.getKeys();
+    int i = 0;
+    for (Map.Entry<Object, List<MetaObject>> entry : batch.getParentsByKey().entrySet()) {
+      final Object key = keys.get(i++);
+      final List<MetaObject> parents = entry.getValue();
+      final Object parameterObject = NestedQueryBatch.keysParameter(Collections.singletonList(key));
+      final BoundSql nestedBoundSql = nestedQuery.getBoundSql(parameterObject);
+      final CacheKey cacheKey = executor.createCacheKey(nestedQuery, parameterObject, RowBounds.DEFAULT, nestedBoundSql);
+      if (executor.isCached(nestedQuery, cacheKey)) {
+        for (MetaObject metaObject : parents) {
+          executor.deferLoad(nestedQuery, metaObject, batch.getPropertyMapping().getProperty(), cacheKey, batch.getPropertyMapping().getJavaType());
+        }
+      } else {
+        final List<Object> values = executor.query(nestedQuery, parameterObject, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER, cacheKey, nestedBoundSql);
+        linkNestedQueryResults(batch, entry.getKey(), parents, values.isEmpty() ? null : values);
+      }
+    }
+  }
+
+  private void linkNestedQueryResults(NestedQueryBatch batch, Object key, List<MetaObject> parents, List<Object> values) {
+    final ResultMapping propertyMapping = batch.getPropertyMapping();
+    for (MetaObject metaObject : parents) {
+      final Object collection = instantiateCollectionPropertyIfAppropriate(propertyMapping, metaObject);
+      if (values == null) {
+        continue;
+      }
+      if (collection == null && values.size() > 1) {
+        throw new ExecutorException("Nested select '" + batch.getNestedQuery().getId() + "' returned more than one row for key '"
+            + key + "', where no more than one was expected.");
+      }
+      for (Object value : values) {
+        linkObjects(metaObject, propertyMapping, value);
+      }
+    }
+  }
+
+  /*
+   * Sets a property from the local cache if the nested select of its key alone already ran or is running
+   *
+   * @return True if the property is set or will be set when the running select completes
+   */
+  private boolean deferNestedQueryKey(MappedStatement nestedQuery, Object key, MetaObject metaResultObject, ResultMapping propertyMapping)
+      throws SQLException {
+    final Object parameterObject = NestedQueryBatch.keysParameter(Collections.singletonList(key));
+    final BoundSql nestedBoundSql = nestedQuery.getBoundSql(parameterObject);
+    final CacheKey cacheKey = executor.createCacheKey(nestedQuery, parameterObject, RowBounds.DEFAULT, nestedBoundSql);
+    if (executor.isCached(nestedQuery, cacheKey)) {
+      executor.deferLoad(nestedQuery, metaResultObject, propertyMapping.getProperty(), cacheKey, propertyMapping.getJavaType());
+      return true;
+    }
+    return false;
+  }
+
   private Object prepareParameterForNestedQuery(ResultSet rs, ResultMapping resultMapping, Class<?> parameterType, String columnPrefix) throws SQLException {
     if (resultMapping.isCompositeResult()) {
       return prepareCompositeKeyParameter(rs, resultMapping, parameterType, columnPrefix);
@@ -1047,14 +1526,15 @@ public class DefaultResultSetHandler implements ResultSetHandler {
 
   private void handleRowValuesForNestedResultMap(ResultSetWrapper rsw, ResultMap resultMap, ResultHandler<?> resultHandler, RowBounds rowBounds, ResultMapping parentMapping) throws SQLException {
     final DefaultResultContext<Object> resultContext = new DefaultResultContext<Object>();
+    final boolean resultOrdered = isResultOrdered();
     skipRows(rsw.getResultSet(), rowBounds);
     Object rowValue = previousRowValue;
     while (shouldProcessMoreRows(resultContext, rowBounds) && rsw.getResultSet().next()) {
       final ResultMap discriminatedResultMap = resolveDiscriminatedResultMap(rsw.getResultSet(), resultMap, null);
-      final CacheKey rowKey = createRowKey(discriminatedResultMap, rsw, null);
+      final RowKey rowKey = createRowKey(discriminatedResultMap, rsw, null, null);
       Object partialObject = nestedResultObjects.get(rowKey);
       // issue #577 && #542
-      if (mappedStatement.isResultOrdered()) {
+      if (resultOrdered) {
         if (partialObject == null && rowValue != null) {
           nestedResultObjects.clear();
           storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
@@ -1067,7 +1547,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
     }
-    if (rowValue != null && mappedStatement.isResultOrdered() && shouldProcessMoreRows(resultContext, rowBounds)) {
+    if (rowValue != null && resultOrdered && shouldProcessMoreRows(resultContext, rowBounds)) {
       storeObject(resultHandler, resultContext, rowValue, parentMapping, rsw.getResultSet());
       previousRowValue = null;
     } else if (rowValue != null) {
@@ -1079,15 +1559,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // GET VALUE FROM ROW FOR NESTED RESULT MAP
   //
 
-  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, CacheKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
+  private Object getRowValue(ResultSetWrapper rsw, ResultMap resultMap, RowKey combinedKey, String columnPrefix, Object partialObject) throws SQLException {
     final String resultMapId = resultMap.getId();
     Object rowValue = partialObject;
     if (rowValue != null) {
       final MetaObject metaObject = configuration.newMetaObject(rowValue);
       putAncestor(rowValue, resultMapId);
-      applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, false);
+      // the given key is filled again for the next row, the nested objects refer to the stored one
+      applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, nestedResultObjects.getKey(combinedKey), false);
       ancestorObjects.remove(resultMapId);
     } else {
+      final RowKey storedKey = combinedKey == null ? null : combinedKey.copy();
       final ResultLoaderMap lazyLoader = new ResultLoaderMap();
       rowValue = createResultObject(rsw, resultMap, lazyLoader, columnPrefix);
       if (rowValue != null && !hasTypeHandlerForResultObject(rsw, resultMap.getType())) {
@@ -1098,13 +1580,13 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
         foundValues = applyPropertyMappings(rsw, resultMap, metaObject, lazyLoader, columnPrefix) || foundValues;
         putAncestor(rowValue, resultMapId);
-        foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, combinedKey, true) || foundValues;
+        foundValues = applyNestedResultMappings(rsw, resultMap, metaObject, columnPrefix, storedKey, true) || foundValues;
         ancestorObjects.remove(resultMapId);
         foundValues = lazyLoader.size() > 0 || foundValues;
         rowValue = foundValues || configuration.isReturnInstanceForEmptyRow() ? rowValue : null;
       }
-      if (combinedKey != CacheKey.NULL_CACHE_KEY) {
-        nestedResultObjects.put(combinedKey, rowValue);
+      if (storedKey != null) {
+        nestedResultObjects.put(storedKey, rowValue);
       }
     }
     return rowValue;
@@ -1118,7 +1600,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // NESTED RESULT MAP (JOIN MAPPING)
   //
 
-  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, CacheKey parentRowKey, boolean newObject) {
+  private boolean applyNestedResultMappings(ResultSetWrapper rsw, ResultMap resultMap, MetaObject metaObject, String parentPrefix, RowKey parentRowKey, boolean newObject) {
     boolean foundValues = false;
     for (ResultMapping resultMapping : resultMap.getPropertyResultMappings()) {
       final String nestedResultMapId = resultMapping.getNestedResultMapId();
@@ -1137,8 +1619,8 @@ public class DefaultResultSetHandler implements ResultSetHandler {
               continue;
             }
           }
-          final CacheKey rowKey = createRowKey(nestedResultMap, rsw, columnPrefix);
-          final CacheKey combinedKey = combineKeys(rowKey, parentRowKey);
+          // a nested object can only be told apart from the others of its parent if the parent can
+          final RowKey combinedKey = parentRowKey == null ? null : createRowKey(nestedResultMap, rsw, columnPrefix, parentRowKey);
           Object rowValue = nestedResultObjects.get(combinedKey);
           boolean knownValue = rowValue != null;
           instantiateCollectionPropertyIfAppropriate(resultMapping, metaObject); // mandatory
@@ -1199,9 +1681,17 @@ public class DefaultResultSetHandler implements ResultSetHandler {
   // UNIQUE RESULT KEY
   //
 
-  private CacheKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix) throws SQLException {
-    final CacheKey cacheKey = new CacheKey();
-    cacheKey.update(resultMap.getId());
+  /**
+   * Fills the row key of the current nesting depth with the current row.
+   *
+   * @return the row key, which is only valid until the next row, or null if no value identifies the object
+   */
+  private RowKey createRowKey(ResultMap resultMap, ResultSetWrapper rsw, String columnPrefix, RowKey parentRowKey) throws SQLException {
+    final int depth = parentRowKey == null ? 0 : parentRowKey.getDepth() + 1;
+    if (rowKeys.size() == depth) {
+      rowKeys.add(new RowKey());
+    }
+    final RowKey cacheKey = rowKeys.get(depth).reset(resultMap, parentRowKey);
     List<ResultMapping> resultMappings = getResultMappingsForRowKey(resultMap);
     if (resultMappings.isEmpty()) {
       if (Map.class.isAssignableFrom(resultMap.getType())) {
@@ -1212,24 +1702,7 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     } else {
       createRowKeyForMappedProperties(resultMap, rsw, cacheKey, resultMappings, columnPrefix);
     }
-    if (cacheKey.getUpdateCount() < 2) {
-      return CacheKey.NULL_CACHE_KEY;
-    }
-    return cacheKey;
-  }
-
-  private CacheKey combineKeys(CacheKey rowKey, CacheKey parentRowKey) {
-    if (rowKey.getUpdateCount() > 1 && parentRowKey.getUpdateCount() > 1) {
-      CacheKey combinedKey;
-      try {
-        combinedKey = rowKey.clone();
-      } catch (CloneNotSupportedException e) {
-        throw new ExecutorException("Error cloning cache key.  Cause: " + e, e);
-      }
-      combinedKey.update(parentRowKey);
-      return combinedKey;
-    }
-    return CacheKey.NULL_CACHE_KEY;
+    return cacheKey.isEmpty() ? null : cacheKey;
   }
 
   private List<ResultMapping> getResultMappingsForRowKey(ResultMap resultMap) {
@@ -1240,30 +1713,31 @@ public class DefaultResultSetHandler implements ResultSetHandler {
     return resultMappings;
   }
 
-  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
-    for (ResultMapping resultMapping : resultMappings) {
+  private void createRowKeyForMappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey cacheKey, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    final int[] columnIndexes = rsw.getMappedColumnIndexes(resultMap, resultMappings, columnPrefix);
+    for (int i = 0; i < columnIndexes.length; i++) {
+      final ResultMapping resultMapping = resultMappings.get(i);
       if (resultMapping.getNestedResultMapId() != null && resultMapping.getResultSet() == null) {
         // Issue #392
         final ResultMap nestedResultMap = configuration.getResultMap(resultMapping.getNestedResultMapId());
         createRowKeyForMappedProperties(nestedResultMap, rsw, cacheKey, nestedResultMap.getConstructorResultMappings(),
             prependPrefix(resultMapping.getColumnPrefix(), columnPrefix));
       } else if (resultMapping.getNestedQueryId() == null) {
-        final String column = prependPrefix(resultMapping.getColumn(), columnPrefix);
         final TypeHandler<?> th = resultMapping.getTypeHandler();
-        List<String> mappedColumnNames = rsw.getMappedColumnNames(resultMap, columnPrefix);
         // Issue #114
-        if (column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH))) {
-          final Object value = th.getResult(rsw.getResultSet(), column);
+        if (columnIndexes[i] > 0) {
+          final Object value = getColumnValue(th, rsw.getResultSet(), columnIndexes[i], prependPrefix(resultMapping.getColumn(), columnPrefix));
           if (value != null || configuration.isReturnInstanceForEmptyRow()) {
-            cacheKey.update(column);
             cacheKey.update(value);
+          } else {
+            cacheKey.skip();
           }
         }
       }
     }
   }
 
-  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, CacheKey cacheKey, String columnPrefix) throws SQLException {
+  private void createRowKeyForUnmappedProperties(ResultMap resultMap, ResultSetWrapper rsw, RowKey cacheKey, String columnPrefix) throws SQLException {
     final MetaClass metaType = MetaClass.forClass(resultMap.getType(), reflectorFactory);
     List<String> unmappedColumnNames = rsw.getUnmappedColumnNames(resultMap, columnPrefix);
     for (String column : unmappedColumnNames) {
@@ -1277,22 +1751,24 @@ public class DefaultResultSetHandler implements ResultSetHandler {
         }
       }
       if (metaType.findProperty(property, configuration.isMapUnderscoreToCamelCase()) != null) {
-        String value = rsw.getResultSet().getString(column);
+        String value = rsw.getResultSet().getString(rsw.getColumnIndex(column));
         if (value != null) {
-          cacheKey.update(column);
           cacheKey.update(value);
+        } else {
+          cacheKey.skip();
         }
       }
     }
   }
 
-  private void createRowKeyForMap(ResultSetWrapper rsw, CacheKey cacheKey) throws SQLException {
+  private void createRowKeyForMap(ResultSetWrapper rsw, RowKey cacheKey) throws SQLException {
     List<String> columnNames = rsw.getColumnNames();
-    for (String columnName : columnNames) {
-      final String value = rsw.getResultSet().getString(columnName);
+    for (int i = 0; i < columnNames.size(); i++) {
+      final String value = rsw.getResultSet().getString(i + 1);
       if (value != null) {
-        cacheKey.update(columnName);
         cacheKey.update(value);
+      } else {
+        cacheKey.skip();
       }
     }
   }
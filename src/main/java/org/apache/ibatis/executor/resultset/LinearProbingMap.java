@@ -0,0 +1,160 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+/**
+ * Hash map with open addressing and linear probing, whose keys and values are held in two arrays.
+ * <p>
+ * Unlike a {@link java.util.HashMap} it does not allocate an entry per mapping, which matters for the maps of
+ * {@link DefaultResultSetHandler} that are written for every row of a joined result set. Null keys are not supported.
+ *
+ * @since 3.4.7
+ */
+final class LinearProbingMap<K, V> {
+
+  private static final int DEFAULT_CAPACITY = 16;
+  /**
+   * Tables larger than this are released on {@link #clear()} rather than emptied
+   */
+  private static final int RETAINED_CAPACITY = 1024;
+
+  private Object[] keys;
+  private Object[] values;
+  private int size;
+  private int shift;
+
+  LinearProbingMap() {
+    allocate(DEFAULT_CAPACITY);
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * @return the value mapped to the key, or null if there is none or the key is null
+   */
+  @SuppressWarnings("unchecked")
+  V get(Object key) {
+    final int index = indexOf(key);
+    return index < 0 ? null : (V) values[index];
+  }
+
+  /**
+   * @return the stored key equal to the given one, or null if there is none
+   */
+  @SuppressWarnings("unchecked")
+  K getKey(Object key) {
+    final int index = indexOf(key);
+    return index < 0 ? null : (K) keys[index];
+  }
+
+  /**
+   * Maps the key to the value, an equal key that is already stored is kept.
+   */
+  void put(K key, V value) {
+    int index = slot(key.hashCode());
+    Object current;
+    while ((current = keys[index]) != null) {
+      if (current == key || current.equals(key)) {
+        values[index] = value;
+        return;
+      }
+      index = (index + 1) & (keys.length - 1);
+    }
+    keys[index] = key;
+    values[index] = value;
+    if (++size << 1 > keys.length) {
+      resize(keys.length << 1);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  V remove(Object key) {
+    int gap = indexOf(key);
+    if (gap < 0) {
+      return null;
+    }
+    final V value = (V) values[gap];
+    final int mask = keys.length - 1;
+    // shifts back the keys of the same probe sequence so that none of them follows an empty slot
+    for (int index = (gap + 1) & mask; keys[index] != null; index = (index + 1) & mask) {
+      final int home = slot(keys[index].hashCode());
+      final boolean stays = gap <= index ? gap < home && home <= index : gap < home || home <= index;
+      if (!stays) {
+        keys[gap] = keys[index];
+        values[gap] = values[index];
+        gap = index;
+      }
+    }
+    keys[gap] = null;
+    values[gap] = null;
+    size--;
+    return value;
+  }
+
+  void clear() {
+    if (keys.length > RETAINED_CAPACITY) {
+      allocate(DEFAULT_CAPACITY);
+    } else if (size > 0) {
+      Arrays.fill(keys, null);
+      Arrays.fill(values, null);
+    }
+    size = 0;
+  }
+
+  private int indexOf(Object key) {
+    if (key == null) {
+      return -1;
+    }
+    int index = slot(key.hashCode());
+    Object current;
+    while ((current = keys[index]) != null) {
+      if (current == key || current.equals(key)) {
+        return index;
+      }
+      index = (index + 1) & (keys.length - 1);
+    }
+    return -1;
+  }
+
+  private int slot(int hash) {
+    // fibonacci hashing spreads keys whose hashes differ only in their high or low bits
+    return (hash * 0x9E3779B9) >>> shift;
+  }
+
+  private void allocate(int capacity) {
+    keys = new Object[capacity];
+    values = new Object[capacity];
+    shift = Integer.numberOfLeadingZeros(capacity) + 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private void resize(int capacity) {
+    final Object[] oldKeys = keys;
+    final Object[] oldValues = values;
+    allocate(capacity);
+    size = 0;
+    for (int i = 0; i < oldKeys.length; i++) {
+      if (oldKeys[i] != null) {
+        put((K) oldKeys[i], (V) oldValues[i]);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,166 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.binding.MapperMethod.ParamMap;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultFlag;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.session.Configuration;
+
+/**
+ * Collects the parents of a nested select mapped with a <code>batchSize</code>, so that the select runs once for
+ * many of them with the distinct keys as its <code>list</code> parameter instead of once for each row.
+ * <p>
+ * The results are matched back to the parents by the value of the <code>batchKey</code> property, or of the id
+ * property of the nested select's result map. Numeric keys are compared by value, so a key read as an
+ * <code>Integer</code> from the parent row matches a <code>Long</code> property of the nested result.
+ *
+ * @since 3.4.7
+ */
+class NestedQueryBatch {
+
+  private final ResultMapping propertyMapping;
+  private final MappedStatement nestedQuery;
+  private final String keyProperty;
+  private final List<Object> keys = new ArrayList<Object>();
+  private final Map<Object, List<MetaObject>> parentsByKey = new LinkedHashMap<Object, List<MetaObject>>();
+
+  NestedQueryBatch(ResultMapping propertyMapping, MappedStatement nestedQuery) {
+    this.propertyMapping = propertyMapping;
+    this.nestedQuery = nestedQuery;
+    this.keyProperty = resolveKeyProperty(propertyMapping, nestedQuery);
+  }
+
+  ResultMapping getPropertyMapping() {
+    return propertyMapping;
+  }
+
+  MappedStatement getNestedQuery() {
+    return nestedQuery;
+  }
+
+  /*
+   * Adds a parent whose property is set when the batch is loaded
+   *
+   * @param key - the value of the column of the property mapping in the parent row
+   * @param metaObject - the parent
+   */
+  void add(Object key, MetaObject metaObject) {
+    final Object normalizedKey = normalizeKey(key);
+    List<MetaObject> parents = parentsByKey.get(normalizedKey);
+    if (parents == null) {
+      parents = new ArrayList<MetaObject>();
+      parentsByKey.put(normalizedKey, parents);
+      keys.add(key);
+    }
+    parents.add(metaObject);
+  }
+
+  boolean isFull() {
+    return keys.size() >= propertyMapping.getBatchSize();
+  }
+
+  boolean isEmpty() {
+    return keys.isEmpty();
+  }
+
+  Object getParameterObject() {
+    return keysParameter(keys);
+  }
+
+  /*
+   * @return the parameter of a nested select with a batch size, the keys as <code>list</code> and <code>collection</code>
+   */
+  static Object keysParameter(List<Object> keys) {
+    final ParamMap<Object> parameterObject = new ParamMap<Object>();
+    final List<Object> list = new ArrayList<Object>(keys);
+    parameterObject.put("collection", list);
+    parameterObject.put("list", list);
+    return parameterObject;
+  }
+
+  /*
+   * @return the distinct keys as read, in the order of {@link #getParentsByKey()}
+   */
+  List<Object> getKeys() {
+    return keys;
+  }
+
+  Map<Object, List<MetaObject>> getParentsByKey() {
+    return parentsByKey;
+  }
+
+  /*
+   * Groups the results of the nested select by the normalized value of their key property
+   */
+  Map<Object, List<Object>> groupByKey(List<Object> nestedResults, Configuration configuration) {
+    final Map<Object, List<Object>> resultsByKey = new HashMap<Object, List<Object>>();
+    for (Object nestedResult : nestedResults) {
+      if (nestedResult == null) {
+        continue;
+      }
+      final Object key = normalizeKey(configuration.newMetaObject(nestedResult).getValue(keyProperty));
+      List<Object> results = resultsByKey.get(key);
+      if (results == null) {
+        results = new ArrayList<Object>();
+        resultsByKey.put(key, results);
+      }
+      results.add(nestedResult);
+    }
+    return resultsByKey;
+  }
+
+  void clear() {
+    keys.clear();
+    parentsByKey.clear();
+  }
+
+  private static String resolveKeyProperty(ResultMapping propertyMapping, MappedStatement nestedQuery) {
+    if (propertyMapping.getBatchKey() != null) {
+      return propertyMapping.getBatchKey();
+    }
+    for (ResultMap resultMap : nestedQuery.getResultMaps()) {
+      for (ResultMapping resultMapping : resultMap.getIdResultMappings()) {
+        if (resultMapping.getFlags().contains(ResultFlag.ID) && resultMapping.getProperty() != null) {
+          return resultMapping.getProperty();
+        }
+      }
+    }
+    throw new ExecutorException("The nested select '" + nestedQuery.getId() + "' of property '" + propertyMapping.getProperty()
+        + "' has no id property to match its results to their parents. Specify a batchKey.");
+  }
+
+  static Object normalizeKey(Object key) {
+    if (key instanceof Number) {
+      BigDecimal value = new BigDecimal(key.toString());
+      // stripTrailingZeros leaves the scale of zero as it is
+      return value.signum() == 0 ? BigDecimal.ZERO : value.stripTrailingZeros();
+    }
+    return key;
+  }
+
+}
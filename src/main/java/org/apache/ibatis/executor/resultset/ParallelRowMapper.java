@@ -0,0 +1,235 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.sql.ResultSet;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.reflection.factory.ObjectFactory;
+
+/**
+ * Maps the rows of a statement with <code>parallelMapping</code> enabled on a shared pool of worker threads.
+ * <p>
+ * The thread that handles the result set stays its only reader: it decodes the columns of each row through
+ * {@link CompiledRowMapper#read} and collects the values in batches. The workers create the result objects and
+ * {@link CompiledRowMapper#set set} their properties, and the batches are handed back in the order they were read.
+ * A row whose result map cannot be compiled is mapped by the reader and travels in its batch as a finished object.
+ *
+ * @since 3.4.7
+ */
+class ParallelRowMapper {
+
+  static final int BATCH_SIZE = 256;
+
+  private static final int WORKER_COUNT = Runtime.getRuntime().availableProcessors();
+
+  /**
+   * Batches read ahead of the ones handed back, enough to keep every worker busy while the reader waits for the oldest
+   */
+  private static final int MAX_PENDING_BATCHES = WORKER_COUNT * 2;
+
+  private static final ExecutorService WORKERS = newWorkers();
+
+  private final ResultSet resultSet;
+  private final ObjectFactory objectFactory;
+  private final boolean returnInstanceForEmptyRow;
+  private final Queue<Future<Object[]>> pendingBatches = new ArrayDeque<Future<Object[]>>();
+  private Batch batch;
+  private Object[] results;
+  private int resultIndex;
+  private int bufferedRows;
+  private boolean exhausted;
+
+  ParallelRowMapper(ResultSet resultSet, ObjectFactory objectFactory, boolean returnInstanceForEmptyRow) {
+    this.resultSet = resultSet;
+    this.objectFactory = objectFactory;
+    this.returnInstanceForEmptyRow = returnInstanceForEmptyRow;
+  }
+
+  ResultSet getResultSet() {
+    return resultSet;
+  }
+
+  /*
+   * Adds a row read by a compiled mapper
+   *
+   * @param rowMapper - the mapper that read the row
+   * @param values - the values it read
+   */
+  void addRow(CompiledRowMapper rowMapper, Object[] values) {
+    add(rowMapper, values);
+  }
+
+  /*
+   * Adds a row the reader mapped itself
+   */
+  void addResult(Object rowValue) {
+    add(null, rowValue);
+  }
+
+  private void add(CompiledRowMapper rowMapper, Object row) {
+    if (batch == null) {
+      batch = new Batch();
+    }
+    batch.rowMappers[batch.size] = rowMapper;
+    batch.rows[batch.size] = row;
+    batch.size++;
+    bufferedRows++;
+    if (batch.size == BATCH_SIZE) {
+      flush();
+    }
+  }
+
+  /*
+   * Submits the rows collected so far
+   */
+  void flush() {
+    if (batch != null) {
+      pendingBatches.add(WORKERS.submit(batch));
+      batch = null;
+    }
+  }
+
+  /*
+   * @return True if enough batches are pending for the reader to stop reading ahead
+   */
+  boolean isBusy() {
+    return pendingBatches.size() >= MAX_PENDING_BATCHES;
+  }
+
+  /*
+   * @return the rows read and not handed back yet
+   */
+  int getBufferedRows() {
+    return bufferedRows;
+  }
+
+  /*
+   * Marks the result set as fully read
+   */
+  void markExhausted() {
+    exhausted = true;
+    flush();
+  }
+
+  boolean isExhausted() {
+    return exhausted;
+  }
+
+  boolean hasResult() {
+    return results != null && resultIndex < results.length;
+  }
+
+  Object nextResult() {
+    bufferedRows--;
+    Object result = results[resultIndex];
+    results[resultIndex++] = null;
+    return result;
+  }
+
+  /*
+   * Waits for the oldest pending batch
+   *
+   * @return False if no row is left to hand back
+   */
+  boolean awaitBatch() {
+    Future<Object[]> future = pendingBatches.poll();
+    if (future == null) {
+      return false;
+    }
+    try {
+      results = future.get();
+      resultIndex = 0;
+      return true;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      cancel();
+      throw new ExecutorException("Interrupted while waiting for mapped rows.", e);
+    } catch (ExecutionException e) {
+      cancel();
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw new ExecutorException("Error mapping rows. Cause: " + cause, cause);
+    }
+  }
+
+  /*
+   * Drops every row that has not been handed back
+   */
+  void cancel() {
+    Future<Object[]> future;
+    while ((future = pendingBatches.poll()) != null) {
+      future.cancel(false);
+    }
+    batch = null;
+    results = null;
+    bufferedRows = 0;
+  }
+
+  private class Batch implements Callable<Object[]> {
+
+    private final CompiledRowMapper[] rowMappers = new CompiledRowMapper[BATCH_SIZE];
+    private final Object[] rows = new Object[BATCH_SIZE];
+    private int size;
+
+    @Override
+    public Object[] call() {
+      Object[] results = new Object[size];
+      for (int i = 0; i < size; i++) {
+        CompiledRowMapper rowMapper = rowMappers[i];
+        if (rowMapper == null) {
+          results[i] = rows[i];
+        } else {
+          Object rowValue = objectFactory.create(rowMapper.getType());
+          boolean foundValues = rowMapper.set(rowValue, (Object[]) rows[i]);
+          results[i] = foundValues || returnInstanceForEmptyRow ? rowValue : null;
+        }
+      }
+      return results;
+    }
+
+  }
+
+  private static ExecutorService newWorkers() {
+    ThreadPoolExecutor executor = new ThreadPoolExecutor(WORKER_COUNT, WORKER_COUNT, 60, TimeUnit.SECONDS,
+        new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+          @Override
+          public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, "mybatis-row-mapper");
+            thread.setDaemon(true);
+            return thread;
+          }
+        });
+    executor.allowCoreThreadTimeOut(true);
+    return executor;
+  }
+
+}
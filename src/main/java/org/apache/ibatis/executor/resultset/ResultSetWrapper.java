@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -22,12 +22,14 @@ import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import org.apache.ibatis.io.Resources;
 import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.type.JdbcType;
 import org.apache.ibatis.type.ObjectTypeHandler;
@@ -42,12 +44,14 @@ public class ResultSetWrapper {
 
   private final ResultSet resultSet;
   private final TypeHandlerRegistry typeHandlerRegistry;
+  private final RowMapperRegistry rowMapperRegistry;
   private final List<String> columnNames = new ArrayList<String>();
   private final List<String> classNames = new ArrayList<String>();
   private final List<JdbcType> jdbcTypes = new ArrayList<JdbcType>();
   private final Map<String, Map<Class<?>, TypeHandler<?>>> typeHandlerMap = new HashMap<String, Map<Class<?>, TypeHandler<?>>>();
-  private final Map<String, List<String>> mappedColumnNamesMap = new HashMap<String, List<String>>();
-  private final Map<String, List<String>> unMappedColumnNamesMap = new HashMap<String, List<String>>();
+  private final Map<String, ColumnMappingPlan> columnMappingPlans = new HashMap<String, ColumnMappingPlan>();
+  private final Map<String, Integer> columnIndexMap = new HashMap<String, Integer>();
+  private String columnLayout;
 
   /**
    * ResultSetWrapper 中包含了 ResultSet 一些元信息，比如列名称、每列对应的 JdbcType、
@@ -58,6 +62,7 @@ public class ResultSetWrapper {
   public ResultSetWrapper(ResultSet rs, Configuration configuration) throws SQLException {
     super();
     this.typeHandlerRegistry = configuration.getTypeHandlerRegistry();
+    this.rowMapperRegistry = configuration.getRowMapperRegistry();
     this.resultSet = rs;
     /**
      * 获取到元数据 表名，列名，列数，数据类型，属性（是否自增等）
@@ -68,6 +73,9 @@ public class ResultSetWrapper {
       columnNames.add(configuration.isUseColumnLabel() ? metaData.getColumnLabel(i) : metaData.getColumnName(i));
       jdbcTypes.add(JdbcType.forCode(metaData.getColumnType(i)));
       classNames.add(metaData.getColumnClassName(i));
+      if (!columnIndexMap.containsKey(columnNames.get(i - 1))) {
+        columnIndexMap.put(columnNames.get(i - 1), i);
+      }
     }
   }
 
@@ -83,6 +91,38 @@ public class ResultSetWrapper {
     return Collections.unmodifiableList(classNames);
   }
 
+  /**
+   * @return the names, JDBC types and class names of the columns, equal for result sets that map alike
+   * @since 3.4.7
+   */
+  public String getColumnLayout() {
+    if (columnLayout == null) {
+      StringBuilder layout = new StringBuilder();
+      for (int i = 0; i < columnNames.size(); i++) {
+        layout.append(columnNames.get(i)).append(':').append(jdbcTypes.get(i)).append(':').append(classNames.get(i)).append(',');
+      }
+      columnLayout = layout.toString();
+    }
+    return columnLayout;
+  }
+
+  /**
+   * @return the index of the first column with the given name, ignoring case, or -1 if there is none
+   * @since 3.4.7
+   */
+  public int getColumnIndex(String columnName) {
+    final Integer index = columnIndexMap.get(columnName);
+    if (index != null) {
+      return index;
+    }
+    for (int i = 0 ; i < columnNames.size(); i++) {
+      if (columnNames.get(i).equalsIgnoreCase(columnName)) {
+        return i + 1;
+      }
+    }
+    return -1;
+  }
+
   public JdbcType getJdbcType(String columnName) {
     for (int i = 0 ; i < columnNames.size(); i++) {
       if (columnNames.get(i).equalsIgnoreCase(columnName)) {
@@ -146,7 +186,29 @@ public class ResultSetWrapper {
     return null;
   }
 
-  private void loadMappedAndUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
+  /**
+   * Gets the plan of a result map for the columns of this result set, from the result map if a result set with
+   * the same column layout was mapped by it before.
+   *
+   * @since 3.4.7
+   */
+  public ColumnMappingPlan getColumnMappingPlan(ResultMap resultMap, String columnPrefix) {
+    final String mapKey = getMapKey(resultMap, columnPrefix);
+    ColumnMappingPlan plan = columnMappingPlans.get(mapKey);
+    if (plan == null) {
+      // a null and an empty prefix map alike
+      final String planKey = (columnPrefix == null ? "" : columnPrefix) + "@" + getColumnLayout();
+      plan = rowMapperRegistry.getColumnMappingPlan(resultMap, planKey);
+      if (plan == null) {
+        plan = buildColumnMappingPlan(resultMap, columnPrefix);
+        rowMapperRegistry.putColumnMappingPlan(resultMap, planKey, plan);
+      }
+      columnMappingPlans.put(mapKey, plan);
+    }
+    return plan;
+  }
+
+  private ColumnMappingPlan buildColumnMappingPlan(ResultMap resultMap, String columnPrefix) {
     List<String> mappedColumnNames = new ArrayList<String>();
     List<String> unmappedColumnNames = new ArrayList<String>();
     final String upperColumnPrefix = columnPrefix == null ? null : columnPrefix.toUpperCase(Locale.ENGLISH);
@@ -167,29 +229,53 @@ public class ResultSetWrapper {
         unmappedColumnNames.add(columnName);
       }
     }
-    // 缓存列名集合
-    mappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), mappedColumnNames);
-    unMappedColumnNamesMap.put(getMapKey(resultMap, columnPrefix), unmappedColumnNames);
+    // the lists of mappings of a result map are fixed, so their column indexes are resolved up front
+    final Map<List<ResultMapping>, int[]> mappedColumnIndexes = new IdentityHashMap<List<ResultMapping>, int[]>();
+    final List<List<ResultMapping>> mappingLists = new ArrayList<List<ResultMapping>>(4);
+    mappingLists.add(resultMap.getResultMappings());
+    mappingLists.add(resultMap.getIdResultMappings());
+    mappingLists.add(resultMap.getConstructorResultMappings());
+    mappingLists.add(resultMap.getPropertyResultMappings());
+    for (List<ResultMapping> resultMappings : mappingLists) {
+      mappedColumnIndexes.put(resultMappings, resolveColumnIndexes(resultMappings, mappedColumnNames, columnPrefix));
+    }
+    return new ColumnMappingPlan(Collections.unmodifiableList(mappedColumnNames), Collections.unmodifiableList(unmappedColumnNames),
+        mappedColumnIndexes);
   }
 
   public List<String> getMappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (mappedColumnNames == null) {
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      mappedColumnNames = mappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    }
-    return mappedColumnNames;
+    return getColumnMappingPlan(resultMap, columnPrefix).getMappedColumnNames();
   }
 
   public List<String> getUnmappedColumnNames(ResultMap resultMap, String columnPrefix) throws SQLException {
-    List<String> unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
-    if (unMappedColumnNames == null) {
-      // 加载已映射与未映射列名
-      loadMappedAndUnmappedColumnNames(resultMap, columnPrefix);
-      // 获取未映射列名
-      unMappedColumnNames = unMappedColumnNamesMap.get(getMapKey(resultMap, columnPrefix));
+    return getColumnMappingPlan(resultMap, columnPrefix).getUnmappedColumnNames();
+  }
+
+  /**
+   * Resolves the columns of the mappings of a result map once per column layout, so that rows can be read by index.
+   *
+   * @param resultMap - the result map the mappings belong to
+   * @param resultMappings - one of the lists of mappings of the result map
+   * @param columnPrefix - the prefix of the columns of the result map, if any
+   * @return the index of the column of each mapping, or -1 if the column is not mapped by the result map or not in the result set
+   * @since 3.4.7
+   */
+  public int[] getMappedColumnIndexes(ResultMap resultMap, List<ResultMapping> resultMappings, String columnPrefix) throws SQLException {
+    final ColumnMappingPlan plan = getColumnMappingPlan(resultMap, columnPrefix);
+    final int[] indexes = plan.getMappedColumnIndexes(resultMappings);
+    return indexes != null ? indexes : resolveColumnIndexes(resultMappings, plan.getMappedColumnNames(), columnPrefix);
+  }
+
+  private int[] resolveColumnIndexes(List<ResultMapping> resultMappings, List<String> mappedColumnNames, String columnPrefix) {
+    final int[] indexes = new int[resultMappings.size()];
+    for (int i = 0; i < indexes.length; i++) {
+      String column = resultMappings.get(i).getColumn();
+      if (column != null && !column.isEmpty() && columnPrefix != null && !columnPrefix.isEmpty()) {
+        column = columnPrefix + column;
+      }
+      indexes[i] = column != null && mappedColumnNames.contains(column.toUpperCase(Locale.ENGLISH)) ? getColumnIndex(column) : -1;
     }
-    return unMappedColumnNames;
+    return indexes;
   }
 
   private String getMapKey(ResultMap resultMap, String columnPrefix) {
@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.Arrays;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.reflection.ArrayUtil;
+
+/**
+ * Identity of an object built from the rows of a nested result map: its result map, the values of its id columns
+ * by position and the key of the object it is nested in.
+ * <p>
+ * {@link DefaultResultSetHandler} fills one key per nesting depth in place for every row, and only copies it when a
+ * new object is stored under it. A copy references the stored key of its parent rather than its values, so the
+ * values of a parent are held once however many nested objects it has.
+ *
+ * @since 3.4.7
+ */
+final class RowKey {
+
+  private static final int DEFAULT_CAPACITY = 4;
+
+  private ResultMap resultMap;
+  private RowKey parent;
+  private int depth;
+  private Object[] values;
+  private int size;
+  private int updateCount;
+  private int hashcode;
+
+  RowKey() {
+    this.values = new Object[DEFAULT_CAPACITY];
+  }
+
+  private RowKey(RowKey key) {
+    this.resultMap = key.resultMap;
+    this.parent = key.parent;
+    this.depth = key.depth;
+    this.values = Arrays.copyOf(key.values, key.size);
+    this.size = key.size;
+    this.updateCount = key.updateCount;
+    this.hashcode = key.hashcode;
+  }
+
+  /**
+   * Starts the key of a new row.
+   *
+   * @param resultMap - the result map of the object
+   * @param parent - the stored key of the object it is nested in, or null for a top level object
+   */
+  RowKey reset(ResultMap resultMap, RowKey parent) {
+    this.resultMap = resultMap;
+    this.parent = parent;
+    this.depth = parent == null ? 0 : parent.depth + 1;
+    this.size = 0;
+    this.updateCount = 0;
+    this.hashcode = 31 * resultMap.getId().hashCode() + (parent == null ? 0 : parent.hashcode);
+    return this;
+  }
+
+  void update(Object value) {
+    append(value);
+    updateCount++;
+  }
+
+  /**
+   * Keeps the position of a null value that does not identify the object.
+   */
+  void skip() {
+    append(null);
+  }
+
+  private void append(Object value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size << 1);
+    }
+    values[size++] = value;
+    hashcode = 31 * hashcode + (value == null ? 0 : ArrayUtil.hashCode(value));
+  }
+
+  /**
+   * @return true if no value identifies the object, which then cannot be told apart from the objects of other rows
+   */
+  boolean isEmpty() {
+    return updateCount == 0;
+  }
+
+  int getDepth() {
+    return depth;
+  }
+
+  /**
+   * @return an immutable copy of the key to store
+   */
+  RowKey copy() {
+    return new RowKey(this);
+  }
+
+  @Override
+  public boolean equals(Object object) {
+    if (this == object) {
+      return true;
+    }
+    if (!(object instanceof RowKey)) {
+      return false;
+    }
+    final RowKey rowKey = (RowKey) object;
+    if (hashcode != rowKey.hashcode || size != rowKey.size || resultMap != rowKey.resultMap) {
+      return false;
+    }
+    if (parent != rowKey.parent && (parent == null || !parent.equals(rowKey.parent))) {
+      return false;
+    }
+    for (int i = 0; i < size; i++) {
+      Object thisObject = values[i];
+      Object thatObject = rowKey.values[i];
+      if (thisObject != thatObject && !ArrayUtil.equals(thisObject, thatObject)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public int hashCode() {
+    return hashcode;
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder returnValue = new StringBuilder(resultMap == null ? "null" : resultMap.getId());
+    for (int i = 0; i < size; i++) {
+      returnValue.append(':').append(ArrayUtil.toString(values[i]));
+    }
+    if (parent != null) {
+      returnValue.append(" in ").append(parent);
+    }
+    return returnValue.toString();
+  }
+
+}
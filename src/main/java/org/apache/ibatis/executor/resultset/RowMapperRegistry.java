@@ -0,0 +1,95 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.apache.ibatis.mapping.ResultMap;
+
+/**
+ * Keeps the {@link ColumnMappingPlan column mapping plans} and {@link CompiledRowMapper compiled row mappers} of the
+ * result maps of a configuration, by result map id and column layout, so they outlive the result sets they were
+ * built for.
+ *
+ * @since 3.4.7
+ */
+public class RowMapperRegistry {
+
+  private static final int MAX_COMPILED_ROW_MAPPERS = 64;
+  private static final int MAX_COLUMN_MAPPING_PLANS = 64;
+
+  private final ConcurrentMap<String, Entries> entries = new ConcurrentHashMap<String, Entries>();
+
+  /**
+   * @param planKey - the column prefix and the layout of a result set
+   * @return the plan built for result sets with this layout or null if none was
+   */
+  ColumnMappingPlan getColumnMappingPlan(ResultMap resultMap, String planKey) {
+    return entriesOf(resultMap).columnMappingPlans.get(planKey);
+  }
+
+  void putColumnMappingPlan(ResultMap resultMap, String planKey, ColumnMappingPlan plan) {
+    final ConcurrentMap<String, ColumnMappingPlan> plans = entriesOf(resultMap).columnMappingPlans;
+    // a statement with dynamic columns should not grow the map without bounds
+    if (plans.size() < MAX_COLUMN_MAPPING_PLANS) {
+      plans.putIfAbsent(planKey, plan);
+    }
+  }
+
+  /**
+   * @param columnLayout - the layout of a result set as returned by {@link ResultSetWrapper#getColumnLayout()}
+   * @return the row mapper compiled for result sets with this layout or null if none was
+   */
+  CompiledRowMapper getCompiledRowMapper(ResultMap resultMap, String columnLayout) {
+    return entriesOf(resultMap).compiledRowMappers.get(columnLayout);
+  }
+
+  void putCompiledRowMapper(ResultMap resultMap, String columnLayout, CompiledRowMapper rowMapper) {
+    final ConcurrentMap<String, CompiledRowMapper> rowMappers = entriesOf(resultMap).compiledRowMappers;
+    if (rowMappers.size() < MAX_COMPILED_ROW_MAPPERS) {
+      rowMappers.putIfAbsent(columnLayout, rowMapper);
+    }
+  }
+
+  /*
+   * A result map that is not registered may share its id with another one, so the entries are only reused for the
+   * very result map they were built for
+   */
+  private Entries entriesOf(ResultMap resultMap) {
+    final String id = resultMap.getId();
+    Entries current = entries.get(id);
+    while (current == null || current.resultMap != resultMap) {
+      final Entries created = new Entries(resultMap);
+      if (current == null ? entries.putIfAbsent(id, created) == null : entries.replace(id, current, created)) {
+        return created;
+      }
+      current = entries.get(id);
+    }
+    return current;
+  }
+
+  private static class Entries {
+    private final ResultMap resultMap;
+    private final ConcurrentMap<String, ColumnMappingPlan> columnMappingPlans = new ConcurrentHashMap<String, ColumnMappingPlan>();
+    private final ConcurrentMap<String, CompiledRowMapper> compiledRowMappers = new ConcurrentHashMap<String, CompiledRowMapper>();
+
+    private Entries(ResultMap resultMap) {
+      this.resultMap = resultMap;
+    }
+  }
+
+}
@@ -0,0 +1,44 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+
+/**
+ * Calls the constructor a {@link ConstructorMapper} maps the columns of a row to.
+ * <p>
+ * This implementation calls it reflectively, the subclasses generated by {@link RowValueSetterCompiler} call
+ * public constructors of public classes directly.
+ *
+ * @since 3.4.7
+ */
+public class RowObjectInstantiator {
+
+  private final Constructor<?> constructor;
+
+  public RowObjectInstantiator(Constructor<?> constructor) {
+    this.constructor = constructor;
+  }
+
+  public Constructor<?> getConstructor() {
+    return constructor;
+  }
+
+  public Object newInstance(Object[] args) throws Exception {
+    return constructor.newInstance(args);
+  }
+
+}
@@ -0,0 +1,41 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import org.apache.ibatis.reflection.invoker.Invoker;
+
+/**
+ * Sets the properties a {@link CompiledRowMapper} maps, addressed by their position in the mapper.
+ * <p>
+ * This implementation goes through the {@link Invoker}s of the
+ * {@link org.apache.ibatis.reflection.Reflector}, the subclasses generated by {@link RowValueSetterCompiler} call
+ * the public setters directly and only fall back to it for the other properties.
+ *
+ * @since 3.4.7
+ */
+public class RowValueSetter {
+
+  private final Invoker[] invokers;
+
+  public RowValueSetter(Invoker[] invokers) {
+    this.invokers = invokers;
+  }
+
+  public void set(Object target, int property, Object value) throws Exception {
+    invokers[property].invoke(target, new Object[] { value });
+  }
+
+}
@@ -0,0 +1,248 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javassist.ClassClassPath;
+import javassist.ClassPool;
+import javassist.CtClass;
+import javassist.CtNewConstructor;
+import javassist.CtNewMethod;
+import javassist.LoaderClassPath;
+
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
+import org.apache.ibatis.reflection.Reflector;
+import org.apache.ibatis.reflection.invoker.Invoker;
+import org.apache.ibatis.reflection.invoker.MethodInvoker;
+
+/**
+ * Generates a {@link RowValueSetter} whose <code>set</code> method is a switch over the properties of a result
+ * type, each branch calling the setter of the property, and a {@link RowObjectInstantiator} whose
+ * <code>newInstance</code> method calls a constructor, with Javassist.
+ * <p>
+ * The generated classes are defined by a class loader of their own, so they can only call public setters and
+ * constructors of public classes; the other properties, constructors and result types, as well as a missing
+ * Javassist, fall back to the invokers of the {@link Reflector} and to reflection.
+ */
+final class RowValueSetterCompiler {
+
+  private static final Log log = LogFactory.getLog(RowValueSetterCompiler.class);
+
+  private static final AtomicInteger counter = new AtomicInteger();
+
+  private RowValueSetterCompiler() {
+    // Prevent Instantiation of Static Class
+  }
+
+  static RowValueSetter compile(Class<?> type, String[] properties, Reflector reflector) {
+    Invoker[] invokers = new Invoker[properties.length];
+    Method[] setters = new Method[properties.length];
+    boolean anyDirect = false;
+    for (int i = 0; i < properties.length; i++) {
+      invokers[i] = reflector.getSetInvoker(properties[i]);
+      if (isAccessible(type) && invokers[i] instanceof MethodInvoker) {
+        Method setter = ((MethodInvoker) invokers[i]).getMethod();
+        if (isAccessible(setter)) {
+          setters[i] = setter;
+          anyDirect = true;
+        }
+      }
+    }
+    if (anyDirect) {
+      try {
+        return generate(type, setters, invokers);
+      } catch (Exception e) {
+        logFallback(type, e);
+      } catch (LinkageError e) {
+        logFallback(type, e);
+      }
+    }
+    return new RowValueSetter(invokers);
+  }
+
+  static RowObjectInstantiator compile(Constructor<?> constructor) {
+    if (isAccessible(constructor)) {
+      try {
+        return generate(constructor);
+      } catch (Exception e) {
+        logFallback(constructor.getDeclaringClass(), e);
+      } catch (LinkageError e) {
+        logFallback(constructor.getDeclaringClass(), e);
+      }
+    }
+    if (!constructor.isAccessible()) {
+      constructor.setAccessible(true);
+    }
+    return new RowObjectInstantiator(constructor);
+  }
+
+  private static RowValueSetter generate(Class<?> type, Method[] setters, Invoker[] invokers) throws Exception {
+    Class<?> setterClass = define(type, RowValueSetter.class,
+        "(" + Invoker.class.getName() + "[] invokers) { super($1); }", setMethodSource(type, setters));
+    return (RowValueSetter) setterClass.getConstructor(Invoker[].class).newInstance(new Object[] { invokers });
+  }
+
+  private static RowObjectInstantiator generate(Constructor<?> constructor) throws Exception {
+    Class<?> type = constructor.getDeclaringClass();
+    Class<?> instantiatorClass = define(type, RowObjectInstantiator.class,
+        "(" + Constructor.class.getName() + " constructor) { super($1); }", newInstanceMethodSource(type, constructor.getParameterTypes()));
+    return (RowObjectInstantiator) instantiatorClass.getConstructor(Constructor.class).newInstance(constructor);
+  }
+
+  private static Class<?> define(Class<?> type, Class<?> superclass, String constructorSource, String methodSource) throws Exception {
+    String className = superclass.getName() + "$$" + type.getSimpleName() + "$$" + counter.incrementAndGet();
+    ClassPool pool = new ClassPool(true);
+    pool.appendClassPath(new ClassClassPath(superclass));
+    if (type.getClassLoader() != null) {
+      pool.appendClassPath(new LoaderClassPath(type.getClassLoader()));
+    }
+    CtClass ctClass = pool.makeClass(className);
+    try {
+      ctClass.setSuperclass(pool.get(superclass.getName()));
+      ctClass.addConstructor(CtNewConstructor.make("public " + ctClass.getSimpleName() + constructorSource, ctClass));
+      ctClass.addMethod(CtNewMethod.make(methodSource, ctClass));
+      byte[] bytecode = ctClass.toBytecode();
+      return new GeneratedClassLoader(type.getClassLoader()).define(className, bytecode);
+    } finally {
+      ctClass.detach();
+    }
+  }
+
+  private static String setMethodSource(Class<?> type, Method[] setters) {
+    String typeName = sourceName(type);
+    StringBuilder source = new StringBuilder();
+    source.append("public void set(Object target, int property, Object value) throws Exception {\n");
+    source.append("  ").append(typeName).append(" bean = (").append(typeName).append(") $1;\n");
+    source.append("  switch ($2) {\n");
+    for (int i = 0; i < setters.length; i++) {
+      if (setters[i] != null) {
+        source.append("    case ").append(i).append(": bean.").append(setters[i].getName()).append('(')
+            .append(argumentSource(setters[i].getParameterTypes()[0], "$3")).append("); return;\n");
+      }
+    }
+    source.append("    default: super.set($1, $2, $3);\n");
+    source.append("  }\n");
+    source.append("}");
+    return source.toString();
+  }
+
+  private static String newInstanceMethodSource(Class<?> type, Class<?>[] parameterTypes) {
+    StringBuilder source = new StringBuilder();
+    source.append("public Object newInstance(Object[] args) throws Exception {\n");
+    source.append("  return new ").append(sourceName(type)).append('(');
+    for (int i = 0; i < parameterTypes.length; i++) {
+      if (i > 0) {
+        source.append(", ");
+      }
+      source.append(argumentSource(parameterTypes[i], "$1[" + i + "]"));
+    }
+    source.append(");\n");
+    source.append("}");
+    return source.toString();
+  }
+
+  private static String argumentSource(Class<?> parameterType, String value) {
+    if (parameterType == boolean.class) {
+      return "((java.lang.Boolean) " + value + ").booleanValue()";
+    } else if (parameterType == char.class) {
+      return "((java.lang.Character) " + value + ").charValue()";
+    } else if (parameterType.isPrimitive()) {
+      return "((java.lang.Number) " + value + ")." + parameterType.getName() + "Value()";
+    }
+    return "(" + sourceName(parameterType) + ") " + value;
+  }
+
+  private static String sourceName(Class<?> type) {
+    if (type.isArray()) {
+      return sourceName(type.getComponentType()) + "[]";
+    }
+    // nested classes keep their binary name
+    return type.getName();
+  }
+
+  private static boolean isAccessible(Method method) {
+    if (!Modifier.isPublic(method.getModifiers()) || method.isBridge()) {
+      return false;
+    }
+    Class<?> parameterType = method.getParameterTypes()[0];
+    while (parameterType.isArray()) {
+      parameterType = parameterType.getComponentType();
+    }
+    return isAccessible(method.getDeclaringClass()) && (parameterType.isPrimitive() || isAccessible(parameterType));
+  }
+
+  private static boolean isAccessible(Constructor<?> constructor) {
+    if (!Modifier.isPublic(constructor.getModifiers()) || !isAccessible(constructor.getDeclaringClass())
+        || Modifier.isAbstract(constructor.getDeclaringClass().getModifiers())) {
+      return false;
+    }
+    // an inner class takes its enclosing instance as a hidden argument
+    if (constructor.getDeclaringClass().getEnclosingClass() != null && !Modifier.isStatic(constructor.getDeclaringClass().getModifiers())) {
+      return false;
+    }
+    for (Class<?> parameterType : constructor.getParameterTypes()) {
+      while (parameterType.isArray()) {
+        parameterType = parameterType.getComponentType();
+      }
+      if (!parameterType.isPrimitive() && !isAccessible(parameterType)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static boolean isAccessible(Class<?> type) {
+    for (Class<?> current = type; current != null; current = current.getEnclosingClass()) {
+      if (!Modifier.isPublic(current.getModifiers())) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static void logFallback(Class<?> type, Throwable e) {
+    if (log.isDebugEnabled()) {
+      log.debug("Could not generate a row mapping class for " + type.getName() + ", using reflection. Cause: " + e);
+    }
+  }
+
+  private static class GeneratedClassLoader extends ClassLoader {
+
+    private final ClassLoader typeLoader;
+
+    GeneratedClassLoader(ClassLoader typeLoader) {
+      super(RowValueSetter.class.getClassLoader());
+      this.typeLoader = typeLoader;
+    }
+
+    @Override
+    protected Class<?> findClass(String name) throws ClassNotFoundException {
+      // the result type may not be visible from the class loader of MyBatis
+      return Class.forName(name, false, typeLoader);
+    }
+
+    Class<?> define(String name, byte[] bytecode) {
+      return defineClass(name, bytecode, 0, bytecode.length);
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -15,22 +15,39 @@
  */
 package org.apache.ibatis.mapping;
 
+import java.lang.management.ManagementFactory;
 import java.lang.reflect.Constructor;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
 import org.apache.ibatis.cache.Cache;
 import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheSerializer;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.CacheWeigher;
+import org.apache.ibatis.cache.ConcurrentCache;
+import org.apache.ibatis.cache.InvalidationTransport;
 import org.apache.ibatis.builder.InitializingObject;
 import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
+import org.apache.ibatis.cache.decorators.InvalidationBusCache;
 import org.apache.ibatis.cache.decorators.LoggingCache;
 import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
 import org.apache.ibatis.cache.decorators.ScheduledCache;
 import org.apache.ibatis.cache.decorators.SerializedCache;
 import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.RowCountWeigher;
+import org.apache.ibatis.cache.impl.SerializedSizeWeigher;
 import org.apache.ibatis.reflection.MetaObject;
 import org.apache.ibatis.reflection.SystemMetaObject;
 
@@ -46,6 +63,17 @@ public class CacheBuilder {
   private boolean readWrite;
   private Properties properties;
   private boolean blocking;
+  private Long maxRows;
+  private Long maxBytes;
+  private Class<? extends CacheSerializer> serializer;
+  private Long timeToLive;
+  private Long refreshAhead;
+  private boolean tagged;
+  private Class<? extends InvalidationTransport> invalidationTransport;
+  private boolean registerMBean;
+  private TaggedCache taggedCache;
+  private WeightedCache.RemovalTracker removalTracker;
+  private CacheStatistics statistics;
 
   public CacheBuilder(String id) {
     this.id = id;
@@ -84,6 +112,91 @@ public class CacheBuilder {
     return this;
   }
   
+  /**
+   * Bounds the cache by the total number of rows in the cached results.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder maxRows(Long maxRows) {
+    this.maxRows = maxRows;
+    return this;
+  }
+
+  /**
+   * Bounds the cache by the total serialized length of the cached results.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder maxBytes(Long maxBytes) {
+    this.maxBytes = maxBytes;
+    return this;
+  }
+
+  /**
+   * Sets how a read-write cache, or a base cache with a <code>serializer</code> property, copies its values.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder serializer(Class<? extends CacheSerializer> serializer) {
+    this.serializer = serializer;
+    return this;
+  }
+
+  /**
+   * Expires each entry the given number of milliseconds after it was put.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder timeToLive(Long timeToLive) {
+    this.timeToLive = timeToLive;
+    return this;
+  }
+
+  /**
+   * Reloads an entry in the background when it is read within the given number of milliseconds
+   * of its expiry, requires a time to live.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder refreshAhead(Long refreshAhead) {
+    this.refreshAhead = refreshAhead;
+    return this;
+  }
+
+  /**
+   * Indexes the cached results by the tables and rows they read, so that statements declaring
+   * cache tags invalidate only the matching results.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder tagged(boolean tagged) {
+    this.tagged = tagged;
+    return this;
+  }
+
+  /**
+   * Publishes the clears and tag invalidations of the cache to other nodes through a transport of
+   * the given type, which receives the properties of the cache element.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder invalidationTransport(Class<? extends InvalidationTransport> invalidationTransport) {
+    this.invalidationTransport = invalidationTransport;
+    return this;
+  }
+
+  /**
+   * Registers the {@link CacheStatistics} of the cache as an MBean of the platform MBean server, named
+   * <code>org.apache.ibatis:type=CacheStatistics,id="&lt;cache id&gt;"</code>. An MBean of an earlier cache with
+   * the same id is replaced.
+   *
+   * @since 3.4.7
+   */
+  public CacheBuilder registerMBean(boolean registerMBean) {
+    this.registerMBean = registerMBean;
+    return this;
+  }
+
   public CacheBuilder properties(Properties properties) {
     this.properties = properties;
     return this;
@@ -91,21 +204,91 @@ public class CacheBuilder {
 
   public Cache build() {
     setDefaultImplementations();
+    CacheSerializer cacheSerializer = newSerializerInstance();
+    statistics = new CacheStatistics(id);
     Cache cache = newBaseCacheInstance(implementation, id);
+    setCacheSerializer(cache, cacheSerializer);
+    setCacheStatistics(cache);
     setCacheProperties(cache);
     // issue #352, do not apply decorators to custom caches
     if (PerpetualCache.class.equals(cache.getClass())) {
+      validateConcurrentLruCacheDecoratesBaseCache();
+      if (tagged) {
+        validateDecoratorsStoreEntries("tagged");
+        // below the eviction decorators so that it sees every removal
+        taggedCache = new TaggedCache(cache);
+        cache = taggedCache;
+      }
+      removalTracker = null;
+      if (maxRows != null || maxBytes != null) {
+        validateWeightBounds();
+        // like the tag index, below the eviction decorators so that the weights follow their removals
+        removalTracker = new WeightedCache.RemovalTracker(cache);
+        cache = removalTracker;
+      }
       for (Class<? extends Cache> decorator : decorators) {
         cache = newCacheDecoratorInstance(decorator, cache);
+        setCacheStatistics(cache);
         setCacheProperties(cache);
       }
-      cache = setStandardDecorators(cache);
+      cache = setStandardDecorators(cache, cacheSerializer);
     } else if (!LoggingCache.class.isAssignableFrom(cache.getClass())) {
-      cache = new LoggingCache(cache);
+      cache = new LoggingCache(cache, statistics);
+    } else {
+      statistics = ((LoggingCache) cache).getStatistics();
+    }
+    if (registerMBean) {
+      registerStatisticsMBean();
     }
     return cache;
   }
 
+  /**
+   * @return the statistics of the last built cache
+   * @since 3.4.7
+   */
+  public CacheStatistics getStatistics() {
+    return statistics;
+  }
+
+  /**
+   * @return the tag index of the last built cache or null if it was not built with tagged invalidation
+   * @since 3.4.7
+   */
+  public TaggedCache getTaggedCache() {
+    return taggedCache;
+  }
+
+  private void validateDecoratorsStoreEntries(String feature) {
+    for (Class<? extends Cache> decorator : decorators) {
+      // it keeps the entries in its own segments, a decorator below it would never see them
+      if (ConcurrentLruCache.class.isAssignableFrom(decorator)) {
+        throw new CacheException("Cache '" + id + "' cannot be " + feature + " with the eviction " + decorator.getName()
+            + ", which does not store its entries in the decorated cache. Use another eviction.");
+      }
+    }
+  }
+
+  private void validateConcurrentLruCacheDecoratesBaseCache() {
+    for (int i = 1; i < decorators.size(); i++) {
+      // it keeps the entries in its own segments, the decorators below it would never see them
+      if (ConcurrentLruCache.class.isAssignableFrom(decorators.get(i))) {
+        throw new CacheException("Cache '" + id + "' cannot apply the eviction " + decorators.get(i).getName()
+            + " over the decorator " + decorators.get(i - 1).getName()
+            + " because it does not store its entries in the decorated cache. Make it the first decorator.");
+      }
+    }
+  }
+
+  private void validateWeightBounds() {
+    validateDecoratorsStoreEntries("bounded by weight");
+    // only the copies of a read-write cache are known to be serializable
+    if (maxBytes != null && !readWrite) {
+      throw new CacheException("Cache '" + id + "' cannot be bounded by maxBytes because it is read-only. "
+          + "Use maxRows or make the cache read-write.");
+    }
+  }
+
   private void setDefaultImplementations() {
     if (implementation == null) {
       implementation = PerpetualCache.class;
@@ -115,8 +298,10 @@ public class CacheBuilder {
     }
   }
 
-  private Cache setStandardDecorators(Cache cache) {
+  private Cache setStandardDecorators(Cache cache, CacheSerializer cacheSerializer) {
     try {
+      // the standard decorators add no state that needs a lock, so a thread-safe cache stays thread-safe
+      boolean concurrent = cache instanceof ConcurrentCache && maxRows == null && maxBytes == null && taggedCache == null;
       MetaObject metaCache = SystemMetaObject.forObject(cache);
       if (size != null && metaCache.hasSetter("size")) {
         metaCache.setValue("size", size);
@@ -125,23 +310,149 @@ public class CacheBuilder {
         cache = new ScheduledCache(cache);
         ((ScheduledCache) cache).setClearInterval(clearInterval);
       }
+      // below SerializedCache the weigher sees the serialized bytes, above it the result list
+      if (maxBytes != null) {
+        cache = newWeightedCache(cache, new SerializedSizeWeigher(), maxBytes);
+      }
       if (readWrite) {
         cache = new SerializedCache(cache);
+        setCacheSerializer(cache, cacheSerializer);
+        setCacheStatistics(cache);
+      }
+      if (maxRows != null) {
+        cache = newWeightedCache(cache, new RowCountWeigher(), maxRows);
+      }
+      cache = new LoggingCache(cache, statistics);
+      if (!concurrent) {
+        cache = new SynchronizedCache(cache);
+      }
+      // above every decorator that keeps state, so that a received clear reaches them all
+      if (invalidationTransport != null) {
+        InvalidationBusCache bus = new InvalidationBusCache(cache);
+        setProperties(bus);
+        if (taggedCache != null) {
+          bus.setTaggedCache(taggedCache);
+          taggedCache.setBus(bus);
+        }
+        bus.setInvalidationTransport(newInvalidationTransportInstance());
+        cache = bus;
+      }
+      if (taggedCache != null) {
+        // a blocking cache only releases locks on removal
+        taggedCache.setRemover(cache);
       }
-      cache = new LoggingCache(cache);
-      cache = new SynchronizedCache(cache);
       if (blocking) {
         cache = new BlockingCache(cache);
       }
+      // outermost so that the caching executor can ask it for refreshes
+      if (timeToLive != null) {
+        RefreshAheadCache refreshAheadCache = new RefreshAheadCache(cache);
+        refreshAheadCache.setTimeToLive(timeToLive);
+        if (refreshAhead != null) {
+          refreshAheadCache.setRefreshAhead(refreshAhead);
+        }
+        cache = refreshAheadCache;
+      }
       return cache;
     } catch (Exception e) {
       throw new CacheException("Error building standard cache decorators.  Cause: " + e, e);
     }
   }
 
+  private Cache newWeightedCache(Cache delegate, CacheWeigher weigher, long maxWeight) {
+    WeightedCache cache = new WeightedCache(delegate);
+    cache.setWeigher(weigher);
+    cache.setMaxWeight(maxWeight);
+    cache.setStatistics(statistics);
+    removalTracker.track(cache);
+    return cache;
+  }
+
+  private void setCacheSerializer(Cache cache, CacheSerializer cacheSerializer) {
+    if (cacheSerializer != null) {
+      MetaObject metaCache = SystemMetaObject.forObject(cache);
+      if (metaCache.hasSetter("serializer") && metaCache.getSetterType("serializer").isInstance(cacheSerializer)) {
+        metaCache.setValue("serializer", cacheSerializer);
+      }
+    }
+  }
+
+  private void setCacheStatistics(Cache cache) {
+    MetaObject metaCache = SystemMetaObject.forObject(cache);
+    if (metaCache.hasSetter("statistics") && metaCache.getSetterType("statistics") == CacheStatistics.class) {
+      metaCache.setValue("statistics", statistics);
+    }
+  }
+
+  private void registerStatisticsMBean() {
+    try {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("org.apache.ibatis:type=CacheStatistics,id=" + ObjectName.quote(id));
+      if (server.isRegistered(name)) {
+        server.unregisterMBean(name);
+      }
+      server.registerMBean(statistics, name);
+    } catch (JMException e) {
+      throw new CacheException("Could not register the statistics of cache '" + id + "' as an MBean. Cause: " + e, e);
+    }
+  }
+
+  private CacheSerializer newSerializerInstance() {
+    if (serializer == null) {
+      return null;
+    }
+    CacheSerializer cacheSerializer;
+    try {
+      cacheSerializer = serializer.newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate cache serializer (" + serializer + "). Cause: " + e, e);
+    }
+    // the serializer shares the properties of the cache element
+    setProperties(cacheSerializer);
+    if (cacheSerializer instanceof InitializingObject) {
+      try {
+        ((InitializingObject) cacheSerializer).initialize();
+      } catch (Exception e) {
+        throw new CacheException("Failed cache serializer initialization for '" + id + "' on '" + serializer.getName() + "'", e);
+      }
+    }
+    return cacheSerializer;
+  }
+
+  private InvalidationTransport newInvalidationTransportInstance() {
+    InvalidationTransport transport;
+    try {
+      transport = invalidationTransport.newInstance();
+    } catch (Exception e) {
+      throw new CacheException("Could not instantiate invalidation transport (" + invalidationTransport + "). Cause: " + e, e);
+    }
+    // like the serializer, the transport shares the properties of the cache element
+    setProperties(transport);
+    if (transport instanceof InitializingObject) {
+      try {
+        ((InitializingObject) transport).initialize();
+      } catch (Exception e) {
+        throw new CacheException("Failed invalidation transport initialization for '" + id + "' on '" + invalidationTransport.getName() + "'", e);
+      }
+    }
+    return transport;
+  }
+
   private void setCacheProperties(Cache cache) {
+    setProperties(cache);
+    if (InitializingObject.class.isAssignableFrom(cache.getClass())){
+      try {
+        ((InitializingObject) cache).initialize();
+      } catch (Exception e) {
+        throw new CacheException("Failed cache initialization for '" +
+            cache.getId() + "' on '" + cache.getClass().getName() + "'", e);
+      }
+    }
+  }
+
+  private void setProperties(Object target) {
     if (properties != null) {
-      MetaObject metaCache = SystemMetaObject.forObject(cache);
+      MetaObject metaCache = SystemMetaObject.forObject(target);
       for (Map.Entry<Object, Object> entry : properties.entrySet()) {
         String name = (String) entry.getKey();
         String value = (String) entry.getValue();
@@ -176,14 +487,6 @@ public class CacheBuilder {
         }
       }
     }
-    if (InitializingObject.class.isAssignableFrom(cache.getClass())){
-      try {
-        ((InitializingObject) cache).initialize();
-      } catch (Exception e) {
-        throw new CacheException("Failed cache initialization for '" +
-            cache.getId() + "' on '" + cache.getClass().getName() + "'", e);
-      }
-    }
   }
 
   private Cache newBaseCacheInstance(Class<? extends Cache> cacheClass, String id) {
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -17,16 +17,24 @@ package org.apache.ibatis.mapping;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
+import org.apache.ibatis.builder.StaticSqlSource;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.cache.CacheTag;
 import org.apache.ibatis.executor.keygen.Jdbc3KeyGenerator;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
 import org.apache.ibatis.executor.keygen.NoKeyGenerator;
 import org.apache.ibatis.logging.Log;
 import org.apache.ibatis.logging.LogFactory;
 import org.apache.ibatis.scripting.LanguageDriver;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
 
 /**
  * @author Clinton Begin
@@ -56,6 +64,9 @@ public final class MappedStatement {
   private Log statementLog;
   private LanguageDriver lang;
   private String[] resultSets;
+  private List<CacheTag> cacheTags;
+  private boolean parallelMapping;
+  private volatile CacheKeyPrefix cacheKeyPrefix;
 
   MappedStatement() {
     // constructor disabled
@@ -72,6 +83,7 @@ public final class MappedStatement {
       mappedStatement.parameterMap = new ParameterMap.Builder(configuration, "defaultParameterMap", null, new ArrayList<ParameterMapping>()).build();
       mappedStatement.resultMaps = new ArrayList<ResultMap>();
       mappedStatement.sqlCommandType = sqlCommandType;
+      mappedStatement.cacheTags = Collections.emptyList();
       //此处设置默认的主键获取类，当使用了selectKeyGenerator时，会在XMLStatementBuilder$parseStatementNode覆盖这个初始值
       mappedStatement.keyGenerator = configuration.isUseGeneratedKeys() && SqlCommandType.INSERT.equals(sqlCommandType) ? Jdbc3KeyGenerator.INSTANCE : NoKeyGenerator.INSTANCE;
       String logId = id;
@@ -174,6 +186,22 @@ public final class MappedStatement {
       return this;
     }
 
+    /**
+     * @since 3.4.7
+     */
+    public Builder cacheTags(List<CacheTag> cacheTags) {
+      mappedStatement.cacheTags = cacheTags;
+      return this;
+    }
+
+    /**
+     * @since 3.4.7
+     */
+    public Builder parallelMapping(boolean parallelMapping) {
+      mappedStatement.parallelMapping = parallelMapping;
+      return this;
+    }
+
     /** @deprecated Use {@link #resultSets} */
     @Deprecated
     public Builder resulSets(String resultSet) {
@@ -283,6 +311,34 @@ public final class MappedStatement {
     return resultSets;
   }
 
+  /**
+   * @return the tables or rows the statement reads, if a select, or writes
+   * @since 3.4.7
+   */
+  public List<CacheTag> getCacheTags() {
+    return cacheTags;
+  }
+
+  /**
+   * @return true if the rows of a simple result map are mapped to objects by a pool of worker threads
+   * @since 3.4.7
+   */
+  public boolean isParallelMapping() {
+    return parallelMapping;
+  }
+
+  /**
+   * @return the tag strings of {@link #getCacheTags()} for a parameter object
+   * @since 3.4.7
+   */
+  public Set<String> resolveCacheTags(Object parameterObject) {
+    Set<String> tags = new HashSet<String>();
+    for (CacheTag cacheTag : cacheTags) {
+      cacheTag.resolve(configuration, parameterObject, tags);
+    }
+    return tags;
+  }
+
   /** @deprecated Use {@link #getResultSets()} */
   @Deprecated
   public String[] getResulSets() {
@@ -327,6 +383,54 @@ public final class MappedStatement {
     return boundSql;
   }
 
+  /**
+   * Starts the cache key of an execution with the statement id, the row bounds and the sql.
+   * <p>
+   * For a static sql text without row bounds this start is the same on every execution, so it is
+   * computed once and copied.
+   *
+   * @since 3.4.7
+   */
+  public CacheKey newCacheKey(RowBounds rowBounds, BoundSql boundSql) {
+    String sql = boundSql.getSql();
+    if (rowBounds.getOffset() != RowBounds.NO_ROW_OFFSET || rowBounds.getLimit() != RowBounds.NO_ROW_LIMIT
+        || !(sqlSource instanceof RawSqlSource || sqlSource instanceof StaticSqlSource)) {
+      return startCacheKey(rowBounds.getOffset(), rowBounds.getLimit(), sql);
+    }
+    CacheKeyPrefix prefix = cacheKeyPrefix;
+    // a plugin may have replaced the sql, a static sql source always returns the same string
+    if (prefix == null || prefix.sql != sql) {
+      prefix = new CacheKeyPrefix(sql, startCacheKey(rowBounds.getOffset(), rowBounds.getLimit(), sql));
+      cacheKeyPrefix = prefix;
+    }
+    try {
+      return prefix.cacheKey.clone();
+    } catch (CloneNotSupportedException e) {
+      throw new CacheException("Error copying cache key of " + id + ".  Cause: " + e, e);
+    }
+  }
+
+  private CacheKey startCacheKey(int offset, int limit, String sql) {
+    CacheKey cacheKey = new CacheKey();
+    cacheKey.update(id);
+    cacheKey.update(offset);
+    cacheKey.update(limit);
+    cacheKey.update(sql);
+    return cacheKey;
+  }
+
+  private static class CacheKeyPrefix {
+
+    private final String sql;
+    private final CacheKey cacheKey;
+
+    CacheKeyPrefix(String sql, CacheKey cacheKey) {
+      this.sql = sql;
+      this.cacheKey = cacheKey;
+    }
+
+  }
+
   private static String[] delimitedStringToArray(String in) {
     if (in == null || in.trim().length() == 0) {
       return null;
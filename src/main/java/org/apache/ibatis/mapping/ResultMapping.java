@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -48,6 +48,8 @@ public class ResultMapping {
   private String resultSet;
   private String foreignColumn;
   private boolean lazy;
+  private int batchSize;
+  private String batchKey;
 
   ResultMapping() {
   }
@@ -134,6 +136,22 @@ public class ResultMapping {
       resultMapping.lazy = lazy;
       return this;
     }
+
+    /**
+     * @since 3.4.7
+     */
+    public Builder batchSize(int batchSize) {
+      resultMapping.batchSize = batchSize;
+      return this;
+    }
+
+    /**
+     * @since 3.4.7
+     */
+    public Builder batchKey(String batchKey) {
+      resultMapping.batchKey = batchKey;
+      return this;
+    }
     
     public ResultMapping build() {
       // lock down collections
@@ -170,6 +188,9 @@ public class ResultMapping {
           throw new IllegalStateException("There should be the same number of columns and foreignColumns in property " + resultMapping.property);
         }
       }
+      if (resultMapping.batchSize > 0 && (resultMapping.nestedQueryId == null || !resultMapping.composites.isEmpty())) {
+        throw new IllegalStateException("A batchSize requires a nested select with a single column in property " + resultMapping.property);
+      }
     }
     
     private void resolveTypeHandler() {
@@ -253,6 +274,22 @@ public class ResultMapping {
   public void setLazy(boolean lazy) {
     this.lazy = lazy;
   }
+
+  /**
+   * @return the maximum number of parent rows whose nested select is run at once, 0 if it is run for each row
+   * @since 3.4.7
+   */
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * @return the property of the nested select results that holds the value of the column, null for their id
+   * @since 3.4.7
+   */
+  public String getBatchKey() {
+    return batchKey;
+  }
   
   @Override
   public boolean equals(Object o) {
@@ -301,6 +338,8 @@ public class ResultMapping {
     sb.append(", resultSet='").append(resultSet).append('\'');
     sb.append(", foreignColumn='").append(foreignColumn).append('\'');
     sb.append(", lazy=").append(lazy);
+    sb.append(", batchSize=").append(batchSize);
+    sb.append(", batchKey='").append(batchKey).append('\'');
     sb.append('}');
     return sb.toString();
   }
@@ -0,0 +1,266 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.type.TypeHandler;
+
+/**
+ * The rows of a result set stored column by column.
+ * <p>
+ * Integer, long and double columns are read into primitive arrays without boxing, every other
+ * column into an {@code Object[]} through its type handler. The arrays are returned as they are
+ * stored, with exactly {@link #getRowCount()} elements, and must not be modified.
+ *
+ * @see SqlSession#selectColumns(String, Object, RowBounds)
+ * @since 3.4.7
+ */
+public final class ColumnTable {
+
+  public static final ColumnTable EMPTY = new ColumnTable(new String[0], new Class<?>[0], new Object[0], new BitSet[0], 0);
+
+  private final String[] columnNames;
+  private final Class<?>[] columnTypes;
+  private final Object[] columns;
+  private final BitSet[] nulls;
+  private final int rowCount;
+
+  private ColumnTable(String[] columnNames, Class<?>[] columnTypes, Object[] columns, BitSet[] nulls, int rowCount) {
+    this.columnNames = columnNames;
+    this.columnTypes = columnTypes;
+    this.columns = columns;
+    this.nulls = nulls;
+    this.rowCount = rowCount;
+  }
+
+  public int getRowCount() {
+    return rowCount;
+  }
+
+  public int getColumnCount() {
+    return columnNames.length;
+  }
+
+  public List<String> getColumnNames() {
+    return Collections.unmodifiableList(Arrays.asList(columnNames));
+  }
+
+  /**
+   * @return the index of the column with the given name ignoring case, or -1 if there is none
+   */
+  public int getColumnIndex(String columnName) {
+    for (int i = 0; i < columnNames.length; i++) {
+      if (columnNames[i].equalsIgnoreCase(columnName)) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * @return int.class, long.class, double.class or Object.class
+   */
+  public Class<?> getColumnType(int column) {
+    return columnTypes[column];
+  }
+
+  public int[] getInts(int column) {
+    return (int[]) getColumn(column, int.class);
+  }
+
+  public int[] getInts(String columnName) {
+    return getInts(indexOf(columnName));
+  }
+
+  public long[] getLongs(int column) {
+    return (long[]) getColumn(column, long.class);
+  }
+
+  public long[] getLongs(String columnName) {
+    return getLongs(indexOf(columnName));
+  }
+
+  public double[] getDoubles(int column) {
+    return (double[]) getColumn(column, double.class);
+  }
+
+  public double[] getDoubles(String columnName) {
+    return getDoubles(indexOf(columnName));
+  }
+
+  public Object[] getObjects(int column) {
+    return (Object[]) getColumn(column, Object.class);
+  }
+
+  public Object[] getObjects(String columnName) {
+    return getObjects(indexOf(columnName));
+  }
+
+  /**
+   * @return True if the value of a column was SQL NULL, primitive columns hold 0 for those rows
+   */
+  public boolean isNull(int row, int column) {
+    checkRow(row);
+    if (columnTypes[column] == Object.class) {
+      return ((Object[]) columns[column])[row] == null;
+    }
+    return nulls[column].get(row);
+  }
+
+  /**
+   * Gets a single value, boxed if the column is a primitive one
+   */
+  public Object getValue(int row, int column) {
+    if (isNull(row, column)) {
+      return null;
+    }
+    if (columnTypes[column] == int.class) {
+      return ((int[]) columns[column])[row];
+    } else if (columnTypes[column] == long.class) {
+      return ((long[]) columns[column])[row];
+    } else if (columnTypes[column] == double.class) {
+      return ((double[]) columns[column])[row];
+    }
+    return ((Object[]) columns[column])[row];
+  }
+
+  private Object getColumn(int column, Class<?> type) {
+    if (columnTypes[column] != type) {
+      throw new ExecutorException("Column '" + columnNames[column] + "' holds " + columnTypes[column].getSimpleName()
+          + " values, not " + type.getSimpleName() + " values.");
+    }
+    return columns[column];
+  }
+
+  private int indexOf(String columnName) {
+    int column = getColumnIndex(columnName);
+    if (column < 0) {
+      throw new ExecutorException("No column named '" + columnName + "' in " + Arrays.toString(columnNames) + ".");
+    }
+    return column;
+  }
+
+  private void checkRow(int row) {
+    if (row < 0 || row >= rowCount) {
+      throw new IndexOutOfBoundsException("Row " + row + " of " + rowCount);
+    }
+  }
+
+  /**
+   * Reads the rows of a result set into a {@link ColumnTable}.
+   */
+  public static class Builder {
+
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final String[] columnNames;
+    private final Class<?>[] columnTypes;
+    private final TypeHandler<?>[] typeHandlers;
+    private final Object[] columns;
+    private final BitSet[] nulls;
+    private int rowCount;
+    private int capacity = INITIAL_CAPACITY;
+
+    /**
+     * @param columnNames - the columns of the result set, in order
+     * @param columnTypes - int.class, long.class or double.class for the primitive columns, Object.class for the others
+     * @param typeHandlers - the type handlers of the Object.class columns
+     */
+    public Builder(String[] columnNames, Class<?>[] columnTypes, TypeHandler<?>[] typeHandlers) {
+      this.columnNames = columnNames;
+      this.columnTypes = columnTypes;
+      this.typeHandlers = typeHandlers;
+      this.columns = new Object[columnNames.length];
+      this.nulls = new BitSet[columnNames.length];
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = newColumn(columnTypes[i], capacity);
+        nulls[i] = new BitSet();
+      }
+    }
+
+    /**
+     * Reads the current row of the result set
+     */
+    public void addRow(ResultSet rs) throws SQLException {
+      if (rowCount == capacity) {
+        grow();
+      }
+      for (int i = 0; i < columns.length; i++) {
+        final int columnIndex = i + 1;
+        final Class<?> type = columnTypes[i];
+        if (type == int.class) {
+          ((int[]) columns[i])[rowCount] = rs.getInt(columnIndex);
+        } else if (type == long.class) {
+          ((long[]) columns[i])[rowCount] = rs.getLong(columnIndex);
+        } else if (type == double.class) {
+          ((double[]) columns[i])[rowCount] = rs.getDouble(columnIndex);
+        } else {
+          ((Object[]) columns[i])[rowCount] = typeHandlers[i].getResult(rs, columnIndex);
+          continue;
+        }
+        if (rs.wasNull()) {
+          nulls[i].set(rowCount);
+        }
+      }
+      rowCount++;
+    }
+
+    public ColumnTable build() {
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = copyOf(columns[i], rowCount);
+      }
+      return new ColumnTable(columnNames, columnTypes, columns, nulls, rowCount);
+    }
+
+    private void grow() {
+      capacity = capacity << 1;
+      for (int i = 0; i < columns.length; i++) {
+        columns[i] = copyOf(columns[i], capacity);
+      }
+    }
+
+    private static Object newColumn(Class<?> type, int length) {
+      if (type == int.class) {
+        return new int[length];
+      } else if (type == long.class) {
+        return new long[length];
+      } else if (type == double.class) {
+        return new double[length];
+      }
+      return new Object[length];
+    }
+
+    private static Object copyOf(Object column, int length) {
+      if (column instanceof int[]) {
+        return Arrays.copyOf((int[]) column, length);
+      } else if (column instanceof long[]) {
+        return Arrays.copyOf((long[]) column, length);
+      } else if (column instanceof double[]) {
+        return Arrays.copyOf((double[]) column, length);
+      }
+      return Arrays.copyOf((Object[]) column, length);
+    }
+
+  }
+
+}
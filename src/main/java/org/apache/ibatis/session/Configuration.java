@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -31,17 +31,28 @@ import org.apache.ibatis.builder.ResultMapResolver;
 import org.apache.ibatis.builder.annotation.MethodResolver;
 import org.apache.ibatis.builder.xml.XMLStatementBuilder;
 import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheStatistics;
+import org.apache.ibatis.cache.TransactionalCacheManager;
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
 import org.apache.ibatis.cache.decorators.FifoCache;
 import org.apache.ibatis.cache.decorators.LruCache;
 import org.apache.ibatis.cache.decorators.SoftCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
 import org.apache.ibatis.cache.decorators.WeakCache;
+import org.apache.ibatis.cache.impl.CompactCacheSerializer;
+import org.apache.ibatis.cache.impl.JdkCacheSerializer;
+import org.apache.ibatis.cache.impl.LoopbackInvalidationTransport;
+import org.apache.ibatis.cache.impl.MulticastInvalidationTransport;
+import org.apache.ibatis.cache.impl.OffHeapCache;
 import org.apache.ibatis.cache.impl.PerpetualCache;
 import org.apache.ibatis.datasource.jndi.JndiDataSourceFactory;
+import org.apache.ibatis.datasource.pooled.FastPooledDataSourceFactory;
 import org.apache.ibatis.datasource.pooled.PooledDataSourceFactory;
 import org.apache.ibatis.datasource.unpooled.UnpooledDataSourceFactory;
 import org.apache.ibatis.executor.BatchExecutor;
 import org.apache.ibatis.executor.CachingExecutor;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.QueryCoalescer;
 import org.apache.ibatis.executor.ReuseExecutor;
 import org.apache.ibatis.executor.SimpleExecutor;
 import org.apache.ibatis.executor.keygen.KeyGenerator;
@@ -51,6 +62,7 @@ import org.apache.ibatis.executor.loader.javassist.JavassistProxyFactory;
 import org.apache.ibatis.executor.parameter.ParameterHandler;
 import org.apache.ibatis.executor.resultset.DefaultResultSetHandler;
 import org.apache.ibatis.executor.resultset.ResultSetHandler;
+import org.apache.ibatis.executor.resultset.RowMapperRegistry;
 import org.apache.ibatis.executor.statement.RoutingStatementHandler;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.io.VFS;
@@ -114,6 +126,18 @@ public class Configuration {
   protected Class <? extends Log> logImpl;
   protected Class <? extends VFS> vfsImpl;
   protected LocalCacheScope localCacheScope = LocalCacheScope.SESSION;
+  protected boolean skipUnusedCacheKeys;
+  protected boolean coalesceQueries;
+  protected int coalesceWaitTimeout = 1000;
+  protected int transactionalCacheMaxEntries;
+  protected TransactionalCacheOverflowPolicy transactionalCacheOverflowPolicy = TransactionalCacheOverflowPolicy.DISCARD_NEW;
+  protected boolean asyncCacheCommit;
+  protected boolean cacheMBeansEnabled;
+  protected boolean readColumnsByIndex;
+  protected boolean useCompiledRowMappers;
+  protected boolean streamNestedResults;
+  protected boolean useCompactMapRows;
+  protected boolean compactMapRowsIgnoreCase;
   protected JdbcType jdbcTypeForNull = JdbcType.OTHER;
   protected Set<String> lazyLoadTriggerMethods = new HashSet<String>(Arrays.asList(new String[] { "equals", "clone", "hashCode", "toString" }));
   protected Integer defaultStatementTimeout;
@@ -141,12 +165,16 @@ public class Configuration {
 
   protected final MapperRegistry mapperRegistry = new MapperRegistry(this);
   protected final InterceptorChain interceptorChain = new InterceptorChain();
+  protected final QueryCoalescer queryCoalescer = new QueryCoalescer();
+  protected final RowMapperRegistry rowMapperRegistry = new RowMapperRegistry();
   protected final TypeHandlerRegistry typeHandlerRegistry = new TypeHandlerRegistry();
   protected final TypeAliasRegistry typeAliasRegistry = new TypeAliasRegistry();
   protected final LanguageDriverRegistry languageRegistry = new LanguageDriverRegistry();
 
   protected final Map<String, MappedStatement> mappedStatements = new StrictMap<MappedStatement>("Mapped Statements collection");
   protected final Map<String, Cache> caches = new StrictMap<Cache>("Caches collection");
+  protected final Map<String, TaggedCache> taggedCaches = new HashMap<String, TaggedCache>();
+  protected final Map<String, CacheStatistics> cacheStatistics = new HashMap<String, CacheStatistics>();
   protected final Map<String, ResultMap> resultMaps = new StrictMap<ResultMap>("Result Maps collection");
   protected final Map<String, ParameterMap> parameterMaps = new StrictMap<ParameterMap>("Parameter Maps collection");
   protected final Map<String, KeyGenerator> keyGenerators = new StrictMap<KeyGenerator>("Key Generators collection");
@@ -177,11 +205,18 @@ public class Configuration {
 
     typeAliasRegistry.registerAlias("JNDI", JndiDataSourceFactory.class);
     typeAliasRegistry.registerAlias("POOLED", PooledDataSourceFactory.class);
+    typeAliasRegistry.registerAlias("FAST_POOLED", FastPooledDataSourceFactory.class);
     typeAliasRegistry.registerAlias("UNPOOLED", UnpooledDataSourceFactory.class);
 
     typeAliasRegistry.registerAlias("PERPETUAL", PerpetualCache.class);
+    typeAliasRegistry.registerAlias("OFF_HEAP", OffHeapCache.class);
+    typeAliasRegistry.registerAlias("JDK_SERIALIZER", JdkCacheSerializer.class);
+    typeAliasRegistry.registerAlias("COMPACT_SERIALIZER", CompactCacheSerializer.class);
+    typeAliasRegistry.registerAlias("LOOPBACK_INVALIDATION", LoopbackInvalidationTransport.class);
+    typeAliasRegistry.registerAlias("MULTICAST_INVALIDATION", MulticastInvalidationTransport.class);
     typeAliasRegistry.registerAlias("FIFO", FifoCache.class);
     typeAliasRegistry.registerAlias("LRU", LruCache.class);
+    typeAliasRegistry.registerAlias("CONCURRENT_LRU", ConcurrentLruCache.class);
     typeAliasRegistry.registerAlias("SOFT", SoftCache.class);
     typeAliasRegistry.registerAlias("WEAK", WeakCache.class);
 
@@ -442,6 +477,190 @@ public class Configuration {
     this.localCacheScope = localCacheScope;
   }
 
+  /**
+   * @since 3.4.7
+   */
+  public boolean isSkipUnusedCacheKeys() {
+    return skipUnusedCacheKeys;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setSkipUnusedCacheKeys(boolean skipUnusedCacheKeys) {
+    this.skipUnusedCacheKeys = skipUnusedCacheKeys;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isCoalesceQueries() {
+    return coalesceQueries;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setCoalesceQueries(boolean coalesceQueries) {
+    this.coalesceQueries = coalesceQueries;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public int getCoalesceWaitTimeout() {
+    return coalesceWaitTimeout;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setCoalesceWaitTimeout(int coalesceWaitTimeout) {
+    this.coalesceWaitTimeout = coalesceWaitTimeout;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public int getTransactionalCacheMaxEntries() {
+    return transactionalCacheMaxEntries;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setTransactionalCacheMaxEntries(int transactionalCacheMaxEntries) {
+    this.transactionalCacheMaxEntries = transactionalCacheMaxEntries;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public TransactionalCacheOverflowPolicy getTransactionalCacheOverflowPolicy() {
+    return transactionalCacheOverflowPolicy;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setTransactionalCacheOverflowPolicy(TransactionalCacheOverflowPolicy transactionalCacheOverflowPolicy) {
+    this.transactionalCacheOverflowPolicy = transactionalCacheOverflowPolicy;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isAsyncCacheCommit() {
+    return asyncCacheCommit;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setAsyncCacheCommit(boolean asyncCacheCommit) {
+    this.asyncCacheCommit = asyncCacheCommit;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isCacheMBeansEnabled() {
+    return cacheMBeansEnabled;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setCacheMBeansEnabled(boolean cacheMBeansEnabled) {
+    this.cacheMBeansEnabled = cacheMBeansEnabled;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isReadColumnsByIndex() {
+    return readColumnsByIndex;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setReadColumnsByIndex(boolean readColumnsByIndex) {
+    this.readColumnsByIndex = readColumnsByIndex;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isUseCompiledRowMappers() {
+    return useCompiledRowMappers;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setUseCompiledRowMappers(boolean useCompiledRowMappers) {
+    this.useCompiledRowMappers = useCompiledRowMappers;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isUseCompactMapRows() {
+    return useCompactMapRows;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setUseCompactMapRows(boolean useCompactMapRows) {
+    this.useCompactMapRows = useCompactMapRows;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isCompactMapRowsIgnoreCase() {
+    return compactMapRowsIgnoreCase;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setCompactMapRowsIgnoreCase(boolean compactMapRowsIgnoreCase) {
+    this.compactMapRowsIgnoreCase = compactMapRowsIgnoreCase;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public boolean isStreamNestedResults() {
+    return streamNestedResults;
+  }
+
+  /**
+   * @since 3.4.7
+   */
+  public void setStreamNestedResults(boolean streamNestedResults) {
+    this.streamNestedResults = streamNestedResults;
+  }
+
+  /**
+   * @return the registry of queries shared by sessions when coalesceQueries is enabled, with its metrics
+   * @since 3.4.7
+   */
+  public QueryCoalescer getQueryCoalescer() {
+    return queryCoalescer;
+  }
+
+  /**
+   * @return the column mapping plans and compiled row mappers of the result maps, by result map id and column layout
+   * @since 3.4.7
+   */
+  public RowMapperRegistry getRowMapperRegistry() {
+    return rowMapperRegistry;
+  }
+
   public JdbcType getJdbcTypeForNull() {
     return jdbcTypeForNull;
   }
@@ -589,7 +808,8 @@ public class Configuration {
       executor = new SimpleExecutor(this, transaction);
     }
     if (cacheEnabled) {
-      executor = new CachingExecutor(executor);
+      executor = new CachingExecutor(executor,
+          new TransactionalCacheManager(transactionalCacheMaxEntries, transactionalCacheOverflowPolicy, asyncCacheCommit));
     }
 
     //此处构建executor的插件代理类
@@ -637,6 +857,39 @@ public class Configuration {
     return caches.containsKey(id);
   }
 
+  /**
+   * Registers the tag index of a cache built with tagged invalidation.
+   * @since 3.4.7
+   */
+  public void addTaggedCache(TaggedCache taggedCache) {
+    taggedCaches.put(taggedCache.getId(), taggedCache);
+  }
+
+  /**
+   * @return the tag index of the cache with the given id or null if it is invalidated as a whole
+   * @since 3.4.7
+   */
+  public TaggedCache getTaggedCache(String id) {
+    return taggedCaches.get(id);
+  }
+
+  /**
+   * Registers the statistics of a namespace cache.
+   * @since 3.4.7
+   */
+  public void addCacheStatistics(CacheStatistics statistics) {
+    cacheStatistics.put(statistics.getId(), statistics);
+  }
+
+  /**
+   * @param id - the id of one of the caches returned by {@link #getCaches()}
+   * @return the statistics of the cache or null if it was not built by a mapper
+   * @since 3.4.7
+   */
+  public CacheStatistics getCacheStatistics(String id) {
+    return cacheStatistics.get(id);
+  }
+
   public void addResultMap(ResultMap rm) {
     resultMaps.put(rm.getId(), rm);
     checkLocallyForDiscriminatedNestedResultMaps(rm);
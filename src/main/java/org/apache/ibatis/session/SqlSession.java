@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2016 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -143,6 +143,36 @@ public interface SqlSession extends Closeable {
    */
   <T> Cursor<T> selectCursor(String statement, Object parameter, RowBounds rowBounds);
 
+  /**
+   * Retrieve the rows of the first result set column by column, without mapping them to objects.
+   * Integer, long and double columns are read into primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @return ColumnTable holding the columns of the result set
+   * @since 3.4.7
+   */
+  ColumnTable selectColumns(String statement);
+
+  /**
+   * Retrieve the rows of the first result set column by column, without mapping them to objects.
+   * Integer, long and double columns are read into primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @return ColumnTable holding the columns of the result set
+   * @since 3.4.7
+   */
+  ColumnTable selectColumns(String statement, Object parameter);
+
+  /**
+   * Retrieve the rows of the first result set column by column, without mapping them to objects.
+   * Integer, long and double columns are read into primitive arrays.
+   * @param statement Unique identifier matching the statement to use.
+   * @param parameter A parameter object to pass to the statement.
+   * @param rowBounds  Bounds to limit the rows read
+   * @return ColumnTable holding the columns of the result set
+   * @since 3.4.7
+   */
+  ColumnTable selectColumns(String statement, Object parameter, RowBounds rowBounds);
+
   /**
    * Retrieve a single row mapped from the statement key and parameter
    * using a {@code ResultHandler}.
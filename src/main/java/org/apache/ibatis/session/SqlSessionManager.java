@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -196,6 +196,21 @@ public class SqlSessionManager implements SqlSessionFactory, SqlSession {
     return sqlSessionProxy.selectCursor(statement, parameter, rowBounds);
   }
 
+  @Override
+  public ColumnTable selectColumns(String statement) {
+    return sqlSessionProxy.selectColumns(statement);
+  }
+
+  @Override
+  public ColumnTable selectColumns(String statement, Object parameter) {
+    return sqlSessionProxy.selectColumns(statement, parameter);
+  }
+
+  @Override
+  public ColumnTable selectColumns(String statement, Object parameter, RowBounds rowBounds) {
+    return sqlSessionProxy.selectColumns(statement, parameter, rowBounds);
+  }
+
   @Override
   public <E> List<E> selectList(String statement) {
     return sqlSessionProxy.<E> selectList(statement);
@@ -0,0 +1,32 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.session;
+
+/**
+ * What a session does with a second level cache entry once its transactional buffer is full.
+ *
+ * @since 3.4.7
+ */
+public enum TransactionalCacheOverflowPolicy {
+  /**
+   * Keeps the entries staged first and does not cache the new one.
+   */
+  DISCARD_NEW,
+  /**
+   * Drops the entry staged first to make room for the new one.
+   */
+  DISCARD_OLDEST
+}
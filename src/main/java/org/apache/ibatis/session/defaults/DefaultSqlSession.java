@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -31,9 +31,11 @@ import org.apache.ibatis.exceptions.TooManyResultsException;
 import org.apache.ibatis.executor.BatchResult;
 import org.apache.ibatis.executor.ErrorContext;
 import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.result.ColumnTableResultHandler;
 import org.apache.ibatis.executor.result.DefaultMapResultHandler;
 import org.apache.ibatis.executor.result.DefaultResultContext;
 import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ColumnTable;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ResultHandler;
 import org.apache.ibatis.session.RowBounds;
@@ -188,6 +190,23 @@ public class DefaultSqlSession implements SqlSession {
     }
   }
 
+  @Override
+  public ColumnTable selectColumns(String statement) {
+    return selectColumns(statement, null);
+  }
+
+  @Override
+  public ColumnTable selectColumns(String statement, Object parameter) {
+    return selectColumns(statement, parameter, RowBounds.DEFAULT);
+  }
+
+  @Override
+  public ColumnTable selectColumns(String statement, Object parameter, RowBounds rowBounds) {
+    final ColumnTableResultHandler handler = new ColumnTableResultHandler();
+    select(statement, parameter, rowBounds, handler);
+    return handler.getColumnTable();
+  }
+
   @Override
   public void select(String statement, Object parameter, ResultHandler handler) {
     select(statement, parameter, RowBounds.DEFAULT, handler);
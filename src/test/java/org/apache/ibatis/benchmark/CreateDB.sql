@@ -0,0 +1,76 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table post if exists;
+drop table author if exists;
+drop table wide_row if exists;
+
+create table author (
+  id int not null,
+  username varchar(64) not null,
+  email varchar(64) not null,
+  bio varchar(255),
+  favourite_section varchar(25),
+  primary key (id)
+);
+
+create table post (
+  id int not null,
+  author_id int not null,
+  subject varchar(255) not null,
+  body varchar(1024) not null,
+  primary key (id)
+);
+
+create index post_author_id on post (author_id);
+
+create table wide_row (
+  id int not null,
+  c01 varchar(32),
+  c02 varchar(32),
+  c03 varchar(32),
+  c04 varchar(32),
+  c05 varchar(32),
+  c06 varchar(32),
+  c07 varchar(32),
+  c08 varchar(32),
+  c09 varchar(32),
+  c10 varchar(32),
+  c11 varchar(32),
+  c12 varchar(32),
+  c13 varchar(32),
+  c14 varchar(32),
+  c15 varchar(32),
+  c16 varchar(32),
+  c17 varchar(32),
+  c18 varchar(32),
+  c19 varchar(32),
+  c20 varchar(32),
+  c21 varchar(32),
+  c22 varchar(32),
+  c23 varchar(32),
+  c24 varchar(32),
+  c25 varchar(32),
+  c26 varchar(32),
+  c27 varchar(32),
+  c28 varchar(32),
+  c29 varchar(32),
+  c30 varchar(32),
+  c31 varchar(32),
+  c32 varchar(32),
+  primary key (id)
+);
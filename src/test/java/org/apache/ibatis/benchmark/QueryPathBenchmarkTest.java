@@ -0,0 +1,354 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.ExecutorType;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.apache.ibatis.test.SlowTests;
+import org.junit.AfterClass;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Measures the query path from {@link SqlSession#selectList(String, Object)} through the executors and the
+ * statement handlers down to the result set handler, against an in-memory HSQLDB and against {@link StubDriver},
+ * whose canned result sets leave only the time spent in MyBatis. Being one of the {@link SlowTests} it is not part
+ * of the default build, run it with:
+ * <pre>
+ * mvn test -Dtest=QueryPathBenchmarkTest -Dmaven.surefire.excludeGroups= [-Dbenchmark.millis=2000]
+ *     [-Dbenchmark.results=target/benchmark.properties] [-Dbenchmark.baseline=file -Dbenchmark.tolerance=0.2]
+ * </pre>
+ * The operations per second of every benchmark are written to <code>benchmark.results</code>. A file written by an
+ * earlier run on the same machine can be passed as <code>benchmark.baseline</code>, then the test fails if a
+ * benchmark got slower than the baseline by more than the tolerance.
+ */
+@Category(SlowTests.class)
+public class QueryPathBenchmarkTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.benchmark.Mapper.";
+  private static final int AUTHORS = 1000;
+  private static final int POSTS_PER_AUTHOR = 5;
+  private static final int ROWS = 100;
+  private static final int NESTED_AUTHORS = 20;
+  private static final int BATCH_SIZE = 100;
+  private static final int WIDE_COLUMNS = 32;
+  private static final long DURATION_MILLIS = Long.getLong("benchmark.millis", 2000);
+
+  private static SqlSessionFactory hsqldb;
+  private static SqlSessionFactory stub;
+  private static final Map<String, Long> results = new TreeMap<String, Long>();
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    hsqldb = newSqlSessionFactory("hsqldb");
+    stub = newSqlSessionFactory("stub");
+    SqlSession session = hsqldb.openSession();
+    try {
+      Connection conn = session.getConnection();
+      Reader reader = Resources.getResourceAsReader("org/apache/ibatis/benchmark/CreateDB.sql");
+      ScriptRunner runner = new ScriptRunner(conn);
+      runner.setLogWriter(null);
+      runner.runScript(reader);
+      reader.close();
+      PreparedStatement ps = conn.prepareStatement("insert into post (id, author_id, subject, body) values (?, ?, ?, ?)");
+      for (int i = 0; i < AUTHORS * POSTS_PER_AUTHOR; i++) {
+        ps.setInt(1, i);
+        ps.setInt(2, i / POSTS_PER_AUTHOR);
+        ps.setString(3, "subject " + i);
+        ps.setString(4, "body of post " + i);
+        ps.addBatch();
+      }
+      ps.executeBatch();
+      ps.close();
+      ps = conn.prepareStatement("insert into wide_row values (?" + repeat(", ?", WIDE_COLUMNS) + ")");
+      for (int i = 0; i < ROWS; i++) {
+        ps.setInt(1, i);
+        for (int column = 1; column <= WIDE_COLUMNS; column++) {
+          ps.setString(column + 1, "value " + i + "." + column);
+        }
+        ps.addBatch();
+      }
+      ps.executeBatch();
+      ps.close();
+      for (int i = 0; i < AUTHORS; i++) {
+        session.insert(NAMESPACE + "insertAuthor", newAuthor(i));
+      }
+      session.commit();
+    } finally {
+      session.close();
+    }
+  }
+
+  @AfterClass
+  public static void publishResults() throws Exception {
+    Properties measured = new Properties();
+    for (Map.Entry<String, Long> result : results.entrySet()) {
+      measured.setProperty(result.getKey(), String.valueOf(result.getValue()));
+    }
+    File file = new File(System.getProperty("benchmark.results", "target/benchmark.properties"));
+    OutputStream out = new FileOutputStream(file);
+    try {
+      measured.store(out, "operations per second, " + DURATION_MILLIS + "ms per benchmark");
+    } finally {
+      out.close();
+    }
+    System.out.println("Benchmark results written to " + file.getAbsolutePath());
+  }
+
+  @Test
+  public void simpleResultMap() throws Exception {
+    stubAuthors(ROWS);
+    measure("simpleResultMap", new Query("selectAuthors", ROWS));
+  }
+
+  @Test
+  public void autoMappedResultType() throws Exception {
+    stubAuthors(ROWS);
+    measure("autoMapping", new Query("selectAuthorsAutoMapped", ROWS));
+  }
+
+  @Test
+  public void nestedResultMap() throws Exception {
+    String[] columns = { "id", "username", "email", "bio", "favourite_section", "post_id", "subject", "body" };
+    Object[][] rows = new Object[NESTED_AUTHORS * POSTS_PER_AUTHOR][];
+    for (int i = 0; i < rows.length; i++) {
+      int author = i / POSTS_PER_AUTHOR;
+      rows[i] = new Object[] { author, "user" + author, "user" + author + "@example.com", "bio of user " + author,
+          "NEWS", i, "subject " + i, "body of post " + i };
+    }
+    StubDriver.respondWith(columns, rows);
+    measure("nestedResultMap", new Query("selectAuthorsWithPosts", NESTED_AUTHORS) {
+      @Override
+      void check(List<Author> authors) {
+        super.check(authors);
+        assertEquals(POSTS_PER_AUTHOR, authors.get(0).getPosts().size());
+      }
+    });
+  }
+
+  @Test
+  public void wideTable() throws Exception {
+    String[] columns = new String[WIDE_COLUMNS + 1];
+    Object[][] rows = new Object[ROWS][WIDE_COLUMNS + 1];
+    columns[0] = "ID";
+    for (int column = 1; column <= WIDE_COLUMNS; column++) {
+      columns[column] = String.format("C%02d", column);
+    }
+    for (int i = 0; i < ROWS; i++) {
+      rows[i][0] = i;
+      for (int column = 1; column <= WIDE_COLUMNS; column++) {
+        rows[i][column] = "value " + i + "." + column;
+      }
+    }
+    StubDriver.respondWith(columns, rows);
+    measure("wideTable", new Operation() {
+      @Override
+      public void run(SqlSessionFactory factory) {
+        SqlSession session = factory.openSession();
+        try {
+          List<Map<String, Object>> result = session.selectList(NAMESPACE + "selectWideRows", ROWS);
+          assertEquals(ROWS, result.size());
+          assertEquals(WIDE_COLUMNS + 1, result.get(0).size());
+        } finally {
+          session.close();
+        }
+      }
+    });
+  }
+
+  @Test
+  public void cacheHit() throws Exception {
+    stubAuthors(ROWS);
+    measure("cacheHit", new Query("selectAuthorsCached", ROWS));
+  }
+
+  @Test
+  public void dynamicSqlRendering() throws Exception {
+    final MappedStatement ms = hsqldb.getConfiguration().getMappedStatement(NAMESPACE + "selectAuthorsDynamic");
+    final Map<String, Object> param = new HashMap<String, Object>();
+    param.put("username", "user%");
+    param.put("section", "NEWS");
+    param.put("ids", Arrays.asList(1, 2, 3, 4, 5, 6, 7, 8, 9, 10));
+    param.put("orderBy", "email");
+    long operations = run(new Operation() {
+      @Override
+      public void run(SqlSessionFactory factory) {
+        assertEquals(12, ms.getBoundSql(param).getParameterMappings().size());
+      }
+    }, null);
+    report("dynamicSql", operations);
+  }
+
+  @Test
+  public void batchInsert() throws Exception {
+    Operation insert = new Operation() {
+      @Override
+      public void run(SqlSessionFactory factory) {
+        SqlSession session = factory.openSession(ExecutorType.BATCH);
+        try {
+          for (int i = 0; i < BATCH_SIZE; i++) {
+            session.insert(NAMESPACE + "insertAuthor", newAuthor(AUTHORS + i));
+          }
+          assertEquals(1, session.flushStatements().size());
+        } finally {
+          // keeps the table as it is for the other benchmarks
+          session.rollback(true);
+          session.close();
+        }
+      }
+    };
+    report("batchInsert.hsqldb", run(insert, hsqldb));
+    report("batchInsert.stub", run(insert, stub));
+  }
+
+  private void measure(String name, Operation query) throws Exception {
+    report(name + ".hsqldb", run(query, hsqldb));
+    report(name + ".stub", run(query, stub));
+  }
+
+  private static long run(Operation operation, SqlSessionFactory factory) throws Exception {
+    // warm up before measuring
+    loop(operation, factory, Math.min(1000, DURATION_MILLIS));
+    return loop(operation, factory, DURATION_MILLIS) * 1000 / DURATION_MILLIS;
+  }
+
+  private static long loop(Operation operation, SqlSessionFactory factory, long durationMillis) throws Exception {
+    long deadline = System.currentTimeMillis() + durationMillis;
+    long operations = 0;
+    while (System.currentTimeMillis() < deadline) {
+      operation.run(factory);
+      operations++;
+    }
+    return operations;
+  }
+
+  private static void report(String name, long operationsPerSecond) throws Exception {
+    results.put(name, operationsPerSecond);
+    System.out.println(String.format("%-24s: %,d ops/s", name, operationsPerSecond));
+    String baselineFile = System.getProperty("benchmark.baseline");
+    if (baselineFile != null) {
+      Properties baseline = new Properties();
+      InputStream in = new FileInputStream(baselineFile);
+      try {
+        baseline.load(in);
+      } finally {
+        in.close();
+      }
+      String expected = baseline.getProperty(name);
+      if (expected != null) {
+        double tolerance = Double.parseDouble(System.getProperty("benchmark.tolerance", "0.2"));
+        long minimum = (long) (Long.parseLong(expected) * (1 - tolerance));
+        assertTrue(name + " regressed to " + operationsPerSecond + " ops/s, the baseline is " + expected,
+            operationsPerSecond >= minimum);
+      }
+    }
+  }
+
+  private static void stubAuthors(int count) {
+    String[] columns = { "id", "username", "email", "bio", "favourite_section" };
+    Object[][] rows = new Object[count][];
+    for (int i = 0; i < count; i++) {
+      Author author = newAuthor(i);
+      rows[i] = new Object[] { author.getId(), author.getUsername(), author.getEmail(), author.getBio(),
+          author.getFavouriteSection() };
+    }
+    StubDriver.respondWith(columns, rows);
+  }
+
+  private static String repeat(String text, int times) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < times; i++) {
+      builder.append(text);
+    }
+    return builder.toString();
+  }
+
+  private static Author newAuthor(int id) {
+    Author author = new Author();
+    author.setId(id);
+    author.setUsername("user" + id);
+    author.setEmail("user" + id + "@example.com");
+    author.setBio("bio of user " + id);
+    author.setFavouriteSection(id % 2 == 0 ? "NEWS" : "VIDEOS");
+    return author;
+  }
+
+  private static SqlSessionFactory newSqlSessionFactory(String environment) throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/benchmark/mybatis-config.xml");
+    try {
+      return new SqlSessionFactoryBuilder().build(reader, environment);
+    } finally {
+      reader.close();
+    }
+  }
+
+  private interface Operation {
+    void run(SqlSessionFactory factory) throws Exception;
+  }
+
+  private static class Query implements Operation {
+
+    private final String statement;
+    private final int expectedRows;
+
+    Query(String statement, int expectedRows) {
+      this.statement = statement;
+      this.expectedRows = expectedRows;
+    }
+
+    @Override
+    public void run(SqlSessionFactory factory) {
+      SqlSession session = factory.openSession();
+      try {
+        List<Author> authors = session.selectList(NAMESPACE + statement, expectedRows);
+        check(authors);
+      } finally {
+        session.close();
+      }
+    }
+
+    void check(List<Author> authors) {
+      assertEquals(expectedRows, authors.size());
+      assertNotNull(authors.get(0).getUsername());
+    }
+
+  }
+
+}
@@ -0,0 +1,349 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.benchmark;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Driver;
+import java.sql.DriverManager;
+import java.sql.DriverPropertyInfo;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+/**
+ * JDBC driver for <code>jdbc:stub:</code> urls whose statements do nothing and whose queries all return
+ * the rows given to {@link #respondWith(String[], Object[][])}, so that a benchmark measures MyBatis alone.
+ */
+public class StubDriver implements Driver {
+
+  private static final String URL_PREFIX = "jdbc:stub:";
+
+  private static volatile String[] columns = new String[0];
+  private static volatile Object[][] rows = new Object[0][];
+
+  static {
+    try {
+      DriverManager.registerDriver(new StubDriver());
+    } catch (SQLException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * @param columnLabels - the labels of the columns of every result set
+   * @param data - the rows of every result set, a value of each column per row
+   */
+  public static void respondWith(String[] columnLabels, Object[][] data) {
+    rows = data;
+    columns = columnLabels;
+  }
+
+  @Override
+  public Connection connect(String url, Properties info) throws SQLException {
+    if (!acceptsURL(url)) {
+      return null;
+    }
+    return proxy(Connection.class, new ConnectionHandler(url));
+  }
+
+  @Override
+  public boolean acceptsURL(String url) {
+    return url != null && url.startsWith(URL_PREFIX);
+  }
+
+  @Override
+  public DriverPropertyInfo[] getPropertyInfo(String url, Properties info) {
+    return new DriverPropertyInfo[0];
+  }
+
+  @Override
+  public int getMajorVersion() {
+    return 1;
+  }
+
+  @Override
+  public int getMinorVersion() {
+    return 0;
+  }
+
+  @Override
+  public boolean jdbcCompliant() {
+    return false;
+  }
+
+  // @Override only valid on jdk7+
+  public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+    throw new SQLFeatureNotSupportedException();
+  }
+
+  private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+    return type.cast(Proxy.newProxyInstance(StubDriver.class.getClassLoader(), new Class<?>[] { type }, handler));
+  }
+
+  private static Object defaultValue(Class<?> type) {
+    if (type == boolean.class) {
+      return false;
+    } else if (type == int.class) {
+      return 0;
+    } else if (type == long.class) {
+      return 0L;
+    } else if (type == short.class) {
+      return (short) 0;
+    } else if (type == byte.class) {
+      return (byte) 0;
+    } else if (type == float.class) {
+      return 0f;
+    } else if (type == double.class) {
+      return 0d;
+    }
+    return null;
+  }
+
+  private static class ConnectionHandler implements InvocationHandler {
+
+    private final String url;
+    private boolean autoCommit = true;
+    private boolean closed;
+
+    ConnectionHandler(String url) {
+      this.url = url;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if ("prepareStatement".equals(name) || "createStatement".equals(name) || "prepareCall".equals(name)) {
+        return proxy(PreparedStatement.class, new StatementHandler((Connection) proxy));
+      } else if ("getAutoCommit".equals(name)) {
+        return autoCommit;
+      } else if ("setAutoCommit".equals(name)) {
+        autoCommit = (Boolean) args[0];
+        return null;
+      } else if ("close".equals(name)) {
+        closed = true;
+        return null;
+      } else if ("isClosed".equals(name)) {
+        return closed;
+      } else if ("isValid".equals(name)) {
+        return !closed;
+      } else if ("getMetaData".equals(name)) {
+        return proxy(DatabaseMetaData.class, new DatabaseMetaDataHandler(url, (Connection) proxy));
+      } else if ("hashCode".equals(name)) {
+        return System.identityHashCode(proxy);
+      } else if ("equals".equals(name)) {
+        return proxy == args[0];
+      } else if ("toString".equals(name)) {
+        return "StubConnection@" + Integer.toHexString(System.identityHashCode(proxy));
+      }
+      return defaultValue(method.getReturnType());
+    }
+
+  }
+
+  private static class DatabaseMetaDataHandler implements InvocationHandler {
+
+    private final String url;
+    private final Connection connection;
+
+    DatabaseMetaDataHandler(String url, Connection connection) {
+      this.url = url;
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if ("getURL".equals(name)) {
+        return url;
+      } else if ("getConnection".equals(name)) {
+        return connection;
+      } else if ("getDatabaseProductName".equals(name) || "getDriverName".equals(name)) {
+        return "Stub";
+      } else if (method.getReturnType() == String.class) {
+        return "";
+      }
+      return defaultValue(method.getReturnType());
+    }
+
+  }
+
+  private static class StatementHandler implements InvocationHandler {
+
+    private final Connection connection;
+    private int batchSize;
+    private ResultSet resultSet;
+
+    StatementHandler(Connection connection) {
+      this.connection = connection;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if ("executeQuery".equals(name)) {
+        return newResultSet((Statement) proxy);
+      } else if ("execute".equals(name)) {
+        resultSet = newResultSet((Statement) proxy);
+        return true;
+      } else if ("getResultSet".equals(name)) {
+        ResultSet current = resultSet;
+        resultSet = null;
+        return current;
+      } else if ("getUpdateCount".equals(name)) {
+        return -1;
+      } else if ("executeUpdate".equals(name)) {
+        return 1;
+      } else if ("addBatch".equals(name)) {
+        batchSize++;
+        return null;
+      } else if ("executeBatch".equals(name)) {
+        int[] counts = new int[batchSize];
+        Arrays.fill(counts, 1);
+        batchSize = 0;
+        return counts;
+      } else if ("getConnection".equals(name)) {
+        return connection;
+      } else if ("hashCode".equals(name)) {
+        return System.identityHashCode(proxy);
+      } else if ("equals".equals(name)) {
+        return proxy == args[0];
+      }
+      return defaultValue(method.getReturnType());
+    }
+
+    private ResultSet newResultSet(Statement statement) {
+      return proxy(ResultSet.class, new ResultSetHandler(statement, columns, rows));
+    }
+
+  }
+
+  private static class ResultSetHandler implements InvocationHandler {
+
+    private final Statement statement;
+    private final String[] columns;
+    private final Object[][] rows;
+    private int row = -1;
+    private boolean wasNull;
+
+    ResultSetHandler(Statement statement, String[] columns, Object[][] rows) {
+      this.statement = statement;
+      this.columns = columns;
+      this.rows = rows;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws SQLException {
+      String name = method.getName();
+      if ("next".equals(name)) {
+        return ++row < rows.length;
+      } else if (name.startsWith("get") && args != null && args.length == 1 && !"getMetaData".equals(name)) {
+        Object value = rows[row][index(args[0])];
+        wasNull = value == null;
+        return convert(value, method.getReturnType());
+      } else if ("wasNull".equals(name)) {
+        return wasNull;
+      } else if ("findColumn".equals(name)) {
+        return index(args[0]) + 1;
+      } else if ("getMetaData".equals(name)) {
+        return proxy(ResultSetMetaData.class, new ResultSetMetaDataHandler(columns, rows));
+      } else if ("getType".equals(name)) {
+        return ResultSet.TYPE_FORWARD_ONLY;
+      } else if ("getStatement".equals(name)) {
+        return statement;
+      } else if ("hashCode".equals(name)) {
+        return System.identityHashCode(proxy);
+      } else if ("equals".equals(name)) {
+        return proxy == args[0];
+      }
+      return defaultValue(method.getReturnType());
+    }
+
+    private int index(Object column) throws SQLException {
+      if (column instanceof Integer) {
+        return (Integer) column - 1;
+      }
+      for (int i = 0; i < columns.length; i++) {
+        if (columns[i].equalsIgnoreCase((String) column)) {
+          return i;
+        }
+      }
+      throw new SQLException("Column not found: " + column);
+    }
+
+    private Object convert(Object value, Class<?> type) {
+      if (value == null) {
+        return defaultValue(type);
+      } else if (type == int.class) {
+        return ((Number) value).intValue();
+      } else if (type == long.class) {
+        return ((Number) value).longValue();
+      } else if (type == double.class) {
+        return ((Number) value).doubleValue();
+      } else if (type == String.class) {
+        return value.toString();
+      } else if (type == BigDecimal.class) {
+        return new BigDecimal(value.toString());
+      }
+      return value;
+    }
+
+  }
+
+  private static class ResultSetMetaDataHandler implements InvocationHandler {
+
+    private final String[] columns;
+    private final Object[][] rows;
+
+    ResultSetMetaDataHandler(String[] columns, Object[][] rows) {
+      this.columns = columns;
+      this.rows = rows;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+      String name = method.getName();
+      if ("getColumnCount".equals(name)) {
+        return columns.length;
+      } else if ("getColumnLabel".equals(name) || "getColumnName".equals(name)) {
+        return columns[(Integer) args[0] - 1];
+      } else if ("getColumnType".equals(name)) {
+        return sampleOf((Integer) args[0]) instanceof Number ? Types.INTEGER : Types.VARCHAR;
+      } else if ("getColumnClassName".equals(name)) {
+        Object sample = sampleOf((Integer) args[0]);
+        return sample == null ? String.class.getName() : sample.getClass().getName();
+      }
+      return defaultValue(method.getReturnType());
+    }
+
+    private Object sampleOf(int column) {
+      return rows.length == 0 ? null : rows[0][column - 1];
+    }
+
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -49,6 +49,7 @@ import org.apache.ibatis.session.AutoMappingUnknownColumnBehavior;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.ExecutorType;
 import org.apache.ibatis.session.LocalCacheScope;
+import org.apache.ibatis.session.TransactionalCacheOverflowPolicy;
 import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
 import org.apache.ibatis.type.BaseTypeHandler;
 import org.apache.ibatis.type.EnumOrdinalTypeHandler;
@@ -91,6 +92,18 @@ public class XmlConfigBuilderTest {
     assertThat(config.isMapUnderscoreToCamelCase()).isFalse();
     assertThat(config.isSafeRowBoundsEnabled()).isFalse();
     assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.SESSION);
+    assertThat(config.isSkipUnusedCacheKeys()).isFalse();
+    assertThat(config.isCoalesceQueries()).isFalse();
+    assertThat(config.getCoalesceWaitTimeout()).isEqualTo(1000);
+    assertThat(config.getTransactionalCacheMaxEntries()).isEqualTo(0);
+    assertThat(config.getTransactionalCacheOverflowPolicy()).isEqualTo(TransactionalCacheOverflowPolicy.DISCARD_NEW);
+    assertThat(config.isAsyncCacheCommit()).isFalse();
+    assertThat(config.isCacheMBeansEnabled()).isFalse();
+    assertThat(config.isReadColumnsByIndex()).isFalse();
+    assertThat(config.isUseCompiledRowMappers()).isFalse();
+    assertThat(config.isStreamNestedResults()).isFalse();
+    assertThat(config.isUseCompactMapRows()).isFalse();
+    assertThat(config.isCompactMapRowsIgnoreCase()).isFalse();
     assertThat(config.getJdbcTypeForNull()).isEqualTo(JdbcType.OTHER);
     assertThat(config.getLazyLoadTriggerMethods()).isEqualTo((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString")));
     assertThat(config.isSafeResultHandlerEnabled()).isTrue();
@@ -184,6 +197,18 @@ public class XmlConfigBuilderTest {
       assertThat(config.isMapUnderscoreToCamelCase()).isTrue();
       assertThat(config.isSafeRowBoundsEnabled()).isTrue();
       assertThat(config.getLocalCacheScope()).isEqualTo(LocalCacheScope.STATEMENT);
+      assertThat(config.isSkipUnusedCacheKeys()).isTrue();
+      assertThat(config.isCoalesceQueries()).isTrue();
+      assertThat(config.getCoalesceWaitTimeout()).isEqualTo(200);
+      assertThat(config.getTransactionalCacheMaxEntries()).isEqualTo(500);
+      assertThat(config.getTransactionalCacheOverflowPolicy()).isEqualTo(TransactionalCacheOverflowPolicy.DISCARD_OLDEST);
+      assertThat(config.isAsyncCacheCommit()).isTrue();
+      assertThat(config.isCacheMBeansEnabled()).isTrue();
+      assertThat(config.isReadColumnsByIndex()).isTrue();
+      assertThat(config.isUseCompiledRowMappers()).isTrue();
+      assertThat(config.isStreamNestedResults()).isTrue();
+      assertThat(config.isUseCompactMapRows()).isTrue();
+      assertThat(config.isCompactMapRowsIgnoreCase()).isTrue();
       assertThat(config.getJdbcTypeForNull()).isEqualTo(JdbcType.NULL);
       assertThat(config.getLazyLoadTriggerMethods()).isEqualTo((Set<String>) new HashSet<String>(Arrays.asList("equals", "clone", "hashCode", "toString", "xxx")));
       assertThat(config.isSafeResultHandlerEnabled()).isFalse();
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -102,6 +102,39 @@ public class CacheKeyTest {
     assertTrue(key1.equals(key2));
   }
 
+  @Test
+  public void shouldGrowBeyondInitialCapacity() throws Exception {
+    CacheKey key1 = new CacheKey();
+    CacheKey key2 = new CacheKey();
+    for (int i = 0; i < 100; i++) {
+      key1.update(i);
+      key2.update(i);
+    }
+    assertEquals(100, key1.getUpdateCount());
+    assertEquals(key1, key2);
+    assertEquals(key1, serialize(key1));
+    key2.update(100);
+    assertFalse(key1.equals(key2));
+  }
+
+  @Test
+  public void shouldNotShareUpdatesWithClone() throws Exception {
+    CacheKey key = new CacheKey(new Object[] { "select", 0 });
+    CacheKey clone = key.clone();
+    clone.update(1);
+    assertEquals(2, key.getUpdateCount());
+    assertEquals(new CacheKey(new Object[] { "select", 0 }), key);
+    assertEquals(new CacheKey(new Object[] { "select", 0, 1 }), clone);
+  }
+
+  @Test
+  public void shouldTestCacheKeysNotEqualWhenSwappedValuesHaveEqualHashSums() {
+    CacheKey key1 = new CacheKey(new Object[] { 1, 2 });
+    CacheKey key2 = new CacheKey(new Object[] { 2, 1 });
+    assertFalse(key1.equals(key2));
+    assertFalse(key1.toString().equals(key2.toString()));
+  }
+
   @Test (expected = NotSerializableException.class)
   public void serializationExceptionTest() throws Exception {
     /**
@@ -0,0 +1,98 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import org.apache.ibatis.cache.impl.CompactCacheSerializer;
+import org.apache.ibatis.cache.impl.JdkCacheSerializer;
+import org.apache.ibatis.test.SlowTests;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Compares payload size and round trip throughput of {@link JdkCacheSerializer} and {@link CompactCacheSerializer}
+ * on a typical cached result. Being one of the {@link SlowTests} it is not part of the default build.
+ */
+@Category(SlowTests.class)
+public class CacheSerializerBenchmarkTest {
+
+  private static final int ROWS = 500;
+  private static final long DURATION_MILLIS = 3000;
+
+  @Test
+  public void compareRoundTripThroughput() {
+    List<Order> result = new ArrayList<Order>();
+    for (int i = 0; i < ROWS; i++) {
+      result.add(new Order(i, "customer " + (i % 50), new BigDecimal(i + ".99"), new Date(1500000000000L + i)));
+    }
+    CompactCacheSerializer compact = new CompactCacheSerializer();
+    compact.setAutoRegistration(false);
+    CompactCacheSerializer registered = new CompactCacheSerializer();
+
+    // warm up before measuring
+    run(new JdkCacheSerializer(), result, 1000);
+    run(compact, result, 1000);
+    run(registered, result, 1000);
+
+    long jdk = report("JDK                  ", new JdkCacheSerializer(), result);
+    long fallback = report("COMPACT (no registry)", compact, result);
+    long fieldByField = report("COMPACT              ", registered, result);
+    assertTrue(jdk > 0 && fallback > 0 && fieldByField > 0);
+  }
+
+  private long report(String name, CacheSerializer serializer, Object value) {
+    long operations = run(serializer, value, DURATION_MILLIS);
+    System.out.println(name + ": " + serializer.serialize(value).length + " bytes, "
+        + (operations * 1000 / DURATION_MILLIS) + " round trips/s");
+    return operations;
+  }
+
+  private long run(CacheSerializer serializer, Object value, long durationMillis) {
+    long deadline = System.currentTimeMillis() + durationMillis;
+    long operations = 0;
+    while (System.currentTimeMillis() < deadline) {
+      assertNotNull(serializer.deserialize(serializer.serialize(value)));
+      operations++;
+    }
+    return operations;
+  }
+
+  public static class Order implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private int id;
+    private String customer;
+    private BigDecimal amount;
+    private Date created;
+
+    Order() {
+    }
+
+    Order(int id, String customer, BigDecimal amount, Date created) {
+      this.id = id;
+      this.customer = customer;
+      this.amount = amount;
+      this.created = created;
+    }
+  }
+
+}
@@ -0,0 +1,111 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class CacheStatisticsTest {
+
+  @Test
+  public void shouldCountRequestsAndEvictions() {
+    CacheBuilder builder = new CacheBuilder("statistics").addDecorator(LruCache.class).size(2);
+    Cache cache = builder.build();
+    CacheStatistics statistics = builder.getStatistics();
+    for (int i = 0; i < 3; i++) {
+      cache.putObject(i, "value" + i);
+    }
+    assertNull(cache.getObject(0));
+    assertEquals("value2", cache.getObject(2));
+    cache.removeObject(2);
+    cache.clear();
+
+    assertEquals(3, statistics.getPuts());
+    assertEquals(1, statistics.getHits());
+    assertEquals(1, statistics.getMisses());
+    assertEquals(0.5, statistics.getHitRatio(), 0.001);
+    assertEquals(1, statistics.getEvictions());
+    assertEquals(1, statistics.getRemovals());
+    assertEquals(1, statistics.getClears());
+    assertEquals(0, statistics.getBytes());
+
+    statistics.reset();
+    assertEquals(0, statistics.getPuts());
+    assertEquals(0, statistics.getHitRatio(), 0);
+  }
+
+  @Test
+  public void shouldCountEvictionsOfEveryPolicy() {
+    CacheBuilder fifo = new CacheBuilder("fifo").addDecorator(FifoCache.class).size(1);
+    Cache cache = fifo.build();
+    cache.putObject(0, "a");
+    cache.putObject(1, "b");
+    assertEquals(1, fifo.getStatistics().getEvictions());
+
+    CacheBuilder concurrent = new CacheBuilder("concurrent").addDecorator(ConcurrentLruCache.class).size(1);
+    cache = concurrent.build();
+    cache.putObject(0, "a");
+    cache.putObject(1, "b");
+    cache.putObject(1, "c");
+    assertEquals(1, concurrent.getStatistics().getEvictions());
+
+    CacheBuilder weighted = new CacheBuilder("weighted").implementation(PerpetualCache.class).maxRows(1L);
+    cache = weighted.build();
+    cache.putObject(0, "a");
+    cache.putObject(1, "b");
+    assertEquals(1, weighted.getStatistics().getEvictions());
+  }
+
+  @Test
+  public void shouldCountSerializedBytes() {
+    CacheBuilder builder = new CacheBuilder("bytes").readWrite(true);
+    Cache cache = builder.build();
+    cache.putObject(0, "some value");
+    cache.putObject(1, "some other value");
+    CacheStatistics statistics = builder.getStatistics();
+    assertTrue(statistics.getBytes() > 0);
+    assertEquals(statistics.getBytes() / 2.0, statistics.getAverageEntryBytes(), 0.001);
+  }
+
+  @Test
+  public void shouldRegisterMBean() throws Exception {
+    CacheBuilder builder = new CacheBuilder("org.apache.ibatis.cache.StatisticsMapper").registerMBean(true);
+    Cache cache = builder.build();
+    cache.getObject(0);
+    MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+    ObjectName name = new ObjectName("org.apache.ibatis:type=CacheStatistics,id=" + ObjectName.quote(cache.getId()));
+    try {
+      assertEquals(1L, server.getAttribute(name, "Misses"));
+      // a cache built again with the same id replaces the registration
+      new CacheBuilder(cache.getId()).registerMBean(true).build();
+      assertEquals(0L, server.getAttribute(name, "Misses"));
+    } finally {
+      server.unregisterMBean(name);
+    }
+  }
+
+}
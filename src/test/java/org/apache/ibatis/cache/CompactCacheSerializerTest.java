@@ -0,0 +1,196 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.impl.CompactCacheSerializer;
+import org.apache.ibatis.cache.impl.JdkCacheSerializer;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class CompactCacheSerializerTest {
+
+  @Test
+  public void shouldCopyBuiltInTypes() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    Timestamp timestamp = new Timestamp(1234567890123L);
+    timestamp.setNanos(123456789);
+    List<Object> values = new ArrayList<Object>(Arrays.<Object>asList(null, "text é中", 42, -42L, 1.5d, 2.5f,
+        (short) -3, (byte) 7, true, false, 'x', new BigDecimal("-123.4500"), new BigInteger("123456789012345678901234567890"),
+        new Date(1000L), new java.sql.Date(2000L), new Time(3000L), timestamp, Integer.MIN_VALUE, Long.MAX_VALUE));
+    @SuppressWarnings("unchecked")
+    List<Object> copy = (List<Object>) serializer.deserialize(serializer.serialize(values));
+    assertEquals(values, copy);
+    assertEquals(123456789, ((Timestamp) copy.get(16)).getNanos());
+    assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) serializer.deserialize(serializer.serialize(new byte[] { 1, 2, 3 })));
+    assertArrayEquals(new Object[] { "a", 1 }, (Object[]) serializer.deserialize(serializer.serialize(new Object[] { "a", 1 })));
+  }
+
+  @Test
+  public void shouldKeepCollectionTypes() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    Map<String, Object> row = new LinkedHashMap<String, Object>();
+    row.put("b", 1);
+    row.put("a", new HashSet<String>(Arrays.asList("x", "y")));
+    row.put("c", new LinkedList<Integer>(Arrays.asList(1, 2)));
+    row.put("d", new HashMap<String, String>());
+    row.put("e", new TreeMap<String, String>());
+    @SuppressWarnings("unchecked")
+    Map<String, Object> copy = (Map<String, Object>) serializer.deserialize(serializer.serialize(row));
+    assertEquals(LinkedHashMap.class, copy.getClass());
+    assertEquals(Arrays.asList("b", "a", "c", "d", "e"), new ArrayList<String>(copy.keySet()));
+    assertEquals(row, copy);
+    assertEquals(LinkedList.class, copy.get("c").getClass());
+    assertEquals(TreeMap.class, copy.get("e").getClass());
+  }
+
+  @Test
+  public void shouldWriteRegisteredTypesFieldByField() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    serializer.setRegisteredTypes(Country.class.getName() + ", " + Continent.class.getName());
+    Country country = new Country("ES", "Spain", Continent.EUROPE);
+    country.neighbours.add(new Country("PT", "Portugal", Continent.EUROPE));
+    country.neighbours.get(0).neighbours.add(country);
+
+    byte[] compact = serializer.serialize(country);
+    assertTrue(compact.length < new JdkCacheSerializer().serialize(country).length / 2);
+
+    Country copy = (Country) serializer.deserialize(compact);
+    assertNotSame(country, copy);
+    assertEquals("Spain", copy.name);
+    assertEquals(Continent.EUROPE, copy.continent);
+    assertNull(copy.cachedLabel);
+    assertSame(copy, copy.neighbours.get(0).neighbours.get(0));
+  }
+
+  @Test
+  public void shouldFallBackToJavaSerialization() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    serializer.setAutoRegistration(false);
+    Country country = new Country("FR", "France", Continent.EUROPE);
+    List<Country> list = new ArrayList<Country>(Arrays.asList(country, country));
+    @SuppressWarnings("unchecked")
+    List<Country> copy = (List<Country>) serializer.deserialize(serializer.serialize(list));
+    assertEquals("France", copy.get(0).name);
+    assertSame(copy.get(0), copy.get(1));
+  }
+
+  @Test
+  public void shouldRegisterPlainSerializableTypesAutomatically() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    Country country = new Country("DE", "Germany", Continent.EUROPE);
+    byte[] automatic = serializer.serialize(country);
+    serializer.setAutoRegistration(false);
+    CompactCacheSerializer manual = new CompactCacheSerializer();
+    manual.setAutoRegistration(false);
+    assertTrue(automatic.length < manual.serialize(country).length / 2);
+    assertEquals("Germany", ((Country) serializer.deserialize(automatic)).name);
+
+    CustomCountry custom = new CustomCountry();
+    custom.name = "Austria";
+    assertEquals("Austria!", ((CustomCountry) new CompactCacheSerializer().deserialize(new CompactCacheSerializer().serialize(custom))).name);
+  }
+
+  @Test
+  public void shouldCompressLargePayloads() {
+    CompactCacheSerializer serializer = new CompactCacheSerializer();
+    List<String> rows = new ArrayList<String>();
+    for (int i = 0; i < 1000; i++) {
+      rows.add("the same long value repeated over and over");
+    }
+    int plainLength = serializer.serialize(rows).length;
+    serializer.setCompressionThreshold(1024);
+    byte[] compressed = serializer.serialize(rows);
+    assertTrue(compressed.length < plainLength / 10);
+    assertEquals(rows, serializer.deserialize(compressed));
+    assertEquals("small", serializer.deserialize(serializer.serialize("small")));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectRegisteredTypeWithoutNoArgConstructor() {
+    new CompactCacheSerializer().registerType(Integer.class);
+  }
+
+  @Test
+  public void shouldBeUsedByReadWriteCache() {
+    Properties props = new Properties();
+    props.setProperty("registeredTypes", Country.class.getName());
+    props.setProperty("compressionThreshold", "4096");
+    Cache cache = new CacheBuilder("test").readWrite(true).serializer(CompactCacheSerializer.class).properties(props).build();
+    Country country = new Country("IT", "Italy", Continent.EUROPE);
+    cache.putObject(1, country);
+    Country copy = (Country) cache.getObject(1);
+    assertNotSame(country, copy);
+    assertEquals("Italy", copy.name);
+
+    SerializedCache serializedCache = new SerializedCache(new PerpetualCache("default"));
+    assertEquals(JdkCacheSerializer.class, serializedCache.getSerializer().getClass());
+  }
+
+  public static class CustomCountry implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String name;
+
+    private Object readResolve() {
+      name = name + "!";
+      return this;
+    }
+  }
+
+  public enum Continent {
+    EUROPE, ASIA
+  }
+
+  public static class Country implements Serializable {
+    private static final long serialVersionUID = 1L;
+    private String code;
+    private String name;
+    private Continent continent;
+    private List<Country> neighbours = new ArrayList<Country>();
+    private transient String cachedLabel;
+
+    Country() {
+    }
+
+    Country(String code, String name, Continent continent) {
+      this.code = code;
+      this.name = name;
+      this.continent = continent;
+      this.cachedLabel = code + " " + name;
+    }
+  }
+
+}
@@ -0,0 +1,138 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
+import org.apache.ibatis.cache.decorators.FifoCache;
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.decorators.SynchronizedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class ConcurrentLruCacheTest {
+
+  @Test
+  public void shouldRemoveLeastRecentlyUsedItemInBeyondFiveEntries() {
+    ConcurrentLruCache cache = new ConcurrentLruCache(new PerpetualCache("default"));
+    cache.setSegments(1);
+    cache.setSize(5);
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertEquals(0, cache.getObject(0));
+    cache.putObject(5, 5);
+    assertNull(cache.getObject(1));
+    assertEquals(5, cache.getSize());
+  }
+
+  @Test
+  public void shouldNeverHoldMoreThanSize() {
+    ConcurrentLruCache cache = new ConcurrentLruCache(new PerpetualCache("default"));
+    cache.setSize(100);
+    for (int i = 0; i < 10000; i++) {
+      cache.putObject(i, i);
+    }
+    assertTrue(cache.getSize() <= 100);
+    assertTrue(cache.getSize() > 50);
+  }
+
+  @Test
+  public void shouldRemoveItemOnDemand() {
+    Cache cache = new ConcurrentLruCache(new PerpetualCache("default"));
+    cache.putObject(0, 0);
+    assertNotNull(cache.getObject(0));
+    cache.removeObject(0);
+    assertNull(cache.getObject(0));
+  }
+
+  @Test
+  public void shouldFlushAllItemsOnDemand() {
+    Cache cache = new ConcurrentLruCache(new PerpetualCache("default"));
+    for (int i = 0; i < 5; i++) {
+      cache.putObject(i, i);
+    }
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(4));
+    cache.clear();
+    assertNull(cache.getObject(0));
+    assertNull(cache.getObject(4));
+  }
+
+  @Test
+  public void shouldStayConsistentUnderConcurrentAccess() throws Exception {
+    final Cache cache = new ConcurrentLruCache(new PerpetualCache("default"));
+    final AtomicInteger wrongValues = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(8);
+    for (int t = 0; t < 8; t++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 20000; i++) {
+            int key = i % 2000;
+            Object value = cache.getObject(key);
+            if (value != null && !value.equals(key)) {
+              wrongValues.incrementAndGet();
+            }
+            cache.putObject(key, key);
+          }
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    assertEquals(0, wrongValues.get());
+    assertTrue(cache.getSize() <= 1024);
+  }
+
+  @Test
+  public void shouldNotBeWrappedInSynchronizedCache() {
+    Cache cache = new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).build();
+    assertTrue(cache instanceof LoggingCache);
+    cache = new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).blocking(true).build();
+    assertTrue(cache instanceof BlockingCache);
+    cache = new CacheBuilder("test").build();
+    assertTrue(cache instanceof SynchronizedCache);
+  }
+
+  @Test
+  public void shouldOnlyDecorateTheBaseCache() {
+    try {
+      new CacheBuilder("test").addDecorator(FifoCache.class).addDecorator(ConcurrentLruCache.class).build();
+      fail();
+    } catch (CacheException e) {
+      assertTrue(e.getMessage().contains("Make it the first decorator"));
+    }
+    // fine as the first decorator
+    Cache cache = new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).addDecorator(FifoCache.class).build();
+    cache.putObject(1, "a");
+    assertEquals("a", cache.getObject(1));
+  }
+
+  @Test
+  public void shouldResolveConcurrentLruAlias() {
+    Configuration configuration = new Configuration();
+    assertEquals(ConcurrentLruCache.class, configuration.getTypeAliasRegistry().resolveAlias("CONCURRENT_LRU"));
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.InvalidationBusCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.LoopbackInvalidationTransport;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class InvalidationBusCacheTest {
+
+  @Test
+  public void shouldClearOtherNodesOnCommit() {
+    Cache node1 = newNode("clear", false);
+    Cache node2 = newNode("clear", false);
+    node1.getObject(key(1));
+    node1.putObject(key(1), "a");
+    node2.putObject(key(1), "a");
+
+    TransactionalCache tx = new TransactionalCache(node1);
+    tx.clear();
+    assertEquals("a", node2.getObject(key(1)));
+    tx.commit();
+    assertNull(node1.getObject(key(1)));
+    assertNull(node2.getObject(key(1)));
+  }
+
+  @Test
+  public void shouldInvalidateTagsOnOtherNodes() {
+    CacheBuilder builder1 = newBuilder("tags", true);
+    builder1.build();
+    CacheBuilder builder2 = newBuilder("tags", true);
+    Cache node2 = builder2.build();
+    put(node2, builder2.getTaggedCache(), 1, "a1", "author:1");
+    put(node2, builder2.getTaggedCache(), 2, "a2", "author:2");
+
+    builder1.getTaggedCache().invalidate(Arrays.asList("author:1"));
+    assertNull(node2.getObject(key(1)));
+    assertEquals("a2", node2.getObject(key(2)));
+  }
+
+  @Test
+  public void shouldIgnoreInvalidationsOfOtherCaches() {
+    Cache authors = newNode("ids", false);
+    Cache posts = newBuilder("ids", false).build();
+    Cache otherPosts = new CacheBuilder("posts").invalidationTransport(LoopbackInvalidationTransport.class)
+        .properties(properties("ids", 0)).build();
+    authors.putObject(key(1), "a");
+    otherPosts.putObject(key(1), "p");
+    posts.clear();
+    assertNull(authors.getObject(key(1)));
+    assertEquals("p", otherPosts.getObject(key(1)));
+  }
+
+  @Test
+  public void shouldBatchInvalidations() throws Exception {
+    RecordingTransport transport = new RecordingTransport();
+    InvalidationBusCache bus = new InvalidationBusCache(new PerpetualCache("batch"));
+    bus.setBatchInterval(50);
+    bus.setInvalidationTransport(transport);
+    bus.publishTags(Arrays.asList("author:1"));
+    bus.publishTags(Arrays.asList("author:2", "author:1"));
+    assertTrue(transport.published.await(1, TimeUnit.SECONDS));
+    assertEquals(1, transport.batches.size());
+    assertEquals(CacheInvalidation.tags("batch", Arrays.asList("author:1", "author:2")), transport.batches.get(0).get(0));
+
+    transport.reset();
+    bus.publishTags(Arrays.asList("author:3"));
+    bus.clear();
+    assertTrue(transport.published.await(1, TimeUnit.SECONDS));
+    assertEquals(Collections.singletonList(CacheInvalidation.clear("batch")), transport.batches.get(0));
+
+    transport.reset();
+    bus.setMaxBatchTags(2);
+    bus.publishTags(Arrays.asList("a", "b", "c"));
+    assertTrue(transport.published.await(1, TimeUnit.SECONDS));
+    assertTrue(transport.batches.get(0).get(0).isClear());
+  }
+
+  private static Cache newNode(String channel, boolean tagged) {
+    return newBuilder(channel, tagged).build();
+  }
+
+  private static CacheBuilder newBuilder(String channel, boolean tagged) {
+    return new CacheBuilder("authors").tagged(tagged).invalidationTransport(LoopbackInvalidationTransport.class)
+        .properties(properties(channel, 0));
+  }
+
+  private static Properties properties(String channel, long batchInterval) {
+    Properties props = new Properties();
+    props.setProperty("channel", channel);
+    props.setProperty("batchInterval", String.valueOf(batchInterval));
+    return props;
+  }
+
+  private static void put(Cache cache, TaggedCache tagged, int id, Object value, String... tags) {
+    tagged.tag(key(id), new HashSet<String>(Arrays.asList(tags)));
+    cache.putObject(key(id), value);
+  }
+
+  private static CacheKey key(int id) {
+    return new CacheKey(new Object[] { id });
+  }
+
+  private static class RecordingTransport implements InvalidationTransport {
+    private final List<List<CacheInvalidation>> batches = Collections.synchronizedList(new ArrayList<List<CacheInvalidation>>());
+    private volatile CountDownLatch published = new CountDownLatch(1);
+
+    @Override
+    public void start(Receiver receiver) {
+    }
+
+    @Override
+    public void publish(List<CacheInvalidation> invalidations) {
+      batches.add(invalidations);
+      published.countDown();
+    }
+
+    @Override
+    public void close() {
+    }
+
+    void reset() {
+      batches.clear();
+      published = new CountDownLatch(1);
+    }
+  }
+
+}
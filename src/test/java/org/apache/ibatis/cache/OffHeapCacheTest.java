@@ -0,0 +1,155 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ibatis.cache.decorators.LoggingCache;
+import org.apache.ibatis.cache.impl.OffHeapCache;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class OffHeapCacheTest {
+
+  @Test
+  public void shouldReturnCopiesOfStoredValues() {
+    OffHeapCache cache = new OffHeapCache("default");
+    List<String> value = rows(10);
+    cache.putObject(1, value);
+    Object copy = cache.getObject(1);
+    assertEquals(value, copy);
+    assertNotSame(value, copy);
+    assertNotSame(copy, cache.getObject(1));
+    assertEquals(1, cache.getSize());
+    assertTrue(cache.getBytes() > 0);
+  }
+
+  @Test
+  public void shouldReplaceAndRemoveEntries() {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.putObject(1, rows(10));
+    cache.putObject(1, rows(2));
+    assertEquals(rows(2), cache.getObject(1));
+    cache.removeObject(1);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getBytes());
+    cache.putObject(2, rows(2));
+    cache.clear();
+    assertNull(cache.getObject(2));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldReuseOldestSlabWhenFull() throws Exception {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(4096);
+    cache.setSlabSize(1024);
+    cache.initialize();
+    for (int i = 0; i < 100; i++) {
+      cache.putObject(i, rows(10));
+    }
+    assertNull(cache.getObject(0));
+    assertEquals(rows(10), cache.getObject(99));
+    assertTrue(cache.getBytes() <= 4096);
+    assertTrue(cache.getSize() < 100);
+  }
+
+  @Test
+  public void shouldNotCacheValuesLargerThanASlab() throws Exception {
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(2048);
+    cache.setSlabSize(1024);
+    cache.putObject(1, rows(1000));
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectNonSerializableValues() {
+    new OffHeapCache("default").putObject(1, new Object());
+  }
+
+  @Test
+  public void shouldStoreValuesInMappedFile() throws Exception {
+    File file = File.createTempFile("mybatis-offheap", ".cache");
+    file.deleteOnExit();
+    OffHeapCache cache = new OffHeapCache("default");
+    cache.setFile(file.getAbsolutePath());
+    cache.setCapacity(8192);
+    cache.setSlabSize(4096);
+    cache.initialize();
+    cache.putObject(1, rows(10));
+    assertEquals(rows(10), cache.getObject(1));
+    assertEquals(8192, file.length());
+  }
+
+  @Test
+  public void shouldStayConsistentUnderConcurrentAccess() throws Exception {
+    final OffHeapCache cache = new OffHeapCache("default");
+    cache.setCapacity(64 * 1024);
+    cache.setSlabSize(8 * 1024);
+    final AtomicInteger wrongValues = new AtomicInteger();
+    final CountDownLatch done = new CountDownLatch(4);
+    for (int t = 0; t < 4; t++) {
+      new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int i = 0; i < 2000; i++) {
+            Integer key = i % 300;
+            Object value = cache.getObject(key);
+            if (value != null && !value.equals(key)) {
+              wrongValues.incrementAndGet();
+            }
+            cache.putObject(key, key);
+          }
+          done.countDown();
+        }
+      }).start();
+    }
+    done.await();
+    assertEquals(0, wrongValues.get());
+  }
+
+  @Test
+  public void shouldBeConfiguredThroughAlias() {
+    Configuration configuration = new Configuration();
+    Class<? extends Cache> type = configuration.getTypeAliasRegistry().resolveAlias("OFF_HEAP");
+    Properties props = new Properties();
+    props.setProperty("capacity", "16384");
+    props.setProperty("slabSize", "4096");
+    Cache cache = new CacheBuilder("test").implementation(type).properties(props).build();
+    assertTrue(cache instanceof LoggingCache);
+    cache.putObject(1, "value");
+    assertEquals("value", cache.getObject(1));
+  }
+
+  private static List<String> rows(int count) {
+    List<String> rows = new ArrayList<String>();
+    for (int i = 0; i < count; i++) {
+      rows.add("row " + i);
+    }
+    return rows;
+  }
+
+}
@@ -0,0 +1,253 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.RefreshAheadCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.Test;
+
+public class RefreshAheadCacheTest extends BaseDataTest {
+
+  @Test
+  public void shouldExpireEntriesAfterTimeToLive() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(50);
+    cache.putObject(0, "a");
+    assertEquals("a", cache.getObject(0));
+    Thread.sleep(100);
+    assertNull(cache.getObject(0));
+    assertEquals(0, cache.getSize());
+  }
+
+  @Test
+  public void shouldServeStaleValueUntilRefreshCompletes() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(50);
+    cache.setRefreshAhead(40);
+    cache.putObject(0, "stale");
+    assertFalse(cache.refreshIfDue(0, loader(null, "unused")));
+    Thread.sleep(20);
+    final CountDownLatch release = new CountDownLatch(1);
+    assertTrue(cache.refreshIfDue(0, loader(release, "fresh")));
+    // one reload at a time
+    assertFalse(cache.refreshIfDue(0, loader(null, "unused")));
+    Thread.sleep(100);
+    assertEquals("stale", cache.getObject(0));
+    release.countDown();
+    assertEquals("fresh", awaitValue(cache, 0, "fresh"));
+  }
+
+  @Test
+  public void shouldDiscardRefreshOfEntryChangedMeanwhile() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(1000);
+    cache.setRefreshAhead(1000);
+    cache.putObject(0, "old");
+    CountDownLatch release = new CountDownLatch(1);
+    assertTrue(cache.refreshIfDue(0, loader(release, "reloaded")));
+    cache.putObject(0, "new");
+    release.countDown();
+    Thread.sleep(100);
+    assertEquals("new", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldRetryAfterFailedRefresh() throws Exception {
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("default"));
+    cache.setTimeToLive(1000);
+    cache.setRefreshAhead(1000);
+    cache.putObject(0, "value");
+    final CountDownLatch failed = new CountDownLatch(1);
+    assertTrue(cache.refreshIfDue(0, new RefreshAheadCache.Loader() {
+      @Override
+      public Object load() throws Exception {
+        failed.countDown();
+        throw new IllegalStateException("database down");
+      }
+    }));
+    assertTrue(failed.await(1, TimeUnit.SECONDS));
+    long deadline = System.currentTimeMillis() + 1000;
+    while (!cache.refreshIfDue(0, loader(null, "value")) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("value", awaitValue(cache, 0, "value"));
+  }
+
+  @Test
+  public void shouldMissExpiredEntryBehindBlockingCache() throws Exception {
+    Cache cache = new CacheBuilder("test").blocking(true).timeToLive(50L).refreshAhead(10L).build();
+    assertTrue(cache instanceof RefreshAheadCache);
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "a");
+    assertEquals("a", cache.getObject(0));
+    Thread.sleep(100);
+    assertNull(cache.getObject(0));
+    cache.putObject(0, "b");
+    assertEquals("b", cache.getObject(0));
+  }
+
+  @Test
+  public void shouldReloadCachedQueryInBackground() throws Exception {
+    DataSource ds = createBlogDataSource();
+    Configuration config = new Configuration();
+    config.setEnvironment(new Environment("test", new JdbcTransactionFactory(), ds));
+    RefreshAheadCache cache = new RefreshAheadCache(new BlockingCache(new PerpetualCache("author_refresh")));
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(60000);
+    MappedStatement ms = prepareSelectAuthorsStatement(config, cache);
+
+    List<Author> authors = query(config, ds, ms);
+    assertEquals("jim", authors.get(0).getUsername());
+
+    Connection conn = ds.getConnection();
+    try {
+      conn.setAutoCommit(true);
+      conn.createStatement().executeUpdate("UPDATE author SET username = 'jimmy' WHERE id = 101");
+    } finally {
+      conn.close();
+    }
+
+    // the cached result is returned while it is reloaded
+    authors = query(config, ds, ms);
+    assertEquals("jim", authors.get(0).getUsername());
+    long deadline = System.currentTimeMillis() + 5000;
+    while (!"jimmy".equals(authors.get(0).getUsername()) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      authors = query(config, ds, ms);
+    }
+    assertEquals("jimmy", authors.get(0).getUsername());
+  }
+
+  @Test
+  public void shouldReloadThroughPlugins() throws Exception {
+    DataSource ds = createBlogDataSource();
+    Configuration config = new Configuration();
+    config.setEnvironment(new Environment("test", new JdbcTransactionFactory(), ds));
+    QueryCounter counter = new QueryCounter();
+    config.addInterceptor(counter);
+    RefreshAheadCache cache = new RefreshAheadCache(new PerpetualCache("author_refresh_plugins"));
+    cache.setTimeToLive(60000);
+    cache.setRefreshAhead(60000);
+    MappedStatement ms = prepareSelectAuthorsStatement(config, cache);
+
+    query(config, ds, ms);
+    assertEquals(0, counter.count.get());
+    query(config, ds, ms);
+    long deadline = System.currentTimeMillis() + 5000;
+    while (counter.count.get() == 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(1, counter.count.get());
+  }
+
+  @Intercepts({ @Signature(type = Executor.class, method = "query", args = { MappedStatement.class, Object.class,
+      RowBounds.class, ResultHandler.class, CacheKey.class, BoundSql.class }) })
+  public static class QueryCounter implements Interceptor {
+
+    private final AtomicInteger count = new AtomicInteger();
+
+    @Override
+    public Object intercept(Invocation invocation) throws Throwable {
+      count.incrementAndGet();
+      return invocation.proceed();
+    }
+
+    @Override
+    public Object plugin(Object target) {
+      return Plugin.wrap(target, this);
+    }
+
+    @Override
+    public void setProperties(Properties properties) {
+    }
+
+  }
+
+  private static List<Author> query(Configuration config, DataSource ds, MappedStatement ms) throws Exception {
+    Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)));
+    try {
+      return executor.query(ms, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+    } finally {
+      executor.close(false);
+    }
+  }
+
+  private static MappedStatement prepareSelectAuthorsStatement(Configuration config, Cache cache) {
+    List<ResultMap> resultMaps = new ArrayList<ResultMap>();
+    resultMaps.add(new ResultMap.Builder(config, "defaultResultMap", Author.class, new ArrayList<ResultMapping>()).build());
+    return new MappedStatement.Builder(config, "selectAuthors", new StaticSqlSource(config, "SELECT * FROM author ORDER BY id"), SqlCommandType.SELECT)
+        .resultMaps(resultMaps).cache(cache).useCache(true).build();
+  }
+
+  private static RefreshAheadCache.Loader loader(final CountDownLatch release, final Object value) {
+    return new RefreshAheadCache.Loader() {
+      @Override
+      public Object load() throws Exception {
+        if (release != null) {
+          release.await();
+        }
+        return value;
+      }
+    };
+  }
+
+  private static Object awaitValue(Cache cache, Object key, Object expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 1000;
+    Object value = cache.getObject(key);
+    while (!expected.equals(value) && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+      value = cache.getObject(key);
+    }
+    return value;
+  }
+
+}
@@ -0,0 +1,250 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.TaggedCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.executor.CachingExecutor;
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.SimpleExecutor;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.ParameterMapping;
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.Test;
+
+public class TaggedCacheTest extends BaseDataTest {
+
+  @Test
+  public void shouldParseTablesAndRows() {
+    List<CacheTag> tags = CacheTag.parse(" author(id), post ,blog( author.id )");
+    assertEquals(3, tags.size());
+    assertEquals("author", tags.get(0).getTable());
+    assertEquals("id", tags.get(0).getProperty());
+    assertNull(tags.get(1).getProperty());
+    assertEquals("author.id", tags.get(2).getProperty());
+    assertTrue(CacheTag.parse(null).isEmpty());
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectMalformedTag() {
+    CacheTag.parse("author(id");
+  }
+
+  @Test
+  public void shouldResolveRowsFromParameter() {
+    Configuration configuration = new Configuration();
+    Set<String> tags = new HashSet<String>();
+    new CacheTag("author", "id").resolve(configuration, 101, tags);
+    assertEquals(Collections.singleton("author:101"), tags);
+
+    tags.clear();
+    Author author = new Author(102);
+    new CacheTag("author", "id").resolve(configuration, author, tags);
+    new CacheTag("post", null).resolve(configuration, author, tags);
+    assertEquals(new HashSet<String>(Arrays.asList("author:102", "post")), tags);
+
+    tags.clear();
+    Map<String, Object> param = new HashMap<String, Object>();
+    param.put("ids", Arrays.asList(1, 2));
+    new CacheTag("author", "ids").resolve(configuration, param, tags);
+    new CacheTag("blog", "missing").resolve(configuration, param, tags);
+    assertEquals(new HashSet<String>(Arrays.asList("author:1", "author:2", "blog")), tags);
+  }
+
+  @Test
+  public void shouldMatchRowsAndTables() {
+    Set<String> row = Collections.singleton("author:1");
+    Set<String> table = Collections.singleton("author");
+    assertTrue(CacheTag.matches(row, Arrays.asList("author:1")));
+    assertFalse(CacheTag.matches(row, Arrays.asList("author:2")));
+    assertTrue(CacheTag.matches(row, Arrays.asList("author")));
+    assertTrue(CacheTag.matches(table, Arrays.asList("author:2")));
+    assertFalse(CacheTag.matches(table, Arrays.asList("post:2")));
+    assertTrue(CacheTag.matches(null, Arrays.asList("post:2")));
+  }
+
+  @Test
+  public void shouldInvalidateOnlyMatchingEntries() {
+    TaggedCache cache = new TaggedCache(new PerpetualCache("default"));
+    put(cache, cache, 1, "a1", "author:1");
+    put(cache, cache, 2, "a2", "author:2");
+    put(cache, cache, 3, "all authors", "author");
+    put(cache, cache, 4, "p1", "post:1");
+    cache.putObject(key(5), "untagged");
+
+    cache.invalidate(Arrays.asList("author:1"));
+    assertNull(cache.getObject(key(1)));
+    assertEquals("a2", cache.getObject(key(2)));
+    assertNull(cache.getObject(key(3)));
+    assertEquals("p1", cache.getObject(key(4)));
+    assertNull(cache.getObject(key(5)));
+
+    cache.invalidate(Arrays.asList("author"));
+    assertNull(cache.getObject(key(2)));
+    assertEquals("p1", cache.getObject(key(4)));
+    assertEquals(1, cache.getSize());
+  }
+
+  @Test
+  public void shouldForgetEvictedEntries() {
+    TaggedCache tagged = new TaggedCache(new PerpetualCache("default"));
+    LruCache cache = new LruCache(tagged);
+    cache.setSize(1);
+    put(cache, tagged, 1, "a1", "author:1");
+    put(cache, tagged, 2, "a2", "author:2");
+    assertFalse(tagged.isInvalidatedBy(key(1), Arrays.asList("author")));
+    assertTrue(tagged.isInvalidatedBy(key(2), Arrays.asList("author")));
+  }
+
+  @Test
+  public void shouldHideAndDropInvalidatedEntriesUntilCommit() {
+    TaggedCache tagged = new TaggedCache(new PerpetualCache("default"));
+    put(tagged, tagged, 1, "a1", "author:1");
+    put(tagged, tagged, 2, "a2", "author:2");
+    TransactionalCache tx = new TransactionalCache(tagged);
+    tx.putObject(key(3), "pending", tagged, tags("author:1"));
+    tx.putObject(key(4), "p1", tagged, tags("post:1"));
+    tx.invalidate(tagged, Arrays.asList("author:1"));
+    assertNull(tx.getObject(key(1)));
+    assertEquals("a2", tx.getObject(key(2)));
+    assertEquals("a1", tagged.getObject(key(1)));
+    tx.commit();
+    assertNull(tagged.getObject(key(1)));
+    assertEquals("a2", tagged.getObject(key(2)));
+    assertNull(tagged.getObject(key(3)));
+    assertEquals("p1", tagged.getObject(key(4)));
+    // the committed entry keeps the tags it was put with
+    assertTrue(tagged.isInvalidatedBy(key(4), Arrays.asList("post")));
+    assertFalse(tagged.isInvalidatedBy(key(4), Arrays.asList("author")));
+  }
+
+  @Test
+  public void shouldBuildTaggedCache() {
+    CacheBuilder builder = new CacheBuilder("test").tagged(true).blocking(true);
+    Cache cache = builder.build();
+    TaggedCache tagged = builder.getTaggedCache();
+    assertNotNull(tagged);
+    assertNull(cache.getObject(key(1)));
+    put(cache, tagged, 1, "a1", "author:1");
+    tagged.invalidate(Arrays.asList("author:1"));
+    assertNull(cache.getObject(key(1)));
+    CacheBuilder untagged = new CacheBuilder("test");
+    untagged.build();
+    assertNull(untagged.getTaggedCache());
+  }
+
+  @Test
+  public void shouldRejectConcurrentLruEviction() {
+    try {
+      new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).tagged(true).build();
+      fail();
+    } catch (CacheException e) {
+      assertTrue(e.getMessage().contains("cannot be tagged"));
+    }
+    // still fine without tags
+    Cache cache = new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).build();
+    cache.putObject(key(1), "a1");
+    assertEquals("a1", cache.getObject(key(1)));
+  }
+
+  @Test
+  public void shouldInvalidateOnlyTouchedRowsOnCommit() throws Exception {
+    DataSource ds = createBlogDataSource();
+    Configuration config = new Configuration();
+    CacheBuilder builder = new CacheBuilder("authors").tagged(true);
+    Cache cache = builder.build();
+    config.addCache(cache);
+    config.addTaggedCache(builder.getTaggedCache());
+    MappedStatement select = prepareSelectAuthorStatement(config, cache);
+    MappedStatement update = prepareUpdateAuthorStatement(config, cache);
+
+    Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)));
+    try {
+      executor.query(select, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      executor.query(select, 102, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      executor.commit(true);
+      assertEquals(2, cache.getSize());
+
+      Author author = new Author(101);
+      author.setUsername("jimmy");
+      executor.update(update, author);
+      assertEquals(2, cache.getSize());
+      executor.commit(true);
+      assertEquals(1, cache.getSize());
+
+      List<Author> authors = executor.query(select, 101, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals("jimmy", authors.get(0).getUsername());
+    } finally {
+      executor.close(true);
+    }
+  }
+
+  private static MappedStatement prepareSelectAuthorStatement(Configuration config, Cache cache) {
+    List<ResultMap> resultMaps = new ArrayList<ResultMap>();
+    resultMaps.add(new ResultMap.Builder(config, "defaultResultMap", Author.class, new ArrayList<ResultMapping>()).build());
+    List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", config.getTypeHandlerRegistry().getTypeHandler(int.class)).build());
+    return new MappedStatement.Builder(config, "selectAuthor", new StaticSqlSource(config, "SELECT * FROM author WHERE id = ?", parameterMappings), SqlCommandType.SELECT)
+        .resultMaps(resultMaps).cache(cache).useCache(true).cacheTags(CacheTag.parse("author(id)")).build();
+  }
+
+  private static MappedStatement prepareUpdateAuthorStatement(Configuration config, Cache cache) {
+    List<ParameterMapping> parameterMappings = new ArrayList<ParameterMapping>();
+    parameterMappings.add(new ParameterMapping.Builder(config, "username", config.getTypeHandlerRegistry().getTypeHandler(String.class)).build());
+    parameterMappings.add(new ParameterMapping.Builder(config, "id", config.getTypeHandlerRegistry().getTypeHandler(int.class)).build());
+    return new MappedStatement.Builder(config, "updateAuthor", new StaticSqlSource(config, "UPDATE author SET username = ? WHERE id = ?", parameterMappings), SqlCommandType.UPDATE)
+        .cache(cache).flushCacheRequired(true).cacheTags(CacheTag.parse("author(id)")).build();
+  }
+
+  private static void put(Cache cache, TaggedCache tagged, int id, Object value, String... tags) {
+    tagged.tag(key(id), tags(tags));
+    cache.putObject(key(id), value);
+  }
+
+  private static Set<String> tags(String... tags) {
+    return new HashSet<String>(Arrays.asList(tags));
+  }
+
+  private static CacheKey key(int id) {
+    return new CacheKey(new Object[] { id });
+  }
+
+}
@@ -0,0 +1,176 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.ibatis.cache.decorators.BlockingCache;
+import org.apache.ibatis.cache.decorators.TransactionalCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.session.TransactionalCacheOverflowPolicy;
+import org.junit.Test;
+
+public class TransactionalCacheTest {
+
+  @Test
+  public void shouldNotCacheNewEntriesOverTheLimit() {
+    Cache cache = new PerpetualCache("default");
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.setMaxEntries(2);
+    for (int i = 0; i < 5; i++) {
+      txCache.putObject(i, i);
+    }
+    txCache.commit();
+    assertEquals(2, cache.getSize());
+    assertEquals(0, cache.getObject(0));
+    assertEquals(1, cache.getObject(1));
+    assertNull(cache.getObject(2));
+  }
+
+  @Test
+  public void shouldDropOldestEntriesOverTheLimit() {
+    Cache cache = new PerpetualCache("default");
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.setMaxEntries(2);
+    txCache.setOverflowPolicy(TransactionalCacheOverflowPolicy.DISCARD_OLDEST);
+    for (int i = 0; i < 5; i++) {
+      txCache.putObject(i, i);
+    }
+    txCache.putObject(4, "replaced");
+    txCache.commit();
+    assertEquals(2, cache.getSize());
+    assertNull(cache.getObject(2));
+    assertEquals(3, cache.getObject(3));
+    assertEquals("replaced", cache.getObject(4));
+  }
+
+  @Test
+  public void shouldReleaseLocksOfDiscardedEntries() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.setMaxEntries(1);
+    assertNull(txCache.getObject("a"));
+    txCache.putObject("a", "a");
+    assertNull(txCache.getObject("b"));
+    txCache.putObject("b", "b");
+    final Object[] read = new Object[1];
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        read[0] = cache.getObject("b");
+        cache.putObject("b", "other");
+      }
+    };
+    reader.start();
+    reader.join(5000);
+    assertFalse("a discarded entry must not keep its key locked", reader.isAlive());
+    assertNull(read[0]);
+    txCache.commit();
+    assertEquals("a", cache.getObject("a"));
+  }
+
+  @Test
+  public void shouldPutEntriesAfterAsynchronousCommit() throws Exception {
+    final BlockingCache cache = new BlockingCache(new PerpetualCache("default"));
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.setAsyncCommit(true);
+    assertNull(txCache.getObject("a"));
+    txCache.putObject("a", "a");
+    assertNull(txCache.getObject("b"));
+    txCache.commit();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.getSize() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("a", cache.getObject("a"));
+
+    // the lock of the missed key was released by the committing thread
+    final Object[] read = new Object[] { "not read" };
+    Thread reader = new Thread() {
+      @Override
+      public void run() {
+        read[0] = cache.getObject("b");
+        cache.putObject("b", "b");
+      }
+    };
+    reader.start();
+    reader.join(5000);
+    assertFalse(reader.isAlive());
+    assertNull(read[0]);
+  }
+
+  @Test
+  public void shouldNotPublishEntriesOverALaterClear() throws Exception {
+    final CountDownLatch release = new CountDownLatch(1);
+    final Cache cache = new PerpetualCache("default") {
+      @Override
+      public void putObject(Object key, Object value) {
+        if ("slow".equals(key)) {
+          try {
+            release.await(5, TimeUnit.SECONDS);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+        }
+        super.putObject(key, value);
+      }
+    };
+    // keeps the publisher busy
+    TransactionalCache slow = new TransactionalCache(cache);
+    slow.setAsyncCommit(true);
+    slow.putObject("slow", "slow");
+    slow.commit();
+
+    TransactionalCache reader = new TransactionalCache(cache);
+    reader.setAsyncCommit(true);
+    reader.putObject("a", "stale");
+    reader.commit();
+
+    TransactionalCache writer = new TransactionalCache(cache);
+    writer.setAsyncCommit(true);
+    writer.clear();
+    writer.commit();
+    release.countDown();
+
+    // published after the entries above
+    TransactionalCache marker = new TransactionalCache(cache);
+    marker.setAsyncCommit(true);
+    marker.putObject("marker", "marker");
+    marker.commit();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (cache.getObject("marker") == null && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals("marker", cache.getObject("marker"));
+    assertNull(cache.getObject("a"));
+  }
+
+  @Test
+  public void shouldClearBeforeAsynchronousCommitReturns() {
+    Cache cache = new PerpetualCache("default");
+    cache.putObject("stale", "stale");
+    TransactionalCache txCache = new TransactionalCache(cache);
+    txCache.setAsyncCommit(true);
+    txCache.clear();
+    txCache.commit();
+    assertNull(cache.getObject("stale"));
+  }
+
+}
@@ -0,0 +1,151 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.cache.decorators.ConcurrentLruCache;
+import org.apache.ibatis.cache.decorators.LruCache;
+import org.apache.ibatis.cache.decorators.ScheduledCache;
+import org.apache.ibatis.cache.decorators.SerializedCache;
+import org.apache.ibatis.cache.decorators.WeightedCache;
+import org.apache.ibatis.cache.impl.PerpetualCache;
+import org.apache.ibatis.cache.impl.RowCountWeigher;
+import org.apache.ibatis.cache.impl.SerializedSizeWeigher;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Test;
+
+public class WeightedCacheTest {
+
+  @Test
+  public void shouldRemoveLeastRecentlyUsedResultsBeyondMaxRows() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaxWeight(10);
+    cache.putObject(0, rows(4));
+    cache.putObject(1, rows(4));
+    assertNotNull(cache.getObject(0));
+    cache.putObject(2, rows(4));
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(0));
+    assertNotNull(cache.getObject(2));
+    assertEquals(8, cache.getWeight());
+  }
+
+  @Test
+  public void shouldNotCacheResultHeavierThanMaxWeight() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.setMaxWeight(10);
+    cache.putObject(0, rows(2));
+    cache.putObject(1, rows(11));
+    assertNull(cache.getObject(1));
+    assertNotNull(cache.getObject(0));
+    assertEquals(2, cache.getWeight());
+  }
+
+  @Test
+  public void shouldReweighReplacedEntry() {
+    WeightedCache cache = new WeightedCache(new PerpetualCache("default"));
+    cache.putObject(0, rows(5));
+    cache.putObject(0, rows(3));
+    assertEquals(3, cache.getWeight());
+    cache.removeObject(0);
+    assertEquals(0, cache.getWeight());
+    cache.putObject(1, rows(3));
+    cache.clear();
+    assertEquals(0, cache.getWeight());
+    assertNull(cache.getObject(1));
+  }
+
+  @Test
+  public void shouldWeighSerializedCopiesByLength() {
+    WeightedCache weighted = new WeightedCache(new PerpetualCache("default"));
+    weighted.setWeigher(new SerializedSizeWeigher());
+    Cache cache = new SerializedCache(weighted);
+    cache.putObject(0, rows(100));
+    long weight = weighted.getWeight();
+    assertTrue(weight > 100);
+    assertEquals(weight, new SerializedSizeWeigher().weigh(0, rows(100)));
+  }
+
+  @Test
+  public void shouldCountRowsOfAnyResultShape() {
+    RowCountWeigher weigher = new RowCountWeigher();
+    assertEquals(0, weigher.weigh(0, null));
+    assertEquals(1, weigher.weigh(0, "row"));
+    assertEquals(3, weigher.weigh(0, new int[3]));
+    assertEquals(2, weigher.weigh(0, Arrays.asList("a", "b")));
+  }
+
+  @Test
+  public void shouldBoundBuiltCacheByRowsAndBytes() {
+    Cache cache = new CacheBuilder("test").readWrite(true).maxRows(10L).maxBytes(100000L).build();
+    cache.putObject(0, rows(6));
+    cache.putObject(1, rows(6));
+    assertNull(cache.getObject(0));
+    assertEquals(rows(6), cache.getObject(1));
+  }
+
+  @Test
+  public void shouldForgetEntriesEvictedBelow() throws Exception {
+    WeightedCache.RemovalTracker tracker = new WeightedCache.RemovalTracker(new PerpetualCache("default"));
+    LruCache lru = new LruCache(tracker);
+    lru.setSize(2);
+    ScheduledCache scheduled = new ScheduledCache(lru);
+    scheduled.setClearInterval(50);
+    WeightedCache cache = new WeightedCache(scheduled);
+    tracker.track(cache);
+    cache.putObject(0, rows(4));
+    cache.putObject(1, rows(4));
+    cache.putObject(2, rows(4));
+    assertNull(cache.getObject(0));
+    assertEquals(8, cache.getWeight());
+    Thread.sleep(100);
+    assertNull(cache.getObject(1));
+    assertEquals(0, cache.getWeight());
+  }
+
+  @Test
+  public void shouldRejectMaxBytesOnReadOnlyCache() {
+    try {
+      new CacheBuilder("test").readWrite(false).maxBytes(100000L).build();
+      fail();
+    } catch (CacheException e) {
+      assertTrue(e.getMessage().contains("read-only"));
+    }
+    Cache cache = new CacheBuilder("test").readWrite(false).maxRows(10L).build();
+    Object notSerializable = new Object();
+    cache.putObject(0, notSerializable);
+    assertSame(notSerializable, cache.getObject(0));
+  }
+
+  @Test(expected = CacheException.class)
+  public void shouldRejectConcurrentLruEviction() {
+    new CacheBuilder("test").addDecorator(ConcurrentLruCache.class).maxRows(10L).build();
+  }
+
+  private static List<Integer> rows(int count) {
+    List<Integer> rows = new ArrayList<Integer>();
+    for (int i = 0; i < count; i++) {
+      rows.add(i);
+    }
+    return rows;
+  }
+
+}
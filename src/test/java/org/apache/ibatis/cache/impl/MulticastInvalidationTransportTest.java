@@ -0,0 +1,157 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.cache.impl;
+
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.UUID;
+
+import org.apache.ibatis.cache.Cache;
+import org.apache.ibatis.cache.CacheException;
+import org.apache.ibatis.cache.CacheInvalidation;
+import org.apache.ibatis.cache.InvalidationTransport;
+import org.apache.ibatis.mapping.CacheBuilder;
+import org.junit.Assume;
+import org.junit.Test;
+
+public class MulticastInvalidationTransportTest {
+
+  @Test
+  public void shouldEncodeAndSplitDatagrams() throws Exception {
+    UUID sender = UUID.randomUUID();
+    UUID receiver = UUID.randomUUID();
+    List<CacheInvalidation> invalidations = new ArrayList<CacheInvalidation>();
+    invalidations.add(CacheInvalidation.clear("authors"));
+    invalidations.add(CacheInvalidation.tags("posts", Arrays.asList("post:1", "blog")));
+    invalidations.add(CacheInvalidation.tags("authors", tags(1000)));
+    invalidations.add(CacheInvalidation.tags("blogs", tags(400)));
+    invalidations.add(CacheInvalidation.tags("comments", tags(400)));
+    List<byte[]> datagrams = MulticastInvalidationTransport.encode(sender, invalidations);
+    assertEquals(2, datagrams.size());
+
+    List<CacheInvalidation> decoded = new ArrayList<CacheInvalidation>();
+    for (byte[] datagram : datagrams) {
+      assertTrue(datagram.length <= 8192);
+      assertNull(MulticastInvalidationTransport.decode(sender, datagram, 0, datagram.length));
+      decoded.addAll(MulticastInvalidationTransport.decode(receiver, datagram, 0, datagram.length));
+    }
+    assertEquals(5, decoded.size());
+    assertEquals(invalidations.subList(0, 2), decoded.subList(0, 2));
+    // too many tags for a datagram
+    assertEquals(CacheInvalidation.clear("authors"), decoded.get(2));
+    assertEquals(invalidations.subList(3, 5), decoded.subList(3, 5));
+    assertNull(MulticastInvalidationTransport.decode(receiver, new byte[] { 1, 2, 3 }, 0, 3));
+  }
+
+  @Test
+  public void shouldDeliverOverMulticast() throws Exception {
+    Properties props = new Properties();
+    props.setProperty("port", "45599");
+    props.setProperty("batchInterval", "0");
+    Cache node1;
+    Cache node2;
+    try {
+      node1 = new CacheBuilder("multicast").invalidationTransport(MulticastInvalidationTransport.class).properties(props).build();
+      node2 = new CacheBuilder("multicast").invalidationTransport(MulticastInvalidationTransport.class).properties(props).build();
+    } catch (CacheException e) {
+      Assume.assumeNoException(e);
+      return;
+    }
+    node2.putObject(1, "a");
+    node1.clear();
+    long deadline = System.currentTimeMillis() + 2000;
+    while (node2.getObject(1) != null && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    // multicast may not be routed in this environment
+    Assume.assumeTrue(node2.getObject(1) == null);
+  }
+
+  @Test
+  public void shouldShareOneSocketPerGroupAndPort() throws Exception {
+    final List<CacheInvalidation> received = new ArrayList<CacheInvalidation>();
+    InvalidationTransport.Receiver publisher = new InvalidationTransport.Receiver() {
+      @Override
+      public void receive(List<CacheInvalidation> invalidations) {
+        fail("received its own invalidations");
+      }
+    };
+    InvalidationTransport.Receiver receiver = new InvalidationTransport.Receiver() {
+      @Override
+      public void receive(List<CacheInvalidation> invalidations) {
+        synchronized (received) {
+          received.addAll(invalidations);
+        }
+      }
+    };
+    MulticastInvalidationTransport transport1 = new MulticastInvalidationTransport();
+    transport1.setPort(45600);
+    MulticastInvalidationTransport transport2 = new MulticastInvalidationTransport();
+    transport2.setPort(45600);
+    try {
+      transport1.start(publisher);
+    } catch (CacheException e) {
+      Assume.assumeNoException(e);
+      return;
+    }
+    try {
+      transport2.start(receiver);
+      assertEquals(1, countListeners("mybatis-cache-invalidation-239.255.27.1:45600"));
+      // delivered to the other transports of this JVM without the network
+      transport1.publish(Arrays.asList(CacheInvalidation.clear("authors")));
+      assertEquals(Arrays.asList(CacheInvalidation.clear("authors")), received);
+      transport1.close();
+      transport2.publish(Arrays.asList(CacheInvalidation.clear("authors")));
+    } finally {
+      transport1.close();
+      transport2.close();
+    }
+    try {
+      transport2.publish(Arrays.asList(CacheInvalidation.clear("authors")));
+      fail();
+    } catch (CacheException e) {
+      assertTrue(e.getMessage().contains("not started"));
+    }
+    long deadline = System.currentTimeMillis() + 2000;
+    while (countListeners("mybatis-cache-invalidation-239.255.27.1:45600") > 0 && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(0, countListeners("mybatis-cache-invalidation-239.255.27.1:45600"));
+  }
+
+  private static int countListeners(String name) {
+    int count = 0;
+    for (Thread thread : Thread.getAllStackTraces().keySet()) {
+      if (thread.getName().equals(name) && thread.isAlive()) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  private static List<String> tags(int count) {
+    List<String> tags = new ArrayList<String>();
+    for (int i = 0; i < count; i++) {
+      tags.add("author:" + i);
+    }
+    return tags;
+  }
+
+}
@@ -0,0 +1,284 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.session.Configuration;
+import org.hsqldb.jdbc.JDBCConnection;
+import org.junit.Test;
+
+public class FastPooledDataSourceTest extends BaseDataTest {
+
+  @Test
+  public void shouldProperlyMaintainPoolOf3ActiveAnd2IdleConnections() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      runScript(ds, JPETSTORE_DDL);
+      ds.setDefaultAutoCommit(false);
+      ds.setDriverProperties(new Properties() {
+        {
+          setProperty("username", "sa");
+          setProperty("password", "");
+        }
+      });
+      ds.setPoolMaximumActiveConnections(3);
+      ds.setPoolMaximumIdleConnections(2);
+      ds.setPoolMaximumCheckoutTime(10000);
+      ds.setPoolPingConnectionsNotUsedFor(1);
+      ds.setPoolPingEnabled(true);
+      ds.setPoolPingQuery("SELECT * FROM PRODUCT");
+      ds.setPoolTimeToWait(10000);
+      ds.setLogWriter(null);
+      List<Connection> connections = new ArrayList<Connection>();
+      for (int i = 0; i < 3; i++) {
+        connections.add(ds.getConnection());
+      }
+      assertEquals(3, ds.getPoolState().getActiveConnectionCount());
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(4, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getBadConnectionCount());
+      assertEquals(0, ds.getPoolState().getHadToWaitCount());
+      assertEquals(0, ds.getPoolState().getAverageOverdueCheckoutTime());
+      assertEquals(0, ds.getPoolState().getClaimedOverdueConnectionCount());
+      assertEquals(0, ds.getPoolState().getAverageWaitTime());
+      assertNotNull(ds.getPoolState().toString());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReuseTheConnectionReturnedByTheSameThread() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      Connection c1 = ds.getConnection();
+      Connection c2 = ds.getConnection();
+      Connection real2 = PooledDataSource.unwrapConnection(c2);
+      c1.close();
+      c2.close();
+      Connection c3 = ds.getConnection();
+      assertSame(real2, PooledDataSource.unwrapConnection(c3));
+      c3.close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldPurgeWrappersClaimedByTheReturningThread() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      Connection real = PooledDataSource.unwrapConnection(ds.getConnection());
+      ConnectionBag bag = new ConnectionBag();
+      bag.requite(new PooledConnection(real, ds));
+      for (int i = 0; i < 1000; i++) {
+        assertNotNull(bag.borrow());
+        bag.requite(new PooledConnection(real, ds));
+      }
+      assertEquals(1, bag.getIdleCount());
+      assertTrue(bag.getQueuedCount() <= 17);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test(timeout = 10000)
+  public void shouldGiveUpTheRoomOfAConnectionThatCannotBeReset() throws Exception {
+    Properties props = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    final AtomicBoolean failRollback = new AtomicBoolean();
+    UnpooledDataSource unpooled = new UnpooledDataSource(props.getProperty("driver"), props.getProperty("url"),
+        props.getProperty("username"), props.getProperty("password")) {
+      @Override
+      public Connection getConnection() throws SQLException {
+        final Connection conn = super.getConnection();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] { Connection.class },
+            new InvocationHandler() {
+              @Override
+              public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+                if ("rollback".equals(method.getName()) && failRollback.get()) {
+                  throw new SQLException("connection reset by peer");
+                }
+                try {
+                  return method.invoke(conn, args);
+                } catch (InvocationTargetException e) {
+                  throw e.getCause();
+                }
+              }
+            });
+      }
+    };
+    FastPooledDataSource ds = new FastPooledDataSource(unpooled);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolTimeToWait(100);
+    try {
+      Connection c = ds.getConnection();
+      c.setAutoCommit(false);
+      failRollback.set(true);
+      c.close();
+      assertEquals(0, ds.getPoolState().getIdleConnectionCount());
+      assertEquals(1, ds.getPoolState().getBadConnectionCount());
+      failRollback.set(false);
+      ds.getConnection().close();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test(expected = SQLException.class)
+  public void shouldInvalidateTheProxyOfAReturnedConnection() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    try {
+      Connection c = ds.getConnection();
+      c.close();
+      c.createStatement();
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldHandOffConnectionToWaitingThread() throws Exception {
+    final FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumIdleConnections(1);
+    ds.setPoolTimeToWait(10000);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Connection c = ds.getConnection();
+      Future<Connection> waiting = executor.submit(new Callable<Connection>() {
+        @Override
+        public Connection call() throws Exception {
+          return ds.getConnection();
+        }
+      });
+      while (ds.getPoolState().getHadToWaitCount() == 0) {
+        Thread.sleep(10);
+      }
+      Connection real = PooledDataSource.unwrapConnection(c);
+      c.close();
+      Connection handedOff = waiting.get();
+      assertSame(real, PooledDataSource.unwrapConnection(handedOff));
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      handedOff.close();
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldClaimOverdueConnection() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(1);
+    ds.setPoolMaximumCheckoutTime(1);
+    try {
+      Connection leaked = ds.getConnection();
+      Thread.sleep(10);
+      Connection c = ds.getConnection();
+      assertEquals(1, ds.getPoolState().getClaimedOverdueConnectionCount());
+      leaked.close();
+      assertEquals(1, ds.getPoolState().getActiveConnectionCount());
+      c.close();
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldNeverExceedMaximumActiveConnectionsUnderContention() throws Exception {
+    final FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolMaximumActiveConnections(4);
+    ds.setPoolMaximumIdleConnections(4);
+    ExecutorService executor = Executors.newFixedThreadPool(16);
+    try {
+      List<Future<Integer>> futures = new ArrayList<Future<Integer>>();
+      for (int i = 0; i < 16; i++) {
+        futures.add(executor.submit(new Callable<Integer>() {
+          @Override
+          public Integer call() throws Exception {
+            int maxActive = 0;
+            for (int j = 0; j < 200; j++) {
+              Connection c = ds.getConnection();
+              maxActive = Math.max(maxActive, ds.getPoolState().getActiveConnectionCount());
+              c.close();
+            }
+            return maxActive;
+          }
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        assertTrue(future.get() <= 4);
+      }
+      assertEquals(16 * 200, ds.getPoolState().getRequestCount());
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+      assertTrue(ds.getPoolState().getIdleConnectionCount() <= 4);
+    } finally {
+      executor.shutdownNow();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldReturnRealConnection() throws Exception {
+    FastPooledDataSource ds = createFastPooledDataSource(JPETSTORE_PROPERTIES);
+    Connection c = ds.getConnection();
+    JDBCConnection realConnection = (JDBCConnection) PooledDataSource.unwrapConnection(c);
+    c.close();
+    ds.forceCloseAll();
+  }
+
+  @Test
+  public void shouldResolveFastPooledAlias() {
+    Configuration configuration = new Configuration();
+    assertEquals(FastPooledDataSourceFactory.class, configuration.getTypeAliasRegistry().resolveAlias("FAST_POOLED"));
+  }
+
+  static FastPooledDataSource createFastPooledDataSource(String resource) throws IOException {
+    Properties props = Resources.getResourceAsProperties(resource);
+    FastPooledDataSource ds = new FastPooledDataSource();
+    ds.setDriver(props.getProperty("driver"));
+    ds.setUrl(props.getProperty("url"));
+    ds.setUsername(props.getProperty("username"));
+    ds.setPassword(props.getProperty("password"));
+    return ds;
+  }
+
+}
@@ -0,0 +1,104 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.test.SlowTests;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+/**
+ * Compares checkout/return throughput of {@link PooledDataSource} and {@link FastPooledDataSource}
+ * with many more threads than connections. Being one of the {@link SlowTests} it is not part of the default build.
+ */
+@Category(SlowTests.class)
+public class PoolContentionBenchmarkTest {
+
+  private static final int THREADS = 200;
+  private static final int CONNECTIONS = 20;
+  private static final long DURATION_MILLIS = 5000;
+
+  @Test
+  public void compareCheckoutThroughput() throws Exception {
+    PooledDataSource pooled = BaseDataTest.createPooledDataSource(BaseDataTest.JPETSTORE_PROPERTIES);
+    FastPooledDataSource fastPooled = FastPooledDataSourceTest.createFastPooledDataSource(BaseDataTest.JPETSTORE_PROPERTIES);
+    configure(pooled);
+    configure(fastPooled);
+
+    // warm up both pools before measuring
+    run(pooled, 1000);
+    run(fastPooled, 1000);
+
+    long pooledOps = run(pooled, DURATION_MILLIS);
+    long fastPooledOps = run(fastPooled, DURATION_MILLIS);
+    System.out.println("POOLED      : " + (pooledOps * 1000 / DURATION_MILLIS) + " checkouts/s"
+        + ", average wait " + pooled.getPoolState().getAverageWaitTime() + "ms");
+    System.out.println("FAST_POOLED : " + (fastPooledOps * 1000 / DURATION_MILLIS) + " checkouts/s"
+        + ", average wait " + fastPooled.getPoolState().getAverageWaitTime() + "ms");
+
+    pooled.forceCloseAll();
+    fastPooled.forceCloseAll();
+    assertTrue(pooledOps > 0);
+    assertTrue(fastPooledOps > 0);
+  }
+
+  private void configure(PooledDataSource ds) {
+    ds.setPoolMaximumActiveConnections(CONNECTIONS);
+    ds.setPoolMaximumIdleConnections(CONNECTIONS);
+    ds.setPoolTimeToWait(1000);
+  }
+
+  private long run(final PooledDataSource ds, final long durationMillis) throws InterruptedException {
+    final AtomicLong operations = new AtomicLong();
+    final CountDownLatch start = new CountDownLatch(1);
+    final CountDownLatch done = new CountDownLatch(THREADS);
+    final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(durationMillis);
+    for (int i = 0; i < THREADS; i++) {
+      Thread thread = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            start.await();
+            long count = 0;
+            while (System.nanoTime() < deadline) {
+              Connection c = ds.getConnection();
+              c.getAutoCommit();
+              c.close();
+              count++;
+            }
+            operations.addAndGet(count);
+          } catch (Exception e) {
+            throw new RuntimeException(e);
+          } finally {
+            done.countDown();
+          }
+        }
+      });
+      thread.start();
+    }
+    start.countDown();
+    done.await();
+    return operations.get();
+  }
+
+}
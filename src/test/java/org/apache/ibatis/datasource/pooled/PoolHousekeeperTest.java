@@ -0,0 +1,185 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.datasource.pooled;
+
+import static org.junit.Assert.*;
+
+import java.sql.Connection;
+import java.util.Properties;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.io.Resources;
+import org.junit.Test;
+
+public class PoolHousekeeperTest extends BaseDataTest {
+
+  private static final String PING_QUERY = "SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS";
+
+  @Test
+  public void shouldPrefillPooledDataSourceWhenConfiguredByFactory() throws Exception {
+    PooledDataSourceFactory factory = new PooledDataSourceFactory();
+    factory.setProperties(housekeepingProperties());
+    PooledDataSource ds = (PooledDataSource) factory.getDataSource();
+    try {
+      waitForIdleConnections(ds, 3);
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldPrefillFastPooledDataSourceWhenConfiguredByFactory() throws Exception {
+    FastPooledDataSourceFactory factory = new FastPooledDataSourceFactory();
+    factory.setProperties(housekeepingProperties());
+    PooledDataSource ds = (PooledDataSource) factory.getDataSource();
+    try {
+      waitForIdleConnections(ds, 3);
+      assertEquals(0, ds.getPoolState().getActiveConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  @Test
+  public void shouldPingOnCheckoutWhileHousekeeping() throws Exception {
+    shouldPingOnCheckoutWhileHousekeeping(createPooledDataSource(JPETSTORE_PROPERTIES));
+    shouldPingOnCheckoutWhileHousekeeping(FastPooledDataSourceTest.createFastPooledDataSource(JPETSTORE_PROPERTIES));
+  }
+
+  @Test
+  public void shouldNotStartHousekeepingOnCheckout() throws Exception {
+    shouldNotStartHousekeepingOnCheckout(createPooledDataSource(JPETSTORE_PROPERTIES));
+    shouldNotStartHousekeepingOnCheckout(FastPooledDataSourceTest.createFastPooledDataSource(JPETSTORE_PROPERTIES));
+  }
+
+  @Test
+  public void shouldReplaceExpiredConnections() throws Exception {
+    shouldReplaceExpiredConnections(createPooledDataSource(JPETSTORE_PROPERTIES));
+    shouldReplaceExpiredConnections(FastPooledDataSourceTest.createFastPooledDataSource(JPETSTORE_PROPERTIES));
+  }
+
+  @Test
+  public void shouldEvictIdleConnectionsDownToTheMinimum() throws Exception {
+    shouldEvictIdleConnectionsDownToTheMinimum(createPooledDataSource(JPETSTORE_PROPERTIES));
+    shouldEvictIdleConnectionsDownToTheMinimum(FastPooledDataSourceTest.createFastPooledDataSource(JPETSTORE_PROPERTIES));
+  }
+
+  private void shouldPingOnCheckoutWhileHousekeeping(PooledDataSource ds) throws Exception {
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery(PING_QUERY);
+    ds.setPoolPingConnectionsNotUsedFor(0);
+    ds.setPoolHousekeepingPeriod(60000);
+    try {
+      ds.startHousekeeping();
+      for (int i = 0; i < 5; i++) {
+        Thread.sleep(2);
+        ds.getConnection().close();
+      }
+      // the connection was unused for longer than poolPingConnectionsNotUsedFor at each checkout but the first
+      assertTrue(ds.getPoolState().getValidationTimeHistogram().getCount() >= 4);
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  private void shouldNotStartHousekeepingOnCheckout(PooledDataSource ds) throws Exception {
+    ds.setPoolMinimumIdleConnections(3);
+    ds.setPoolHousekeepingPeriod(20);
+    try {
+      ds.getConnection().close();
+      Thread.sleep(200);
+      assertEquals(1, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  private void shouldReplaceExpiredConnections(PooledDataSource ds) throws Exception {
+    ds.setPoolMinimumIdleConnections(1);
+    ds.setPoolMaximumLifetime(100);
+    ds.setPoolHousekeepingPeriod(20);
+    try {
+      ds.startHousekeeping();
+      waitForIdleConnections(ds, 1);
+      Connection c = ds.getConnection();
+      Connection first = PooledDataSource.unwrapConnection(c);
+      c.close();
+      Thread.sleep(300);
+      c = ds.getConnection();
+      Connection second = PooledDataSource.unwrapConnection(c);
+      c.close();
+      assertNotSame(first, second);
+      assertTrue(first.isClosed());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  private void shouldEvictIdleConnectionsDownToTheMinimum(PooledDataSource ds) throws Exception {
+    ds.setPoolMaximumIdleConnections(5);
+    ds.setPoolMinimumIdleConnections(2);
+    ds.setPoolMaximumIdleTime(50);
+    try {
+      Connection[] connections = new Connection[5];
+      for (int i = 0; i < connections.length; i++) {
+        connections[i] = ds.getConnection();
+      }
+      for (Connection c : connections) {
+        c.close();
+      }
+      assertEquals(5, ds.getPoolState().getIdleConnectionCount());
+      ds.setPoolHousekeepingPeriod(20);
+      ds.startHousekeeping();
+      long deadline = System.currentTimeMillis() + 5000;
+      while (ds.getPoolState().getIdleConnectionCount() > 2 && System.currentTimeMillis() < deadline) {
+        Thread.sleep(10);
+      }
+      assertEquals(2, ds.getPoolState().getIdleConnectionCount());
+    } finally {
+      ds.stopHousekeeping();
+      ds.forceCloseAll();
+    }
+  }
+
+  private Properties housekeepingProperties() throws Exception {
+    Properties jpetstore = Resources.getResourceAsProperties(JPETSTORE_PROPERTIES);
+    Properties properties = new Properties();
+    properties.setProperty("driver", jpetstore.getProperty("driver"));
+    properties.setProperty("url", jpetstore.getProperty("url"));
+    properties.setProperty("username", jpetstore.getProperty("username"));
+    properties.setProperty("password", jpetstore.getProperty("password"));
+    properties.setProperty("poolHousekeepingPeriod", "50");
+    properties.setProperty("poolMinimumIdleConnections", "3");
+    properties.setProperty("poolPingEnabled", "true");
+    properties.setProperty("poolPingQuery", PING_QUERY);
+    return properties;
+  }
+
+  private void waitForIdleConnections(PooledDataSource ds, int expected) throws InterruptedException {
+    long deadline = System.currentTimeMillis() + 5000;
+    while (ds.getPoolState().getIdleConnectionCount() < expected && System.currentTimeMillis() < deadline) {
+      Thread.sleep(10);
+    }
+    assertEquals(expected, ds.getPoolState().getIdleConnectionCount());
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2015 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -16,25 +16,32 @@
 package org.apache.ibatis.executor;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javassist.util.proxy.Proxy;
 
 import javax.sql.DataSource;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
 import org.apache.ibatis.domain.blog.Author;
 import org.apache.ibatis.domain.blog.Blog;
 import org.apache.ibatis.domain.blog.Post;
 import org.apache.ibatis.domain.blog.Section;
+import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.LocalCacheScope;
 import org.apache.ibatis.session.RowBounds;
 import org.apache.ibatis.transaction.Transaction;
 import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
@@ -461,6 +468,60 @@ public class BaseExecutorTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldCopyCacheKeyPrefixOfStaticStatement() throws Exception {
+    Executor executor = createExecutor(new JdbcTransaction(ds, null, false));
+    try {
+      MappedStatement selectStatement = ExecutorTestHelper.prepareSelectOneAuthorMappedStatement(config);
+      CacheKey first = executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, selectStatement.getBoundSql(101));
+      CacheKey second = executor.createCacheKey(selectStatement, 101, RowBounds.DEFAULT, selectStatement.getBoundSql(101));
+      CacheKey other = executor.createCacheKey(selectStatement, 102, RowBounds.DEFAULT, selectStatement.getBoundSql(102));
+      CacheKey bounded = executor.createCacheKey(selectStatement, 101, new RowBounds(1, 1), selectStatement.getBoundSql(101));
+      CacheKey expected = new CacheKey(new Object[] { "selectAuthor", 0, Integer.MAX_VALUE, "SELECT * FROM author WHERE id = ?", 101 });
+      assertEquals(expected, first);
+      assertEquals(first, second);
+      assertNotSame(first, second);
+      assertFalse(first.equals(other));
+      assertFalse(first.equals(bounded));
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  @Test
+  public void shouldSkipCacheKeyWhenNoCacheCanBeHit() throws Exception {
+    config.setLocalCacheScope(LocalCacheScope.STATEMENT);
+    config.setSkipUnusedCacheKeys(true);
+    final AtomicInteger createdKeys = new AtomicInteger();
+    Executor executor = new CachingExecutor(new SimpleExecutor(config, new JdbcTransaction(ds, null, false)) {
+      @Override
+      public CacheKey createCacheKey(MappedStatement ms, Object parameterObject, RowBounds rowBounds, BoundSql boundSql) {
+        createdKeys.incrementAndGet();
+        return super.createCacheKey(ms, parameterObject, rowBounds, boundSql);
+      }
+    });
+    try {
+      MappedStatement uncached = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+      assertEquals(2, executor.query(uncached, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(2, executor.query(uncached, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(0, createdKeys.get());
+
+      // plugins asking for a key still get one they can update
+      CacheKey key = executor.createCacheKey(uncached, null, RowBounds.DEFAULT, uncached.getBoundSql(null));
+      assertNotSame(CacheKey.NULL_CACHE_KEY, key);
+      key.update("tenant");
+
+      config.setLocalCacheScope(LocalCacheScope.SESSION);
+      createdKeys.set(0);
+      assertEquals(2, executor.query(uncached, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER).size());
+      assertEquals(1, createdKeys.get());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
   protected Executor createExecutor(Transaction transaction) {
     return new SimpleExecutor(config,transaction);
   }
@@ -0,0 +1,302 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor;
+
+import static org.junit.Assert.*;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.cache.CacheKey;
+import org.apache.ibatis.domain.blog.Author;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransaction;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class QueryCoalescerTest extends BaseDataTest {
+
+  private static DataSource ds;
+
+  @BeforeClass
+  public static void setup() throws Exception {
+    ds = createBlogDataSource();
+  }
+
+  @Test
+  public void shouldShareOneExecutionAmongConcurrentQueries() throws Exception {
+    final QueryCoalescer coalescer = new QueryCoalescer();
+    final CacheKey key = new CacheKey(new Object[] { "select", 1 });
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger executions = new AtomicInteger();
+    final List<List<String>> results = new ArrayList<List<String>>();
+    final QueryCoalescer.Query<String> query = new QueryCoalescer.Query<String>() {
+      @Override
+      public List<String> execute() throws SQLException {
+        executions.incrementAndGet();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          throw new SQLException(e.getMessage());
+        }
+        return new ArrayList<String>(Arrays.asList("a", "b"));
+      }
+    };
+    Thread[] threads = new Thread[10];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          try {
+            List<String> result = coalescer.coalesce(key, 10000, query);
+            synchronized (results) {
+              results.add(result);
+            }
+          } catch (SQLException e) {
+            throw new RuntimeException(e);
+          }
+        }
+      });
+      threads[i].start();
+    }
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (executions.get() == 0 && System.nanoTime() < deadline) {
+      Thread.sleep(1);
+    }
+    // let the other threads join the leading execution
+    Thread.sleep(200);
+    release.countDown();
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(10, results.size());
+    for (List<String> result : results) {
+      assertEquals(Arrays.asList("a", "b"), result);
+    }
+    assertEquals(executions.get(), coalescer.getExecutionCount());
+    assertEquals(10, coalescer.getExecutionCount() + coalescer.getCoalescedCount());
+    assertTrue(coalescer.getCoalescedCount() > 0);
+    assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void shouldRunQueryAgainWhenLeadingExecutionFails() throws Exception {
+    final QueryCoalescer coalescer = new QueryCoalescer();
+    final CacheKey key = new CacheKey(new Object[] { "select", 1 });
+    final CountDownLatch leading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    final AtomicInteger failures = new AtomicInteger();
+    Thread leader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          coalescer.coalesce(key, 10000, new QueryCoalescer.Query<String>() {
+            @Override
+            public List<String> execute() throws SQLException {
+              leading.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                // fail anyway
+              }
+              throw new SQLException("connection lost");
+            }
+          });
+        } catch (SQLException e) {
+          failures.incrementAndGet();
+        }
+      }
+    });
+    leader.start();
+    leading.await();
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          // release now
+        }
+        release.countDown();
+      }
+    }).start();
+    List<String> result = coalescer.coalesce(key, 10000, new QueryCoalescer.Query<String>() {
+      @Override
+      public List<String> execute() throws SQLException {
+        return Arrays.asList("own");
+      }
+    });
+    leader.join();
+    assertEquals(Arrays.asList("own"), result);
+    assertEquals(1, failures.get());
+    assertEquals(1, coalescer.getFailedExecutionCount());
+    assertEquals(2, coalescer.getExecutionCount());
+    assertEquals(0, coalescer.getInFlightCount());
+  }
+
+  @Test
+  public void shouldRunQueryItselfWhenWaitExpires() throws Exception {
+    final QueryCoalescer coalescer = new QueryCoalescer();
+    final CacheKey key = new CacheKey(new Object[] { "select", 1 });
+    final CountDownLatch leading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread leader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          coalescer.coalesce(key, 10000, new QueryCoalescer.Query<String>() {
+            @Override
+            public List<String> execute() throws SQLException {
+              leading.countDown();
+              try {
+                // e.g. blocked on a row lock held by the waiting session
+                release.await();
+              } catch (InterruptedException e) {
+                // return anyway
+              }
+              return Arrays.asList("leader");
+            }
+          });
+        } catch (SQLException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    leader.start();
+    leading.await();
+    List<String> result = coalescer.coalesce(key, 100, new QueryCoalescer.Query<String>() {
+      @Override
+      public List<String> execute() throws SQLException {
+        return Arrays.asList("own");
+      }
+    });
+    release.countDown();
+    leader.join();
+    assertEquals(Arrays.asList("own"), result);
+    assertEquals(1, coalescer.getExpiredWaitCount());
+    assertEquals(2, coalescer.getExecutionCount());
+    assertEquals(0, coalescer.getCoalescedCount());
+  }
+
+  @Test
+  public void shouldGiveWaitingSessionsTheirOwnCopies() throws Exception {
+    final QueryCoalescer coalescer = new QueryCoalescer();
+    final Author leaderAuthor = new Author(101);
+    leaderAuthor.setUsername("jim");
+    List<Object> result = coalesceBehindLeader(coalescer, leaderAuthor);
+    assertEquals(1, coalescer.getCoalescedCount());
+    Author copy = (Author) result.get(0);
+    assertNotSame(leaderAuthor, copy);
+    assertEquals(101, copy.getId());
+    leaderAuthor.setUsername("changed by the leading session");
+    assertEquals("jim", copy.getUsername());
+  }
+
+  @Test
+  public void shouldRunQueryItselfWhenResultCannotBeCopied() throws Exception {
+    final QueryCoalescer coalescer = new QueryCoalescer();
+    List<Object> result = coalesceBehindLeader(coalescer, new Object());
+    assertEquals(Arrays.<Object> asList("own"), result);
+    assertEquals(0, coalescer.getCoalescedCount());
+    assertEquals(2, coalescer.getExecutionCount());
+  }
+
+  @Test
+  public void shouldCoalesceOnlySessionsWithoutUncommittedUpdates() throws Exception {
+    Configuration config = new Configuration();
+    config.setCoalesceQueries(true);
+    MappedStatement select = ExecutorTestHelper.prepareSelectAllAuthorsAutoMappedStatement(config);
+    MappedStatement insert = ExecutorTestHelper.prepareInsertAuthorMappedStatement(config);
+    Executor executor = new SimpleExecutor(config, new JdbcTransaction(ds, null, false));
+    try {
+      List<Author> authors = executor.query(select, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, authors.size());
+      assertEquals(1, config.getQueryCoalescer().getExecutionCount());
+
+      executor.update(insert, new Author(99, "someone", "******", "someone@apache.org", null, null));
+      authors = executor.query(select, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(3, authors.size());
+      assertEquals(1, config.getQueryCoalescer().getExecutionCount());
+
+      executor.rollback(true);
+      executor.query(select, null, RowBounds.DEFAULT, Executor.NO_RESULT_HANDLER);
+      assertEquals(2, config.getQueryCoalescer().getExecutionCount());
+    } finally {
+      executor.rollback(true);
+      executor.close(false);
+    }
+  }
+
+  private static List<Object> coalesceBehindLeader(final QueryCoalescer coalescer, final Object leaderRow) throws Exception {
+    final CacheKey key = new CacheKey(new Object[] { "select", 1 });
+    final CountDownLatch leading = new CountDownLatch(1);
+    final CountDownLatch release = new CountDownLatch(1);
+    Thread leader = new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          coalescer.coalesce(key, 10000, new QueryCoalescer.Query<Object>() {
+            @Override
+            public List<Object> execute() throws SQLException {
+              leading.countDown();
+              try {
+                release.await();
+              } catch (InterruptedException e) {
+                // return anyway
+              }
+              return new ArrayList<Object>(Arrays.asList(leaderRow));
+            }
+          });
+        } catch (SQLException e) {
+          throw new RuntimeException(e);
+        }
+      }
+    });
+    leader.start();
+    leading.await();
+    new Thread(new Runnable() {
+      @Override
+      public void run() {
+        try {
+          // let the main thread join the leading execution
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          // release now
+        }
+        release.countDown();
+      }
+    }).start();
+    List<Object> result = coalescer.coalesce(key, 10000, new QueryCoalescer.Query<Object>() {
+      @Override
+      public List<Object> execute() throws SQLException {
+        return Arrays.<Object> asList("own");
+      }
+    });
+    leader.join();
+    return result;
+  }
+
+}
@@ -0,0 +1,97 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LinearProbingMapTest {
+
+  @Test
+  public void shouldBehaveLikeHashMap() {
+    LinearProbingMap<Key, Integer> map = new LinearProbingMap<Key, Integer>();
+    Map<Key, Integer> expected = new HashMap<Key, Integer>();
+    Random random = new Random(42);
+    for (int i = 0; i < 100000; i++) {
+      Key key = new Key(random.nextInt(2000));
+      int operation = random.nextInt(3);
+      if (operation == 0) {
+        map.put(key, i);
+        expected.put(key, i);
+      } else if (operation == 1) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.get(key), map.get(key));
+      }
+      assertEquals(expected.size(), map.size());
+    }
+    for (Map.Entry<Key, Integer> entry : expected.entrySet()) {
+      assertEquals(entry.getValue(), map.get(entry.getKey()));
+    }
+  }
+
+  @Test
+  public void shouldKeepStoredKey() {
+    LinearProbingMap<Key, String> map = new LinearProbingMap<Key, String>();
+    Key stored = new Key(1);
+    map.put(stored, "a");
+    map.put(new Key(1), "b");
+    assertSame(stored, map.getKey(new Key(1)));
+    assertEquals("b", map.get(stored));
+    assertNull(map.getKey(new Key(2)));
+    assertNull(map.get(null));
+  }
+
+  @Test
+  public void shouldClear() {
+    LinearProbingMap<Key, String> map = new LinearProbingMap<Key, String>();
+    for (int i = 0; i < 5000; i++) {
+      map.put(new Key(i), "value");
+    }
+    map.clear();
+    assertEquals(0, map.size());
+    assertNull(map.get(new Key(1)));
+    map.put(new Key(1), "value");
+    assertEquals("value", map.get(new Key(1)));
+  }
+
+  private static class Key {
+    private final int id;
+
+    Key(int id) {
+      this.id = id;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return o instanceof Key && ((Key) o).id == id;
+    }
+
+    @Override
+    public int hashCode() {
+      // collides in groups of 8 to exercise probing and removal
+      return id / 8;
+    }
+  }
+
+}
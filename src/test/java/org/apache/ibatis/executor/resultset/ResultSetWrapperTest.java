@@ -0,0 +1,115 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ResultSetWrapperTest {
+
+  private final Configuration configuration = new Configuration();
+  private Connection conn;
+  private ResultSetWrapper rsw;
+
+  @Before
+  public void setUp() throws Exception {
+    Class.forName("org.hsqldb.jdbcDriver");
+    conn = DriverManager.getConnection("jdbc:hsqldb:mem:result_set_wrapper", "sa", "");
+    rsw = new ResultSetWrapper(conn.createStatement().executeQuery(
+        "select 1 as id, 'a' as name, 'b' as p_name, 'c' as name from (values(0))"), configuration);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    conn.close();
+  }
+
+  @Test
+  public void shouldFindFirstColumnIgnoringCase() {
+    assertEquals(1, rsw.getColumnIndex("ID"));
+    assertEquals(1, rsw.getColumnIndex("id"));
+    assertEquals(2, rsw.getColumnIndex("NAME"));
+    assertEquals(-1, rsw.getColumnIndex("missing"));
+  }
+
+  @Test
+  public void shouldResolveMappedColumnIndexesOncePerPrefix() throws Exception {
+    List<ResultMapping> resultMappings = new ArrayList<ResultMapping>();
+    resultMappings.add(new ResultMapping.Builder(configuration, "id", "id", String.class).build());
+    resultMappings.add(new ResultMapping.Builder(configuration, "name", "Name", String.class).build());
+    resultMappings.add(new ResultMapping.Builder(configuration, "missing", "missing", String.class).build());
+    ResultMap resultMap = new ResultMap.Builder(configuration, "person", Object.class, resultMappings).build();
+    List<ResultMapping> propertyMappings = resultMap.getPropertyResultMappings();
+
+    int[] indexes = rsw.getMappedColumnIndexes(resultMap, propertyMappings, null);
+    assertArrayEquals(new int[] { 1, 2, -1 }, indexes);
+    assertSame(indexes, rsw.getMappedColumnIndexes(resultMap, propertyMappings, null));
+    assertArrayEquals(new int[] { -1, 3, -1 }, rsw.getMappedColumnIndexes(resultMap, propertyMappings, "P_"));
+  }
+
+  @Test
+  public void shouldShareColumnMappingPlanBetweenResultSetsWithTheSameLayout() throws Exception {
+    List<ResultMapping> resultMappings = new ArrayList<ResultMapping>();
+    resultMappings.add(new ResultMapping.Builder(configuration, "name", "name", String.class).build());
+    ResultMap resultMap = new ResultMap.Builder(configuration, "person", Object.class, resultMappings).build();
+    ColumnMappingPlan plan = rsw.getColumnMappingPlan(resultMap, null);
+    assertEquals(Arrays.asList("NAME", "NAME"), plan.getMappedColumnNames());
+    assertEquals(Arrays.asList("ID", "P_NAME"), plan.getUnmappedColumnNames());
+
+    ResultSetWrapper sameLayout = new ResultSetWrapper(conn.createStatement().executeQuery(
+        "select 2 as id, 'd' as name, 'e' as p_name, 'f' as name from (values(0))"), configuration);
+    assertSame(plan, sameLayout.getColumnMappingPlan(resultMap, null));
+    assertNotSame(plan, sameLayout.getColumnMappingPlan(resultMap, "P_"));
+
+    ResultSetWrapper otherLayout = new ResultSetWrapper(conn.createStatement().executeQuery(
+        "select 'd' as name, 2 as id from (values(0))"), configuration);
+    ColumnMappingPlan otherPlan = otherLayout.getColumnMappingPlan(resultMap, null);
+    assertNotSame(plan, otherPlan);
+    assertArrayEquals(new int[] { 1 }, otherLayout.getMappedColumnIndexes(resultMap, resultMap.getPropertyResultMappings(), null));
+  }
+
+  @Test
+  public void shouldNotShareColumnMappingPlanWithAnotherResultMapOfTheSameId() throws Exception {
+    List<ResultMapping> nameMappings = new ArrayList<ResultMapping>();
+    nameMappings.add(new ResultMapping.Builder(configuration, "name", "name", String.class).build());
+    ResultMap byName = new ResultMap.Builder(configuration, "person", Object.class, nameMappings).build();
+    List<ResultMapping> idMappings = new ArrayList<ResultMapping>();
+    idMappings.add(new ResultMapping.Builder(configuration, "id", "id", String.class).build());
+    ResultMap byId = new ResultMap.Builder(configuration, "person", Object.class, idMappings).build();
+
+    ColumnMappingPlan plan = rsw.getColumnMappingPlan(byName, null);
+    ResultSetWrapper sameLayout = new ResultSetWrapper(conn.createStatement().executeQuery(
+        "select 2 as id, 'd' as name, 'e' as p_name, 'f' as name from (values(0))"), configuration);
+    assertEquals(Arrays.asList("ID"), sameLayout.getColumnMappingPlan(byId, null).getMappedColumnNames());
+    assertNotSame(plan, sameLayout.getColumnMappingPlan(byId, null));
+  }
+
+}
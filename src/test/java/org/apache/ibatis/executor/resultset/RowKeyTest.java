@@ -0,0 +1,80 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+
+import org.apache.ibatis.mapping.ResultMap;
+import org.apache.ibatis.mapping.ResultMapping;
+import org.apache.ibatis.session.Configuration;
+import org.junit.Test;
+
+public class RowKeyTest {
+
+  private final Configuration configuration = new Configuration();
+  private final ResultMap blog = new ResultMap.Builder(configuration, "blog", Object.class, new ArrayList<ResultMapping>()).build();
+  private final ResultMap post = new ResultMap.Builder(configuration, "post", Object.class, new ArrayList<ResultMapping>()).build();
+
+  @Test
+  public void shouldEqualCopyAfterBufferIsReused() {
+    RowKey buffer = new RowKey();
+    buffer.reset(blog, null).update(1);
+    RowKey stored = buffer.copy();
+    buffer.reset(blog, null).update(2);
+    assertNotEquals(stored, buffer);
+    buffer.reset(blog, null).update(1);
+    assertEquals(stored, buffer);
+    assertEquals(stored.hashCode(), buffer.hashCode());
+  }
+
+  @Test
+  public void shouldTellApartResultMapsPositionsAndParents() {
+    RowKey parent1 = new RowKey().reset(blog, null);
+    parent1.update(1);
+    RowKey parent2 = new RowKey().reset(blog, null);
+    parent2.update(2);
+
+    RowKey key = new RowKey().reset(post, parent1);
+    key.update(10);
+    RowKey otherParent = new RowKey().reset(post, parent2);
+    otherParent.update(10);
+    RowKey otherResultMap = new RowKey().reset(blog, parent1);
+    otherResultMap.update(10);
+    RowKey otherPosition = new RowKey().reset(post, parent1);
+    otherPosition.skip();
+    otherPosition.update(10);
+
+    assertNotEquals(key, otherParent);
+    assertNotEquals(key, otherResultMap);
+    assertNotEquals(key, otherPosition);
+    assertEquals(1, key.getDepth());
+  }
+
+  @Test
+  public void shouldBeEmptyWithoutValues() {
+    RowKey key = new RowKey().reset(blog, null);
+    key.skip();
+    assertTrue(key.isEmpty());
+    key.update(null);
+    assertFalse(key.isEmpty());
+  }
+
+}
@@ -0,0 +1,99 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.executor.resultset;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.apache.ibatis.reflection.DefaultReflectorFactory;
+import org.apache.ibatis.reflection.ReflectorFactory;
+import org.junit.Test;
+
+public class RowValueSetterCompilerTest {
+
+  private final ReflectorFactory reflectorFactory = new DefaultReflectorFactory();
+
+  @Test
+  public void shouldGenerateSetterForPublicType() throws Exception {
+    String[] properties = { "id", "name", "score", "flag", "tags", "hidden" };
+    RowValueSetter setter = RowValueSetterCompiler.compile(Bean.class, properties, reflectorFactory.findForClass(Bean.class));
+    assertNotSame(RowValueSetter.class, setter.getClass());
+
+    Bean bean = new Bean();
+    setter.set(bean, 0, 7);
+    setter.set(bean, 1, "name");
+    setter.set(bean, 2, 1.5d);
+    setter.set(bean, 3, Boolean.TRUE);
+    setter.set(bean, 4, new String[] { "a" });
+    setter.set(bean, 5, "field");
+    assertEquals(7, bean.id);
+    assertEquals("name", bean.name);
+    assertEquals(1.5d, bean.score, 0);
+    assertEquals(true, bean.flag);
+    assertEquals("a", bean.tags[0]);
+    assertEquals("field", bean.hidden);
+  }
+
+  @Test
+  public void shouldFallBackToReflectionForNonPublicType() throws Exception {
+    RowValueSetter setter = RowValueSetterCompiler.compile(HiddenBean.class, new String[] { "id" }, reflectorFactory.findForClass(HiddenBean.class));
+    assertSame(RowValueSetter.class, setter.getClass());
+
+    HiddenBean bean = new HiddenBean();
+    setter.set(bean, 0, 3);
+    assertEquals(3, bean.id);
+  }
+
+  public static class Bean {
+    private int id;
+    private String name;
+    private double score;
+    private boolean flag;
+    private String[] tags;
+    // no setter
+    private String hidden;
+
+    public void setId(int id) {
+      this.id = id;
+    }
+
+    public void setName(String name) {
+      this.name = name;
+    }
+
+    public void setScore(double score) {
+      this.score = score;
+    }
+
+    public void setFlag(boolean flag) {
+      this.flag = flag;
+    }
+
+    public void setTags(String[] tags) {
+      this.tags = tags;
+    }
+  }
+
+  static class HiddenBean {
+    private int id;
+
+    public void setId(int id) {
+      this.id = id;
+    }
+  }
+
+}
@@ -1,5 +1,5 @@
 /**
- *    Copyright 2009-2017 the original author or authors.
+ *    Copyright 2009-2026 the original author or authors.
  *
  *    Licensed under the Apache License, Version 2.0 (the "License");
  *    you may not use this file except in compliance with the License.
@@ -25,8 +25,10 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Properties;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.apache.ibatis.BaseDataTest;
+import org.apache.ibatis.datasource.PoolMetrics;
 import org.apache.ibatis.datasource.pooled.PooledDataSource;
 import org.hsqldb.jdbc.JDBCConnection;
 import org.junit.Ignore;
@@ -75,6 +77,41 @@ public class PooledDataSourceTest extends BaseDataTest {
     }
   }
 
+  @Test
+  public void shouldReadStatisticsWhileThePoolIsLocked() throws Exception {
+    final PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
+    ds.setPoolPingEnabled(true);
+    ds.setPoolPingQuery("SELECT 1 FROM INFORMATION_SCHEMA.SYSTEM_USERS");
+    ds.setPoolPingConnectionsNotUsedFor(0);
+    try {
+      Connection c = ds.getConnection();
+      Thread.sleep(5);
+      c.close();
+      final PoolMetrics metrics = ds.getPoolState();
+      final AtomicLong requestCount = new AtomicLong();
+      synchronized (ds.getPoolState()) {
+        Thread reader = new Thread(new Runnable() {
+          @Override
+          public void run() {
+            requestCount.set(metrics.getRequestCount());
+            metrics.getWaitTimeHistogram();
+            metrics.toString();
+          }
+        });
+        reader.start();
+        reader.join(5000);
+        assertFalse(reader.isAlive());
+      }
+      assertEquals(1, requestCount.get());
+      assertEquals(1, metrics.getWaitTimeHistogram().getCount());
+      assertEquals(1, metrics.getCheckoutTimeHistogram().getCount());
+      assertTrue(metrics.getCheckoutTimeHistogram().getMax() >= 5000);
+      assertTrue(metrics.getValidationTimeHistogram().getCount() > 0);
+    } finally {
+      ds.forceCloseAll();
+    }
+  }
+
   @Test
   public void shouldNotFailCallingToStringOverAnInvalidConnection() throws Exception {
     PooledDataSource ds = createPooledDataSource(JPETSTORE_PROPERTIES);
@@ -0,0 +1,91 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.metrics;
+
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+
+public class LatencyHistogramTest {
+
+  @Test
+  public void shouldReportPercentilesWithinBucketPrecision() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (int i = 1; i <= 10000; i++) {
+      histogram.record(i);
+    }
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(10000, snapshot.getCount());
+    assertEquals(10000, snapshot.getMax());
+    assertEquals(5000.5, snapshot.getMean(), 0.001);
+    assertWithin(5000, snapshot.getValueAtPercentile(50));
+    assertWithin(9900, snapshot.getValueAtPercentile(99));
+    assertEquals(10000, snapshot.getValueAtPercentile(100));
+  }
+
+  @Test
+  public void shouldCountSmallValuesExactly() {
+    LatencyHistogram histogram = new LatencyHistogram();
+    histogram.record(0);
+    histogram.record(3);
+    histogram.record(3);
+    histogram.record(-1);
+    HistogramSnapshot snapshot = histogram.snapshot();
+    assertEquals(4, snapshot.getCount());
+    assertEquals(0, snapshot.getValueAtPercentile(50));
+    assertEquals(3, snapshot.getValueAtPercentile(75));
+  }
+
+  @Test
+  public void shouldMapEveryBucketToItsHighestValue() {
+    long[] values = { 31, 32, 33, 63, 64, 1000, 123456789L, Long.MAX_VALUE };
+    for (long value : values) {
+      int index = LatencyHistogram.bucketIndex(value);
+      assertTrue(index < LatencyHistogram.BUCKET_COUNT);
+      assertTrue(LatencyHistogram.highestValueOf(index) >= value);
+      assertTrue(index == 0 || LatencyHistogram.highestValueOf(index - 1) < value);
+    }
+  }
+
+  @Test
+  public void shouldSumStripedCounterAcrossThreads() throws Exception {
+    final StripedCounter counter = new StripedCounter();
+    Thread[] threads = new Thread[8];
+    for (int i = 0; i < threads.length; i++) {
+      threads[i] = new Thread(new Runnable() {
+        @Override
+        public void run() {
+          for (int j = 0; j < 10000; j++) {
+            counter.increment();
+          }
+        }
+      });
+      threads[i].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(80000, counter.sum());
+    counter.reset();
+    assertEquals(0, counter.sum());
+  }
+
+  private void assertWithin(long expected, long actual) {
+    assertTrue("expected about " + expected + " but was " + actual,
+        Math.abs(actual - expected) <= expected / LatencyHistogram.SUB_BUCKET_COUNT);
+  }
+
+}
@@ -0,0 +1,169 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batched_nested_select;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class BatchedNestedSelectTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batched_nested_select/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/batched_nested_select/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    conn.close();
+    reader.close();
+    session.close();
+  }
+
+  @Before
+  public void resetCounts() {
+    StatementCounter.reset();
+  }
+
+  @Test
+  public void shouldLoadAuthorsAndPostsInBatches() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertBlogs(sqlSession.getMapper(Mapper.class).selectBlogs());
+      // the distinct authors 1, 2 and 3 in batches of two, the posts of all five blogs at once
+      assertEquals(2, StatementCounter.getCount("author"));
+      assertEquals(1, StatementCounter.getCount("post"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadAuthorsAndPostsInBatchesWithAnnotations() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      assertBlogs(sqlSession.getMapper(Mapper.class).selectBlogsWithAnnotations());
+      assertEquals(2, StatementCounter.getCount("author"));
+      assertEquals(1, StatementCounter.getCount("post"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldLoadEachRowWithOneKeyForResultHandler() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Blog> blogs = new ArrayList<Blog>();
+      sqlSession.select("org.apache.ibatis.submitted.batched_nested_select.Mapper.selectBlogs", new ResultHandler<Blog>() {
+        @Override
+        public void handleResult(ResultContext<? extends Blog> resultContext) {
+          // the nested selects are complete when the blog is handed over
+          assertTrue(resultContext.getResultObject().getPosts() != null);
+          blogs.add(resultContext.getResultObject());
+        }
+      });
+      assertBlogs(blogs);
+      // author 1 comes from the local cache the second time
+      assertEquals(3, StatementCounter.getCount("author"));
+      assertEquals(5, StatementCounter.getCount("post"));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldResolveCircularReferencesOfOneKey() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Author> authors = sqlSession.selectList("org.apache.ibatis.submitted.batched_nested_select.Mapper.selectAuthorsWithBlogs",
+          Arrays.asList(1));
+      assertEquals(1, authors.size());
+      Author jane = authors.get(0);
+      assertEquals(2, jane.getBlogs().size());
+      for (Blog blog : jane.getBlogs()) {
+        // set from the running select of the author
+        assertTrue(blog.getAuthor() == jane);
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldResolveCircularReferencesOfManyKeys() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Author> authors = sqlSession.selectList("org.apache.ibatis.submitted.batched_nested_select.Mapper.selectAuthorsWithBlogs",
+          Arrays.asList(1, 2));
+      assertEquals(2, authors.size());
+      List<String> titles = new ArrayList<String>();
+      for (Author author : authors) {
+        for (Blog blog : author.getBlogs()) {
+          titles.add(author.getName() + ":" + blog.getTitle());
+          assertEquals(author.getName(), blog.getAuthor().getName());
+          assertEquals(author.getBlogs().size(), blog.getAuthor().getBlogs().size());
+        }
+      }
+      assertEquals(Arrays.asList("jane:first", "jane:third", "john:second"), titles);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertBlogs(List<Blog> blogs) {
+    assertEquals(5, blogs.size());
+    List<String> authors = new ArrayList<String>();
+    List<Integer> postCounts = new ArrayList<Integer>();
+    for (Blog blog : blogs) {
+      authors.add(blog.getAuthor() == null ? null : blog.getAuthor().getName());
+      postCounts.add(blog.getPosts().size());
+      for (Post post : blog.getPosts()) {
+        assertEquals(blog.getId().longValue(), post.getBlogId().longValue());
+      }
+    }
+    assertEquals(Arrays.asList("jane", "john", "jane", "mary", null), authors);
+    assertEquals(Arrays.asList(2, 0, 1, 3, 0), postCounts);
+    assertEquals("hello", blogs.get(0).getPosts().get(0).getSubject());
+    assertNull(blogs.get(4).getAuthor());
+  }
+
+}
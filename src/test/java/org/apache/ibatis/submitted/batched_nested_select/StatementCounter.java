@@ -0,0 +1,64 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.batched_nested_select;
+
+import java.sql.Connection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.plugin.Signature;
+
+@Intercepts(@Signature(type = StatementHandler.class, method = "prepare", args = { Connection.class, Integer.class }))
+public class StatementCounter implements Interceptor {
+
+  // statements prepared by table read
+  private static final Map<String, Integer> COUNTS = new HashMap<String, Integer>();
+
+  public static synchronized void reset() {
+    COUNTS.clear();
+  }
+
+  public static synchronized int getCount(String table) {
+    Integer count = COUNTS.get(table);
+    return count == null ? 0 : count;
+  }
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    String sql = ((StatementHandler) invocation.getTarget()).getBoundSql().getSql().toLowerCase();
+    String table = sql.substring(sql.indexOf(" from ") + 6).trim().split("\\s")[0];
+    synchronized (StatementCounter.class) {
+      COUNTS.put(table, getCount(table) + 1);
+    }
+    return invocation.proceed();
+  }
+
+  @Override
+  public Object plugin(Object target) {
+    return Plugin.wrap(target, this);
+  }
+
+  @Override
+  public void setProperties(Properties properties) {
+  }
+
+}
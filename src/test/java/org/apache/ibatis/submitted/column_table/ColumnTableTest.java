@@ -0,0 +1,132 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.column_table;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.util.Arrays;
+
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ColumnTable;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ColumnTableTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    // create a SqlSessionFactory
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/column_table/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/column_table/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    conn.close();
+    reader.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldReadNumericColumnsIntoPrimitiveArrays() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnTable table = sqlSession.selectColumns("org.apache.ibatis.submitted.column_table.Mapper.getSales");
+      assertEquals(3, table.getRowCount());
+      assertEquals(Arrays.asList("ID", "REGION", "UNITS", "PRICE", "DISCOUNT"), table.getColumnNames());
+      assertEquals(int.class, table.getColumnType(0));
+      assertEquals(long.class, table.getColumnType(2));
+      assertEquals(double.class, table.getColumnType(3));
+      assertEquals(Object.class, table.getColumnType(4));
+      assertArrayEquals(new int[] { 1, 2, 3 }, table.getInts("id"));
+      assertArrayEquals(new long[] { 120, 80, 0 }, table.getLongs("units"));
+      assertArrayEquals(new double[] { 9.5, 12.25, 0 }, table.getDoubles("price"), 0);
+      assertArrayEquals(new Object[] { "north", "south", null }, table.getObjects("region"));
+      assertEquals(new BigDecimal("0.10"), table.getObjects("discount")[0]);
+      assertFalse(table.isNull(1, 2));
+      assertTrue(table.isNull(2, 2));
+      assertTrue(table.isNull(1, 4));
+      assertNull(table.getValue(2, 3));
+      assertEquals(Long.valueOf(80), table.getValue(1, 2));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldUseResultTypeOfSingleColumn() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnTable units = sqlSession.selectColumns("org.apache.ibatis.submitted.column_table.Mapper.getUnits");
+      assertArrayEquals(new long[] { 120, 80, 0 }, units.getLongs(0));
+      ColumnTable regions = sqlSession.selectColumns("org.apache.ibatis.submitted.column_table.Mapper.getRegions");
+      assertArrayEquals(new Object[] { "1", "2", "3" }, regions.getObjects(0));
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBoundsThroughMapper() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      ColumnTable table = mapper.getSales(new RowBounds(1, 1));
+      assertArrayEquals(new int[] { 2 }, table.getInts(0));
+      assertEquals(3, mapper.getUnits().getRowCount());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectAccessAsOtherType() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      ColumnTable table = sqlSession.selectColumns("org.apache.ibatis.submitted.column_table.Mapper.getSales");
+      try {
+        table.getLongs("id");
+        fail();
+      } catch (ExecutorException e) {
+        assertTrue(e.getMessage().contains("holds int values"));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
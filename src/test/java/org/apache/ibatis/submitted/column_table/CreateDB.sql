@@ -0,0 +1,30 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table sales if exists;
+
+create table sales (
+  id int,
+  region varchar(20),
+  units bigint,
+  price double,
+  discount decimal(5,2)
+);
+
+insert into sales (id, region, units, price, discount) values(1, 'north', 120, 9.5, 0.10);
+insert into sales (id, region, units, price, discount) values(2, 'south', 80, 12.25, NULL);
+insert into sales (id, region, units, price, discount) values(3, NULL, NULL, NULL, 0.05);
@@ -0,0 +1,171 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compact_map_rows;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.ibatis.executor.result.CompactMapRow;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompactMapRowsTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.compact_map_rows.Mapper.";
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static SqlSessionFactory compactSqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    sqlSessionFactory = createSqlSessionFactory();
+    compactSqlSessionFactory = createSqlSessionFactory();
+    compactSqlSessionFactory.getConfiguration().setUseCompactMapRows(true);
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compact_map_rows/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    conn.close();
+    reader.close();
+    session.close();
+  }
+
+  private static SqlSessionFactory createSqlSessionFactory() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compact_map_rows/mybatis-config.xml");
+    try {
+      return new SqlSessionFactoryBuilder().build(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void shouldHoldTheSameEntriesAsHashMapRows() {
+    assertSameRows("getUsers");
+    assertSameRows("getUsersWithRepeatedColumn");
+    List<Map<String, Object>> rows = selectRows(compactSqlSessionFactory, "getUsers");
+    assertTrue(rows.get(0) instanceof CompactMapRow);
+    assertEquals(4, rows.get(0).size());
+    // null columns are no entries unless callSettersOnNulls is set
+    assertEquals(2, rows.get(1).size());
+    assertFalse(rows.get(1).containsKey("SCORE"));
+    assertEquals(rows.get(0).keySet(), selectRows(sqlSessionFactory, "getUsers").get(0).keySet());
+  }
+
+  @Test
+  public void shouldIncludeNullsWhenCallingSettersOnNulls() {
+    compactSqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    sqlSessionFactory.getConfiguration().setCallSettersOnNulls(true);
+    try {
+      assertSameRows("getUsers");
+      Map<String, Object> john = selectRows(compactSqlSessionFactory, "getUsers").get(1);
+      assertEquals(4, john.size());
+      assertTrue(john.containsKey("SCORE"));
+      assertNull(john.get("SCORE"));
+    } finally {
+      compactSqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+      sqlSessionFactory.getConfiguration().setCallSettersOnNulls(false);
+    }
+  }
+
+  @Test
+  public void shouldLookUpKeysIgnoringCase() {
+    compactSqlSessionFactory.getConfiguration().setCompactMapRowsIgnoreCase(true);
+    try {
+      Map<String, Object> jane = selectRows(compactSqlSessionFactory, "getUsers").get(0);
+      assertEquals("jane", jane.get("name"));
+      assertEquals("jane", jane.get("Name"));
+      assertEquals("jane", jane.get("NAME"));
+      assertTrue(jane.containsKey("city"));
+    } finally {
+      compactSqlSessionFactory.getConfiguration().setCompactMapRowsIgnoreCase(false);
+    }
+    assertNull(selectRows(compactSqlSessionFactory, "getUsers").get(0).get("name"));
+  }
+
+  @Test
+  public void shouldRejectModifications() {
+    Map<String, Object> jane = selectRows(compactSqlSessionFactory, "getUsers").get(0);
+    try {
+      jane.put("NAME", "joan");
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+    try {
+      jane.remove("NAME");
+      fail();
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void shouldSupportMapKeysAndSerialization() throws Exception {
+    SqlSession sqlSession = compactSqlSessionFactory.openSession();
+    try {
+      Map<Object, Map<String, Object>> users = sqlSession.selectMap(NAMESPACE + "getUsers", "NAME");
+      assertEquals(Integer.valueOf(2), users.get("john").get("ID"));
+    } finally {
+      sqlSession.close();
+    }
+    Map<String, Object> jane = selectRows(compactSqlSessionFactory, "getUsers").get(0);
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    ObjectOutputStream out = new ObjectOutputStream(bytes);
+    out.writeObject(jane);
+    out.close();
+    Object copy = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())).readObject();
+    assertEquals(jane, copy);
+    assertEquals(jane.hashCode(), copy.hashCode());
+  }
+
+  private void assertSameRows(String statement) {
+    List<Map<String, Object>> expected = selectRows(sqlSessionFactory, statement);
+    List<Map<String, Object>> actual = selectRows(compactSqlSessionFactory, statement);
+    assertEquals(expected, actual);
+  }
+
+  private List<Map<String, Object>> selectRows(SqlSessionFactory factory, String statement) {
+    SqlSession sqlSession = factory.openSession();
+    try {
+      return sqlSession.selectList(NAMESPACE + statement);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
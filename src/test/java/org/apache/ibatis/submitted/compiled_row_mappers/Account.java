@@ -0,0 +1,47 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mappers;
+
+public class Account {
+
+  private final Integer id;
+  private final String userName;
+  private final Double score;
+
+  public Account(Integer id, String userName, Double score) {
+    this.id = id;
+    this.userName = userName;
+    this.score = score;
+  }
+
+  public Integer getId() {
+    return id;
+  }
+
+  public String getUserName() {
+    return userName;
+  }
+
+  public Double getScore() {
+    return score;
+  }
+
+  @Override
+  public String toString() {
+    return "Account[" + id + ", " + userName + ", " + score + "]";
+  }
+
+}
@@ -0,0 +1,156 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.compiled_row_mappers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class CompiledRowMappersTest {
+
+  private static SqlSessionFactory sqlSessionFactory;
+  private static SqlSessionFactory compiledSqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    sqlSessionFactory = createSqlSessionFactory();
+    compiledSqlSessionFactory = createSqlSessionFactory();
+    compiledSqlSessionFactory.getConfiguration().setUseCompiledRowMappers(true);
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mappers/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    conn.close();
+    reader.close();
+    session.close();
+  }
+
+  private static SqlSessionFactory createSqlSessionFactory() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/compiled_row_mappers/mybatis-config.xml");
+    try {
+      return new SqlSessionFactoryBuilder().build(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void shouldMapExplicitResultMapsLikeReflection() {
+    assertSameRows("getUsersMapped");
+    assertSameRows("getUsersPartiallyMapped");
+  }
+
+  @Test
+  public void shouldAutoMapLikeReflection() {
+    assertSameRows("getUsersAutoMapped");
+    assertSameRows("getUsersWithFewerColumns");
+  }
+
+  @Test
+  public void shouldMapNonPublicTypesLikeReflection() {
+    assertSameRows("getPets");
+  }
+
+  @Test
+  public void shouldMapConstructorsLikeReflection() {
+    assertSameRows("getAccountsMapped");
+    assertSameRows("getAccountsAutoMapped");
+    assertSameRows("getBadges");
+  }
+
+  @Test
+  public void shouldPassConstructorArgumentsAndNulls() {
+    SqlSession sqlSession = compiledSqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      for (int i = 0; i < 2; i++) {
+        List<Account> accounts = mapper.getAccountsMapped();
+        assertEquals(2, accounts.size());
+        Account jane = accounts.get(0);
+        assertEquals(Integer.valueOf(1), jane.getId());
+        assertEquals("jane", jane.getUserName());
+        assertEquals(Double.valueOf(12.5), jane.getScore());
+        Account empty = accounts.get(1);
+        assertEquals(Integer.valueOf(2), empty.getId());
+        assertNull(empty.getUserName());
+        assertNull(empty.getScore());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldSetPropertiesAndNulls() {
+    SqlSession sqlSession = compiledSqlSessionFactory.openSession();
+    try {
+      Mapper mapper = sqlSession.getMapper(Mapper.class);
+      // the second statement reuses the mapper compiled for the first
+      for (int i = 0; i < 2; i++) {
+        List<User> users = mapper.getUsersAutoMapped();
+        assertEquals(2, users.size());
+        User jane = users.get(0);
+        assertEquals(Integer.valueOf(1), jane.getId());
+        assertEquals("jane", jane.getUserName());
+        assertEquals(12.5, jane.getScore(), 0);
+        assertEquals(Boolean.TRUE, jane.getActive());
+        assertEquals("jane@example.com", jane.getEmail());
+        User empty = users.get(1);
+        assertNull(empty.getUserName());
+        assertTrue(empty.nullNameReceived);
+        assertEquals(0, empty.getScore(), 0);
+        assertNull(empty.getEmail());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertSameRows(String statement) {
+    assertEquals(selectRows(sqlSessionFactory, statement), selectRows(compiledSqlSessionFactory, statement));
+  }
+
+  private List<String> selectRows(SqlSessionFactory factory, String statement) {
+    SqlSession sqlSession = factory.openSession();
+    try {
+      List<String> rows = new ArrayList<String>();
+      for (Object row : sqlSession.selectList("org.apache.ibatis.submitted.compiled_row_mappers.Mapper." + statement)) {
+        rows.add(row instanceof Pet ? ((Pet) row).getId() + ":" + ((Pet) row).getName() : row.toString());
+      }
+      return rows;
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}
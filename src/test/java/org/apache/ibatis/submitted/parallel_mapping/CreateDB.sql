@@ -0,0 +1,35 @@
+--
+--    Copyright 2009-2026 the original author or authors.
+--
+--    Licensed under the Apache License, Version 2.0 (the "License");
+--    you may not use this file except in compliance with the License.
+--    You may obtain a copy of the License at
+--
+--       http://www.apache.org/licenses/LICENSE-2.0
+--
+--    Unless required by applicable law or agreed to in writing, software
+--    distributed under the License is distributed on an "AS IS" BASIS,
+--    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+--    See the License for the specific language governing permissions and
+--    limitations under the License.
+--
+
+
+drop table item if exists;
+drop table owner if exists;
+
+create table owner (
+  id int,
+  name varchar(20)
+);
+
+create table item (
+  id int,
+  name varchar(20),
+  kind char(1),
+  price decimal(10,2),
+  owner_id int
+);
+
+insert into owner (id, name) values (1, 'jane');
+insert into owner (id, name) values (2, 'john');
@@ -0,0 +1,177 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.parallel_mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class ParallelMappingTest {
+
+  private static final String NAMESPACE = "org.apache.ibatis.submitted.parallel_mapping.Mapper.";
+
+  // several batches of rows for each worker
+  private static final int ITEM_COUNT = 5000;
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapping/mybatis-config.xml");
+    sqlSessionFactory = new SqlSessionFactoryBuilder().build(reader);
+    reader.close();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/parallel_mapping/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    reader.close();
+    PreparedStatement ps = conn.prepareStatement("insert into item (id, name, kind, price, owner_id) values (?, ?, ?, ?, ?)");
+    for (int i = 1; i <= ITEM_COUNT; i++) {
+      ps.setInt(1, i);
+      ps.setString(2, "item" + i);
+      ps.setString(3, i % 10 == 0 ? "O" : "P");
+      ps.setBigDecimal(4, BigDecimal.valueOf(i, 2));
+      ps.setInt(5, i % 2 + 1);
+      ps.addBatch();
+    }
+    ps.executeBatch();
+    ps.close();
+    conn.commit();
+    conn.close();
+    session.close();
+  }
+
+  @Test
+  public void shouldMapTheSameItemsInTheSameOrder() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.selectList(NAMESPACE + "getItems");
+      List<Item> expected = sqlSession.selectList(NAMESPACE + "getItemsSequentially");
+      assertEquals(ITEM_COUNT, items.size());
+      for (int i = 0; i < ITEM_COUNT; i++) {
+        assertSameItem(expected.get(i), items.get(i));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldApplyRowBounds() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.selectList(NAMESPACE + "getItems", null, new RowBounds(10, 600));
+      assertEquals(600, items.size());
+      for (int i = 0; i < items.size(); i++) {
+        assertEquals(Integer.valueOf(i + 11), items.get(i).getId());
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldHandOverItemsInOrderUntilStopped() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Integer> ids = new ArrayList<Integer>();
+      sqlSession.select(NAMESPACE + "getItems", new ResultHandler<Item>() {
+        @Override
+        public void handleResult(ResultContext<? extends Item> resultContext) {
+          ids.add(resultContext.getResultObject().getId());
+          if (ids.size() == 1000) {
+            resultContext.stop();
+          }
+        }
+      });
+      assertEquals(1000, ids.size());
+      for (int i = 0; i < ids.size(); i++) {
+        assertEquals(Integer.valueOf(i + 1), ids.get(i));
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldFetchItemsInOrderFromCursor() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<Item> items = sqlSession.getMapper(Mapper.class).getItemCursor();
+      int count = 0;
+      for (Item item : items) {
+        count++;
+        assertEquals(Integer.valueOf(count), item.getId());
+        assertEquals("item" + count, item.getName());
+        assertEquals(BigDecimal.valueOf(count, 2), item.getPrice());
+      }
+      items.close();
+      assertEquals(ITEM_COUNT, count);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldMapRowsWithNestedQueriesOnTheReadingThread() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      List<Item> items = sqlSession.selectList(NAMESPACE + "getItemsWithOwners");
+      assertEquals(ITEM_COUNT, items.size());
+      for (int i = 0; i < ITEM_COUNT; i++) {
+        Item item = items.get(i);
+        assertEquals(Integer.valueOf(i + 1), item.getId());
+        if ("O".equals(item.getKind())) {
+          assertEquals(item.getId() % 2 == 0 ? "jane" : "john", item.getOwner().getName());
+        } else {
+          assertNull(item.getOwner());
+        }
+      }
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  private void assertSameItem(Item expected, Item actual) {
+    assertEquals(expected.getId(), actual.getId());
+    assertEquals(expected.getName(), actual.getName());
+    assertEquals(expected.getKind(), actual.getKind());
+    assertEquals(expected.getPrice(), actual.getPrice());
+  }
+
+}
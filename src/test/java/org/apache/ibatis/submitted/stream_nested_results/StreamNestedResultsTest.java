@@ -0,0 +1,127 @@
+/**
+ *    Copyright 2009-2026 the original author or authors.
+ *
+ *    Licensed under the Apache License, Version 2.0 (the "License");
+ *    you may not use this file except in compliance with the License.
+ *    You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *    Unless required by applicable law or agreed to in writing, software
+ *    distributed under the License is distributed on an "AS IS" BASIS,
+ *    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *    See the License for the specific language governing permissions and
+ *    limitations under the License.
+ */
+package org.apache.ibatis.submitted.stream_nested_results;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.Reader;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.executor.ExecutorException;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.jdbc.ScriptRunner;
+import org.apache.ibatis.session.ResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.SqlSessionFactoryBuilder;
+import org.junit.BeforeClass;
+import org.junit.Test;
+
+public class StreamNestedResultsTest {
+
+  private static final String GET_ORDERS = "org.apache.ibatis.submitted.stream_nested_results.Mapper.getOrders";
+
+  private static SqlSessionFactory sqlSessionFactory;
+
+  @BeforeClass
+  public static void setUp() throws Exception {
+    sqlSessionFactory = createSqlSessionFactory();
+
+    // populate in-memory database
+    SqlSession session = sqlSessionFactory.openSession();
+    Connection conn = session.getConnection();
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/stream_nested_results/CreateDB.sql");
+    ScriptRunner runner = new ScriptRunner(conn);
+    runner.setLogWriter(null);
+    runner.runScript(reader);
+    conn.close();
+    reader.close();
+    session.close();
+  }
+
+  private static SqlSessionFactory createSqlSessionFactory() throws Exception {
+    Reader reader = Resources.getResourceAsReader("org/apache/ibatis/submitted/stream_nested_results/mybatis-config.xml");
+    try {
+      return new SqlSessionFactoryBuilder().build(reader);
+    } finally {
+      reader.close();
+    }
+  }
+
+  @Test
+  public void shouldHandOverCompleteOrdersToResultHandler() {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      final List<Integer> lineCounts = new ArrayList<Integer>();
+      sqlSession.select(GET_ORDERS, new ResultHandler<Order>() {
+        @Override
+        public void handleResult(ResultContext<? extends Order> resultContext) {
+          // the lines of an order are complete when the order is handed over
+          lineCounts.add(resultContext.getResultObject().getLines().size());
+        }
+      });
+      assertEquals(Arrays.asList(2, 1, 3), lineCounts);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldHandOverCompleteOrdersToCursor() throws Exception {
+    SqlSession sqlSession = sqlSessionFactory.openSession();
+    try {
+      Cursor<Order> orders = sqlSession.getMapper(Mapper.class).getOrders();
+      List<Integer> lineCounts = new ArrayList<Integer>();
+      List<String> customers = new ArrayList<String>();
+      for (Order order : orders) {
+        lineCounts.add(order.getLines().size());
+        customers.add(order.getCustomer());
+      }
+      orders.close();
+      assertEquals(Arrays.asList(2, 1, 3), lineCounts);
+      assertEquals(Arrays.asList("jane", "john", "mary"), customers);
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+  @Test
+  public void shouldRejectResultHandlerWhenNotStreaming() throws Exception {
+    SqlSessionFactory notStreaming = createSqlSessionFactory();
+    notStreaming.getConfiguration().setStreamNestedResults(false);
+    SqlSession sqlSession = notStreaming.openSession();
+    try {
+      sqlSession.select(GET_ORDERS, new ResultHandler<Order>() {
+        @Override
+        public void handleResult(ResultContext<? extends Order> resultContext) {
+        }
+      });
+      fail();
+    } catch (PersistenceException e) {
+      assertEquals(ExecutorException.class, e.getCause().getClass());
+    } finally {
+      sqlSession.close();
+    }
+  }
+
+}